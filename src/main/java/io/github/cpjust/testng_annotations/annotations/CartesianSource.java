@@ -0,0 +1,79 @@
+package io.github.cpjust.testng_annotations.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a test method with every combination of the values of its parameters (their cartesian product).
+ * The values of each parameter come from its {@link ValueSource}, {@link NullSource}, {@link EmptySource},
+ * {@link NullAndEmptySource} and/or {@link EnumSource} annotations. Enum and boolean parameters without any of these
+ * annotations use all their constants, or false and true.
+ * <br/>
+ * The combinations are generated one at a time while the tests run, so even a product of millions of combinations uses
+ * a constant amount of memory. The last parameter changes the fastest.
+ * <br/>
+ * If the product is too large to run, {@link #strength()} runs a covering array instead: a small set of rows where
+ * every combination of the values of any <code>strength</code> parameters appears in at least one row, ex. every pair
+ * of values for pairwise testing.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * @Test
+ * @CartesianSource
+ * public void testResize(@EnumSource(Format.class) Format format, @ValueSource(ints = {1, 16, 4096}) int width,
+ *                        boolean keepAspectRatio) {
+ *     // Runs 3 * 2 = 6 times for each Format constant.
+ * }
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CartesianSource {
+    /**
+     * Whether to only use this JVM's shard of the combinations, which is set by the <code>-Ddata.shard=index/total</code>
+     * system property (see {@link io.github.cpjust.testng_annotations.listeners.scheduling.ShardInterceptor} for the index).
+     * If the property isn't set, all the combinations are used.
+     *
+     * @return True to only use the combinations of the current shard. Defaults to false.
+     */
+    boolean sharded() default false;
+
+    /**
+     * The number of parameters whose value combinations must all be covered, ex. 2 for pairwise testing or 3 for 3-wise
+     * testing. The rows are generated with the IPOG algorithm, so 8 parameters with 5 values each need fewer than 50
+     * pairwise rows instead of 390625. A value of 0, or at least the number of parameters, runs every combination.
+     *
+     * @return The strength of the covering array. Defaults to 0.
+     */
+    int strength() default 0;
+
+    /**
+     * The seed that chooses between equally good values when generating the covering array of {@link #strength()}.
+     * The same seed and parameter values always generate the same rows.
+     *
+     * @return The seed of the covering array. Defaults to 0.
+     */
+    long seed() default 0;
+
+    /**
+     * Whether TestNG may run the combinations in parallel, using up to <code>data-provider-thread-count</code> threads
+     * (10 by default) of the suite.
+     *
+     * @return True to run the combinations in parallel. Defaults to false.
+     */
+    boolean parallel() default false;
+
+    /**
+     * The maximum number of combinations of this method that run at the same time, ex. to avoid overloading a shared
+     * service with {@link #parallel()}. A value of 0 doesn't limit the combinations beyond the data provider thread count.
+     *
+     * @return The maximum number of concurrent invocations. Defaults to 0.
+     */
+    int maxConcurrency() default 0;
+}
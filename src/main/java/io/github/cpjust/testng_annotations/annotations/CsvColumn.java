@@ -0,0 +1,21 @@
+package io.github.cpjust.testng_annotations.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the CSV header name of the column that a constructor parameter is bound to by {@link CsvRow} with
+ * <code>header = true</code>.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface CsvColumn {
+    /**
+     * The name of the column in the CSV header.
+     */
+    String value();
+}
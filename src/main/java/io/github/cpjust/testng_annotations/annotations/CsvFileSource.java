@@ -0,0 +1,115 @@
+package io.github.cpjust.testng_annotations.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation that provides the rows of CSV files as parameters for a parameterized test method.
+ * Works similarly to JUnit's CsvFileSource.
+ * <br/>
+ * The files are read lazily one row at a time while the tests run, so even very large files use a constant amount of
+ * memory. The rows are parsed and converted to the parameter types the same way as {@link CsvSource} rows. For very large files, use {@link #memoryMapped()}
+ * and select only the {@link #columns()} the test needs.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CsvFileSource {
+    /**
+     * The classpath resources to read, resolved relative to the test class (use a leading '/' for an absolute path,
+     * ex. "/data/users.csv").
+     * NOTE: At least one resource or file must be set.
+     */
+    String[] resources() default {};
+
+    /**
+     * The files to read, resolved relative to the working directory.
+     * NOTE: At least one resource or file must be set.
+     */
+    String[] files() default {};
+
+    /**
+     * The character set of the files. Defaults to UTF-8.
+     */
+    String encoding() default "UTF-8";
+
+    /**
+     * The number of lines to skip at the start of each file (ex. 1 to skip a header line). Defaults to 0.
+     */
+    int numLinesToSkip() default 0;
+
+    /**
+     * The delimiter to use for splitting values. Defaults to ','.
+     * NOTE: You cannot use a newline '\n' or the quote character as a delimiter.
+     */
+    char delimiter() default ',';
+
+    /**
+     * The character used to quote values. Defaults to double quote '"', which is what most CSV files use.
+     * NOTE: You cannot use the delimiter character as a quote character.
+     */
+    char quoteCharacter() default '"';
+
+    /**
+     * Whether to trim leading and trailing whitespace from each parameter value.
+     * Defaults to true.
+     */
+    boolean trimWhitespace() default true;
+
+    /**
+     * The zero-based indexes of the columns to pass to the test method, one for each parameter and in parameter order
+     * (ex. {2, 0} passes the third column as the first parameter and the first column as the second parameter).
+     * The other columns are never converted to Strings.
+     * Defaults to all columns, in which case every row must have exactly as many columns as the method has parameters.
+     */
+    int[] columns() default {};
+
+    /**
+     * Whether to memory-map the files and locate the fields directly in the mapped bytes instead of decoding every
+     * character, which is much faster for very large files, especially with {@link #columns()}.
+     * Only supported for UTF-8 and single-byte encodings like ISO-8859-1; classpath resources inside a jar are read
+     * without memory-mapping.
+     * Defaults to false.
+     */
+    boolean memoryMapped() default false;
+
+    /**
+     * The zero-based index of the first row to use, ex. to split a large table across several test methods. The rows are
+     * numbered after the skipped lines and the header row (with {@link CsvRow#header()}), and the rows of all the files are numbered together in order.
+     * Defaults to 0.
+     */
+    long fromRow() default 0;
+
+    /**
+     * The zero-based index after the last row to use, ex. <code>fromRow = 100, toRow = 200</code> uses 100 rows.
+     * Defaults to all the rows.
+     */
+    long toRow() default Long.MAX_VALUE;
+
+    /**
+     * Whether to only use this JVM's shard of the rows (after the row range is applied), which is set by the
+     * <code>-Ddata.shard=index/total</code> system property (ex. <code>-Ddata.shard=1/8</code> uses the second of 8
+     * contiguous slices of the rows; {@link io.github.cpjust.testng_annotations.listeners.scheduling.ShardInterceptor}
+     * describes the index), so a large table can be split across several CI agents.
+     * If the property isn't set, all the rows are used.
+     * Defaults to false.
+     */
+    boolean sharded() default false;
+
+    /**
+     * Whether TestNG may run the rows in parallel, using up to <code>data-provider-thread-count</code> threads (10 by
+     * default) of the suite.
+     * Defaults to false.
+     */
+    boolean parallel() default false;
+
+    /**
+     * The maximum number of rows of this method that run at the same time, ex. to avoid overloading a shared service
+     * with {@link #parallel()}. A value of 0 doesn't limit the rows beyond the data provider thread count.
+     * Defaults to 0.
+     */
+    int maxConcurrency() default 0;
+}
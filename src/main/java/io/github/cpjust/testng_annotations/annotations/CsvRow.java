@@ -0,0 +1,29 @@
+package io.github.cpjust.testng_annotations.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds each whole row of a {@link CsvSource} or {@link CsvFileSource} to the annotated test method parameter, by calling
+ * the constructor of the parameter type with the converted column values. The parameter must be the only parameter of
+ * the test method.
+ * <br/>
+ * The constructor is the canonical constructor of a record, or else the only constructor with parameters of the type.
+ * Its parameters are converted the same way as the parameters of a {@link CsvSource} test method.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface CsvRow {
+    /**
+     * Whether the first row of the source (or of each file, after the skipped lines) is a header with the column names.
+     * If true, the constructor parameters are bound to the columns by name, using the {@link CsvColumn} name of the
+     * parameter, or else the record component name or the parameter name (which requires compiling with -parameters).
+     * If false, the constructor parameters are bound to the columns by position.
+     * Defaults to false.
+     */
+    boolean header() default false;
+}
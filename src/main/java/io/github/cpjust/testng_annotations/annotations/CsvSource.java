@@ -9,6 +9,10 @@ import java.lang.annotation.Target;
 /**
  * Annotation that provides a comma-separated list of values for a parameterized test method.
  * Works similarly to JUnit's CsvSource.
+ * <br/>
+ * The values are converted to the parameter types of the test method: Strings, primitives and their boxed types, enums,
+ * <code>java.time</code> types, and any type with a static <code>valueOf(String)</code> or <code>parse(CharSequence)</code>
+ * method or a String constructor (ex. BigDecimal). An empty value is null for all types except Strings (which stay empty), and primitives can't be empty.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -16,8 +20,17 @@ import java.lang.annotation.Target;
 public @interface CsvSource {
     /**
      * The CSV lines to use as arguments. Each line is split into parameters.
+     * NOTE: Either this or {@link #textBlock()} must be set, but not both.
      */
-    String[] value();
+    String[] value() default {};
+
+    /**
+     * The CSV rows to use as arguments as a single multi-line string (ex. a Java text block), where each line is one row.
+     * Blank lines are skipped, and quoted values may contain newlines. This is parsed in a single pass, so it's faster
+     * than {@link #value()} for large tables.
+     * NOTE: Either this or {@link #value()} must be set, but not both.
+     */
+    String textBlock() default "";
 
     /**
      * The delimiter to use for splitting values. Defaults to ','.
@@ -36,4 +49,41 @@ public @interface CsvSource {
      * Defaults to true.
      */
     boolean trimWhitespace() default true;
+
+    /**
+     * The zero-based index of the first row to use, ex. to split a large table across several test methods. The rows are
+     * numbered after the skipped lines and the header row (with {@link CsvRow#header()}).
+     * Defaults to 0.
+     */
+    long fromRow() default 0;
+
+    /**
+     * The zero-based index after the last row to use, ex. <code>fromRow = 100, toRow = 200</code> uses 100 rows.
+     * Defaults to all the rows.
+     */
+    long toRow() default Long.MAX_VALUE;
+
+    /**
+     * Whether to only use this JVM's shard of the rows (after the row range is applied), which is set by the
+     * <code>-Ddata.shard=index/total</code> system property (ex. <code>-Ddata.shard=1/8</code> uses the second of 8
+     * contiguous slices of the rows; {@link io.github.cpjust.testng_annotations.listeners.scheduling.ShardInterceptor}
+     * describes the index), so a large table can be split across several CI agents.
+     * If the property isn't set, all the rows are used.
+     * Defaults to false.
+     */
+    boolean sharded() default false;
+
+    /**
+     * Whether TestNG may run the rows in parallel, using up to <code>data-provider-thread-count</code> threads (10 by
+     * default) of the suite.
+     * Defaults to false.
+     */
+    boolean parallel() default false;
+
+    /**
+     * The maximum number of rows of this method that run at the same time, ex. to avoid overloading a shared service
+     * with {@link #parallel()}. A value of 0 doesn't limit the rows beyond the data provider thread count.
+     * Defaults to 0.
+     */
+    int maxConcurrency() default 0;
 }
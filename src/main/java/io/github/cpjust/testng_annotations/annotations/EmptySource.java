@@ -23,9 +23,11 @@ import java.lang.annotation.Target;
  *     </ul>
  *   </li>
  * </ul>
+ * <p>
+ * On a parameter of a {@link CartesianSource} test method, it adds the empty value to the values of that parameter.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.PARAMETER})
 public @interface EmptySource {
 }
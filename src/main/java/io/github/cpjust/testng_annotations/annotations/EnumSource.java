@@ -12,10 +12,12 @@ import java.lang.annotation.Target;
  * <p>NOTE: The test method parameter must be declared with the exact enum type
  * specified in this annotation (for example, {@code MyEnum}). Supertypes such as
  * {@code java.lang.Enum} or {@code Object} are not supported.</p>
+ *
+ * <p>On a parameter of a {@link CartesianSource} test method, it provides the constants of that parameter instead.</p>
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.PARAMETER})
 public @interface EnumSource {
 
     /**
@@ -48,6 +50,22 @@ public @interface EnumSource {
      */
     Mode mode() default Mode.INCLUDE;
 
+    /**
+     * Whether TestNG may run the test with each constant in parallel, using up to <code>data-provider-thread-count</code>
+     * threads (10 by default) of the suite.
+     *
+     * @return True to run the constants in parallel. Defaults to false.
+     */
+    boolean parallel() default false;
+
+    /**
+     * The maximum number of constants of this method that are tested at the same time, ex. to avoid overloading a shared
+     * service with {@link #parallel()}. A value of 0 doesn't limit the constants beyond the data provider thread count.
+     *
+     * @return The maximum number of concurrent invocations. Defaults to 0.
+     */
+    int maxConcurrency() default 0;
+
     /**
      * Mode controls how {@link #names()} is interpreted when selecting enum constants.
      */
@@ -0,0 +1,72 @@
+package io.github.cpjust.testng_annotations.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a test method as a property, with randomly generated values for each of its parameters.
+ * The trials are generated one at a time while the tests run, from a seed that is logged so a failing run can be
+ * replayed. If a trial fails, its values are shrunk to a minimal counterexample by calling the test method directly with
+ * simpler values, and the failure is replaced with a {@code ForAllFalsifiedError} that reports the counterexample and
+ * the seed.
+ * <br/>
+ * Supported parameter types are the primitives and their boxed types, String, enums, and Lists, Sets, Collections and
+ * arrays of those types. Use {@link Gen} on a parameter to limit its values.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * @Test
+ * @ForAll(trials = 10_000)
+ * public void testReverseTwice(@Gen(maxSize = 50) List<Integer> list) {
+ *     assertEquals(reverse(reverse(list)), list);
+ * }
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ForAll {
+    /**
+     * The number of trials to run.
+     *
+     * @return The number of trials. Defaults to 100.
+     */
+    int trials() default 100;
+
+    /**
+     * The seed of the generated values, ex. to replay a failing run. If 0, the <code>-Dforall.seed</code> system property
+     * is used if it is set, otherwise a random seed is used.
+     *
+     * @return The seed. Defaults to 0.
+     */
+    long seed() default 0;
+
+    /**
+     * The maximum number of times the test method is called while shrinking a failing trial. 0 disables shrinking, and
+     * the trials of a {@link #parallel()} method are never shrunk.
+     *
+     * @return The maximum number of shrinking attempts. Defaults to 1000.
+     */
+    int maxShrinks() default 1000;
+
+    /**
+     * Whether TestNG may run the trials in parallel, using up to <code>data-provider-thread-count</code> threads
+     * (10 by default) of the suite.
+     *
+     * @return True to run the trials in parallel. Defaults to false.
+     */
+    boolean parallel() default false;
+
+    /**
+     * The maximum number of trials of this method that run at the same time, ex. to avoid overloading a shared service
+     * with {@link #parallel()}. A value of 0 doesn't limit the trials beyond the data provider thread count.
+     *
+     * @return The maximum number of concurrent invocations. Defaults to 0.
+     */
+    int maxConcurrency() default 0;
+}
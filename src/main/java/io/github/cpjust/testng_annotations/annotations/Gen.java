@@ -0,0 +1,75 @@
+package io.github.cpjust.testng_annotations.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the values generated for a parameter of a {@link ForAll} test method. The limits also apply to the elements of
+ * a List, Set, Collection or array parameter.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Gen {
+    /**
+     * The default largest length of Strings and size of collections and arrays, also used for parameters without a
+     * {@link Gen} annotation.
+     */
+    int DEFAULT_MAX_SIZE = 20;
+
+    /**
+     * The smallest value of integer, float and double values (inclusive). Integer values are also limited by their type,
+     * ex. -128 for bytes. If neither this nor {@link #max()} is set, float and double values are between -1,000,000 and
+     * 1,000,000.
+     *
+     * @return The smallest value. Defaults to no limit.
+     */
+    long min() default Long.MIN_VALUE;
+
+    /**
+     * The largest value of integer, float and double values (inclusive).
+     *
+     * @return The largest value. Defaults to no limit.
+     */
+    long max() default Long.MAX_VALUE;
+
+    /**
+     * The smallest length of Strings and size of collections and arrays.
+     *
+     * @return The smallest size. Defaults to 0.
+     */
+    int minSize() default 0;
+
+    /**
+     * The largest length of Strings and size of collections and arrays.
+     *
+     * @return The largest size. Defaults to {@value #DEFAULT_MAX_SIZE}.
+     */
+    int maxSize() default DEFAULT_MAX_SIZE;
+
+    /**
+     * The characters that char values and Strings are made of, where the first character is the simplest one when
+     * shrinking. If empty, the printable ASCII characters are used.
+     *
+     * @return The characters. Defaults to "".
+     */
+    String chars() default "";
+
+    /**
+     * The names of the enum constants to generate, which are interpreted according to {@link #mode()} the same way as
+     * {@link EnumSource#names()}. If empty, all constants are generated.
+     *
+     * @return The names or patterns of the enum constants. Defaults to all constants.
+     */
+    String[] names() default {};
+
+    /**
+     * The mode to use when interpreting the {@link #names()} values.
+     *
+     * @return The matching mode. Defaults to {@link EnumSource.Mode#INCLUDE}.
+     */
+    EnumSource.Mode mode() default EnumSource.Mode.INCLUDE;
+}
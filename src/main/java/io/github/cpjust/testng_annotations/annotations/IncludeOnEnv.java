@@ -13,12 +13,15 @@ import java.lang.annotation.Target;
  * <br/>
  * The following attributes can be used with this annotation:
  * <ul>
- *     <li>value: (required) A list of environment names where the test should be included (case-insensitive).</li>
+ *     <li>value: (required unless expression is set) A list of environment names where the test should be included (case-insensitive).</li>
  *     <li>propertyName: (optional) The name of the Java property to read to get the name of the current environment.  Defaults to "env".</li>
  *     <li>delimiter: (optional) If set, all values in the array will be split on this delimiter as a CSV string and combined into a single list (duplicates removed).
  *     If not set (empty string), values are used as-is. Defaults to "".</li>
+ *     <li>expression: (optional) A boolean expression over one or more properties, used instead of value and propertyName
+ *     (ex. <code>env in (qa, stage) &amp;&amp; region != eu-west-1</code>).</li>
  * </ul>
- * NOTE: The environment names are compared case-insensitively.
+ * NOTE: The environment names are compared case-insensitively, and can contain <code>*</code> (any number of characters)
+ * and <code>?</code> (any single character) wildcards, ex. <code>pr-*</code>.
  * <br/><br/>
  * Tests should be included using the following rules:
  * <br/>
@@ -45,11 +48,12 @@ public @interface IncludeOnEnv {
     /**
      * The environment names to include the test on.
      * You can pass a single environment with a string (ex. "prod") or multiple environments in braces (ex. {"Stage", "Prod"}).
-     * Cannot be null, blank or an empty array, otherwise an IllegalArgumentException is thrown.
+     * Names can contain <code>*</code> and <code>?</code> wildcards (ex. "pr-*").
+     * Cannot be null, blank or an empty array (unless <code>expression</code> is set), otherwise an IllegalArgumentException is thrown.
      *
-     * @return An array of environment names.
+     * @return An array of environment names.  Defaults to an empty array.
      */
-    String[] value();
+    String[] value() default {};
 
     /**
      * The Java property name from which to read the current environment where the tests are being executed
@@ -68,4 +72,16 @@ public @interface IncludeOnEnv {
      * @return The delimiter string. Defaults to "" (no splitting).
      */
     String delimiter() default "";
+
+    /**
+     * A boolean expression over environment properties that decides if the test is included, used instead of
+     * <code>value</code>, <code>propertyName</code> and <code>delimiter</code>.
+     * Supports <code>==</code>, <code>!=</code>, <code>in (...)</code>, <code>not in (...)</code>, <code>!</code>,
+     * <code>&amp;&amp;</code>, <code>||</code> and parentheses, ex. <code>env in (qa, stage) &amp;&amp; region != eu-west-1</code>.
+     * Values are compared case-insensitively. A property that isn't set doesn't equal any value.
+     * Cannot be blank or set together with <code>value</code>, otherwise an IllegalArgumentException is thrown.
+     *
+     * @return The expression.  Defaults to "" (use <code>value</code> instead).
+     */
+    String expression() default "";
 }
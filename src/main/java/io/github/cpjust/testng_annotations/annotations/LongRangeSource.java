@@ -0,0 +1,79 @@
+package io.github.cpjust.testng_annotations.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Provides a range of long values to be used as parameters in a test method, ex. for boundary or scaling sweeps that would
+ * be too large for {@link ValueSource}. The values are generated one at a time while the tests run, so even very large
+ * ranges use a constant amount of memory.
+ * The test method must have exactly 1 parameter of type long or Long.
+ *
+ * Example usage:
+ * <pre>
+ * {@code
+ * @Test
+ * @LongRangeSource(from = 0, to = 1_000_000, step = 7)
+ * public void testWithRange(long value) {
+ *     assertEquals(value % 7, 0);
+ * }
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LongRangeSource {
+    /**
+     * The first value of the range (inclusive).
+     * @return The first value.
+     */
+    long from();
+
+    /**
+     * The end of the range, which is exclusive unless {@link #closed()} is true.
+     * @return The end of the range.
+     */
+    long to();
+
+    /**
+     * The difference between consecutive values. It must be negative if {@link #to()} is less than {@link #from()}, and
+     * cannot be 0.
+     * @return The step. Defaults to 1.
+     */
+    long step() default 1;
+
+    /**
+     * Whether {@link #to()} is included in the range (if it is reached by the step).
+     * @return True if the range is closed. Defaults to false.
+     */
+    boolean closed() default false;
+
+    /**
+     * Whether to only use this JVM's shard of the values, which is set by the <code>-Ddata.shard=index/total</code> system
+     * property (ex. <code>-Ddata.shard=1/8</code> uses the second of 8 contiguous slices of the values; see
+     * {@link io.github.cpjust.testng_annotations.listeners.scheduling.ShardInterceptor} for the index).
+     * If the property isn't set, all the values are used.
+     * @return True to only use the values of the current shard. Defaults to false.
+     */
+    boolean sharded() default false;
+
+    /**
+     * Whether TestNG may run the test with each value in parallel, using up to <code>data-provider-thread-count</code>
+     * threads (10 by default) of the suite.
+     *
+     * @return True to run the values in parallel. Defaults to false.
+     */
+    boolean parallel() default false;
+
+    /**
+     * The maximum number of values of this method that are tested at the same time, ex. to avoid overloading a shared
+     * service with {@link #parallel()}. A value of 0 doesn't limit the values beyond the data provider thread count.
+     *
+     * @return The maximum number of concurrent invocations. Defaults to 0.
+     */
+    int maxConcurrency() default 0;
+}
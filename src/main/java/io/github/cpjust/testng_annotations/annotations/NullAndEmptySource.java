@@ -11,9 +11,11 @@ import java.lang.annotation.Target;
  * Similar to JUnit's @NullAndEmptySource.
  * <p>
  * This is equivalent to using both @NullSource and @EmptySource on the same method.
+ * <p>
+ * On a parameter of a {@link CartesianSource} test method, it adds null and the empty value to the values of that parameter.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.PARAMETER})
 public @interface NullAndEmptySource {
 }
\ No newline at end of file
@@ -9,10 +9,12 @@ import java.lang.annotation.Target;
 /**
  * Indicates that the annotated test method should be invoked with a single null argument.
  * Similar to JUnit's @NullSource.
+ * <p>
+ * On a parameter of a {@link CartesianSource} test method, it adds null to the values of that parameter.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.PARAMETER})
 public @interface NullSource {
 }
 
@@ -23,10 +23,12 @@ import java.lang.annotation.Target;
  * }
  * }
  * </pre>
+ * <p>
+ * On a parameter of a {@link CartesianSource} test method, it provides the values of that parameter instead.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.PARAMETER})
 public @interface ValueSource {
     /**
      * Array of string values to use as parameters.
@@ -87,4 +89,20 @@ public @interface ValueSource {
      * @return Class array of values
      */
     Class<?>[] classes() default {};
+
+    /**
+     * Whether TestNG may run the test with each value in parallel, using up to <code>data-provider-thread-count</code>
+     * threads (10 by default) of the suite.
+     *
+     * @return True to run the values in parallel. Defaults to false.
+     */
+    boolean parallel() default false;
+
+    /**
+     * The maximum number of values of this method that are tested at the same time, ex. to avoid overloading a shared
+     * service with {@link #parallel()}. A value of 0 doesn't limit the values beyond the data provider thread count.
+     *
+     * @return The maximum number of concurrent invocations. Defaults to 0.
+     */
+    int maxConcurrency() default 0;
 }
@@ -0,0 +1,101 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * A listener that removes test classes from the suite definition before TestNG instantiates them, if their class-level
+ * <code>@IncludeOnEnv</code> or <code>@ExcludeOnEnv</code> annotation filters out every test in the class.
+ * This avoids running the constructors, <code>@Factory</code> methods and static initializers of classes that would never run.
+ * <br/>
+ * NOTE: This listener runs before any <code>@BeforeSuite</code> method, so it can only prune classes whose environment
+ * property is set on the command line (ex. <code>-Denv=prod</code>). Classes whose environment property isn't set yet are kept,
+ * and classes that are only added to a test through a <code>&lt;packages&gt;</code> element are not checked.
+ * This listener doesn't filter individual methods, so it should be registered in addition to {@link EnvFilterInterceptor}
+ * (or {@link IncludeOnEnvListener} and {@link ExcludeOnEnvListener}), not instead of them.
+ * To register this listener, either define it in the <code>src/test/resources/META-INF/services/org.testng.ITestNGListener</code>
+ * file or add it to the testng.xml file.
+ */
+@Slf4j
+@NoArgsConstructor
+public class EnvClassPruningListener extends EnvListenerBase implements IAlterSuiteListener {
+    /**
+     * Package-private constructor for unit tests to inject the system properties.
+     *
+     * @param systemProperties The system properties to read the current environments from.
+     */
+    EnvClassPruningListener(Properties systemProperties) {
+        super(systemProperties);
+    }
+
+    /**
+     * Removes every class that would have all its tests filtered out from each test of each suite.
+     *
+     * @param suites The suites that TestNG intends to run.
+     */
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        for (XmlSuite suite : suites) {
+            for (XmlTest test : suite.getTests()) {
+                pruneClasses(test);
+            }
+        }
+    }
+
+    /**
+     * Removes every class that would have all its tests filtered out from a test.
+     *
+     * @param test The test definition to prune.
+     */
+    private void pruneClasses(@NonNull XmlTest test) {
+        List<XmlClass> keptClasses = new ArrayList<>(test.getXmlClasses());
+
+        // Only replace the classes if something was pruned.
+        if (keptClasses.removeIf(this::isPrunable)) {
+            test.setXmlClasses(keptClasses);
+        }
+    }
+
+    /**
+     * Checks if a class in a test definition can be removed because every test in it would be filtered out.
+     *
+     * @param xmlClass The class definition to check.
+     * @return True if the class can be removed, otherwise false.
+     */
+    private boolean isPrunable(@NonNull XmlClass xmlClass) {
+        Class<?> testClass = loadClassWithoutInitializing(xmlClass.getName());
+
+        if ((testClass == null) || !isClassFullyExcluded(testClass)) {
+            return false;
+        }
+
+        log.debug("Pruning class {} because all of its tests are filtered out in the current environment", xmlClass.getName());
+        return true;
+    }
+
+    /**
+     * Loads a class without running its static initializers, since reading its annotations doesn't need them.
+     *
+     * @param className The fully qualified class name.
+     * @return The class, or null if it can't be loaded (in which case TestNG will report the problem itself).
+     */
+    private static Class<?> loadClassWithoutInitializing(String className) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        try {
+            return Class.forName(className, false, (classLoader != null) ? classLoader : EnvClassPruningListener.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.debug("Unable to load class {} to check its environment annotations", className, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A boolean expression over environment properties, as used by the <code>expression</code> attribute of the
+ * <code>@IncludeOnEnv</code> and <code>@ExcludeOnEnv</code> annotations.
+ * Ex. <code>env in (qa, stage) &amp;&amp; region != eu-west-1</code>
+ * <br/>
+ * The operators, from lowest to highest precedence, are:
+ * <ul>
+ *     <li><code>a || b</code></li>
+ *     <li><code>a &amp;&amp; b</code></li>
+ *     <li><code>!a</code> and <code>(a)</code></li>
+ *     <li><code>prop == value</code>, <code>prop != value</code>, <code>prop in (value1, value2)</code> and
+ *     <code>prop not in (value1, value2)</code></li>
+ * </ul>
+ * Property names and values are either words made of letters, digits and <code>_-.:/*?</code> characters, or are quoted with
+ * single or double quotes. Values are compared case-insensitively and can contain wildcards, the same as the
+ * <code>value</code> attribute (see {@link EnvMatcher}). A quoted value can escape the wildcards with a backslash.
+ * A property that isn't set doesn't equal any value, so <code>==</code> and <code>in</code> are false for it while
+ * <code>!=</code> and <code>not in</code> are true.
+ * <br/>
+ * Each expression text is parsed once into a tree of predicates, which is shared by every annotation with the same text.
+ * <br/>
+ * NOTE: This class is also used by the EnvAnnotationProcessor at compile time, so it must not depend on TestNG or any
+ * logging library.
+ */
+public final class EnvExpression {
+    // Parsed expressions by their text. Only valid expressions are cached.
+    private static final Map<String, EnvExpression> PARSED_EXPRESSIONS = new ConcurrentHashMap<>();
+
+    private final Node root;
+    private final Set<String> propertyNames;
+
+    /**
+     * A node of the parsed expression tree.
+     */
+    @FunctionalInterface
+    private interface Node {
+        /**
+         * Evaluates the node.
+         *
+         * @param snapshot The environment properties to evaluate against.
+         * @return The value of the node.
+         */
+        boolean evaluate(EnvSnapshot snapshot);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param root          The root node of the expression tree.
+     * @param propertyNames The names of all properties used in the expression.
+     */
+    private EnvExpression(@NonNull Node root, @NonNull Set<String> propertyNames) {
+        this.root = root;
+        this.propertyNames = Set.copyOf(propertyNames);
+    }
+
+    /**
+     * Parses an expression, or returns the already parsed expression with the same text.
+     *
+     * @param expression     The expression text.
+     * @param annotationName The name of the annotation for error reporting.
+     * @return The parsed expression.
+     * @throws IllegalArgumentException if the expression is invalid.
+     */
+    public static EnvExpression parse(@NonNull String expression, @NonNull String annotationName) {
+        try {
+            return PARSED_EXPRESSIONS.computeIfAbsent(expression, text -> new Parser(text).parse());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    String.format("The 'expression' parameter of the %s annotation is invalid: %s", annotationName, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Creates an expression that is true if a property is equal to any of the given environments.
+     * This is the equivalent of the <code>value</code> and <code>propertyName</code> attributes.
+     *
+     * @param propertyName The system property containing the current environment name.
+     * @param envs         The already split and validated environment names.
+     * @return The expression.
+     */
+    static EnvExpression anyOf(@NonNull String propertyName, @NonNull String[] envs) {
+        Set<String> normalizedEnvs = Arrays.stream(envs)
+                .map(EnvRule::normalize)
+                .collect(Collectors.toUnmodifiableSet());
+        return new EnvExpression(isAnyOf(propertyName, normalizedEnvs), Set.of(propertyName));
+    }
+
+    /**
+     * Gets the names of all properties used in the expression.
+     *
+     * @return The property names.
+     */
+    Set<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param snapshot The environment properties to evaluate against.
+     * @return The value of the expression.
+     */
+    boolean evaluate(@NonNull EnvSnapshot snapshot) {
+        return root.evaluate(snapshot);
+    }
+
+    /**
+     * Creates a node that is true if a property is equal to any of the given values.
+     *
+     * @param propertyName     The property name.
+     * @param normalizedValues The normalized values or patterns to compare against.
+     * @return The node.
+     */
+    private static Node isAnyOf(@NonNull String propertyName, @NonNull Set<String> normalizedValues) {
+        EnvMatcher matcher = EnvMatcher.of(normalizedValues);
+        return snapshot -> snapshot.getNormalizedEnv(propertyName)
+                .map(matcher::matches)
+                .orElse(false);
+    }
+
+    /**
+     * A recursive descent parser for a single expression.
+     */
+    private static final class Parser {
+        private final String text;
+        private final Set<String> propertyNames = new LinkedHashSet<>();
+        private int pos;
+
+        /**
+         * Constructor.
+         *
+         * @param text The expression text.
+         */
+        Parser(@NonNull String text) {
+            this.text = text;
+        }
+
+        /**
+         * Parses the whole expression text.
+         *
+         * @return The parsed expression.
+         * @throws IllegalArgumentException if the expression is invalid.
+         */
+        EnvExpression parse() {
+            Node root = parseOr();
+            skipWhitespace();
+
+            if (pos < text.length()) {
+                throw error(String.format("Unexpected '%c'", text.charAt(pos)));
+            }
+
+            return new EnvExpression(root, propertyNames);
+        }
+
+        /**
+         * Parses <code>a || b || ...</code>.
+         *
+         * @return The parsed node.
+         */
+        private Node parseOr() {
+            Node node = parseAnd();
+
+            while (consume("||")) {
+                Node left = node;
+                Node right = parseAnd();
+                node = snapshot -> left.evaluate(snapshot) || right.evaluate(snapshot);
+            }
+
+            return node;
+        }
+
+        /**
+         * Parses <code>a &amp;&amp; b &amp;&amp; ...</code>.
+         *
+         * @return The parsed node.
+         */
+        private Node parseAnd() {
+            Node node = parseUnary();
+
+            while (consume("&&")) {
+                Node left = node;
+                Node right = parseUnary();
+                node = snapshot -> left.evaluate(snapshot) && right.evaluate(snapshot);
+            }
+
+            return node;
+        }
+
+        /**
+         * Parses <code>!a</code>, <code>(a)</code> or a comparison.
+         *
+         * @return The parsed node.
+         */
+        private Node parseUnary() {
+            if (consume("!")) {
+                Node operand = parseUnary();
+                return snapshot -> !operand.evaluate(snapshot);
+            }
+
+            if (consume("(")) {
+                Node node = parseOr();
+                expect(")");
+                return node;
+            }
+
+            return parseComparison();
+        }
+
+        /**
+         * Parses <code>prop == value</code>, <code>prop != value</code>, <code>prop in (...)</code> or <code>prop not in (...)</code>.
+         *
+         * @return The parsed node.
+         */
+        private Node parseComparison() {
+            String propertyName = parseWord("property name");
+            propertyNames.add(propertyName);
+
+            if (consume("==")) {
+                return isAnyOf(propertyName, Set.of(EnvRule.normalize(parseWord("value"))));
+            }
+
+            if (consume("!=")) {
+                Node node = isAnyOf(propertyName, Set.of(EnvRule.normalize(parseWord("value"))));
+                return snapshot -> !node.evaluate(snapshot);
+            }
+
+            boolean negated = consumeKeyword("not");
+
+            if (!consumeKeyword("in")) {
+                throw error(negated ? "Expected 'in'" : "Expected '==', '!=', 'in' or 'not in'");
+            }
+
+            expect("(");
+            Set<String> normalizedValues = new HashSet<>();
+
+            do {
+                normalizedValues.add(EnvRule.normalize(parseWord("value")));
+            } while (consume(","));
+
+            expect(")");
+
+            Node node = isAnyOf(propertyName, Set.copyOf(normalizedValues));
+            return negated ? (snapshot -> !node.evaluate(snapshot)) : node;
+        }
+
+        /**
+         * Parses a property name or value, which is either a word or a quoted string.
+         *
+         * @param description What is expected, for error reporting.
+         * @return The trimmed word or quoted string.
+         */
+        private String parseWord(@NonNull String description) {
+            skipWhitespace();
+            int start = pos;
+            String word;
+
+            if ((pos < text.length()) && ((text.charAt(pos) == '\'') || (text.charAt(pos) == '"'))) {
+                int end = text.indexOf(text.charAt(pos), pos + 1);
+
+                if (end < 0) {
+                    throw error("Unterminated quoted " + description);
+                }
+
+                word = text.substring(pos + 1, end).trim();
+                pos = end + 1;
+            } else {
+                while ((pos < text.length()) && isWordChar(text.charAt(pos))) {
+                    ++pos;
+                }
+
+                word = text.substring(start, pos);
+            }
+
+            if (word.isEmpty()) {
+                pos = start;
+                throw error("Expected " + description);
+            }
+
+            return word;
+        }
+
+        /**
+         * Consumes a token if it's next in the text.
+         *
+         * @param token The token to consume.
+         * @return True if the token was consumed, otherwise false.
+         */
+        private boolean consume(@NonNull String token) {
+            skipWhitespace();
+
+            if (text.startsWith(token, pos)) {
+                pos += token.length();
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Consumes a case-insensitive keyword if it's the next word in the text.
+         *
+         * @param keyword The keyword to consume.
+         * @return True if the keyword was consumed, otherwise false.
+         */
+        private boolean consumeKeyword(@NonNull String keyword) {
+            skipWhitespace();
+            int end = pos + keyword.length();
+
+            if (text.regionMatches(true, pos, keyword, 0, keyword.length())
+                    && ((end == text.length()) || !isWordChar(text.charAt(end)))) {
+                pos = end;
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Consumes a token that must be next in the text.
+         *
+         * @param token The expected token.
+         * @throws IllegalArgumentException if the token isn't next.
+         */
+        private void expect(@NonNull String token) {
+            if (!consume(token)) {
+                throw error(String.format("Expected '%s'", token));
+            }
+        }
+
+        /**
+         * Skips any whitespace at the current position.
+         */
+        private void skipWhitespace() {
+            while ((pos < text.length()) && Character.isWhitespace(text.charAt(pos))) {
+                ++pos;
+            }
+        }
+
+        /**
+         * Checks if a character can be part of an unquoted property name or value.
+         *
+         * @param c The character to check.
+         * @return True if the character can be part of a word.
+         */
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || (c == '_') || (c == '-') || (c == '.') || (c == ':') || (c == '/')
+                    || (c == '*') || (c == '?');
+        }
+
+        /**
+         * Creates an exception for a syntax error at the current position.
+         *
+         * @param reason The reason for the error.
+         * @return The exception to throw.
+         */
+        private IllegalArgumentException error(@NonNull String reason) {
+            return new IllegalArgumentException(String.format("%s at position %d of '%s'!", reason, pos, text));
+        }
+    }
+}
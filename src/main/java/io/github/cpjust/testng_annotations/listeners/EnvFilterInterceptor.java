@@ -0,0 +1,56 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * A listener for TestNG tests that are annotated with <code>@IncludeOnEnv</code> and/or <code>@ExcludeOnEnv</code>.
+ * It applies the same rules as {@link IncludeOnEnvListener} and {@link ExcludeOnEnvListener} combined, but filters the
+ * list of tests in a single pass, so register it instead of both of those listeners (not in addition to them).
+ * To register this listener, either define it in the <code>src/test/resources/META-INF/services/org.testng.ITestNGListener</code>
+ * file or add the <code>@Listeners({EnvFilterInterceptor.class})</code> annotation to the test class.
+ */
+@Slf4j
+@NoArgsConstructor
+public class EnvFilterInterceptor extends EnvListenerBase implements IMethodInterceptor {
+    /**
+     * Intercepts the list of tests that TestNG intends to run and allows us to modify that list by removing any tests
+     * that are not included by <code>@IncludeOnEnv</code> or are excluded by <code>@ExcludeOnEnv</code> in the current environment.
+     *
+     * @param methods The list of test methods to filter.
+     * @param context Unused.
+     * @return The new list of test methods to run, or the original list if no tests were removed.
+     */
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        return filterMethods(methods, this::shouldRunTest);
+    }
+
+    /**
+     * Determines if a test should be run based on both its <code>@IncludeOnEnv</code> and <code>@ExcludeOnEnv</code> annotations.
+     * The exclusion is checked first since an excluded test is never run.
+     *
+     * @param testClass  The test class to check.
+     * @param testMethod The test method to check.
+     * @return True if the test should be run, otherwise false.
+     */
+    private boolean shouldRunTest(@NonNull Class<?> testClass, @NonNull Method testMethod) {
+        boolean shouldRun = !isExcludedByExcludeOnEnv(testClass, testMethod) && isIncludedByIncludeOnEnv(testClass, testMethod);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Test {}.{} should {}be run",
+                    testClass.getSimpleName(),
+                    testMethod.getName(),
+                    shouldRun ? "" : "NOT ");
+        }
+
+        return shouldRun;
+    }
+}
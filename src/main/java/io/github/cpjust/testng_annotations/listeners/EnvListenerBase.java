@@ -1,28 +1,259 @@
 package io.github.cpjust.testng_annotations.listeners;
 
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
+import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;
+import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;
+import io.github.cpjust.testng_annotations.processors.EnvAnnotationIndex;
+import io.github.cpjust.testng_annotations.processors.EnvAnnotationValidator;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 /**
  * Base class containing common code for *EnvListener classes.
+ * <br/>
+ * The environment properties are read once per suite into an {@link EnvSnapshot}, which is reset when each suite starts.
+ * If a test changes an environment property in the middle of a suite, call {@link #refreshEnvironment()} afterwards.
+ * The decisions of class-level annotations are kept in the snapshot, so they are also discarded when it is refreshed.
  */
 @Slf4j
-@AllArgsConstructor(access = AccessLevel.PACKAGE)
-public abstract class EnvListenerBase {
+public abstract class EnvListenerBase implements ISuiteListener {
+    static final String INCLUDE_ON_ENV = "IncludeOnEnv";
+    static final String EXCLUDE_ON_ENV = "ExcludeOnEnv";
+
     final Properties systemProperties;
 
+    // Compiled rules for each annotated class or method, so the annotation is only read and parsed once.
+    private final Map<AnnotatedElement, Optional<EnvRule>> includeOnEnvRules = new ConcurrentHashMap<>();
+    private final Map<AnnotatedElement, Optional<EnvRule>> excludeOnEnvRules = new ConcurrentHashMap<>();
+    // Compiled rules for each combination of annotation parameters passed to anyEnvMatches().
+    private final Map<List<Object>, EnvRule> parameterRules = new ConcurrentHashMap<>();
+
+    // Annotations indexed at compile time by the EnvAnnotationProcessor, if it was used.
+    private final EnvAnnotationIndex envAnnotationIndex;
+
+    private volatile EnvSnapshot envSnapshot;
+
     /**
      * Constructor.
      */
     protected EnvListenerBase() {
-        this.systemProperties = System.getProperties();
+        this(System.getProperties());
+    }
+
+    /**
+     * Package-private constructor for unit tests to inject the system properties.
+     *
+     * @param systemProperties The system properties to read the current environments from.
+     */
+    EnvListenerBase(@NonNull Properties systemProperties) {
+        this(systemProperties, loadEnvAnnotationIndex());
+    }
+
+    /**
+     * Package-private constructor for unit tests to inject the system properties and annotation index.
+     *
+     * @param systemProperties   The system properties to read the current environments from.
+     * @param envAnnotationIndex The annotations indexed at compile time.
+     */
+    EnvListenerBase(@NonNull Properties systemProperties, @NonNull EnvAnnotationIndex envAnnotationIndex) {
+        this.systemProperties = systemProperties;
+        this.envAnnotationIndex = envAnnotationIndex;
+        this.envSnapshot = new EnvSnapshot(systemProperties);
+    }
+
+    /**
+     * Discards the snapshot of the environment properties when a suite starts, so the suite sees the properties that are
+     * set before it (or in its <code>@BeforeSuite</code> methods).
+     *
+     * @param suite The suite that is starting.
+     */
+    @Override
+    public void onStart(ISuite suite) {
+        refreshEnvironment();
+    }
+
+    /**
+     * Discards the snapshot of the environment properties, so they are read again the next time they are needed.
+     * This is done automatically when each suite starts; only call it if environment properties are changed in the
+     * middle of a suite and the remaining tests need to be filtered using the new values.
+     */
+    public void refreshEnvironment() {
+        envSnapshot = new EnvSnapshot(systemProperties);
+    }
+
+    /**
+     * Filters the list of tests that TestNG intends to run in a single pass.
+     * If no tests are removed, the original list is returned so no new list is allocated.
+     *
+     * @param methods   The list of test methods to filter.
+     * @param shouldRun Returns true if the test method of the given test class should be run.
+     * @return The original list if all tests should be run, otherwise a new list containing only the tests that should be run.
+     */
+    List<IMethodInstance> filterMethods(@NonNull List<IMethodInstance> methods, @NonNull BiPredicate<Class<?>, Method> shouldRun) {
+        List<IMethodInstance> result = null;
+
+        for (int i = 0; i < methods.size(); ++i) {
+            IMethodInstance methodInstance = methods.get(i);
+            Class<?> testClass = methodInstance.getMethod().getRealClass();
+            Method testMethod = methodInstance.getMethod().getConstructorOrMethod().getMethod();
+
+            Objects.requireNonNull(testClass, "testClass was null!");
+            Objects.requireNonNull(testMethod, "testMethod was null!");
+
+            log.debug("intercept() is checking method: {}", testMethod.getName());
+
+            boolean run = shouldRun.test(testClass, testMethod);
+
+            // Only copy the list once the first test is removed.
+            if (!run && (result == null)) {
+                result = new ArrayList<>(methods.subList(0, i));
+            } else if (run && (result != null)) {
+                result.add(methodInstance);
+            }
+        }
+
+        return (result == null) ? methods : result;
+    }
+
+    /**
+     * Determines if a test should be included based on the <code>@IncludeOnEnv</code> annotations of its class and method.
+     * Inclusion rules:
+     * 1. If method is excluded -> exclude test
+     * 2. If method is included -> include test
+     * 3. If method has no annotation and class is excluded -> exclude test
+     * 4. Otherwise -> include test
+     *
+     * @param testClass  The test class to check.
+     * @param testMethod The test method to check.
+     * @return True if the test should be included, otherwise false.
+     */
+    boolean isIncludedByIncludeOnEnv(@NonNull Class<?> testClass, @NonNull Method testMethod) {
+        // Tests should be included using the following rules:
+        // |                     | No class annotation: | Include by class: | Exclude by class: |
+        // | ------------------- | -------------------- | ----------------- | ----------------- |
+        // | No test annotation: |    INCLUDE           |   INCLUDE         |   EXCLUDE         |
+        // | Include by test:    |    INCLUDE           |   INCLUDE         |   INCLUDE         |
+        // | Exclude by test:    |    EXCLUDE           |   EXCLUDE         |   EXCLUDE         |
+
+        EnvSnapshot snapshot = envSnapshot;
+        Optional<EnvRule> classRule = getIncludeOnEnvRule(testClass);
+        Optional<EnvRule> methodRule = getIncludeOnEnvRule(testMethod);
+
+        boolean hasAnnotationOnClass = classRule.isPresent();
+        boolean hasAnnotationOnTest = methodRule.isPresent();
+        boolean shouldIncludeClass = snapshot.isClassIncluded(testClass, classSnapshot -> isIncludedByRule(classRule, classSnapshot));
+        boolean shouldIncludeMethod = isIncludedByRule(methodRule, snapshot);
+        boolean shouldInclude = shouldIncludeMethod;
+
+        if (hasAnnotationOnClass && !shouldIncludeClass) {
+            shouldInclude = (hasAnnotationOnTest && shouldIncludeMethod);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("*** hasAnnotationOnClass: {}, hasAnnotationOnTest: {}, shouldIncludeClass: {}, shouldIncludeMethod: {}",
+                    hasAnnotationOnClass, hasAnnotationOnTest, shouldIncludeClass, shouldIncludeMethod);
+        }
+
+        return shouldInclude;
+    }
+
+    /**
+     * Determines if a test should be excluded based on the <code>@ExcludeOnEnv</code> annotations of its class and method.
+     * Exclusion rules:
+     * 1. If either class or method is excluded -> exclude test
+     * 2. Otherwise -> include test
+     *
+     * @param testClass  The test class to check.
+     * @param testMethod The test method to check.
+     * @return True if the class or method should be excluded, otherwise false.
+     */
+    boolean isExcludedByExcludeOnEnv(@NonNull Class<?> testClass, @NonNull Method testMethod) {
+        // Tests should be excluded using the following rules:
+        // |                     | No class annotation: | Include by class: | Exclude by class: |
+        // | ------------------- | -------------------- | ----------------- | ----------------- |
+        // | No test annotation: |    INCLUDE           |   INCLUDE         |   EXCLUDE         |
+        // | Include by test:    |    INCLUDE           |   INCLUDE         |   EXCLUDE         |
+        // | Exclude by test:    |    EXCLUDE           |   EXCLUDE         |   EXCLUDE         |
+
+        EnvSnapshot snapshot = envSnapshot;
+        return snapshot.isClassExcluded(testClass, classSnapshot -> isExcludedByRule(getExcludeOnEnvRule(testClass), classSnapshot))
+                || isExcludedByRule(getExcludeOnEnvRule(testMethod), snapshot);
+    }
+
+    /**
+     * Determines if every test in a class would be removed by its class-level <code>@IncludeOnEnv</code> or
+     * <code>@ExcludeOnEnv</code> annotation, so the class doesn't need to be instantiated at all.
+     * This is conservative: if the environment property of a rule isn't set yet (ex. it's set in a <code>@BeforeSuite</code>
+     * method) or any method of the class could still be included by its own <code>@IncludeOnEnv</code>, the class is kept.
+     *
+     * @param testClass The test class to check.
+     * @return True if every test in the class would be filtered out, otherwise false.
+     */
+    boolean isClassFullyExcluded(@NonNull Class<?> testClass) {
+        Optional<EnvRule> excludeRule = getExcludeOnEnvRule(testClass);
+
+        if (excludeRule.isPresent() && isPropertySet(excludeRule.get()) && currentEnvMatches(excludeRule.get())) {
+            return true;
+        }
+
+        Optional<EnvRule> includeRule = getIncludeOnEnvRule(testClass);
+
+        if (includeRule.isEmpty() || !isPropertySet(includeRule.get()) || currentEnvMatches(includeRule.get())) {
+            return false;
+        }
+
+        // A method-level @IncludeOnEnv overrides a class-level @IncludeOnEnv that doesn't match.
+        return !anyMethodMightBeIncluded(testClass);
+    }
+
+    /**
+     * Checks if any method declared in the class or its superclasses has an <code>@IncludeOnEnv</code> annotation which
+     * matches the current environment, or whose environment property isn't set yet.
+     *
+     * @param testClass The test class to check.
+     * @return True if any method might be included by its own <code>@IncludeOnEnv</code> annotation, otherwise false.
+     */
+    private boolean anyMethodMightBeIncluded(@NonNull Class<?> testClass) {
+        for (Class<?> clazz = testClass; (clazz != null) && (clazz != Object.class); clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                Optional<EnvRule> methodRule = getIncludeOnEnvRule(method);
+
+                if (methodRule.isPresent() && (!isPropertySet(methodRule.get()) || currentEnvMatches(methodRule.get()))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if all environment properties of a compiled rule are set.
+     *
+     * @param rule The compiled rule to check.
+     * @return True if all of the rule's system properties are set, otherwise false.
+     */
+    private boolean isPropertySet(@NonNull EnvRule rule) {
+        EnvSnapshot snapshot = envSnapshot;
+        return rule.getPropertyNames().stream()
+                .allMatch(propertyName -> snapshot.getNormalizedEnv(propertyName).isPresent());
     }
 
     /**
@@ -35,35 +266,174 @@ public abstract class EnvListenerBase {
      * @return True if the current environment matches any of the specified environments.
      */
     boolean anyEnvMatches(@NonNull String propertyName, @NonNull String[] envs, @NonNull String annotationName, @NonNull String delimiter) {
-        if (propertyName.isBlank()) {
-            throw new IllegalArgumentException(String.format("The 'propertyName' parameter of the %s annotation cannot be blank!", annotationName));
+        EnvRule rule = getEnvRule(propertyName, envs, annotationName, delimiter);
+        Optional<String> currentEnv = envSnapshot.getNormalizedEnv(propertyName);
+
+        if (currentEnv.isEmpty()) {
+            log.warn("Environment property '{}' is not set", propertyName);
+            return false;
         }
 
-        if (envs.length == 0) {
-            throw new IllegalArgumentException(String.format("The 'value' parameter of the %s annotation cannot be an empty array!", annotationName));
+        return rule.matches(envSnapshot);
+    }
+
+    /**
+     * Gets the compiled rule of some annotation parameters, validating and compiling it on first use.
+     *
+     * @param propertyName   The system property containing the current environment name.
+     * @param envs           The array of environments to compare against.
+     * @param annotationName The name of the annotation for error reporting.
+     * @param delimiter      The CSV string delimiter to use for splitting values. If empty, values are used as-is.
+     * @return The compiled rule.
+     * @throws IllegalArgumentException if any of the annotation parameters are invalid.
+     */
+    EnvRule getEnvRule(@NonNull String propertyName, @NonNull String[] envs, @NonNull String annotationName, @NonNull String delimiter) {
+        // Copy the envs, so changes to the caller's array don't affect the cached key.
+        List<Object> key = List.of(propertyName, Arrays.asList(envs.clone()), annotationName, delimiter);
+        return parameterRules.computeIfAbsent(key, k -> compileEnvRule(propertyName, envs, annotationName, delimiter));
+    }
+
+    /**
+     * Gets the compiled <code>@IncludeOnEnv</code> rule of a class or method, compiling and caching it on first use.
+     *
+     * @param element The class or method to check.
+     * @return The compiled rule, or empty if the element doesn't have an <code>@IncludeOnEnv</code> annotation.
+     */
+    Optional<EnvRule> getIncludeOnEnvRule(@NonNull AnnotatedElement element) {
+        return includeOnEnvRules.computeIfAbsent(element, e -> lookUpEnvRule(e, IncludeOnEnv.class, INCLUDE_ON_ENV,
+                annotation -> compileEnvRule(annotation.expression(), annotation.propertyName(), annotation.value(), INCLUDE_ON_ENV,
+                        annotation.delimiter())));
+    }
+
+    /**
+     * Gets the compiled <code>@ExcludeOnEnv</code> rule of a class or method, compiling and caching it on first use.
+     *
+     * @param element The class or method to check.
+     * @return The compiled rule, or empty if the element doesn't have an <code>@ExcludeOnEnv</code> annotation.
+     */
+    Optional<EnvRule> getExcludeOnEnvRule(@NonNull AnnotatedElement element) {
+        return excludeOnEnvRules.computeIfAbsent(element, e -> lookUpEnvRule(e, ExcludeOnEnv.class, EXCLUDE_ON_ENV,
+                annotation -> compileEnvRule(annotation.expression(), annotation.propertyName(), annotation.value(), EXCLUDE_ON_ENV,
+                        annotation.delimiter())));
+    }
+
+    /**
+     * Creates the rule of a class or method from the compile-time index if it covers the element (the annotation was already
+     * validated and split by the processor), otherwise by reading and compiling the annotation by reflection.
+     *
+     * @param element         The class or method to check.
+     * @param annotationClass The annotation class.
+     * @param annotationName  The simple name of the annotation.
+     * @param compiler        Compiles the annotation read by reflection.
+     * @param <A>             The annotation type.
+     * @return The rule, or empty if the element doesn't have the annotation.
+     */
+    private <A extends Annotation> Optional<EnvRule> lookUpEnvRule(@NonNull AnnotatedElement element, @NonNull Class<A> annotationClass,
+                                                                   @NonNull String annotationName, @NonNull Function<A, EnvRule> compiler) {
+        if (envAnnotationIndex.covers(element)) {
+            return envAnnotationIndex.getExpression(annotationName, element)
+                    .map(expression -> new EnvRule(EnvExpression.parse(expression, annotationName)))
+                    .or(() -> envAnnotationIndex.getEntry(annotationName, element)
+                            .map(entry -> new EnvRule(entry.getPropertyName(), entry.getEnvs())));
         }
 
-        String currentEnv = systemProperties.getProperty(propertyName);
+        return Optional.ofNullable(element.getAnnotation(annotationClass)).map(compiler);
+    }
 
-        if (currentEnv == null) {
-            log.warn("Environment property '{}' is not set", propertyName);
-            return false;
+    /**
+     * Checks if the current environment (defined by the rule's system properties) matches the compiled rule.
+     * A property that isn't set doesn't match any environment.
+     *
+     * @param rule The compiled rule to check.
+     * @return True if the current environment matches the rule.
+     */
+    boolean currentEnvMatches(@NonNull EnvRule rule) {
+        return currentEnvMatches(rule, envSnapshot);
+    }
+
+    /**
+     * Checks if the environment of a snapshot matches the compiled rule.
+     * A property that isn't set doesn't match any environment.
+     *
+     * @param rule     The compiled rule to check.
+     * @param snapshot The environment properties to check.
+     * @return True if the environment matches the rule.
+     */
+    boolean currentEnvMatches(@NonNull EnvRule rule, @NonNull EnvSnapshot snapshot) {
+        for (String propertyName : rule.getPropertyNames()) {
+            if (snapshot.getNormalizedEnv(propertyName).isEmpty()) {
+                log.warn("Environment property '{}' is not set", propertyName);
+            }
         }
 
-        String[] envList = splitAndValidateEnvs(envs, annotationName, delimiter);
+        return rule.matches(snapshot);
+    }
 
-        // Case-insensitive comparison and trim whitespace
-        return Arrays.stream(envList)
-                .anyMatch(env -> env.equalsIgnoreCase(currentEnv.trim()));
+    /**
+     * Checks if a class or method should be included based on its compiled <code>@IncludeOnEnv</code> rule.
+     *
+     * @param rule     The compiled rule of the class or method, or empty if it doesn't have an <code>@IncludeOnEnv</code> annotation.
+     * @param snapshot The environment properties to check.
+     * @return True if the class or method should be included or doesn't have a <code>@IncludeOnEnv</code> annotation, otherwise false.
+     */
+    private boolean isIncludedByRule(@NonNull Optional<EnvRule> rule, @NonNull EnvSnapshot snapshot) {
+        return rule
+                .map(r -> currentEnvMatches(r, snapshot))
+                .orElse(true); // If no annotation, allow test.
+    }
+
+    /**
+     * Checks if a class or method should be excluded based on its compiled <code>@ExcludeOnEnv</code> rule.
+     *
+     * @param rule     The compiled rule of the class or method, or empty if it doesn't have an <code>@ExcludeOnEnv</code> annotation.
+     * @param snapshot The environment properties to check.
+     * @return True if the class or method should be excluded, otherwise false.
+     */
+    private boolean isExcludedByRule(@NonNull Optional<EnvRule> rule, @NonNull EnvSnapshot snapshot) {
+        return rule
+                .map(r -> currentEnvMatches(r, snapshot))
+                .orElse(false);
+    }
+
+    /**
+     * Validates and compiles the annotation parameters into a reusable rule.
+     *
+     * @param propertyName   The system property containing the current environment name.
+     * @param envs           The array of environments to compare against.
+     * @param annotationName The name of the annotation for error reporting.
+     * @param delimiter      The CSV string delimiter to use for splitting values. If empty, values are used as-is.
+     * @return The compiled rule.
+     * @throws IllegalArgumentException if any of the annotation parameters are invalid.
+     */
+    EnvRule compileEnvRule(@NonNull String propertyName, @NonNull String[] envs, @NonNull String annotationName, @NonNull String delimiter) {
+        EnvAnnotationValidator.validatePropertyNameAndEnvs(propertyName, envs, annotationName);
+        return new EnvRule(propertyName, splitAndValidateEnvs(envs, annotationName, delimiter));
+    }
+
+    /**
+     * Validates and compiles the annotation parameters into a reusable rule, using the expression if it's set.
+     *
+     * @param expression     The boolean expression, or "" to use the other parameters.
+     * @param propertyName   The system property containing the current environment name.
+     * @param envs           The array of environments to compare against.
+     * @param annotationName The name of the annotation for error reporting.
+     * @param delimiter      The CSV string delimiter to use for splitting values. If empty, values are used as-is.
+     * @return The compiled rule.
+     * @throws IllegalArgumentException if any of the annotation parameters are invalid.
+     */
+    EnvRule compileEnvRule(@NonNull String expression, @NonNull String propertyName, @NonNull String[] envs,
+                           @NonNull String annotationName, @NonNull String delimiter) {
+        if (expression.isEmpty()) {
+            return compileEnvRule(propertyName, envs, annotationName, delimiter);
+        }
+
+        EnvAnnotationValidator.validateExpression(expression, envs, annotationName);
+        return new EnvRule(EnvExpression.parse(expression, annotationName));
     }
 
     /**
      * Splits and validates the provided environment names.
-     * <p>
-     * For each string in the {@code envs} array, this method splits it using the specified {@code delimiter}
-     * (if provided and not empty), trims whitespace, filters out empty or blank values, and ensures all
-     * resulting environment names are unique and non-blank.
-     * </p>
+     * See {@link EnvAnnotationValidator#splitAndValidateEnvs(String[], String, String)}.
      *
      * @param envs           The array of environment names or CSV strings to process.
      * @param annotationName The name of the annotation for error reporting.
@@ -72,27 +442,20 @@ public abstract class EnvListenerBase {
      * @throws IllegalArgumentException if any resulting environment name is null or blank.
      */
     String[] splitAndValidateEnvs(@NonNull String[] envs, @NonNull String annotationName, @NonNull String delimiter) {
-        return Arrays.stream(envs)
-                .flatMap(env -> {
-                    if (env == null) { // NOTE: IntelliJ says this condition is always false, but it's not!
-                        throw new IllegalArgumentException(
-                                String.format("The 'value' parameter of the %s annotation cannot contain null elements!", annotationName));
-                    } else if (delimiter.isEmpty()) {
-                        return Stream.of(env);
-                    } else {
-                        return Arrays.stream(env.split(Pattern.quote(delimiter)));
-                    }
-                })
-                .map(env -> {
-                    env = env.trim();
-
-                    if (env.isEmpty()) {
-                        throw new IllegalArgumentException(
-                                String.format("The 'value' parameter of the %s annotation cannot contain blank elements!", annotationName));
-                    }
-                    return env;
-                })
-                .distinct()
-                .toArray(String[]::new);
+        return EnvAnnotationValidator.splitAndValidateEnvs(envs, annotationName, delimiter);
+    }
+
+    /**
+     * Loads the annotations indexed at compile time by the EnvAnnotationProcessor.
+     *
+     * @return The index, or an empty index if it can't be read (in which case annotations are read by reflection).
+     */
+    private static EnvAnnotationIndex loadEnvAnnotationIndex() {
+        try {
+            return EnvAnnotationIndex.load(Thread.currentThread().getContextClassLoader());
+        } catch (IOException e) {
+            log.warn("Unable to read {}, annotations will be read by reflection", EnvAnnotationIndex.RESOURCE_NAME, e);
+            return EnvAnnotationIndex.empty();
+        }
     }
 }
@@ -0,0 +1,293 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Matches a normalized environment name against all the (normalized) environment names of an annotation.
+ * <br/>
+ * Names without wildcards are matched with a single hash lookup. Names with wildcards (<code>*</code> matches any number
+ * of characters and <code>?</code> matches a single character, ex. <code>pr-*</code> or <code>perf-eu-?</code>) are all
+ * combined into one automaton, which is turned into a DFA lazily as names are matched, so matching takes one step per
+ * character of the name no matter how many patterns there are.
+ * <br/>
+ * A wildcard preceded by a backslash (<code>\*</code> or <code>\?</code>) matches itself, and <code>\\</code> matches a
+ * single backslash. Other backslashes match themselves.
+ */
+final class EnvMatcher {
+    private static final char ANY_CHARS = '*';
+    private static final char ANY_CHAR = '?';
+    private static final char ESCAPE = '\\';
+    // The wildcards of a compiled pattern, which can't be confused with the (non-negative) literal characters.
+    private static final int ANY_CHARS_TOKEN = -1;
+    private static final int ANY_CHAR_TOKEN = -2;
+
+    private final Set<String> exactEnvs;
+
+    // The NFA of all patterns. Each pattern of length N has the states 0..N (the position in the pattern), numbered from
+    // the pattern's offset. The last state of a pattern accepts.
+    private final List<int[]> patterns = new ArrayList<>();
+    private final int[] patternOfState;
+    private final int[] positionOfState;
+
+    // The DFA states built so far, by the set of NFA states they represent.
+    private final Map<BitSet, DfaState> dfaStates = new ConcurrentHashMap<>();
+    private final DfaState initialState;
+
+    /**
+     * A state of the lazily built DFA.
+     */
+    private final class DfaState {
+        private final BitSet nfaStates;
+        private final boolean accepting;
+        private final Map<Character, DfaState> transitions = new ConcurrentHashMap<>();
+
+        /**
+         * Constructor.
+         *
+         * @param nfaStates The set of NFA states, already closed over the empty matches of <code>*</code>.
+         */
+        DfaState(@NonNull BitSet nfaStates) {
+            this.nfaStates = nfaStates;
+            this.accepting = nfaStates.stream()
+                    .anyMatch(state -> positionOfState[state] == patterns.get(patternOfState[state]).length);
+        }
+
+        /**
+         * Gets the next state for a character, building it on first use.
+         *
+         * @param c The next character of the environment name.
+         * @return The next state.
+         */
+        DfaState next(char c) {
+            return transitions.computeIfAbsent(c, ch -> getDfaState(step(nfaStates, ch)));
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param normalizedEnvs The normalized environment names, which may contain wildcards and escaped wildcards.
+     */
+    private EnvMatcher(@NonNull Collection<String> normalizedEnvs) {
+        this.exactEnvs = normalizedEnvs.stream()
+                .filter(env -> !isPattern(env))
+                .map(EnvMatcher::unescape)
+                .collect(Collectors.toUnmodifiableSet());
+
+        int stateCount = 0;
+
+        for (String env : normalizedEnvs) {
+            if (isPattern(env)) {
+                int[] pattern = compile(env);
+                patterns.add(pattern);
+                stateCount += pattern.length + 1;
+            }
+        }
+
+        this.patternOfState = new int[stateCount];
+        this.positionOfState = new int[stateCount];
+
+        BitSet startStates = new BitSet(stateCount);
+
+        for (int pattern = 0, state = 0; pattern < patterns.size(); ++pattern) {
+            startStates.set(state);
+
+            for (int position = 0; position <= patterns.get(pattern).length; ++position, ++state) {
+                patternOfState[state] = pattern;
+                positionOfState[state] = position;
+            }
+        }
+
+        this.initialState = patterns.isEmpty() ? null : getDfaState(closure(startStates));
+    }
+
+    /**
+     * Creates a matcher for the environment names of an annotation.
+     *
+     * @param normalizedEnvs The environment names, already normalized with {@link EnvRule#normalize(String)}.
+     * @return The matcher.
+     */
+    static EnvMatcher of(@NonNull Collection<String> normalizedEnvs) {
+        return new EnvMatcher(normalizedEnvs);
+    }
+
+    /**
+     * Checks if an environment name contains any wildcards that aren't escaped.
+     *
+     * @param env The environment name to check.
+     * @return True if the name contains <code>*</code> or <code>?</code> without a backslash before it.
+     */
+    static boolean isPattern(@NonNull String env) {
+        for (int i = 0; i < env.length(); ++i) {
+            char c = env.charAt(i);
+
+            if (isEscape(env, i)) {
+                ++i;
+            } else if ((c == ANY_CHARS) || (c == ANY_CHAR)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the escapes of an environment name without wildcards.
+     *
+     * @param env The environment name.
+     * @return The name that it matches.
+     */
+    private static String unescape(@NonNull String env) {
+        if (env.indexOf(ESCAPE) < 0) {
+            return env;
+        }
+
+        StringBuilder sb = new StringBuilder(env.length());
+
+        for (int i = 0; i < env.length(); ++i) {
+            if (isEscape(env, i)) {
+                ++i;
+            }
+
+            sb.append(env.charAt(i));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Compiles a pattern into the characters it matches, where the wildcards that aren't escaped are replaced by
+     * {@link #ANY_CHARS_TOKEN} and {@link #ANY_CHAR_TOKEN}.
+     *
+     * @param env The pattern.
+     * @return The compiled pattern.
+     */
+    private static int[] compile(@NonNull String env) {
+        int[] tokens = new int[env.length()];
+        int length = 0;
+
+        for (int i = 0; i < env.length(); ++i) {
+            char c = env.charAt(i);
+
+            if (isEscape(env, i)) {
+                tokens[length++] = env.charAt(++i);
+            } else if (c == ANY_CHARS) {
+                tokens[length++] = ANY_CHARS_TOKEN;
+            } else if (c == ANY_CHAR) {
+                tokens[length++] = ANY_CHAR_TOKEN;
+            } else {
+                tokens[length++] = c;
+            }
+        }
+
+        return Arrays.copyOf(tokens, length);
+    }
+
+    /**
+     * Checks if a character of an environment name is a backslash that escapes the next character.
+     *
+     * @param env   The environment name.
+     * @param index The index of the character.
+     * @return True if the character is a backslash before a wildcard or another backslash.
+     */
+    private static boolean isEscape(@NonNull String env, int index) {
+        if ((env.charAt(index) != ESCAPE) || ((index + 1) >= env.length())) {
+            return false;
+        }
+
+        char next = env.charAt(index + 1);
+        return (next == ANY_CHARS) || (next == ANY_CHAR) || (next == ESCAPE);
+    }
+
+    /**
+     * Checks if the current environment matches any of the environment names or patterns.
+     *
+     * @param normalizedEnv The current environment name, already normalized with {@link EnvRule#normalize(String)}.
+     * @return True if the environment matches any name or pattern.
+     */
+    boolean matches(@NonNull String normalizedEnv) {
+        if (exactEnvs.contains(normalizedEnv)) {
+            return true;
+        }
+
+        DfaState state = initialState;
+
+        for (int i = 0; (state != null) && (i < normalizedEnv.length()); ++i) {
+            state = state.next(normalizedEnv.charAt(i));
+
+            if (state.nfaStates.isEmpty()) {
+                return false; // No pattern can match anymore.
+            }
+        }
+
+        return (state != null) && state.accepting;
+    }
+
+    /**
+     * Gets the DFA state for a set of NFA states, so equal sets share the same DFA state.
+     *
+     * @param nfaStates The closed set of NFA states.
+     * @return The DFA state.
+     */
+    private DfaState getDfaState(@NonNull BitSet nfaStates) {
+        return dfaStates.computeIfAbsent(nfaStates, DfaState::new);
+    }
+
+    /**
+     * Moves every NFA state over a character.
+     *
+     * @param nfaStates The current set of NFA states.
+     * @param c         The character to match.
+     * @return The closed set of next NFA states.
+     */
+    private BitSet step(@NonNull BitSet nfaStates, char c) {
+        BitSet next = new BitSet(patternOfState.length);
+
+        for (int state = nfaStates.nextSetBit(0); state >= 0; state = nfaStates.nextSetBit(state + 1)) {
+            int[] pattern = patterns.get(patternOfState[state]);
+            int position = positionOfState[state];
+
+            if (position < pattern.length) {
+                int token = pattern[position];
+
+                if (token == ANY_CHARS_TOKEN) {
+                    next.set(state);
+                } else if ((token == ANY_CHAR_TOKEN) || (token == c)) {
+                    next.set(state + 1);
+                }
+            }
+        }
+
+        return closure(next);
+    }
+
+    /**
+     * Adds the states reached by letting <code>*</code> match nothing.
+     *
+     * @param nfaStates The set of NFA states, which is modified.
+     * @return The same set.
+     */
+    private BitSet closure(@NonNull BitSet nfaStates) {
+        // A '*' only skips forward, so newly added states are visited by the same loop.
+        for (int state = nfaStates.nextSetBit(0); state >= 0; state = nfaStates.nextSetBit(state + 1)) {
+            int[] pattern = patterns.get(patternOfState[state]);
+            int position = positionOfState[state];
+
+            if ((position < pattern.length) && (pattern[position] == ANY_CHARS_TOKEN)) {
+                nfaStates.set(state + 1);
+            }
+        }
+
+        return nfaStates;
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import lombok.NonNull;
+
+import java.util.Set;
+
+/**
+ * A compiled <code>@IncludeOnEnv</code> or <code>@ExcludeOnEnv</code> annotation.
+ * The annotation is split, validated and normalized (or its expression is parsed) once when the rule is created, so
+ * checking the current environment against the rule doesn't need to read the annotation again.
+ */
+final class EnvRule {
+    private final EnvExpression expression;
+
+    /**
+     * Constructor for the <code>value</code> and <code>propertyName</code> attributes.
+     *
+     * @param propertyName The system property containing the current environment name.
+     * @param envs         The already split and validated environment names.
+     */
+    EnvRule(@NonNull String propertyName, @NonNull String[] envs) {
+        this(EnvExpression.anyOf(propertyName, envs));
+    }
+
+    /**
+     * Constructor for the <code>expression</code> attribute.
+     *
+     * @param expression The parsed expression.
+     */
+    EnvRule(@NonNull EnvExpression expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * Gets the names of the system properties that this rule reads.
+     *
+     * @return The property names.
+     */
+    Set<String> getPropertyNames() {
+        return expression.getPropertyNames();
+    }
+
+    /**
+     * Checks if the current environment matches this rule.
+     *
+     * @param snapshot The current environment properties.
+     * @return True if the current environment matches this rule.
+     */
+    boolean matches(@NonNull EnvSnapshot snapshot) {
+        return expression.evaluate(snapshot);
+    }
+
+    /**
+     * Normalizes an environment name so that a case-sensitive lookup gives the same result as
+     * {@link String#equalsIgnoreCase(String)} on the trimmed names.
+     *
+     * @param env The environment name to normalize.
+     * @return The trimmed and case-folded environment name.
+     */
+    static String normalize(@NonNull String env) {
+        String trimmed = env.trim();
+        StringBuilder sb = new StringBuilder(trimmed.length());
+
+        // Same folding that String.equalsIgnoreCase() uses for each character.
+        for (int i = 0; i < trimmed.length(); ++i) {
+            sb.append(Character.toLowerCase(Character.toUpperCase(trimmed.charAt(i))));
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import lombok.NonNull;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * A snapshot of the environment properties read by the env listeners.
+ * Each property is read from the system properties (a synchronized <code>Hashtable</code>) the first time it's needed,
+ * and its trimmed and case-folded value is kept for the lifetime of the snapshot, so parallel tests don't contend on the
+ * system properties lock and the value is only normalized once.
+ * <br/>
+ * The values never change once read; to pick up changed properties, replace the snapshot with a new one
+ * (see {@link EnvListenerBase#refreshEnvironment()}). The decisions of class-level annotations only depend on those
+ * values, so they are also kept for the lifetime of the snapshot.
+ */
+final class EnvSnapshot {
+    private final Properties systemProperties;
+    private final Map<String, Optional<String>> normalizedEnvs = new ConcurrentHashMap<>();
+    // Every method of a class checks the same class-level annotations, so they're only evaluated once per class.
+    private final Map<Class<?>, Boolean> includedClasses = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Boolean> excludedClasses = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param systemProperties The system properties to read the environments from.
+     */
+    EnvSnapshot(@NonNull Properties systemProperties) {
+        this.systemProperties = systemProperties;
+    }
+
+    /**
+     * Gets the normalized value of an environment property.
+     *
+     * @param propertyName The system property containing the current environment name.
+     * @return The trimmed and case-folded environment name, or empty if the property is not set.
+     */
+    Optional<String> getNormalizedEnv(@NonNull String propertyName) {
+        return normalizedEnvs.computeIfAbsent(propertyName, name -> Optional.ofNullable(systemProperties.getProperty(name))
+                .map(EnvRule::normalize));
+    }
+
+    /**
+     * Gets the decision of the class-level <code>@IncludeOnEnv</code> annotation of a class, making it on first use.
+     *
+     * @param testClass The test class.
+     * @param decision  Decides if the class is included using this snapshot.
+     * @return True if the class is included by its <code>@IncludeOnEnv</code> annotation, or doesn't have one.
+     */
+    boolean isClassIncluded(@NonNull Class<?> testClass, @NonNull Predicate<EnvSnapshot> decision) {
+        return includedClasses.computeIfAbsent(testClass, key -> decision.test(this));
+    }
+
+    /**
+     * Gets the decision of the class-level <code>@ExcludeOnEnv</code> annotation of a class, making it on first use.
+     *
+     * @param testClass The test class.
+     * @param decision  Decides if the class is excluded using this snapshot.
+     * @return True if the class is excluded by its <code>@ExcludeOnEnv</code> annotation.
+     */
+    boolean isClassExcluded(@NonNull Class<?> testClass, @NonNull Predicate<EnvSnapshot> decision) {
+        return excludedClasses.computeIfAbsent(testClass, key -> decision.test(this));
+    }
+}
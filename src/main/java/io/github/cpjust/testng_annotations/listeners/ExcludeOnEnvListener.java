@@ -1,6 +1,5 @@
 package io.github.cpjust.testng_annotations.listeners;
 
-import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -8,11 +7,8 @@ import org.testng.IMethodInstance;
 import org.testng.IMethodInterceptor;
 import org.testng.ITestContext;
 
-import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * A listener for TestNG tests that are annotated with <code>@ExcludeOnEnv</code>.
@@ -28,51 +24,22 @@ public class ExcludeOnEnvListener extends EnvListenerBase implements IMethodInte
      *
      * @param methods The list of test methods to filter.
      * @param context Unused.
-     * @return The new list of test methods to run.
+     * @return The new list of test methods to run, or the original list if no tests were removed.
      */
     @Override
     public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
-        List<IMethodInstance> result = new ArrayList<>();
-
-        for (IMethodInstance methodInstance : methods) {
-            Class<?> testClass = methodInstance.getMethod().getRealClass();
-            Method testMethod = methodInstance.getMethod().getConstructorOrMethod().getMethod();
-
-            Objects.requireNonNull(testClass, "testClass was null!");
-            Objects.requireNonNull(testMethod, "testMethod was null!");
-
-            log.debug("intercept() is checking method: {}", testMethod.getName());
-
-            if (!shouldExcludeTest(testClass, testMethod)) {
-                log.debug("-> adding method because it doesn't exclude the current environment.");
-                result.add(methodInstance);
-            } else {
-                log.debug("-> method NOT added due to environment exclusion.");
-            }
-        }
-
-        return result;
+        return filterMethods(methods, (testClass, testMethod) -> !shouldExcludeTest(testClass, testMethod));
     }
 
     /**
      * Determines if a test method or test class should be excluded based on its annotations.
-     * Exclusion rules:
-     * 1. If either class or method is excluded -> exclude test
-     * 2. Otherwise -> include test
      *
      * @param testClass  The test class to check.
      * @param testMethod The test method to check.
      * @return True if the class or method should be excluded, otherwise false.
      */
     private boolean shouldExcludeTest(@NonNull Class<?> testClass, @NonNull Method testMethod) {
-        // Tests should be excluded using the following rules:
-        // |                     | No class annotation: | Include by class: | Exclude by class: |
-        // | ------------------- | -------------------- | ----------------- | ----------------- |
-        // | No test annotation: |    INCLUDE           |   INCLUDE         |   EXCLUDE         |
-        // | Include by test:    |    INCLUDE           |   INCLUDE         |   EXCLUDE         |
-        // | Exclude by test:    |    EXCLUDE           |   EXCLUDE         |   EXCLUDE         |
-
-        boolean exclude = isExcludedByAnnotation(testClass) || isExcludedByAnnotation(testMethod);
+        boolean exclude = isExcludedByExcludeOnEnv(testClass, testMethod);
 
         if (log.isDebugEnabled()) {
             log.debug("Test {}.{} should {}be excluded",
@@ -83,24 +50,4 @@ public class ExcludeOnEnvListener extends EnvListenerBase implements IMethodInte
 
         return exclude;
     }
-
-    /**
-     * Checks if a class or method has the <code>@ExcludeOnEnv</code> annotation and should be excluded.
-     *
-     * @param element The AnnotatedElement to check.
-     * @return True if the AnnotatedElement should be excluded, otherwise false.
-     */
-    private boolean isExcludedByAnnotation(@NonNull AnnotatedElement element) {
-        if (!element.isAnnotationPresent(ExcludeOnEnv.class)) {
-            return false;
-        }
-
-        ExcludeOnEnv excludeOnEnv = element.getAnnotation(ExcludeOnEnv.class);
-        return anyEnvMatches(
-            excludeOnEnv.propertyName(),
-            excludeOnEnv.value(),
-            "ExcludeOnEnv",
-            excludeOnEnv.delimiter()
-        );
-    }
 }
@@ -1,6 +1,5 @@
 package io.github.cpjust.testng_annotations.listeners;
 
-import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -8,9 +7,8 @@ import org.testng.IMethodInstance;
 import org.testng.IMethodInterceptor;
 import org.testng.ITestContext;
 
-import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * A listener for TestNG tests that are annotated with <code>@IncludeOnEnv</code>.
@@ -26,78 +24,31 @@ public class IncludeOnEnvListener extends EnvListenerBase implements IMethodInte
      *
      * @param methods The list of test methods to filter.
      * @param context Unused.
-     * @return The new list of test methods to run.
+     * @return The new list of test methods to run, or the original list if no tests were removed.
      */
     @Override
     public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
-        return methods.stream()
-                .filter(this::shouldIncludeTest)
-                .collect(Collectors.toList());
+        return filterMethods(methods, this::shouldIncludeTest);
     }
 
     /**
      * Determines if a test method or test class should be included based on its annotations.
      * If class has `@IncludeOnEnv` but doesn't match current env -> exclude unless test method specifically matches
-     * Exclusion rules:
-     * 1. If method is excluded -> exclude test
-     * 2. If method is included -> include test
-     * 3. If method has no annotation and class is excluded -> exclude test
-     * 4. Otherwise -> include test
      *
-     * @param methodInstance The test method to check.
+     * @param testClass  The test class to check.
+     * @param testMethod The test method to check.
      * @return True if the class or method should be included, otherwise false.
      */
-    private boolean shouldIncludeTest(@NonNull IMethodInstance methodInstance) {
-        AnnotatedElement testClass = methodInstance.getMethod().getRealClass();
-        AnnotatedElement testMethod = methodInstance.getMethod().getConstructorOrMethod().getMethod();
-
-        // Tests should be included using the following rules:
-        // |                     | No class annotation: | Include by class: | Exclude by class: |
-        // | ------------------- | -------------------- | ----------------- | ----------------- |
-        // | No test annotation: |    INCLUDE           |   INCLUDE         |   EXCLUDE         |
-        // | Include by test:    |    INCLUDE           |   INCLUDE         |   INCLUDE         |
-        // | Exclude by test:    |    EXCLUDE           |   EXCLUDE         |   EXCLUDE         |
-
-        boolean hasAnnotationOnClass = testClass.isAnnotationPresent(IncludeOnEnv.class);
-        boolean hasAnnotationOnTest = testMethod.isAnnotationPresent(IncludeOnEnv.class);
-        boolean shouldIncludeClass = isIncludedByAnnotation(testClass);
-        boolean shouldIncludeMethod = isIncludedByAnnotation(testMethod);
-        boolean shouldInclude = shouldIncludeMethod;
-
-        if (hasAnnotationOnClass && !shouldIncludeClass) {
-            shouldInclude = (hasAnnotationOnTest && shouldIncludeMethod);
-        }
+    private boolean shouldIncludeTest(@NonNull Class<?> testClass, @NonNull Method testMethod) {
+        boolean shouldInclude = isIncludedByIncludeOnEnv(testClass, testMethod);
 
         if (log.isDebugEnabled()) {
-            log.debug("*** hasAnnotationOnClass: {}, hasAnnotationOnTest: {}, shouldIncludeClass: {}, shouldIncludeMethod: {}",
-                    hasAnnotationOnClass, hasAnnotationOnTest, shouldIncludeClass, shouldIncludeMethod);
-
             log.debug("Test {}.{} should {}be included",
-                    methodInstance.getMethod().getConstructorOrMethod().getDeclaringClass().getSimpleName(),
-                    methodInstance.getMethod().getConstructorOrMethod().getMethod().getName(),
+                    testMethod.getDeclaringClass().getSimpleName(),
+                    testMethod.getName(),
                     shouldInclude ? "" : "NOT ");
         }
 
         return shouldInclude;
     }
-
-    /**
-     * Checks if a class or method has the <code>@IncludeOnEnv</code> annotation and should be included.
-     *
-     * @param element The AnnotatedElement to check.
-     * @return True if the AnnotatedElement should be included or doesn't have a <code>@IncludeOnEnv</code> annotation, otherwise false.
-     */
-    private boolean isIncludedByAnnotation(@NonNull AnnotatedElement element) {
-        if (!element.isAnnotationPresent(IncludeOnEnv.class)) {
-            return true; // If no annotation, allow test.
-        }
-
-        IncludeOnEnv includeOnEnv = element.getAnnotation(IncludeOnEnv.class);
-        return anyEnvMatches(
-            includeOnEnv.propertyName(),
-            includeOnEnv.value(),
-            "IncludeOnEnv",
-            includeOnEnv.delimiter()
-        );
-    }
 }
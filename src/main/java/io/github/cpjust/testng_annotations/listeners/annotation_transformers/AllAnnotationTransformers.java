@@ -1,7 +1,12 @@
 package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
 
+import io.github.cpjust.testng_annotations.annotations.CartesianSource;
+import io.github.cpjust.testng_annotations.annotations.CsvFileSource;
 import io.github.cpjust.testng_annotations.annotations.CsvSource;
 import io.github.cpjust.testng_annotations.annotations.DisableBetweenDates;
+import io.github.cpjust.testng_annotations.annotations.ForAll;
+import io.github.cpjust.testng_annotations.annotations.IntRangeSource;
+import io.github.cpjust.testng_annotations.annotations.LongRangeSource;
 import io.github.cpjust.testng_annotations.annotations.ValueSource;
 import io.github.cpjust.testng_annotations.annotations.NullSource;
 import io.github.cpjust.testng_annotations.annotations.EmptySource;
@@ -16,9 +21,9 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * TestNG annotation transformer that processes all custom annotation transformers like: {@link CsvSource},
- * {@link ValueSource}, {@link NullSource}, {@link EmptySource}, {@link NullAndEmptySource},
- * and {@link DisableBetweenDates} to set up data providers or disable tests as needed.
+ * TestNG annotation transformer that processes all custom annotation transformers like: {@link CsvSource}, {@link CsvFileSource},
+ * {@link ValueSource}, {@link NullSource}, {@link EmptySource}, {@link NullAndEmptySource}, {@link IntRangeSource},
+ * {@link LongRangeSource}, {@link ForAll}, {@link CartesianSource}, and {@link DisableBetweenDates} to set up data providers or disable tests as needed.
  * <p>
  * Since you cannot use multiple transformers in TestNG, you need to register this transformer if you want to use multiple
  * of the provided annotations. You can do this by adding the fully qualified class name to a file named
@@ -28,8 +33,19 @@ import java.util.Map;
 public class AllAnnotationTransformers extends SourceListenerBase implements IAnnotationTransformer {
     private static final List<Map.Entry<Class<?>, String>> ALL_DATA_PROVIDERS = List.of(
             CsvSourceListener.CSV_SOURCE_PROVIDER_CLASS_AND_NAME,
+            CsvSourceListener.CSV_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME,
+            CsvFileSourceListener.CSV_FILE_SOURCE_PROVIDER_CLASS_AND_NAME,
+            CsvFileSourceListener.CSV_FILE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME,
             EnumSourceListener.ENUM_SOURCE_PROVIDER_CLASS_AND_NAME,
-            ValueSourceListener.VALUE_SOURCE_PROVIDER_CLASS_AND_NAME
+            EnumSourceListener.ENUM_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME,
+            ValueSourceListener.VALUE_SOURCE_PROVIDER_CLASS_AND_NAME,
+            ValueSourceListener.VALUE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME,
+            RangeSourceListener.RANGE_SOURCE_PROVIDER_CLASS_AND_NAME,
+            RangeSourceListener.RANGE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME,
+            ForAllListener.FOR_ALL_PROVIDER_CLASS_AND_NAME,
+            ForAllListener.FOR_ALL_PARALLEL_PROVIDER_CLASS_AND_NAME,
+            CartesianSourceListener.CARTESIAN_SOURCE_PROVIDER_CLASS_AND_NAME,
+            CartesianSourceListener.CARTESIAN_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME
     );
 
     private final DisableBetweenDatesListener disableBetweenDatesListener = new DisableBetweenDatesListener();
@@ -42,8 +58,9 @@ public class AllAnnotationTransformers extends SourceListenerBase implements IAn
     }
 
     /**
-     * Transforms test methods annotated with {@link CsvSource}, {@link ValueSource}, {@link NullSource},
-     * {@link EmptySource}, {@link NullAndEmptySource}, and {@link DisableBetweenDates} to use a data provider
+     * Transforms test methods annotated with {@link CsvSource}, {@link CsvFileSource}, {@link ValueSource}, {@link NullSource},
+     * {@link EmptySource}, {@link NullAndEmptySource}, {@link IntRangeSource}, {@link LongRangeSource}, {@link ForAll},
+     * {@link CartesianSource}, and {@link DisableBetweenDates} to use a data provider
      * or disable tests based on date ranges.
      *
      * @param annotation      The TestNG annotation being transformed.
@@ -66,14 +83,26 @@ public class AllAnnotationTransformers extends SourceListenerBase implements IAn
         throwIfTestHasMultipleDataProviders(testMethod);
 
         if (CsvSourceListener.isCsvSourcePresent(testMethod)) {
-            annotation.setDataProvider(CsvSourceListener.CSV_SOURCE_PROVIDER_CLASS_AND_NAME.getValue());
-            annotation.setDataProviderClass(CsvSourceListener.CSV_SOURCE_PROVIDER_CLASS_AND_NAME.getKey());
+            setDataProvider(annotation, testMethod, CsvSourceListener.CSV_SOURCE_PROVIDER_CLASS_AND_NAME,
+                    CsvSourceListener.CSV_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
+        } else if (CsvFileSourceListener.isCsvFileSourcePresent(testMethod)) {
+            setDataProvider(annotation, testMethod, CsvFileSourceListener.CSV_FILE_SOURCE_PROVIDER_CLASS_AND_NAME,
+                    CsvFileSourceListener.CSV_FILE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
         } else if (EnumSourceListener.isEnumSourcePresent(testMethod)) {
-            annotation.setDataProvider(EnumSourceListener.ENUM_SOURCE_PROVIDER_CLASS_AND_NAME.getValue());
-            annotation.setDataProviderClass(EnumSourceListener.ENUM_SOURCE_PROVIDER_CLASS_AND_NAME.getKey());
+            setDataProvider(annotation, testMethod, EnumSourceListener.ENUM_SOURCE_PROVIDER_CLASS_AND_NAME,
+                    EnumSourceListener.ENUM_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
         } else if (ValueSourceListener.isValueSourcePresent(testMethod)) {
-            annotation.setDataProvider(ValueSourceListener.VALUE_SOURCE_PROVIDER_CLASS_AND_NAME.getValue());
-            annotation.setDataProviderClass(ValueSourceListener.VALUE_SOURCE_PROVIDER_CLASS_AND_NAME.getKey());
+            setDataProvider(annotation, testMethod, ValueSourceListener.VALUE_SOURCE_PROVIDER_CLASS_AND_NAME,
+                    ValueSourceListener.VALUE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
+        } else if (RangeSourceListener.isRangeSourcePresent(testMethod)) {
+            setDataProvider(annotation, testMethod, RangeSourceListener.RANGE_SOURCE_PROVIDER_CLASS_AND_NAME,
+                    RangeSourceListener.RANGE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
+        } else if (ForAllListener.isForAllPresent(testMethod)) {
+            setDataProvider(annotation, testMethod, ForAllListener.FOR_ALL_PROVIDER_CLASS_AND_NAME,
+                    ForAllListener.FOR_ALL_PARALLEL_PROVIDER_CLASS_AND_NAME);
+        } else if (CartesianSourceListener.isCartesianSourcePresent(testMethod)) {
+            setDataProvider(annotation, testMethod, CartesianSourceListener.CARTESIAN_SOURCE_PROVIDER_CLASS_AND_NAME,
+                    CartesianSourceListener.CARTESIAN_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
         }
     }
 }
@@ -0,0 +1,299 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Converts the String values of CSV sources to the types of the test method parameters. The converter of each type is
+ * resolved to a {@link MethodHandle} the first time the type is used, and reused for every value after that.
+ * <br/>
+ * A value can be converted to:
+ * <ul>
+ *     <li>String, CharSequence or Object, which get the value as is.</li>
+ *     <li>Primitive and boxed types. Booleans must be "true" or "false" (ignoring case), and chars must be a single character.</li>
+ *     <li>Enums, by the name of the constant.</li>
+ *     <li>Any type with a static <code>valueOf(String)</code>, <code>parse(String)</code> or <code>parse(CharSequence)</code>
+ *     method (ex. the <code>java.time</code> types), or else a constructor that takes a String (ex. BigDecimal).</li>
+ * </ul>
+ * An empty value is converted to null, except for String, CharSequence and Object (which get the empty String) and for
+ * primitives (which can't be null).
+ * <br/>
+ * Converted values can only be cached and shared by the invocations of a test if their type is known to be immutable
+ * (see {@link #isImmutable}), since the other types (ex. StringBuilder, Date or user types) may be changed by a test.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ArgumentConverters {
+    private static final MethodType CONVERTER_TYPE = MethodType.methodType(Object.class, String.class);
+    private static final Map<Class<?>, Class<?>> WRAPPERS = Map.of(
+            boolean.class, Boolean.class,
+            byte.class, Byte.class,
+            char.class, Character.class,
+            short.class, Short.class,
+            int.class, Integer.class,
+            long.class, Long.class,
+            float.class, Float.class,
+            double.class, Double.class);
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(BigDecimal.class, BigInteger.class, UUID.class, URI.class);
+    private static final String JAVA_TIME_PACKAGE = "java.time";
+
+    // The converter of each type, or null if the type can't be converted.
+    private static final ClassValue<MethodHandle> CONVERTERS = new ClassValue<>() {
+        /**
+         * Resolves the converter of a type.
+         *
+         * @param type The type to convert to.
+         * @return The converter, or null if there isn't one.
+         */
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return resolveConverter(type);
+        }
+    };
+
+    /**
+     * Gets the converter of a type.
+     *
+     * @param type The type to convert to.
+     * @return The converter as a <code>(String)Object</code> method handle, or null if the type can't be converted.
+     */
+    static MethodHandle forType(@NonNull Class<?> type) {
+        return CONVERTERS.get(type);
+    }
+
+    /**
+     * Gets the converters for the parameters of a test method.
+     *
+     * @param method The test method.
+     * @return The converter of each parameter.
+     * @throws IllegalStateException if a parameter type can't be converted from a String.
+     */
+    static MethodHandle[] forParameters(@NonNull Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        MethodHandle[] converters = new MethodHandle[parameterTypes.length];
+
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            converters[i] = forType(parameterTypes[i]);
+
+            if (converters[i] == null) {
+                throw new IllegalStateException(String.format(
+                        "Parameter at index %d of method '%s' does not match method parameter type (expected: String or a type "
+                                + "with a static valueOf(String) or parse(CharSequence) method or a String constructor, found: %s)",
+                        i, method.getName(), parameterTypes[i].getSimpleName()
+                ));
+            }
+        }
+
+        return converters;
+    }
+
+    /**
+     * Checks if the converted values of a type are known to be immutable, so they can be shared by several invocations:
+     * primitives, boxed types, Strings, enums, the <code>java.time</code> types, BigDecimal, BigInteger, UUID and URI.
+     *
+     * @param type The type to convert to.
+     * @return True if the values are immutable, or false if they may be mutable.
+     */
+    static boolean isImmutable(@NonNull Class<?> type) {
+        return type.isPrimitive() || WRAPPERS.containsValue(type) || type.isAssignableFrom(String.class) || type.isEnum() ||
+               IMMUTABLE_TYPES.contains(type) || type.getPackageName().startsWith(JAVA_TIME_PACKAGE);
+    }
+
+    /**
+     * Checks if the converted values of all the types are known to be immutable.
+     *
+     * @param types The types to convert to.
+     * @return True if the values of every type are immutable.
+     */
+    static boolean areImmutable(@NonNull Class<?>[] types) {
+        for (Class<?> type : types) {
+            if (!isImmutable(type)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Converts the values of a row in place.
+     *
+     * @param row        The String values of the row, which are replaced by the converted values.
+     * @param types      The type of each parameter.
+     * @param converters The converter of each parameter, from {@link #forParameters}.
+     * @return The row.
+     * @throws IllegalArgumentException if a value can't be converted.
+     */
+    static Object[] convertRow(@NonNull Object[] row, @NonNull Class<?>[] types, @NonNull MethodHandle[] converters) {
+        for (int i = 0; i < row.length; ++i) {
+            row[i] = convert((String) row[i], types[i], converters[i], i);
+        }
+
+        return row;
+    }
+
+    /**
+     * Converts a value.
+     *
+     * @param value     The value.
+     * @param type      The type of the parameter.
+     * @param converter The converter of the type.
+     * @param index     The index of the parameter, for the error message.
+     * @return The converted value.
+     */
+    private static Object convert(String value, @NonNull Class<?> type, @NonNull MethodHandle converter, int index) {
+        if ((value == null) || (value.isEmpty() && !type.isAssignableFrom(String.class))) {
+            if (type.isPrimitive()) {
+                throw new IllegalArgumentException(String.format(
+                        "Cannot convert an empty value to %s for parameter at index %d!", type.getSimpleName(), index));
+            }
+
+            return null;
+        }
+
+        try {
+            return (Object) converter.invokeExact(value);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(String.format(
+                    "Cannot convert value '%s' to %s for parameter at index %d!", value, type.getSimpleName(), index), e);
+        }
+    }
+
+    /**
+     * Resolves the converter of a type.
+     *
+     * @param type The type to convert to.
+     * @return The converter as a <code>(String)Object</code> method handle, or null if there isn't one.
+     */
+    private static MethodHandle resolveConverter(@NonNull Class<?> type) {
+        if (type.isAssignableFrom(String.class)) {
+            return MethodHandles.identity(String.class).asType(CONVERTER_TYPE);
+        }
+
+        Class<?> boxedType = WRAPPERS.getOrDefault(type, type);
+
+        if (boxedType == Boolean.class) {
+            return findBuiltInConverter("parseBoolean", Boolean.class);
+        }
+
+        if (boxedType == Character.class) {
+            return findBuiltInConverter("parseCharacter", Character.class);
+        }
+
+        MethodHandles.Lookup typeLookup = getLookup(boxedType);
+        MethodHandle converter = findFactory(typeLookup, boxedType, "valueOf", String.class);
+
+        if (converter == null) {
+            converter = findFactory(typeLookup, boxedType, "parse", String.class);
+        }
+
+        if (converter == null) {
+            converter = findFactory(typeLookup, boxedType, "parse", CharSequence.class);
+        }
+
+        if (converter == null) {
+            try {
+                converter = typeLookup.findConstructor(boxedType, MethodType.methodType(void.class, String.class));
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+
+        return converter.asType(CONVERTER_TYPE);
+    }
+
+    /**
+     * Finds one of the converters of this class.
+     *
+     * @param name       The name of the converter method.
+     * @param returnType The type that the method returns.
+     * @return The converter as a <code>(String)Object</code> method handle.
+     */
+    private static MethodHandle findBuiltInConverter(@NonNull String name, @NonNull Class<?> returnType) {
+        try {
+            return MethodHandles.lookup().findStatic(ArgumentConverters.class, name, MethodType.methodType(returnType, String.class))
+                    .asType(CONVERTER_TYPE);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(String.format("Unable to find the built-in converter %s!", name), e);
+        }
+    }
+
+    /**
+     * Finds a static factory method of a type that returns the type.
+     *
+     * @param lookup        The lookup to find the method with.
+     * @param type          The type.
+     * @param name          The name of the method.
+     * @param parameterType The type of the method parameter.
+     * @return The factory method, or null if there isn't one.
+     */
+    private static MethodHandle findFactory(@NonNull MethodHandles.Lookup lookup, @NonNull Class<?> type, @NonNull String name,
+                                            @NonNull Class<?> parameterType) {
+        try {
+            return lookup.findStatic(type, name, MethodType.methodType(type, parameterType));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets a lookup that can access the non-public members of a type if its module allows it (ex. for the test classes
+     * in the unnamed module), or else its public members.
+     *
+     * @param type The type.
+     * @return The lookup.
+     */
+    static MethodHandles.Lookup getLookup(@NonNull Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            // Either the type's module isn't open (ex. the JDK types), or it's an array or void.
+            return MethodHandles.publicLookup();
+        }
+    }
+
+    /**
+     * Converts a value to a Boolean, which must be "true" or "false" (ignoring case).
+     *
+     * @param value The value.
+     * @return The Boolean.
+     */
+    private static Boolean parseBoolean(@NonNull String value) {
+        if (value.equalsIgnoreCase("true")) {
+            return Boolean.TRUE;
+        }
+
+        if (value.equalsIgnoreCase("false")) {
+            return Boolean.FALSE;
+        }
+
+        throw new IllegalArgumentException("A boolean must be 'true' or 'false'!");
+    }
+
+    /**
+     * Converts a value to a Character, which must be a single character.
+     *
+     * @param value The value.
+     * @return The Character.
+     */
+    private static Character parseCharacter(@NonNull String value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("A char must be a single character!");
+        }
+
+        return value.charAt(0);
+    }
+}
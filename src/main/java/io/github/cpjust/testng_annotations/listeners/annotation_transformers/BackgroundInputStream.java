@@ -0,0 +1,185 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An input stream that reads another stream ahead on a background thread into a bounded buffer of chunks, so slow work
+ * done by the other stream (ex. decompression) overlaps with the work of the thread that reads this stream. At most
+ * <code>capacity</code> chunks are buffered, so the reader thread blocks instead of inflating a whole file into memory.
+ * <br/>
+ * The other stream is closed by the background thread when it has been read or this stream is closed.
+ * Instances aren't thread-safe, except that they may be closed from any thread.
+ */
+final class BackgroundInputStream extends InputStream {
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    static final int DEFAULT_CAPACITY = 16;
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks;
+    private final Thread readerThread;
+    private volatile IOException readError;
+    private volatile boolean closed;
+    private byte[] chunk;
+    private int chunkPosition;
+
+    /**
+     * Constructor, which starts the background thread.
+     *
+     * @param source The stream to read ahead.
+     * @param name   The name of the stream, for the name of the background thread.
+     */
+    BackgroundInputStream(@NonNull InputStream source, @NonNull String name) {
+        this(source, name, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor, which starts the background thread.
+     *
+     * @param source    The stream to read ahead.
+     * @param name      The name of the stream, for the name of the background thread.
+     * @param chunkSize The maximum number of bytes in each chunk.
+     * @param capacity  The maximum number of chunks to buffer.
+     */
+    BackgroundInputStream(@NonNull InputStream source, @NonNull String name, int chunkSize, int capacity) {
+        if ((chunkSize < 1) || (capacity < 1)) {
+            throw new IllegalArgumentException(String.format(
+                    "The chunk size and capacity must be at least 1, but were %d and %d!", chunkSize, capacity));
+        }
+
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+        this.readerThread = new Thread(() -> readAhead(source, chunkSize), "read-ahead-" + name);
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Reads one byte.
+     *
+     * @return The byte, or -1 at the end of the stream.
+     * @throws IOException If the other stream couldn't be read.
+     */
+    @Override
+    public int read() throws IOException {
+        return nextChunk() ? (chunk[chunkPosition++] & 0xFF) : -1;
+    }
+
+    /**
+     * Reads up to <code>length</code> bytes from the current chunk.
+     *
+     * @param buffer The buffer to read into.
+     * @param offset The offset in the buffer.
+     * @param length The maximum number of bytes to read.
+     * @return The number of bytes read, or -1 at the end of the stream.
+     * @throws IOException If the other stream couldn't be read.
+     */
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+        if ((offset < 0) || (length < 0) || (length > (buffer.length - offset))) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Invalid offset %d and length %d for a buffer of %d bytes!", offset, length, buffer.length));
+        }
+
+        if (length == 0) {
+            return 0;
+        }
+
+        if (!nextChunk()) {
+            return -1;
+        }
+
+        int count = Math.min(length, chunk.length - chunkPosition);
+        System.arraycopy(chunk, chunkPosition, buffer, offset, count);
+        chunkPosition += count;
+        return count;
+    }
+
+    /**
+     * Gets the number of bytes that can be read without blocking.
+     *
+     * @return The number of bytes left in the current chunk.
+     */
+    @Override
+    public int available() {
+        return ((chunk == null) || (chunk == END)) ? 0 : (chunk.length - chunkPosition);
+    }
+
+    /**
+     * Stops the background thread, which closes the other stream, and discards the buffered chunks.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        readerThread.interrupt();
+        chunks.clear();
+        chunk = END;
+    }
+
+    /**
+     * Waits for the next chunk if the current one has been read.
+     *
+     * @return True if there are bytes to read, or false at the end of the stream.
+     * @throws IOException If the other stream couldn't be read, or this stream is closed.
+     */
+    private boolean nextChunk() throws IOException {
+        if (closed) {
+            throw new IOException("The stream is closed!");
+        }
+
+        while ((chunk == null) || ((chunk != END) && (chunkPosition == chunk.length))) {
+            try {
+                chunk = chunks.take();
+                chunkPosition = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the stream to be read!");
+            }
+        }
+
+        if ((chunk == END) && (readError != null)) {
+            throw new IOException("Unable to read the stream!", readError);
+        }
+
+        return chunk != END;
+    }
+
+    /**
+     * Reads the other stream into chunks until it ends or this stream is closed. Runs on the background thread.
+     *
+     * @param source    The stream to read.
+     * @param chunkSize The maximum number of bytes in each chunk.
+     */
+    private void readAhead(@NonNull InputStream source, int chunkSize) {
+        try (InputStream in = source) {
+            while (!closed) {
+                byte[] buffer = new byte[chunkSize];
+                int count = in.readNBytes(buffer, 0, chunkSize);
+
+                if (count == 0) {
+                    break;
+                }
+
+                chunks.put((count == chunkSize) ? buffer : Arrays.copyOf(buffer, count));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (IOException e) {
+            if (!closed) {
+                readError = e;
+            }
+        }
+
+        try {
+            chunks.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
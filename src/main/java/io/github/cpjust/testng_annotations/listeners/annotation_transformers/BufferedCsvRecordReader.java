@@ -0,0 +1,81 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reads the records of a CSV file by decoding it through a buffered reader and tokenizing each record with a
+ * {@link CsvTokenizer}. Works with any channel and character set.
+ */
+final class BufferedCsvRecordReader implements ICsvRecordReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final CsvTokenizer tokenizer;
+    private Object[] fields;
+
+    /**
+     * Constructor, which skips the first lines of the file.
+     *
+     * @param channel        The channel to read the file from, which is closed when this reader is closed.
+     * @param charset        The character set of the file.
+     * @param numLinesToSkip The number of lines to skip at the start of the file.
+     * @param tokenizer      The tokenizer to parse the records with.
+     * @throws IOException If the lines can't be skipped.
+     */
+    BufferedCsvRecordReader(@NonNull ReadableByteChannel channel, @NonNull Charset charset, int numLinesToSkip,
+                            @NonNull CsvTokenizer tokenizer) throws IOException {
+        this.reader = new BufferedReader(Channels.newReader(channel, charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT), BUFFER_SIZE), BUFFER_SIZE);
+        this.tokenizer = tokenizer;
+
+        try {
+            for (int i = 0; (i < numLinesToSkip) && (reader.readLine() != null); ++i) {
+                // Skip the header lines.
+            }
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads and tokenizes the next non-empty record.
+     *
+     * @return The number of fields in the record, or -1 if there are no more records.
+     * @throws IOException If the file can't be read.
+     */
+    @Override
+    public int nextRecord() throws IOException {
+        fields = tokenizer.tokenizeRecord(reader);
+        return (fields == null) ? -1 : fields.length;
+    }
+
+    /**
+     * Gets a field of the current record.
+     *
+     * @param index The zero-based index of the field.
+     * @return The value of the field.
+     */
+    @Override
+    public String getField(int index) {
+        return (String) fields[index];
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,336 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CartesianSource;
+import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.ValueSource;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IAnnotationTransformer;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * TestNG listener that processes {@link CartesianSource} annotations and converts them into a lazy data provider, which
+ * generates each combination of the parameter values while the tests run instead of building the whole product up
+ * front. If the annotation sets a <code>strength</code>, the rows of a covering array are provided instead.
+ */
+@Slf4j
+public class CartesianSourceListener extends SourceListenerBase implements IAnnotationTransformer {
+    static final String CARTESIAN_SOURCE_PROVIDER = "cartesianSourceProvider";
+    static final Map.Entry<Class<?>, String> CARTESIAN_SOURCE_PROVIDER_CLASS_AND_NAME = Map.entry(CartesianSourceListener.class, CARTESIAN_SOURCE_PROVIDER);
+    static final String CARTESIAN_SOURCE_PARALLEL_PROVIDER = "cartesianSourceParallelProvider";
+    static final Map.Entry<Class<?>, String> CARTESIAN_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME = Map.entry(CartesianSourceListener.class, CARTESIAN_SOURCE_PARALLEL_PROVIDER);
+    static final DataProviderCache<Method> CACHE = new DataProviderCache<>();
+    static final DataProviderCache<List<Object>> COVERING_ARRAY_CACHE = new DataProviderCache<>();
+
+    /**
+     * Constructs the listener with the cartesian source data provider.
+     */
+    public CartesianSourceListener() {
+        super(List.of(CARTESIAN_SOURCE_PROVIDER_CLASS_AND_NAME, CARTESIAN_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME));
+    }
+
+    /**
+     * Transforms test methods annotated with {@link CartesianSource} to use a data provider.
+     *
+     * @param annotation      The TestNG annotation being transformed.
+     * @param testClass       The test class (unused).
+     * @param testConstructor The test constructor (unused).
+     * @param testMethod      The test method.
+     */
+    @Override
+    public void transform(@NonNull ITestAnnotation annotation, Class testClass,
+                          Constructor testConstructor, Method testMethod) {
+        if (testMethod == null) {
+            return;
+        }
+
+        throwIfDataProviderNotAllowed(annotation, testMethod);
+        throwIfTestHasMultipleDataProviders(testMethod);
+
+        if (isCartesianSourcePresent(testMethod)) {
+            setDataProvider(annotation, testMethod, CARTESIAN_SOURCE_PROVIDER_CLASS_AND_NAME, CARTESIAN_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
+        }
+    }
+
+    /**
+     * Checks if the given method is annotated with {@link CartesianSource}.
+     *
+     * @param method The test method.
+     * @return True if the method is annotated with {@link CartesianSource}, false otherwise.
+     */
+    public static boolean isCartesianSourcePresent(@NonNull Method method) {
+        return method.isAnnotationPresent(CartesianSource.class);
+    }
+
+    /**
+     * Data provider that lazily supplies the combinations of the parameter values of a test method.
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values of each invocation.
+     */
+    @DataProvider(name = CARTESIAN_SOURCE_PROVIDER)
+    public static Iterator<Object[]> cartesianSourceProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Data provider that lazily supplies the combinations of the parameter values of a test method with
+     * <code>parallel = true</code>, so TestNG may run the combinations in parallel.
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values of each invocation.
+     */
+    @DataProvider(name = CARTESIAN_SOURCE_PARALLEL_PROVIDER, parallel = true)
+    public static Iterator<Object[]> cartesianSourceParallelProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Validates the parameter annotations of a test method and creates an iterator over the combinations of their values,
+     * or the rows of their covering array if the annotation sets a <code>strength</code> (or the combinations or rows of
+     * the current shard if the source is sharded).
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values of each invocation.
+     * @throws IllegalStateException    if the annotation is missing or a parameter has no values.
+     * @throws IllegalArgumentException if the strength is negative or there are too many combinations.
+     */
+    public static Iterator<Object[]> provideValues(@NonNull Method method) {
+        CartesianSource cartesianSource = method.getAnnotation(CartesianSource.class);
+
+        if (cartesianSource == null) {
+            throw new IllegalStateException("No @CartesianSource annotation found on method: " + method.getName());
+        }
+
+        int strength = cartesianSource.strength();
+
+        if (strength < 0) {
+            throw new IllegalArgumentException(String.format("CartesianSource strength cannot be negative, but was %d on method: %s",
+                    strength, method.getName()));
+        }
+
+        Object[][] values = getParameterValues(method);
+
+        if ((strength > 0) && (strength < values.length)) {
+            Object[][] rows = getCoveringArray(method, values, strength, cartesianSource.seed());
+            long[] selected = RowRange.select(0, Long.MAX_VALUE, cartesianSource.sharded(), rows.length);
+            log.debug("Providing rows {} to {} of the {} rows of the {}-wise covering array of method {}", selected[0], selected[1],
+                    rows.length, strength, method.getName());
+            // The rows are copies, but an empty Queue value is shared by every row that uses it.
+            return Arrays.asList(rows).subList((int) selected[0], (int) selected[1]).stream()
+                    .map(row -> {
+                        ValueSourceListener.replaceMutableEmptyValues(row);
+                        return row;
+                    })
+                    .iterator();
+        }
+
+        long count = countCombinations(values, method);
+        long[] selected = RowRange.select(0, Long.MAX_VALUE, cartesianSource.sharded(), count);
+        log.debug("Providing combinations {} to {} of the {} combinations of method {}", selected[0], selected[1], count, method.getName());
+        return new CartesianIterator(values, selected[0], selected[1]);
+    }
+
+    /**
+     * Gets the values of each parameter of a test method.
+     *
+     * @param method The test method.
+     * @return The values of each parameter, in order.
+     * @throws IllegalStateException if the method has no parameters or a parameter has no values.
+     */
+    static Object[][] getParameterValues(@NonNull Method method) {
+        return CACHE.get(method.getDeclaringClass(), method, () -> computeParameterValues(method));
+    }
+
+    /**
+     * Gets the rows of the covering array of a test method's parameter values.
+     *
+     * @param method   The test method.
+     * @param values   The values of each parameter.
+     * @param strength The number of parameters whose value combinations are covered.
+     * @param seed     The seed that breaks ties between values.
+     * @return The parameter values of each row.
+     */
+    static Object[][] getCoveringArray(@NonNull Method method, @NonNull Object[][] values, int strength, long seed) {
+        return COVERING_ARRAY_CACHE.get(method.getDeclaringClass(), List.of(method, strength, seed), () -> {
+            int[] sizes = Arrays.stream(values).mapToInt(parameterValues -> parameterValues.length).toArray();
+            int[][] indexes = CoveringArray.generate(sizes, strength, seed);
+            Object[][] rows = new Object[indexes.length][values.length];
+
+            for (int r = 0; r < indexes.length; ++r) {
+                for (int p = 0; p < values.length; ++p) {
+                    rows[r][p] = values[p][indexes[r][p]];
+                }
+            }
+
+            return rows;
+        });
+    }
+
+    /**
+     * Counts the combinations of the parameter values.
+     *
+     * @param values The values of each parameter.
+     * @param method The test method, for the error messages.
+     * @return The number of combinations.
+     * @throws IllegalArgumentException if there are more than {@link Long#MAX_VALUE} combinations.
+     */
+    static long countCombinations(@NonNull Object[][] values, @NonNull Method method) {
+        long count = 1;
+
+        try {
+            for (Object[] parameterValues : values) {
+                count = Math.multiplyExact(count, parameterValues.length);
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("CartesianSource has too many combinations on method: " + method.getName(), e);
+        }
+
+        return count;
+    }
+
+    /**
+     * Validates the parameter annotations of a test method and computes the values of each parameter.
+     *
+     * @param method The test method.
+     * @return The values of each parameter, in order.
+     * @throws IllegalStateException if the method has no parameters or a parameter has no values.
+     */
+    private static Object[][] computeParameterValues(@NonNull Method method) {
+        Parameter[] parameters = method.getParameters();
+
+        if (parameters.length == 0) {
+            throw new IllegalStateException("@CartesianSource can only be used with test methods that have parameters: " + method.getName());
+        }
+
+        Object[][] values = new Object[parameters.length][];
+
+        for (int i = 0; i < parameters.length; ++i) {
+            values[i] = computeValues(parameters[i], String.format("parameter %d of method '%s'", i, method.getName()));
+        }
+
+        return values;
+    }
+
+    /**
+     * Computes the values of a parameter from its source annotations. Enum and boolean parameters also get all their
+     * constants, or false and true, unless they have a {@link EnumSource} or ValueSource annotation.
+     *
+     * @param parameter   The parameter.
+     * @param description A description of the parameter, for the error messages.
+     * @return The distinct values of the parameter.
+     * @throws IllegalStateException if the parameter has no values.
+     */
+    private static Object[] computeValues(@NonNull Parameter parameter, @NonNull String description) {
+        Class<?> paramType = parameter.getType();
+        EnumSource enumSource = parameter.getAnnotation(EnumSource.class);
+        boolean hasValueSource = ValueSourceListener.isValueSourcePresent(parameter);
+        Set<Object> values = new LinkedHashSet<>();
+
+        if (hasValueSource) {
+            Collections.addAll(values, ValueSourceListener.provideParameterValues(parameter, description));
+        }
+
+        if (enumSource != null) {
+            values.addAll(EnumSourceListener.selectConstants(enumSource, paramType, description));
+        } else if (!parameter.isAnnotationPresent(ValueSource.class)) {
+            if (paramType.isEnum()) {
+                Collections.addAll(values, paramType.getEnumConstants());
+            } else if ((paramType == boolean.class) || (paramType == Boolean.class)) {
+                values.add(false);
+                values.add(true);
+            }
+        }
+
+        if (values.isEmpty()) {
+            throw new IllegalStateException(String.format("No [@ValueSource, @NullSource, @EmptySource, @NullAndEmptySource, @EnumSource] "
+                    + "annotations found on %s, which is needed for a %s parameter", description, paramType.getSimpleName()));
+        }
+
+        return values.toArray();
+    }
+
+    /**
+     * Generates the combinations of the parameter values on demand, like an odometer where the last parameter changes
+     * the fastest.
+     */
+    private static final class CartesianIterator implements Iterator<Object[]> {
+        private final Object[][] values;
+        private final int[] digits;
+        private final long endIndex;
+        private long index;
+
+        /**
+         * Constructor.
+         *
+         * @param values     The values of each parameter.
+         * @param startIndex The index of the first combination to provide.
+         * @param endIndex   The index after the last combination to provide.
+         */
+        CartesianIterator(@NonNull Object[][] values, long startIndex, long endIndex) {
+            this.values = values;
+            this.digits = new int[values.length];
+            this.index = startIndex;
+            this.endIndex = endIndex;
+
+            // Convert the start index to a mixed-radix number, where each digit is the index of a parameter value.
+            long remaining = startIndex;
+
+            for (int i = values.length - 1; i >= 0; --i) {
+                digits[i] = (int) (remaining % values[i].length);
+                remaining /= values[i].length;
+            }
+        }
+
+        /**
+         * Checks if there are more combinations.
+         *
+         * @return True if there are more combinations.
+         */
+        @Override
+        public boolean hasNext() {
+            return index < endIndex;
+        }
+
+        /**
+         * Gets the next combination.
+         *
+         * @return The parameters of the next invocation.
+         * @throws NoSuchElementException if there are no more combinations.
+         */
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("There are no more combinations!");
+            }
+
+            Object[] args = new Object[values.length];
+
+            for (int i = 0; i < values.length; ++i) {
+                args[i] = values[i][digits[i]];
+            }
+
+            ValueSourceListener.replaceMutableEmptyValues(args);
+
+            for (int i = values.length - 1; (i >= 0) && (++digits[i] == values[i].length); --i) {
+                digits[i] = 0;
+            }
+
+            ++index;
+            return args;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Decompresses data source files by their extension, with the decompression done on a background thread so the test
+ * threads don't wait for it.
+ * <ul>
+ *     <li>".gz" files are gzip-compressed.</li>
+ *     <li>".zip" files are zip archives, of which the first file is read.</li>
+ * </ul>
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class CompressedStreams {
+    private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final String ZIP_EXTENSION = ".zip";
+
+    /**
+     * Checks if a file is compressed.
+     *
+     * @param name The name or path of the file.
+     * @return True if the file has a compressed file extension.
+     */
+    static boolean isCompressed(@NonNull String name) {
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+        return lowerCaseName.endsWith(GZIP_EXTENSION) || lowerCaseName.endsWith(ZIP_EXTENSION);
+    }
+
+    /**
+     * Decompresses a compressed file on a background thread.
+     *
+     * @param compressed The compressed stream, which is closed when the returned stream is closed or on error.
+     * @param name       The name or path of the file, which must have a compressed file extension.
+     * @return The decompressed stream, which is read ahead into a bounded buffer.
+     * @throws IOException If the compressed stream doesn't have a valid header.
+     */
+    static InputStream decompress(@NonNull InputStream compressed, @NonNull String name) throws IOException {
+        try {
+            return new BackgroundInputStream(openDecompressingStream(compressed, name), name);
+        } catch (IOException | RuntimeException e) {
+            compressed.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps a compressed stream in the stream that decompresses its format.
+     *
+     * @param compressed The compressed stream.
+     * @param name       The name or path of the file.
+     * @return The decompressing stream.
+     * @throws IOException If the compressed stream doesn't have a valid header.
+     */
+    private static InputStream openDecompressingStream(@NonNull InputStream compressed, @NonNull String name) throws IOException {
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+
+        if (lowerCaseName.endsWith(GZIP_EXTENSION)) {
+            return new GZIPInputStream(compressed, INFLATER_BUFFER_SIZE);
+        }
+
+        if (lowerCaseName.endsWith(ZIP_EXTENSION)) {
+            ZipInputStream zip = new ZipInputStream(compressed);
+            ZipEntry entry;
+
+            do {
+                entry = zip.getNextEntry();
+            } while ((entry != null) && entry.isDirectory());
+
+            if (entry == null) {
+                throw new IOException(String.format("The zip file '%s' doesn't contain any files!", name));
+            }
+
+            return zip;
+        }
+
+        throw new IllegalArgumentException(String.format("'%s' isn't a compressed file!", name));
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.NonNull;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.ToIntFunction;
+
+/**
+ * Limits how many invocations of each test method run at the same time, using one fair {@link Semaphore} per method.
+ * <br/>
+ * The semaphores are kept per test class (with a {@link ClassValue}, so they don't keep the test classes or their class
+ * loader alive). A thread that already holds the permit of a method doesn't acquire it again, so the limit still works
+ * if several of the source listeners are registered and each of them is notified of the same invocation.
+ */
+final class ConcurrencyLimiter {
+    private final ToIntFunction<Method> limits;
+    private final ClassValue<Map<Method, Semaphore>> semaphores = new ClassValue<>() {
+        /**
+         * Creates the semaphores of a test class.
+         *
+         * @param testClass The test class.
+         * @return An empty map of semaphores.
+         */
+        @Override
+        protected Map<Method, Semaphore> computeValue(Class<?> testClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    // The number of times each method was entered on the current thread, for the methods whose permit the thread holds.
+    private final ThreadLocal<Map<Method, int[]>> held = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * Constructor.
+     *
+     * @param limits Gets the maximum number of concurrent invocations of a test method, or 0 if it isn't limited.
+     */
+    ConcurrencyLimiter(@NonNull ToIntFunction<Method> limits) {
+        this.limits = limits;
+    }
+
+    /**
+     * Waits until the current thread may invoke a test method.
+     *
+     * @param method The test method.
+     */
+    void enter(@NonNull Method method) {
+        int[] depth = held.get().get(method);
+
+        if (depth != null) {
+            ++depth[0];
+            return;
+        }
+
+        int limit = limits.applyAsInt(method);
+
+        if (limit <= 0) {
+            return;
+        }
+
+        try {
+            semaphores.get(method.getDeclaringClass()).computeIfAbsent(method, m -> new Semaphore(limit, true)).acquire();
+            held.get().put(method, new int[]{1});
+        } catch (InterruptedException e) {
+            // The invocation runs without a permit, so exit() won't release one.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Releases the permit of a test method once the current thread finished invoking it.
+     *
+     * @param method The test method.
+     */
+    void exit(@NonNull Method method) {
+        Map<Method, int[]> heldByThread = held.get();
+        int[] depth = heldByThread.get(method);
+
+        if ((depth == null) || (--depth[0] > 0)) {
+            return;
+        }
+
+        heldByThread.remove(method);
+        semaphores.get(method.getDeclaringClass()).get(method).release();
+    }
+}
@@ -0,0 +1,293 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates covering arrays with the IPOG (In-Parameter-Order-General) algorithm: a small set of rows where every
+ * combination of the values of any <code>strength</code> parameters appears in at least one row, ex. every pair of values
+ * for pairwise testing.
+ * <br/>
+ * IPOG starts with every combination of the first <code>strength</code> parameters, then adds one parameter at a time:
+ * it first gives each existing row the value of the new parameter that covers the most uncovered combinations
+ * (horizontal growth), then adds rows for the combinations that are still uncovered (vertical growth). The parameters are
+ * added in order of decreasing number of values, which gives smaller arrays. Ties between values and the values of the
+ * parameters that no combination needs are chosen with a random number generator, so the same seed always generates the
+ * same rows.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class CoveringArray {
+    private static final int DONT_CARE = -1;
+
+    /**
+     * Generates a covering array.
+     *
+     * @param sizes    The number of values of each parameter, which must be positive.
+     * @param strength The number of parameters whose combinations are covered, which must be between 1 and the number of
+     *                 parameters.
+     * @param seed     The seed that breaks ties.
+     * @return The rows, where each row has the index of the value of each parameter.
+     */
+    static int[][] generate(@NonNull int[] sizes, int strength, long seed) {
+        int parameterCount = sizes.length;
+
+        if ((strength < 1) || (strength > parameterCount)) {
+            throw new IllegalArgumentException(String.format("The strength must be between 1 and %d, but was %d", parameterCount, strength));
+        }
+
+        // Add the parameters with the most values first. The sort is stable, so the order only depends on the sizes.
+        int[] order = IntStream.range(0, parameterCount).boxed()
+                .sorted(Comparator.comparingInt((Integer i) -> sizes[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] sortedSizes = Arrays.stream(order).map(i -> sizes[i]).toArray();
+        SplittableRandom random = new SplittableRandom(seed);
+        List<int[]> rows = newProduct(sortedSizes, strength);
+
+        for (int parameter = strength; parameter < parameterCount; ++parameter) {
+            addParameter(rows, sortedSizes, parameter, strength, random);
+        }
+
+        int[][] result = new int[rows.size()][parameterCount];
+
+        for (int r = 0; r < rows.size(); ++r) {
+            int[] row = rows.get(r);
+
+            for (int p = 0; p < parameterCount; ++p) {
+                result[r][order[p]] = (row[p] == DONT_CARE) ? random.nextInt(sortedSizes[p]) : row[p];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Creates every combination of the values of the first parameters.
+     *
+     * @param sizes The number of values of each parameter.
+     * @param count The number of parameters to combine.
+     * @return The rows, where the other parameters are don't-cares.
+     */
+    private static List<int[]> newProduct(@NonNull int[] sizes, int count) {
+        List<int[]> rows = new ArrayList<>();
+        int[] row = new int[sizes.length];
+        Arrays.fill(row, DONT_CARE);
+        Arrays.fill(row, 0, count, 0);
+
+        while (true) {
+            rows.add(row.clone());
+            int p = count - 1;
+
+            while ((p >= 0) && (++row[p] == sizes[p])) {
+                row[p--] = 0;
+            }
+
+            if (p < 0) {
+                return rows;
+            }
+        }
+    }
+
+    /**
+     * Adds a parameter to the rows, so every combination of its values with the values of any <code>strength - 1</code>
+     * of the previous parameters is covered.
+     *
+     * @param rows      The rows, which are updated.
+     * @param sizes     The number of values of each parameter.
+     * @param parameter The index of the parameter to add.
+     * @param strength  The number of parameters whose combinations are covered.
+     * @param random    Breaks ties between values.
+     */
+    private static void addParameter(@NonNull List<int[]> rows, @NonNull int[] sizes, int parameter, int strength,
+                                     @NonNull SplittableRandom random) {
+        List<int[]> subsets = getSubsets(parameter, strength - 1);
+        BitSet[] uncovered = new BitSet[subsets.size()];
+        long remaining = 0;
+
+        for (int s = 0; s < subsets.size(); ++s) {
+            int combinations = sizes[parameter];
+
+            for (int p : subsets.get(s)) {
+                combinations = Math.multiplyExact(combinations, sizes[p]);
+            }
+
+            uncovered[s] = new BitSet(combinations);
+            uncovered[s].set(0, combinations);
+            remaining += combinations;
+        }
+
+        // Horizontal growth: give each row the value that covers the most uncovered combinations.
+        for (int r = 0; (r < rows.size()) && (remaining > 0); ++r) {
+            int[] row = rows.get(r);
+            int bestValue = 0;
+            int bestGain = -1;
+            int ties = 0;
+
+            for (int value = 0; value < sizes[parameter]; ++value) {
+                int gain = 0;
+
+                for (int s = 0; s < subsets.size(); ++s) {
+                    int index = getIndex(row, subsets.get(s), sizes, parameter, value);
+
+                    if ((index >= 0) && uncovered[s].get(index)) {
+                        ++gain;
+                    }
+                }
+
+                // Choose uniformly between the values with the best gain.
+                if (gain > bestGain) {
+                    bestValue = value;
+                    bestGain = gain;
+                    ties = 1;
+                } else if ((gain == bestGain) && (random.nextInt(++ties) == 0)) {
+                    bestValue = value;
+                }
+            }
+
+            row[parameter] = bestValue;
+
+            for (int s = 0; s < subsets.size(); ++s) {
+                int index = getIndex(row, subsets.get(s), sizes, parameter, bestValue);
+
+                if (index >= 0) {
+                    uncovered[s].clear(index);
+                }
+            }
+
+            remaining -= bestGain;
+        }
+
+        // Vertical growth: cover the remaining combinations with rows that don't care about their parameters yet, or new rows.
+        for (int s = 0; s < subsets.size(); ++s) {
+            int[] subset = subsets.get(s);
+
+            for (int index = uncovered[s].nextSetBit(0); index >= 0; index = uncovered[s].nextSetBit(index + 1)) {
+                int[] values = decodeIndex(index, subset, sizes, parameter);
+                int[] row = findCompatibleRow(rows, subset, parameter, values);
+
+                if (row == null) {
+                    row = new int[sizes.length];
+                    Arrays.fill(row, DONT_CARE);
+                    rows.add(row);
+                }
+
+                for (int i = 0; i < subset.length; ++i) {
+                    row[subset[i]] = values[i];
+                }
+
+                row[parameter] = values[subset.length];
+            }
+        }
+    }
+
+    /**
+     * Gets every subset of a number of the first parameters.
+     *
+     * @param parameterCount The number of parameters to choose from.
+     * @param size           The number of parameters in each subset.
+     * @return The subsets, as increasing parameter indexes.
+     */
+    private static List<int[]> getSubsets(int parameterCount, int size) {
+        List<int[]> subsets = new ArrayList<>();
+        int[] subset = IntStream.range(0, size).toArray();
+
+        while (true) {
+            subsets.add(subset.clone());
+            int i = size - 1;
+
+            while ((i >= 0) && (subset[i] == (parameterCount - size + i))) {
+                --i;
+            }
+
+            if (i < 0) {
+                return subsets;
+            }
+
+            ++subset[i];
+
+            for (int j = i + 1; j < size; ++j) {
+                subset[j] = subset[j - 1] + 1;
+            }
+        }
+    }
+
+    /**
+     * Gets the index of the combination of a row's values of a subset of parameters and a value of the new parameter.
+     *
+     * @param row       The row.
+     * @param subset    The previous parameters.
+     * @param sizes     The number of values of each parameter.
+     * @param parameter The new parameter.
+     * @param value     The value of the new parameter.
+     * @return The index, or -1 if the row doesn't care about one of the previous parameters.
+     */
+    private static int getIndex(@NonNull int[] row, @NonNull int[] subset, @NonNull int[] sizes, int parameter, int value) {
+        int index = 0;
+
+        for (int p : subset) {
+            if (row[p] == DONT_CARE) {
+                return -1;
+            }
+
+            index = (index * sizes[p]) + row[p];
+        }
+
+        return (index * sizes[parameter]) + value;
+    }
+
+    /**
+     * Gets the values of the combination at an index.
+     *
+     * @param index     The index, as computed by {@link #getIndex}.
+     * @param subset    The previous parameters.
+     * @param sizes     The number of values of each parameter.
+     * @param parameter The new parameter.
+     * @return The value of each parameter of the subset, followed by the value of the new parameter.
+     */
+    private static int[] decodeIndex(int index, @NonNull int[] subset, @NonNull int[] sizes, int parameter) {
+        int[] values = new int[subset.length + 1];
+        values[subset.length] = index % sizes[parameter];
+        index /= sizes[parameter];
+
+        for (int i = subset.length - 1; i >= 0; --i) {
+            values[i] = index % sizes[subset[i]];
+            index /= sizes[subset[i]];
+        }
+
+        return values;
+    }
+
+    /**
+     * Finds a row that has the values of a combination, or doesn't care about them.
+     *
+     * @param rows      The rows.
+     * @param subset    The previous parameters of the combination.
+     * @param parameter The new parameter.
+     * @param values    The values of the combination, as returned by {@link #decodeIndex}.
+     * @return The first compatible row, or null if there is none.
+     */
+    private static int[] findCompatibleRow(@NonNull List<int[]> rows, @NonNull int[] subset, int parameter, @NonNull int[] values) {
+        for (int[] row : rows) {
+            boolean compatible = (row[parameter] == DONT_CARE) || (row[parameter] == values[subset.length]);
+
+            for (int i = 0; compatible && (i < subset.length); ++i) {
+                compatible = (row[subset[i]] == DONT_CARE) || (row[subset[i]] == values[i]);
+            }
+
+            if (compatible) {
+                return row;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,381 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A lazy iterator over the rows of one or more CSV files, which only keeps the current row in memory. Each file is
+ * opened when the previous one has been read, and closed when its last row has been read.
+ * <br/>
+ * If columns are selected, only those fields of each record are materialized, in the order they were selected. The fields
+ * are then converted to the parameter types of the test method, or bound to an object for a
+ * {@link io.github.cpjust.testng_annotations.annotations.CsvRow} parameter.
+ * <br/>
+ * Each file may be limited to a slice of its rows (ex. for a row range or a shard), in which case the reader is opened at
+ * the first row of the slice and closed after its last row.
+ * <br/>
+ * The iterator closes itself when its last row has been read, so it only needs to be closed if it is abandoned.
+ */
+final class CsvFileIterator implements Iterator<Object[]>, Closeable {
+    /**
+     * Opens a reader for the records of a CSV file.
+     */
+    @FunctionalInterface
+    interface IRecordReaderOpener {
+        /**
+         * Opens the reader.
+         *
+         * @param firstRecord The zero-based index of the first record to read, after any skipped lines.
+         * @return The open reader, positioned at the first record to read.
+         * @throws IOException If the file can't be opened.
+         */
+        ICsvRecordReader open(long firstRecord) throws IOException;
+
+        /**
+         * Counts the records of the file, after any skipped lines. By default, the whole file is read.
+         *
+         * @return The number of records.
+         * @throws IOException If the file can't be read.
+         */
+        default long countRecords() throws IOException {
+            try (ICsvRecordReader reader = open(0)) {
+                long count = 0;
+
+                while (reader.nextRecord() >= 0) {
+                    ++count;
+                }
+
+                return count;
+            }
+        }
+    }
+
+    /**
+     * A CSV file to read.
+     */
+    @Value
+    @AllArgsConstructor
+    static class Source {
+        String name;
+        IRecordReaderOpener opener;
+        long firstRow;
+        long rowCount;
+
+        /**
+         * Constructor for a file whose rows are all read.
+         *
+         * @param name   The name of the file, for error messages.
+         * @param opener Opens the file.
+         */
+        Source(@NonNull String name, @NonNull IRecordReaderOpener opener) {
+            this(name, opener, 0, Long.MAX_VALUE);
+        }
+
+        /**
+         * Creates a source that only reads a slice of the rows of this source's file.
+         *
+         * @param firstRow The zero-based index of the first row to read.
+         * @param rowCount The number of rows to read.
+         * @return The new source.
+         */
+        Source slice(long firstRow, long rowCount) {
+            return new Source(name, opener, firstRow, rowCount);
+        }
+    }
+
+    private final List<Source> sources;
+    private final int paramCount;
+    private final Class<?>[] parameterTypes;
+    private final MethodHandle[] converters;
+    private final RowAggregator aggregator;
+    private final int[] columns;
+    private final int minFieldCount;
+    private final Consumer<CsvFileIterator> onClose;
+    private int[] headerColumns;
+    private int headerFieldCount;
+    private int sourceIndex = -1;
+    private long recordIndex;
+    private long remainingRows;
+    private ICsvRecordReader reader;
+    private Object[] nextRow;
+
+    /**
+     * Constructor.
+     *
+     * @param sources        The CSV files to read, in order.
+     * @param parameterTypes The parameter types of the test method, which every row must have a field for.
+     * @param converters     The converter of each parameter, from {@link ArgumentConverters#forParameters}, or null if
+     *                       the rows are bound by an aggregator.
+     * @param aggregator     The aggregator that binds each row to an object, or null to convert each field to a parameter.
+     * @param columns        The zero-based indexes of the fields to return for each row (one for each parameter), or an
+     *                       empty array to return all the fields.
+     */
+    CsvFileIterator(@NonNull List<Source> sources, @NonNull Class<?>[] parameterTypes, MethodHandle[] converters,
+                    RowAggregator aggregator, @NonNull int[] columns) {
+        this(sources, parameterTypes, converters, aggregator, columns, iterator -> { });
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sources        The CSV files to read, in order.
+     * @param parameterTypes The parameter types of the test method, which every row must have a field for.
+     * @param converters     The converter of each parameter, from {@link ArgumentConverters#forParameters}, or null if
+     *                       the rows are bound by an aggregator.
+     * @param aggregator     The aggregator that binds each row to an object, or null to convert each field to a parameter.
+     * @param columns        The zero-based indexes of the fields to return for each row (one for each parameter), or an
+     *                       empty array to return all the fields.
+     * @param onClose        Called with the iterator every time it is closed, including when its last row has been read.
+     */
+    CsvFileIterator(@NonNull List<Source> sources, @NonNull Class<?>[] parameterTypes, MethodHandle[] converters,
+                    RowAggregator aggregator, @NonNull int[] columns, @NonNull Consumer<CsvFileIterator> onClose) {
+        this.onClose = onClose;
+        this.sources = new ArrayList<>(sources);
+        this.paramCount = (aggregator == null) ? parameterTypes.length : aggregator.getParameterCount();
+        this.parameterTypes = parameterTypes.clone();
+        this.converters = (converters == null) ? null : converters.clone();
+        this.aggregator = aggregator;
+        this.columns = columns.clone();
+        this.minFieldCount = Arrays.stream(columns).map(column -> column + 1).max().orElse(paramCount);
+    }
+
+    /**
+     * Checks if there is another row, reading it from the files if needed.
+     *
+     * @return True if there is another row.
+     * @throws UncheckedIOException  If a file can't be read.
+     * @throws IllegalStateException If a row has the wrong number of fields.
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null) {
+            nextRow = readNextRow();
+        }
+
+        return nextRow != null;
+    }
+
+    /**
+     * Gets the next row.
+     *
+     * @return The fields of the row.
+     * @throws NoSuchElementException if there are no more rows.
+     */
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("There are no more CSV rows!");
+        }
+
+        Object[] row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    /**
+     * Closes the file that is currently being read, if any, which stops the background thread of a compressed file. No
+     * more rows are returned afterwards.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        sourceIndex = sources.size();
+        nextRow = null;
+
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+        } finally {
+            reader = null;
+            onClose.accept(this);
+        }
+    }
+
+    /**
+     * Reads the next row, moving on to the next file when the current one is finished.
+     *
+     * @return The fields of the row, or null if all files have been read.
+     */
+    private Object[] readNextRow() {
+        while (true) {
+            if ((reader == null) && !openNextSource()) {
+                onClose.accept(this);
+                return null;
+            }
+
+            Source source = sources.get(sourceIndex);
+
+            try {
+                boolean headerPending = (aggregator != null) && aggregator.isByHeader() && (headerColumns == null);
+                int fieldCount = (headerPending || (remainingRows > 0)) ? reader.nextRecord() : -1;
+
+                if (fieldCount >= 0) {
+                    if (headerPending) {
+                        readHeader(fieldCount, source);
+
+                        if (source.getFirstRow() > 0) {
+                            // The header is record 0, so the first row of the slice is the record after it.
+                            reader.close();
+                            reader = source.getOpener().open(source.getFirstRow() + 1);
+                        }
+
+                        continue;
+                    }
+
+                    checkFieldCount(fieldCount, source);
+                    Object[] row = convert(getFields(fieldCount), source);
+                    ++recordIndex;
+                    --remainingRows;
+                    return row;
+                }
+
+                reader.close();
+                reader = null;
+            } catch (IOException e) {
+                closeQuietly();
+                throw new UncheckedIOException(String.format("Error reading CSV file '%s'!", source.getName()), e);
+            }
+        }
+    }
+
+    /**
+     * Opens the next file.
+     *
+     * @return True if a file was opened, or false if all files have been read.
+     */
+    private boolean openNextSource() {
+        if ((sourceIndex + 1) >= sources.size()) {
+            sourceIndex = sources.size();
+            return false;
+        }
+
+        Source source = sources.get(++sourceIndex);
+        boolean byHeader = (aggregator != null) && aggregator.isByHeader();
+        recordIndex = source.getFirstRow();
+        remainingRows = source.getRowCount();
+        headerColumns = null;
+
+        try {
+            reader = source.getOpener().open(byHeader ? 0 : source.getFirstRow());
+        } catch (IOException e) {
+            closeQuietly();
+            throw new UncheckedIOException(String.format("Error opening CSV file '%s'!", source.getName()), e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Materializes the fields of the current record that are returned.
+     *
+     * @param fieldCount The number of fields in the record.
+     * @return The selected fields, or all the fields if no columns were selected.
+     * @throws IOException If a field can't be decoded.
+     */
+    private Object[] getFields(int fieldCount) throws IOException {
+        int[] indexes = (headerColumns != null) ? headerColumns : ((columns.length == 0) ? null : columns);
+        Object[] row = new Object[(indexes == null) ? fieldCount : indexes.length];
+
+        for (int i = 0; i < row.length; ++i) {
+            row[i] = reader.getField((indexes == null) ? i : indexes[i]);
+        }
+
+        return row;
+    }
+
+    /**
+     * Reads the header of the current file, and finds the columns that are bound to the aggregator.
+     *
+     * @param fieldCount The number of fields in the header.
+     * @param source     The file the header was read from.
+     * @throws IOException If the header can't be decoded.
+     */
+    private void readHeader(int fieldCount, @NonNull Source source) throws IOException {
+        Object[] header = new Object[fieldCount];
+
+        for (int i = 0; i < fieldCount; ++i) {
+            header[i] = reader.getField(i);
+        }
+
+        try {
+            headerColumns = aggregator.getColumns(header);
+            headerFieldCount = fieldCount;
+        } catch (IllegalStateException e) {
+            closeQuietly();
+            throw new IllegalStateException(String.format("Error in the CSV header of '%s': %s", source.getName(), e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Converts the fields of the current record to the parameter types, or binds them to an object.
+     *
+     * @param row    The fields of the record, which are replaced by the converted values.
+     * @param source The file the record was read from.
+     * @return The parameter values of the row.
+     */
+    private Object[] convert(@NonNull Object[] row, @NonNull Source source) {
+        try {
+            return (aggregator == null) ? ArgumentConverters.convertRow(row, parameterTypes, converters) : new Object[]{aggregator.bind(row)};
+        } catch (IllegalArgumentException e) {
+            closeQuietly();
+            throw new IllegalStateException(String.format(
+                    "Error converting CSV record at index %d of '%s': %s", recordIndex, source.getName(), e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Throws an exception if the current record doesn't have the number of fields that the test method needs.
+     *
+     * @param fieldCount The number of fields in the record.
+     * @param source     The file the record was read from.
+     * @throws IOException If the fields can't be decoded for the error message.
+     */
+    private void checkFieldCount(int fieldCount, @NonNull Source source) throws IOException {
+        if ((headerColumns != null) && (fieldCount != headerFieldCount)) {
+            closeQuietly();
+            throw new IllegalStateException(String.format(
+                    "CSV record at index %d of '%s' has %d fields, but the header has %d fields",
+                    recordIndex, source.getName(), fieldCount, headerFieldCount));
+        }
+
+        if ((headerColumns == null) && (columns.length == 0) && (fieldCount != paramCount)) {
+            String row = Arrays.toString(getFields(fieldCount));
+            closeQuietly();
+            throw new IllegalStateException(String.format(
+                    "CSV record at index %d of '%s' does not match method parameter count (parsed %d params, but method takes %d params): %s",
+                    recordIndex, source.getName(), fieldCount, paramCount, row));
+        }
+
+        if (fieldCount < minFieldCount) {
+            closeQuietly();
+            throw new IllegalStateException(String.format(
+                    "CSV record at index %d of '%s' has %d fields, but the selected columns %s need at least %d fields",
+                    recordIndex, source.getName(), fieldCount, Arrays.toString(columns), minFieldCount));
+        }
+    }
+
+    /**
+     * Closes the current file after an error, ignoring any further errors.
+     */
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // Ignore, the original error is more useful.
+        }
+    }
+}
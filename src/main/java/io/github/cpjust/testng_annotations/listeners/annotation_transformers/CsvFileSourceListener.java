@@ -0,0 +1,536 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CsvFileSource;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IAnnotationTransformer;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.ITestAnnotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * TestNG listener that processes {@link CsvFileSource} annotations and converts them into a lazy data provider, which
+ * reads the rows while the tests run instead of loading the whole files into memory.
+ * <br/>
+ * If only some of the rows are used (with a row range or a shard), uncompressed files are opened directly at their first
+ * used row with a {@link CsvRowIndex}, which is built once and cached next to the file.
+ * <br/>
+ * TestNG stops reading the rows of a method early if it is skipped (ex. its dependencies failed) or a run is stopped, so
+ * the files that are still open when a <code>&lt;test&gt;</code> finishes are closed by {@link #onFinish(ITestContext)}.
+ */
+@Slf4j
+public class CsvFileSourceListener extends SourceListenerBase implements IAnnotationTransformer, ITestListener {
+    static final String CSV_FILE_SOURCE_PROVIDER = "csvFileSourceProvider";
+    static final Map.Entry<Class<?>, String> CSV_FILE_SOURCE_PROVIDER_CLASS_AND_NAME = Map.entry(CsvFileSourceListener.class, CSV_FILE_SOURCE_PROVIDER);
+    static final String CSV_FILE_SOURCE_PARALLEL_PROVIDER = "csvFileSourceParallelProvider";
+    static final Map.Entry<Class<?>, String> CSV_FILE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME = Map.entry(CsvFileSourceListener.class, CSV_FILE_SOURCE_PARALLEL_PROVIDER);
+
+    private static final Map<ITestContext, Set<CsvFileIterator>> OPEN_ITERATORS = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the listener with the CSV file source data provider.
+     */
+    public CsvFileSourceListener() {
+        super(List.of(CSV_FILE_SOURCE_PROVIDER_CLASS_AND_NAME, CSV_FILE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME));
+    }
+
+    /**
+     * Transforms test methods annotated with {@link CsvFileSource} to use a data provider.
+     * @param annotation      The TestNG annotation being transformed.
+     * @param testClass       The test class (unused).
+     * @param testConstructor The test constructor (unused).
+     * @param testMethod      The test method.
+     */
+    @Override
+    public void transform(@NonNull ITestAnnotation annotation, Class testClass,
+                          Constructor testConstructor, Method testMethod) {
+        if (testMethod == null) {
+            return;
+        }
+
+        throwIfDataProviderNotAllowed(annotation, testMethod);
+        throwIfTestHasMultipleDataProviders(testMethod);
+
+        if (isCsvFileSourcePresent(testMethod)) {
+            setDataProvider(annotation, testMethod, CSV_FILE_SOURCE_PROVIDER_CLASS_AND_NAME, CSV_FILE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
+        }
+    }
+
+    /**
+     * Checks if the given method is annotated with {@link CsvFileSource}.
+     *
+     * @param method The test method.
+     * @return True if the method is annotated with {@link CsvFileSource}, false otherwise.
+     */
+    public static boolean isCsvFileSourcePresent(@NonNull Method method) {
+        return method.isAnnotationPresent(CsvFileSource.class);
+    }
+
+    /**
+     * Data provider that supplies parameter values for methods annotated with {@link CsvFileSource}.
+     *
+     * @param method  The test method.
+     * @param context The test context, which closes the files if the rows aren't all read.
+     * @return A lazy iterator over the parameter values of each row.
+     */
+    @DataProvider(name = CSV_FILE_SOURCE_PROVIDER)
+    public static Iterator<Object[]> csvFileSourceProvider(Method method, ITestContext context) {
+        return provideValues(method, context);
+    }
+
+    /**
+     * Data provider that supplies parameter values for methods annotated with {@link CsvFileSource} with
+     * <code>parallel = true</code>, so TestNG may run the rows in parallel.
+     *
+     * @param method  The test method.
+     * @param context The test context, which closes the files if the rows aren't all read.
+     * @return A lazy iterator over the parameter values of each row.
+     */
+    @DataProvider(name = CSV_FILE_SOURCE_PARALLEL_PROVIDER, parallel = true)
+    public static Iterator<Object[]> csvFileSourceParallelProvider(Method method, ITestContext context) {
+        return provideValues(method, context);
+    }
+
+    /**
+     * Closes the files of the iterators of a test context whose rows weren't all read, which also stops the background
+     * threads of compressed files.
+     *
+     * @param context The test context that finished.
+     */
+    @Override
+    public void onFinish(@NonNull ITestContext context) {
+        Set<CsvFileIterator> iterators = OPEN_ITERATORS.remove(context);
+
+        if (iterators == null) {
+            return;
+        }
+
+        for (CsvFileIterator iterator : iterators) {
+            try {
+                iterator.close();
+            } catch (IOException e) {
+                log.warn("Unable to close an abandoned CSV file of test '{}'", context.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Provides parameter values for a method annotated with {@link CsvFileSource}, and tracks the iterator until its last
+     * row has been read, so {@link #onFinish(ITestContext)} can close it if it is abandoned.
+     *
+     * @param method  The test method.
+     * @param context The test context of the method.
+     * @return A lazy iterator over the parameter values of each row.
+     */
+    static Iterator<Object[]> provideValues(@NonNull Method method, @NonNull ITestContext context) {
+        Set<CsvFileIterator> iterators = OPEN_ITERATORS.computeIfAbsent(context, key -> ConcurrentHashMap.newKeySet());
+        CsvFileIterator iterator = createIterator(method, iterators::remove);
+        iterators.add(iterator);
+        return iterator;
+    }
+
+    /**
+     * Provides parameter values for a method annotated with {@link CsvFileSource}.
+     * The annotation is validated immediately, but the files are only read as the rows are iterated.
+     *
+     * @param method The test method.
+     * @return A lazy iterator over the parameter values of each row.
+     */
+    public static Iterator<Object[]> provideValues(@NonNull Method method) {
+        return createIterator(method, iterator -> { });
+    }
+
+    /**
+     * Validates the {@link CsvFileSource} annotation of a method and creates a lazy iterator over its rows.
+     *
+     * @param method  The test method.
+     * @param onClose Called with the iterator every time it is closed, including when its last row has been read.
+     * @return The iterator.
+     */
+    private static CsvFileIterator createIterator(@NonNull Method method, @NonNull Consumer<CsvFileIterator> onClose) {
+        CsvFileSource csvFileSource = method.getAnnotation(CsvFileSource.class);
+
+        if (csvFileSource == null) {
+            throw new IllegalStateException("No @CsvFileSource annotation found on method: " + method.getName());
+        }
+
+        CsvSourceListener.validateDelimiterAndQuote(csvFileSource.delimiter(), csvFileSource.quoteCharacter(), "CsvFileSource");
+        RowAggregator aggregator = RowAggregator.forMethod(method);
+        MethodHandle[] converters = (aggregator == null) ? ArgumentConverters.forParameters(method) : null;
+
+        if (csvFileSource.numLinesToSkip() < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "CsvFileSource numLinesToSkip cannot be negative, but was %d", csvFileSource.numLinesToSkip()));
+        }
+
+        throwIfColumnsAreInvalid(method, csvFileSource.columns(), aggregator);
+        RowRange.validate(csvFileSource.fromRow(), csvFileSource.toRow(), "CsvFileSource");
+        Charset charset = getCharset(csvFileSource);
+
+        if (csvFileSource.memoryMapped() && !MappedCsvRecordReader.isSupported(charset, csvFileSource.delimiter(), csvFileSource.quoteCharacter())) {
+            throw new IllegalArgumentException(String.format(
+                    "CsvFileSource memoryMapped requires UTF-8 or a single-byte encoding where the delimiter and quote character are single bytes, but the encoding is '%s'",
+                    csvFileSource.encoding()));
+        }
+
+        List<CsvFileIterator.Source> sources = getSources(method, csvFileSource, charset);
+
+        if (sources.isEmpty()) {
+            throw new IllegalStateException("No resources or files provided in @CsvFileSource annotation");
+        }
+
+        sources = selectRows(sources, csvFileSource, aggregator);
+        return new CsvFileIterator(sources, method.getParameterTypes(), converters, aggregator, csvFileSource.columns(), onClose);
+    }
+
+    /**
+     * Limits the files to the rows selected by the row range and shard of the annotation. The rows of all the files are
+     * numbered together, in order, so the files are counted first (which uses the cached index of uncompressed files).
+     *
+     * @param sources       The CSV files to read.
+     * @param csvFileSource The annotation of the test method.
+     * @param aggregator    The aggregator of the test method, or null if it has no @CsvRow parameter.
+     * @return The slices of the files that contain the selected rows.
+     */
+    private static List<CsvFileIterator.Source> selectRows(@NonNull List<CsvFileIterator.Source> sources,
+                                                           @NonNull CsvFileSource csvFileSource, RowAggregator aggregator) {
+        if (RowRange.isAllRows(csvFileSource.fromRow(), csvFileSource.toRow(), csvFileSource.sharded())) {
+            return sources;
+        }
+
+        boolean hasHeader = (aggregator != null) && aggregator.isByHeader();
+        long[] rowCounts = new long[sources.size()];
+        long totalRows = 0;
+
+        for (int i = 0; i < rowCounts.length; ++i) {
+            CsvFileIterator.Source source = sources.get(i);
+
+            try {
+                long recordCount = source.getOpener().countRecords();
+                rowCounts[i] = hasHeader ? Math.max(0, recordCount - 1) : recordCount;
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Error reading CSV file '%s'!", source.getName()), e);
+            }
+
+            totalRows += rowCounts[i];
+        }
+
+        long[] selected = RowRange.select(csvFileSource.fromRow(), csvFileSource.toRow(), csvFileSource.sharded(), totalRows);
+        log.debug("Reading rows {} to {} of {} CSV rows", selected[0], selected[1], totalRows);
+        List<CsvFileIterator.Source> result = new ArrayList<>();
+        long sourceStart = 0;
+
+        for (int i = 0; i < rowCounts.length; ++i) {
+            long from = Math.max(selected[0], sourceStart);
+            long to = Math.min(selected[1], sourceStart + rowCounts[i]);
+
+            if (from < to) {
+                result.add(sources.get(i).slice(from - sourceStart, to - from));
+            }
+
+            sourceStart += rowCounts[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Throws an exception if the selected columns don't match the parameters of the test method.
+     *
+     * @param method     The test method.
+     * @param columns    The zero-based indexes of the selected columns, or an empty array if all columns are used.
+     * @param aggregator The aggregator of the test method, or null if it has no @CsvRow parameter.
+     */
+    private static void throwIfColumnsAreInvalid(@NonNull Method method, @NonNull int[] columns, RowAggregator aggregator) {
+        if ((columns.length > 0) && (aggregator != null) && aggregator.isByHeader()) {
+            throw new IllegalArgumentException(String.format(
+                    "CsvFileSource columns cannot be used on method '%s', since its @CsvRow parameter selects the columns by header name",
+                    method.getName()));
+        }
+
+        int paramCount = (aggregator == null) ? method.getParameterCount() : aggregator.getParameterCount();
+
+        if ((columns.length > 0) && (columns.length != paramCount)) {
+            throw new IllegalArgumentException(String.format(
+                    "CsvFileSource columns must select one column for each of the %d parameters of method '%s', but selects %d columns",
+                    paramCount, method.getName(), columns.length));
+        }
+
+        for (int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException(String.format(
+                        "CsvFileSource columns cannot be negative, but found %d", column));
+            }
+        }
+    }
+
+    /**
+     * Gets the classpath resources and files of the annotation, and checks that they exist.
+     *
+     * @param method        The test method.
+     * @param csvFileSource The annotation of the test method.
+     * @param charset       The character set of the files.
+     * @return The CSV files to read, resources first.
+     */
+    private static List<CsvFileIterator.Source> getSources(@NonNull Method method, @NonNull CsvFileSource csvFileSource,
+                                                          @NonNull Charset charset) {
+        List<CsvFileIterator.Source> sources = new ArrayList<>();
+        Class<?> testClass = method.getDeclaringClass();
+
+        for (String resource : csvFileSource.resources()) {
+            URL url = testClass.getResource(resource);
+
+            if (url == null) {
+                throw new IllegalStateException(String.format(
+                        "Classpath resource '%s' in @CsvFileSource annotation on method '%s' does not exist", resource, method.getName()));
+            }
+
+            Path path = toPath(url);
+
+            if (CompressedStreams.isCompressed(resource)) {
+                sources.add(new CsvFileIterator.Source(resource, firstRecord ->
+                        skipRecords(openCompressed(url.openStream(), resource, csvFileSource, charset), firstRecord)));
+            } else if (path != null) {
+                sources.add(new CsvFileIterator.Source(resource, newFileOpener(path, csvFileSource, charset)));
+            } else {
+                sources.add(new CsvFileIterator.Source(resource, firstRecord -> skipRecords(new BufferedCsvRecordReader(
+                        Channels.newChannel(url.openStream()), charset, csvFileSource.numLinesToSkip(), newTokenizer(csvFileSource)), firstRecord)));
+            }
+        }
+
+        for (String file : csvFileSource.files()) {
+            Path path = Paths.get(file);
+
+            if (!Files.isRegularFile(path)) {
+                throw new IllegalStateException(String.format(
+                        "File '%s' in @CsvFileSource annotation on method '%s' does not exist", file, method.getName()));
+            }
+
+            if (CompressedStreams.isCompressed(file)) {
+                sources.add(new CsvFileIterator.Source(file, firstRecord ->
+                        skipRecords(openCompressed(Files.newInputStream(path), file, csvFileSource, charset), firstRecord)));
+            } else {
+                sources.add(new CsvFileIterator.Source(file, newFileOpener(path, csvFileSource, charset)));
+            }
+        }
+
+        return sources;
+    }
+
+    /**
+     * Creates the opener of an uncompressed CSV file, which uses a {@link CsvRowIndex} to start at a record if the file
+     * can be indexed.
+     *
+     * @param path          The file.
+     * @param csvFileSource The annotation of the test method.
+     * @param charset       The character set of the file.
+     * @return The opener.
+     */
+    private static CsvFileIterator.IRecordReaderOpener newFileOpener(@NonNull Path path, @NonNull CsvFileSource csvFileSource,
+                                                                    @NonNull Charset charset) {
+        if (MappedCsvRecordReader.isSupported(charset, csvFileSource.delimiter(), csvFileSource.quoteCharacter())) {
+            return new IndexedFileOpener(path, csvFileSource, charset);
+        }
+
+        return firstRecord -> skipRecords(openFile(path, csvFileSource, charset, 0), firstRecord);
+    }
+
+    /**
+     * Opens a reader for a CSV file, which is memory-mapped if the annotation asks for it.
+     *
+     * @param path          The file.
+     * @param csvFileSource The annotation of the test method.
+     * @param charset       The character set of the file.
+     * @param offset        The byte offset of the record to start at, or 0 to start at the beginning of the file after
+     *                      the skipped lines.
+     * @return The reader.
+     * @throws IOException If the file can't be opened.
+     */
+    private static ICsvRecordReader openFile(@NonNull Path path, @NonNull CsvFileSource csvFileSource, @NonNull Charset charset,
+                                            long offset) throws IOException {
+        int numLinesToSkip = (offset == 0) ? csvFileSource.numLinesToSkip() : 0;
+
+        if (csvFileSource.memoryMapped()) {
+            MappedCsvRecordReader reader = new MappedCsvRecordReader(path, charset, numLinesToSkip, csvFileSource.delimiter(),
+                    csvFileSource.quoteCharacter(), csvFileSource.trimWhitespace());
+
+            if (offset > 0) {
+                reader.seek(offset);
+            }
+
+            return reader;
+        }
+
+        FileChannel channel = FileChannel.open(path);
+
+        try {
+            return new BufferedCsvRecordReader(channel.position(offset), charset, numLinesToSkip, newTokenizer(csvFileSource));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Skips the first records of a reader.
+     *
+     * @param reader The reader, which is closed if the records can't be read.
+     * @param count  The number of records to skip.
+     * @return The reader.
+     * @throws IOException If the records can't be read.
+     */
+    private static ICsvRecordReader skipRecords(@NonNull ICsvRecordReader reader, long count) throws IOException {
+        try {
+            for (long i = 0; (i < count) && (reader.nextRecord() >= 0); ++i) {
+                // Only the record boundaries are located, the fields aren't decoded.
+            }
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+
+        return reader;
+    }
+
+    /**
+     * Opens a reader for a compressed CSV file, which is decompressed on a background thread. Compressed files are never
+     * memory-mapped.
+     *
+     * @param compressed    The compressed stream.
+     * @param name          The name of the file, whose extension determines the compression format.
+     * @param csvFileSource The annotation of the test method.
+     * @param charset       The character set of the decompressed file.
+     * @return The reader.
+     * @throws IOException If the file can't be decompressed.
+     */
+    private static ICsvRecordReader openCompressed(@NonNull InputStream compressed, @NonNull String name,
+                                                  @NonNull CsvFileSource csvFileSource, @NonNull Charset charset) throws IOException {
+        return new BufferedCsvRecordReader(Channels.newChannel(CompressedStreams.decompress(compressed, name)), charset,
+                csvFileSource.numLinesToSkip(), newTokenizer(csvFileSource));
+    }
+
+    /**
+     * Creates a tokenizer for the format of the annotation.
+     *
+     * @param csvFileSource The annotation of the test method.
+     * @return A new tokenizer.
+     */
+    private static CsvTokenizer newTokenizer(@NonNull CsvFileSource csvFileSource) {
+        return new CsvTokenizer(csvFileSource.delimiter(), csvFileSource.quoteCharacter(), csvFileSource.trimWhitespace());
+    }
+
+    /**
+     * Gets the file of a classpath resource, so it can be memory-mapped.
+     *
+     * @param url The URL of the resource.
+     * @return The file, or null if the resource isn't a file (ex. it's inside a jar).
+     */
+    private static Path toPath(@NonNull URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            log.debug("Unable to convert the resource URL {} to a file, so it will be streamed", url, e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the character set of the annotation.
+     *
+     * @param csvFileSource The annotation.
+     * @return The character set.
+     */
+    private static Charset getCharset(@NonNull CsvFileSource csvFileSource) {
+        try {
+            return Charset.forName(csvFileSource.encoding());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(
+                    "CsvFileSource encoding '%s' is not a supported character set", csvFileSource.encoding()), e);
+        }
+    }
+
+    /**
+     * Opens an uncompressed CSV file at any record by starting at the closest offset in its {@link CsvRowIndex}. The index
+     * is only loaded or built if the file isn't read from its first record.
+     */
+    @RequiredArgsConstructor
+    private static final class IndexedFileOpener implements CsvFileIterator.IRecordReaderOpener {
+        private final Path path;
+        private final CsvFileSource csvFileSource;
+        private final Charset charset;
+
+        /**
+         * Opens the file at a record.
+         *
+         * @param firstRecord The zero-based index of the first record to read, after any skipped lines.
+         * @return The open reader, positioned at the record.
+         * @throws IOException If the file can't be read.
+         */
+        @Override
+        public ICsvRecordReader open(long firstRecord) throws IOException {
+            if (firstRecord < CsvRowIndex.CHECKPOINT_INTERVAL) {
+                return skipRecords(openFile(path, csvFileSource, charset, 0), firstRecord);
+            }
+
+            CsvRowIndex index = getIndex();
+
+            if (index.getRecordCount() == 0) {
+                return openFile(path, csvFileSource, charset, 0);
+            }
+
+            long record = Math.min(firstRecord, index.getRecordCount() - 1);
+            long checkpoint = CsvRowIndex.getCheckpointRecord(record);
+            return skipRecords(openFile(path, csvFileSource, charset, index.getCheckpointOffset(record)), firstRecord - checkpoint);
+        }
+
+        /**
+         * Gets the number of records from the index of the file.
+         *
+         * @return The number of records.
+         * @throws IOException If the file can't be indexed.
+         */
+        @Override
+        public long countRecords() throws IOException {
+            return getIndex().getRecordCount();
+        }
+
+        /**
+         * Gets the index of the file.
+         *
+         * @return The index.
+         * @throws IOException If the file can't be indexed.
+         */
+        private CsvRowIndex getIndex() throws IOException {
+            return CsvRowIndex.get(path, charset, csvFileSource.numLinesToSkip(), csvFileSource.delimiter(),
+                    csvFileSource.quoteCharacter(), csvFileSource.trimWhitespace());
+        }
+    }
+}
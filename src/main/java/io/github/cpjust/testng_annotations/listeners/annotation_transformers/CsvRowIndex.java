@@ -0,0 +1,271 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A sparse index of the byte offsets of the records of a CSV file, so a reader can start at any record after reading at
+ * most {@link #CHECKPOINT_INTERVAL} - 1 records, instead of reading the file from the start. It also knows the number of
+ * records, so the rows can be split into shards without reading the file.
+ * <br/>
+ * The index is built once by scanning the memory-mapped file, and is cached in memory and in a file next to the CSV file
+ * (ex. "data.csv.rowindex"), so later runs don't scan the file again. The cached index is rebuilt if the size or
+ * modification time of the CSV file or its format changes. If the index file can't be written (ex. the directory is
+ * read-only), the index is only cached in memory.
+ * <br/>
+ * Only files that {@link MappedCsvRecordReader#isSupported} can read are indexed, since the offsets must be at character
+ * boundaries that both readers agree on.
+ */
+@Slf4j
+final class CsvRowIndex {
+    /**
+     * The number of records between two offsets in the index.
+     */
+    static final int CHECKPOINT_INTERVAL = 1024;
+
+    /**
+     * The extension that is added to the name of the CSV file for the name of its index file.
+     */
+    static final String FILE_EXTENSION = ".rowindex";
+
+    private static final int MAGIC = 0x43535649; // "CSVI"
+    private static final int VERSION = 1;
+    private static final Map<List<Object>, CsvRowIndex> CACHE = new ConcurrentHashMap<>();
+
+    private final long fileSize;
+    private final long lastModified;
+    private final String format;
+    @Getter
+    private final long recordCount;
+    private final long[] offsets;
+
+    /**
+     * Constructor.
+     *
+     * @param fileSize     The size of the CSV file when it was indexed.
+     * @param lastModified The modification time of the CSV file when it was indexed, in milliseconds.
+     * @param format       A description of the format the file was parsed with.
+     * @param recordCount  The number of records in the file.
+     * @param offsets      The byte offset of every {@link #CHECKPOINT_INTERVAL}th record.
+     */
+    private CsvRowIndex(long fileSize, long lastModified, @NonNull String format, long recordCount, @NonNull long[] offsets) {
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.format = format;
+        this.recordCount = recordCount;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Gets the index of a CSV file, loading it from the index file or building it if there's no up-to-date index yet.
+     *
+     * @param file           The CSV file.
+     * @param charset        The character set of the file, which must be supported by {@link MappedCsvRecordReader}.
+     * @param numLinesToSkip The number of lines to skip at the start of the file.
+     * @param delimiter      The delimiter between fields.
+     * @param quoteCharacter The character used to quote fields.
+     * @param trimWhitespace Whether to trim the whitespace around records and fields.
+     * @return The index.
+     * @throws IOException If the CSV file can't be read.
+     */
+    static CsvRowIndex get(@NonNull Path file, @NonNull Charset charset, int numLinesToSkip, char delimiter,
+                           char quoteCharacter, boolean trimWhitespace) throws IOException {
+        Path csvFile = file.toAbsolutePath().normalize();
+        String format = String.format("%s|%d|%d|%d|%b", charset.name(), numLinesToSkip, (int) delimiter, (int) quoteCharacter, trimWhitespace);
+        long fileSize = Files.size(csvFile);
+        long lastModified = Files.getLastModifiedTime(csvFile).toMillis();
+        List<Object> key = List.of(csvFile, format);
+        CsvRowIndex index = CACHE.get(key);
+
+        if ((index != null) && index.isCurrent(fileSize, lastModified, format)) {
+            return index;
+        }
+
+        Path indexFile = getIndexFile(csvFile);
+        index = read(indexFile);
+
+        if ((index == null) || !index.isCurrent(fileSize, lastModified, format)) {
+            index = build(csvFile, charset, numLinesToSkip, delimiter, quoteCharacter, trimWhitespace, fileSize, lastModified, format);
+            write(index, indexFile);
+        }
+
+        CACHE.put(key, index);
+        return index;
+    }
+
+    /**
+     * Gets the index file of a CSV file.
+     *
+     * @param file The CSV file.
+     * @return The index file next to it.
+     */
+    static Path getIndexFile(@NonNull Path file) {
+        return file.resolveSibling(file.getFileName() + FILE_EXTENSION);
+    }
+
+    /**
+     * Gets the record of the last offset in the index at or before a record.
+     *
+     * @param record The zero-based index of the record.
+     * @return The zero-based index of the record whose offset is known.
+     */
+    static long getCheckpointRecord(long record) {
+        return (record / CHECKPOINT_INTERVAL) * CHECKPOINT_INTERVAL;
+    }
+
+    /**
+     * Gets the byte offset of the last offset in the index at or before a record.
+     *
+     * @param record The zero-based index of the record, which must be less than the record count.
+     * @return The byte offset of the record returned by {@link #getCheckpointRecord}.
+     */
+    long getCheckpointOffset(long record) {
+        return offsets[(int) (record / CHECKPOINT_INTERVAL)];
+    }
+
+    /**
+     * Checks if the index is up-to-date for a CSV file.
+     *
+     * @param fileSize     The current size of the CSV file.
+     * @param lastModified The current modification time of the CSV file.
+     * @param format       The format the file is parsed with.
+     * @return True if the index can be used.
+     */
+    private boolean isCurrent(long fileSize, long lastModified, @NonNull String format) {
+        return (this.fileSize == fileSize) && (this.lastModified == lastModified) && this.format.equals(format);
+    }
+
+    /**
+     * Builds the index of a CSV file by scanning it.
+     *
+     * @param file           The CSV file.
+     * @param charset        The character set of the file.
+     * @param numLinesToSkip The number of lines to skip at the start of the file.
+     * @param delimiter      The delimiter between fields.
+     * @param quoteCharacter The character used to quote fields.
+     * @param trimWhitespace Whether to trim the whitespace around records and fields.
+     * @param fileSize       The size of the CSV file.
+     * @param lastModified   The modification time of the CSV file.
+     * @param format         A description of the format.
+     * @return The index.
+     * @throws IOException If the CSV file can't be read.
+     */
+    private static CsvRowIndex build(@NonNull Path file, @NonNull Charset charset, int numLinesToSkip, char delimiter,
+                                     char quoteCharacter, boolean trimWhitespace, long fileSize, long lastModified,
+                                     @NonNull String format) throws IOException {
+        long[] offsets = new long[16];
+        long recordCount = 0;
+
+        try (MappedCsvRecordReader reader = new MappedCsvRecordReader(file, charset, numLinesToSkip, delimiter, quoteCharacter, trimWhitespace)) {
+            while (reader.nextRecord() >= 0) {
+                if ((recordCount % CHECKPOINT_INTERVAL) == 0) {
+                    int checkpoint = (int) (recordCount / CHECKPOINT_INTERVAL);
+
+                    if (checkpoint == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, checkpoint * 2);
+                    }
+
+                    offsets[checkpoint] = reader.getRecordStart();
+                }
+
+                ++recordCount;
+            }
+        }
+
+        int checkpointCount = (int) ((recordCount + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL);
+        log.debug("Indexed {} records of {}", recordCount, file);
+        return new CsvRowIndex(fileSize, lastModified, format, recordCount, Arrays.copyOf(offsets, checkpointCount));
+    }
+
+    /**
+     * Reads an index file.
+     *
+     * @param indexFile The index file.
+     * @return The index, or null if the file doesn't exist or isn't a valid index file.
+     */
+    private static CsvRowIndex read(@NonNull Path indexFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                return null;
+            }
+
+            long fileSize = in.readLong();
+            long lastModified = in.readLong();
+            String format = in.readUTF();
+            long recordCount = in.readLong();
+            long[] offsets = new long[in.readInt()];
+
+            for (int i = 0; i < offsets.length; ++i) {
+                offsets[i] = in.readLong();
+            }
+
+            return new CsvRowIndex(fileSize, lastModified, format, recordCount, offsets);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unable to read the CSV row index {}, so it will be rebuilt", indexFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes an index file, replacing it atomically so concurrent readers never see a partial index.
+     *
+     * @param index     The index.
+     * @param indexFile The index file.
+     */
+    private static void write(@NonNull CsvRowIndex index, @NonNull Path indexFile) {
+        Path tempFile = null;
+
+        try {
+            tempFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(index.fileSize);
+                out.writeLong(index.lastModified);
+                out.writeUTF(index.format);
+                out.writeLong(index.recordCount);
+                out.writeInt(index.offsets.length);
+
+                for (long offset : index.offsets) {
+                    out.writeLong(offset);
+                }
+            }
+
+            try {
+                Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unable to write the CSV row index {}, so it will only be cached in memory", indexFile, e);
+
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException deleteError) {
+                    // Ignore, the temp file is only left behind.
+                }
+            }
+        }
+    }
+}
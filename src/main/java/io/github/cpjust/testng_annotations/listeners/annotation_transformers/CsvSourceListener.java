@@ -1,8 +1,6 @@
 package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
 
-import de.siegmar.fastcsv.reader.CommentStrategy;
-import de.siegmar.fastcsv.reader.CsvRecordHandler;
-import de.siegmar.fastcsv.reader.FieldModifiers;
+import io.github.cpjust.testng_annotations.annotations.CsvRow;
 import io.github.cpjust.testng_annotations.annotations.CsvSource;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -10,15 +8,12 @@ import org.testng.IAnnotationTransformer;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.ITestAnnotation;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-
-import de.siegmar.fastcsv.reader.CsvReader;
-import de.siegmar.fastcsv.reader.CsvRecord;
-
-import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -28,12 +23,17 @@ import java.util.Map;
 public class CsvSourceListener extends SourceListenerBase implements IAnnotationTransformer {
     static final String CSV_SOURCE_PROVIDER = "csvSourceProvider";
     static final Map.Entry<Class<?>, String> CSV_SOURCE_PROVIDER_CLASS_AND_NAME = Map.entry(CsvSourceListener.class, CSV_SOURCE_PROVIDER);
+    static final String CSV_SOURCE_PARALLEL_PROVIDER = "csvSourceParallelProvider";
+    static final Map.Entry<Class<?>, String> CSV_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME = Map.entry(CsvSourceListener.class, CSV_SOURCE_PARALLEL_PROVIDER);
+
+    // Keyed by the annotations and the parameter types, which is everything the parsed values depend on.
+    static final DataProviderCache<List<Object>> CACHE = new DataProviderCache<>();
 
     /**
      * Constructs the listener with the CSV source data provider.
      */
     public CsvSourceListener() {
-        super(List.of(CSV_SOURCE_PROVIDER_CLASS_AND_NAME));
+        super(List.of(CSV_SOURCE_PROVIDER_CLASS_AND_NAME, CSV_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME));
     }
 
     /**
@@ -54,8 +54,7 @@ public class CsvSourceListener extends SourceListenerBase implements IAnnotation
         throwIfTestHasMultipleDataProviders(testMethod);
 
         if (isCsvSourcePresent(testMethod)) {
-            annotation.setDataProvider(CSV_SOURCE_PROVIDER_CLASS_AND_NAME.getValue());
-            annotation.setDataProviderClass(CSV_SOURCE_PROVIDER_CLASS_AND_NAME.getKey());
+            setDataProvider(annotation, testMethod, CSV_SOURCE_PROVIDER_CLASS_AND_NAME, CSV_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
         }
     }
 
@@ -80,8 +79,23 @@ public class CsvSourceListener extends SourceListenerBase implements IAnnotation
         return provideValues(method);
     }
 
+    /**
+     * Data provider that supplies parameter values for methods annotated with {@link CsvSource} with
+     * <code>parallel = true</code>, so TestNG may run the rows in parallel.
+     *
+     * @param method The test method.
+     * @return A 2D array of parameter values.
+     */
+    @DataProvider(name = CSV_SOURCE_PARALLEL_PROVIDER, parallel = true)
+    public static Object[][] csvSourceParallelProvider(Method method) {
+        return provideValues(method);
+    }
+
     /**
      * Provides parameter values for a method annotated with {@link CsvSource}.
+     * The values are only parsed the first time, and are shared by methods of the same class with identical annotations.
+     * Rows bound to a {@link CsvRow} parameter are bound again on every call, and values of types that may be mutable
+     * are converted again on every call, so each invocation gets its own objects.
      *
      * @param method The test method.
      * @return A 2D array of parameter values.
@@ -93,111 +107,243 @@ public class CsvSourceListener extends SourceListenerBase implements IAnnotation
             throw new IllegalStateException("No @CsvSource annotation found on method: " + method.getName());
         }
 
-        validateCsvSourceParameters(csvSource);
+        Object[][] rows = CACHE.get(method.getDeclaringClass(), Arrays.asList(csvSource, List.of(method.getParameterTypes()), RowAggregator.getCsvRow(method)),
+                () -> parseValues(method, csvSource));
 
-        // Ensure all parameters are Strings
-        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (!RowRange.isAllRows(csvSource.fromRow(), csvSource.toRow(), csvSource.sharded())) {
+            // The shard is read on every call, so the cached rows are sliced instead of caching each slice.
+            long[] selected = RowRange.select(csvSource.fromRow(), csvSource.toRow(), csvSource.sharded(), rows.length);
+            rows = Arrays.copyOfRange(rows, (int) selected[0], (int) selected[1]);
+        }
 
-        for (int i = 0; i < parameterTypes.length; ++i) {
-            if (!parameterTypes[i].equals(String.class)) {
-                throw new IllegalStateException(String.format(
-                        "Parameter at index %d of method '%s' does not match method parameter type (expected: String, found: %s)",
-                        i, method.getName(), parameterTypes[i].getSimpleName()
-                ));
-            }
+        RowAggregator aggregator = RowAggregator.forMethod(method);
+
+        if (aggregator != null) {
+            return aggregateRows(rows, aggregator);
+        }
+
+        if (ArgumentConverters.areImmutable(method.getParameterTypes())) {
+            return rows;
         }
 
+        return convertRows(rows, method, ArgumentConverters.forParameters(method));
+    }
+
+    /**
+     * Validates and parses the values of a {@link CsvSource} annotation.
+     *
+     * @param method    The test method.
+     * @param csvSource The annotation of the test method.
+     * @return A 2D array of parameter values, or the String values of each row if a parameter type may be mutable, or the
+     *         String values of the constructor parameters of each row if the method has a {@link CsvRow} parameter.
+     */
+    private static Object[][] parseValues(@NonNull Method method, @NonNull CsvSource csvSource) {
+        validateCsvSourceParameters(csvSource);
+
+        // Ensure all parameters can be converted from Strings, or that the rows can be bound to the @CsvRow parameter.
+        RowAggregator aggregator = RowAggregator.forMethod(method);
+        MethodHandle[] converters = (aggregator == null) ? ArgumentConverters.forParameters(method) : null;
+
         String[] lines = csvSource.value();
+        String textBlock = csvSource.textBlock();
+
+        if ((lines.length > 0) && !textBlock.isEmpty()) {
+            throw new IllegalStateException("Cannot specify both 'value' and 'textBlock' in @CsvSource annotation");
+        }
 
-        if (lines.length == 0) {
+        CsvTokenizer tokenizer = new CsvTokenizer(csvSource.delimiter(), csvSource.quoteCharacter(), csvSource.trimWhitespace());
+        int paramCount = (aggregator == null) ? method.getParameterCount() : aggregator.getParameterCount();
+        boolean hasHeader = (aggregator != null) && aggregator.isByHeader();
+        Object[] header = null;
+        int firstRow = hasHeader ? 1 : 0;
+
+        if (!textBlock.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(tokenizer.tokenizeRows(textBlock));
+
+            if (hasHeader && !rows.isEmpty()) {
+                header = rows.remove(0);
+                paramCount = header.length;
+            }
+
+            Object[][] result = toRows(rows, paramCount, firstRow);
+            return (aggregator == null) ? convertOrValidateRows(result, method, converters) : selectColumns(result, aggregator, header);
+        }
+
+        if (lines.length <= firstRow) {
             throw new IllegalStateException("No values provided in @CsvSource annotation");
         }
 
-        int paramCount = method.getParameterCount();
-        Object[][] result = new Object[lines.length][];
+        Object[][] result = new Object[lines.length - firstRow][];
 
         for (int i = 0; i < lines.length; ++i) {
-            List<String> parsed = null;
+            Object[] parsed;
 
             // First try to parse the lines.
             try {
-                parsed = parseCsvLineWithFastCsv(lines[i], csvSource);
-            } catch (IOException e) {
+                parsed = tokenizer.tokenizeLine(lines[i]);
+            } catch (IllegalArgumentException e) {
                 throw new IllegalStateException(String.format("Error parsing value: '%s'", lines[i]), e);
             }
 
+            if (i < firstRow) {
+                header = parsed;
+                paramCount = header.length;
+                continue;
+            }
+
             // Then validate that the number of parsed parameters matches the method's parameter count.
-            if (parsed.size() != paramCount) {
+            if (parsed.length != paramCount) {
                 throw new IllegalStateException(String.format(
                         "CSV line at index %d does not match method parameter count (parsed %d params, but method takes %d params): %s",
-                        i, parsed.size(), paramCount, lines[i]
+                        i, parsed.length, paramCount, lines[i]
                 ));
             }
 
-            // Finally, convert the List<String> to Object[] for a TestNG @DataProvider.
-            result[i] = parsed.toArray(new Object[0]);
+            result[i - firstRow] = parsed;
         }
 
-        return result;
+        return (aggregator == null) ? convertOrValidateRows(result, method, converters) : selectColumns(result, aggregator, header);
     }
 
     /**
-     * Validates the parameters of the CsvSource annotation.
+     * Converts the String values of each row if the converted values are immutable, so they can be cached. Otherwise the
+     * rows are converted once to validate them, and the String values are returned so each call converts them again.
      *
-     * @param csvSource The CsvSource annotation.
+     * @param rows       The String values of each row.
+     * @param method     The test method.
+     * @param converters The converter of each parameter.
+     * @return The converted rows, or the String values of each row.
      */
-    private static void validateCsvSourceParameters(@NonNull CsvSource csvSource) {
-        char delimiter = csvSource.delimiter();
-        char quoteCharacter = csvSource.quoteCharacter();
+    private static Object[][] convertOrValidateRows(@NonNull Object[][] rows, @NonNull Method method, @NonNull MethodHandle[] converters) {
+        if (ArgumentConverters.areImmutable(method.getParameterTypes())) {
+            return convertRows(rows, method, converters);
+        }
 
-        if (delimiter == '\n' || delimiter == '\r') {
-            throw new IllegalArgumentException("CsvSource delimiter cannot be a newline or carriage return character");
+        Object[][] copy = new Object[rows.length][];
+
+        for (int i = 0; i < rows.length; ++i) {
+            copy[i] = rows[i].clone();
         }
 
-        if (delimiter == quoteCharacter) {
-            throw new IllegalArgumentException("CsvSource delimiter cannot be the same as the quote character");
+        convertRows(copy, method, converters);
+        return rows;
+    }
+
+    /**
+     * Converts the String values of each row to the parameter types of the test method.
+     *
+     * @param rows       The String values of each row, which are replaced by the converted values.
+     * @param method     The test method.
+     * @param converters The converter of each parameter.
+     * @return The rows.
+     */
+    private static Object[][] convertRows(@NonNull Object[][] rows, @NonNull Method method, @NonNull MethodHandle[] converters) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+
+        for (int i = 0; i < rows.length; ++i) {
+            try {
+                ArgumentConverters.convertRow(rows[i], parameterTypes, converters);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException(String.format("Error converting CSV line at index %d: %s", i, e.getMessage()), e);
+            }
         }
+
+        return rows;
+    }
+
+    /**
+     * Selects the String values of the constructor parameters from each row, and binds each row once so rows that can't
+     * be bound fail before they are cached.
+     *
+     * @param rows       The String values of each row.
+     * @param aggregator The aggregator of the test method.
+     * @param header     The header row, or null if the columns are bound by position.
+     * @return The String values of the constructor parameters of each row.
+     */
+    private static Object[][] selectColumns(@NonNull Object[][] rows, @NonNull RowAggregator aggregator, Object[] header) {
+        int[] columns = (header == null) ? null : aggregator.getColumns(header);
+        Object[][] result = new Object[rows.length][];
+
+        for (int i = 0; i < rows.length; ++i) {
+            result[i] = (columns == null) ? rows[i] : RowAggregator.select(rows[i], columns);
+        }
+
+        aggregateRows(result, aggregator);
+        return result;
     }
 
     /**
-     * Parses a single CSV line using the FastCSV library according to the settings in the CsvSource annotation.
+     * Binds each row to a new object for the {@link CsvRow} parameter of the test method.
      *
-     * @param line      The CSV line to parse.
-     * @param csvSource The CsvSource annotation containing parsing settings.
-     * @return A list of parsed values.
-     * @throws IOException If an error occurs during parsing.
+     * @param rows       The String values of the constructor parameters of each row, which aren't changed.
+     * @param aggregator The aggregator of the test method.
+     * @return The rows, each with the bound object as its only value.
      */
-    private static List<String> parseCsvLineWithFastCsv(@NonNull String line, @NonNull CsvSource csvSource) throws IOException {
-        List<String> result = new ArrayList<>();
-
-        // This is needed because FastCSV doesn't consider a string as being quoted if there is whitespace before the first quote (ex. " ' abc'").
-        if (csvSource.trimWhitespace()) {
-            line = line.trim();
-        }
-
-        CsvRecordHandler handler = CsvRecordHandler.builder()
-                .fieldModifier(csvSource.trimWhitespace() ? FieldModifiers.STRIP : FieldModifiers.NOP)
-                .build();
-
-        try (CsvReader<CsvRecord> csvReader = CsvReader.builder()
-                // Specifies whether the presence of characters between a closing quote and a field separator
-                // or the end of a line should be treated as an error or not.
-                .acceptCharsAfterQuotes(true) // Default is true, but being explicit.
-                // NOTE: Even though CommentStrategy is NONE, it still fails if delimiter or quote char is same as comment char,
-                // so set comment char to null for now to make it less likely that someone will use null for those.
-                .commentCharacter('\0')
-                .commentStrategy(CommentStrategy.NONE) // Default is NONE, but being explicit.
-                // Defines if an optional BOM (Byte order mark) header should be detected.
-                .detectBomHeader(false) // Default is false, but being explicit.
-                .fieldSeparator(csvSource.delimiter())
-                // Defines if an CsvParseException should be thrown if records do contain a different number of fields.
-                .ignoreDifferentFieldCount(false)
-                .quoteCharacter(csvSource.quoteCharacter())
-                .skipEmptyLines(true) // Default is true, but being explicit.
-                .build(handler, line)) {
-            csvReader.forEach(csvRecord -> result.addAll(csvRecord.getFields()));
+    private static Object[][] aggregateRows(@NonNull Object[][] rows, @NonNull RowAggregator aggregator) {
+        Object[][] result = new Object[rows.length][];
+
+        for (int i = 0; i < rows.length; ++i) {
+            try {
+                result[i] = new Object[]{aggregator.bind(rows[i].clone())};
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException(String.format("Error converting CSV line at index %d: %s", i, e.getMessage()), e);
+            }
         }
 
         return result;
     }
+
+    /**
+     * Converts the rows parsed from a text block to data provider values.
+     *
+     * @param rows       The parsed rows.
+     * @param paramCount The number of parameters of the test method.
+     * @param firstRow   The index of the first row in the text block, ex. 1 if the header row was removed from the rows.
+     * @return A 2D array of parameter values.
+     */
+    private static Object[][] toRows(@NonNull List<Object[]> rows, int paramCount, int firstRow) {
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("No values provided in @CsvSource annotation");
+        }
+
+        for (int i = 0; i < rows.size(); ++i) {
+            Object[] row = rows.get(i);
+
+            if (row.length != paramCount) {
+                throw new IllegalStateException(String.format(
+                        "CSV line at index %d does not match method parameter count (parsed %d params, but method takes %d params): %s",
+                        i + firstRow, row.length, paramCount, Arrays.toString(row)
+                ));
+            }
+        }
+
+        return rows.toArray(new Object[0][]);
+    }
+
+    /**
+     * Validates the parameters of the CsvSource annotation.
+     *
+     * @param csvSource The CsvSource annotation.
+     */
+    private static void validateCsvSourceParameters(@NonNull CsvSource csvSource) {
+        validateDelimiterAndQuote(csvSource.delimiter(), csvSource.quoteCharacter(), "CsvSource");
+        RowRange.validate(csvSource.fromRow(), csvSource.toRow(), "CsvSource");
+    }
+
+    /**
+     * Validates the delimiter and quote character of a CSV annotation.
+     *
+     * @param delimiter      The delimiter.
+     * @param quoteCharacter The quote character.
+     * @param annotationName The simple name of the annotation, for the error messages.
+     */
+    static void validateDelimiterAndQuote(char delimiter, char quoteCharacter, @NonNull String annotationName) {
+        if (delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException(annotationName + " delimiter cannot be a newline or carriage return character");
+        }
+
+        if (delimiter == quoteCharacter) {
+            throw new IllegalArgumentException(annotationName + " delimiter cannot be the same as the quote character");
+        }
+    }
 }
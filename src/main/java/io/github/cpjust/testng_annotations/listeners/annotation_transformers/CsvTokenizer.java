@@ -0,0 +1,308 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single-pass CSV tokenizer for the rows embedded in {@link io.github.cpjust.testng_annotations.annotations.CsvSource}
+ * annotations and the rows streamed from {@link io.github.cpjust.testng_annotations.annotations.CsvFileSource} files.
+ * It reuses its buffers for every field and row, so parsing a large table doesn't create a reader per line.
+ * <br/>
+ * The quoting rules are:
+ * <ul>
+ *     <li>A field is quoted if it starts with the quote character. A quote character inside a quoted field is escaped by
+ *     doubling it, and any characters between the closing quote and the next delimiter are appended to the field (a quote
+ *     character among them is kept and starts another quoted part).</li>
+ *     <li>A newline or carriage return outside of quotes ends a record. Empty records are skipped.</li>
+ *     <li>If whitespace is trimmed, each <code>value</code> line (or each record of a multi-line text) is trimmed, so a
+ *     quoted first field may be indented, and each field is stripped, including quoted fields.</li>
+ * </ul>
+ * Instances aren't thread-safe.
+ */
+final class CsvTokenizer {
+    private final char delimiter;
+    private final char quoteCharacter;
+    private final boolean trimWhitespace;
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+    private int position;
+    private boolean trimRecords;
+    private boolean unterminatedQuote;
+
+    /**
+     * Constructor.
+     *
+     * @param delimiter      The delimiter between fields.
+     * @param quoteCharacter The character used to quote fields.
+     * @param trimWhitespace Whether to trim the whitespace around fields.
+     */
+    CsvTokenizer(char delimiter, char quoteCharacter, boolean trimWhitespace) {
+        this.delimiter = delimiter;
+        this.quoteCharacter = quoteCharacter;
+        this.trimWhitespace = trimWhitespace;
+    }
+
+    /**
+     * Tokenizes one <code>value</code> line of a CsvSource annotation. If the line contains several records, their fields
+     * are all returned together.
+     *
+     * @param line The CSV line.
+     * @return The fields of the line, as Strings in an Object array so they can be used as data provider values.
+     * @throws IllegalArgumentException if the line contains records with different numbers of fields.
+     */
+    Object[] tokenizeLine(@NonNull String line) {
+        // The whole line is trimmed instead of each record, so only the first field of a line may be indented before its quote.
+        String text = trimWhitespace ? line.trim() : line;
+        fields.clear();
+        position = 0;
+        trimRecords = false;
+        int recordFieldCount = 0;
+
+        while (position < text.length()) {
+            int fieldCount = readRecord(text);
+
+            if ((fieldCount > 0) && (recordFieldCount > 0) && (fieldCount != recordFieldCount)) {
+                throw new IllegalArgumentException(String.format(
+                        "Every record must have %d fields, but found a record with %d fields!", recordFieldCount, fieldCount));
+            }
+
+            recordFieldCount = Math.max(recordFieldCount, fieldCount);
+        }
+
+        return fields.toArray();
+    }
+
+    /**
+     * Tokenizes a multi-line CSV text (ex. a <code>textBlock</code>) in a single pass, where each record is one row.
+     *
+     * @param text The CSV text.
+     * @return The fields of each non-empty record, as Strings in Object arrays so they can be used as data provider values.
+     */
+    List<Object[]> tokenizeRows(@NonNull String text) {
+        List<Object[]> rows = new ArrayList<>();
+        position = 0;
+        trimRecords = trimWhitespace;
+
+        while (position < text.length()) {
+            fields.clear();
+            readRecord(text);
+
+            if (!fields.isEmpty()) {
+                rows.add(fields.toArray());
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Reads and tokenizes the next non-empty record from a reader. A record continues on the next lines while a quoted
+     * value is open, and the line breaks inside the value become "\n".
+     *
+     * @param reader The reader to read lines from.
+     * @return The fields of the record, as Strings in an Object array so they can be used as data provider values, or
+     * null if there are no more records.
+     * @throws IOException If the reader can't be read.
+     */
+    Object[] tokenizeRecord(@NonNull BufferedReader reader) throws IOException {
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            String text = line;
+
+            while (true) {
+                fields.clear();
+                position = 0;
+                trimRecords = trimWhitespace;
+                unterminatedQuote = false;
+                readRecord(text);
+
+                String nextLine = unterminatedQuote ? reader.readLine() : null;
+
+                if (nextLine == null) {
+                    break;
+                }
+
+                text = text + '\n' + nextLine;
+            }
+
+            if (!fields.isEmpty()) {
+                return fields.toArray();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Reads the fields of the record at the current position into {@link #fields}, and moves the position past the
+     * end of the record. Nothing is read for an empty record.
+     *
+     * @param text The CSV text.
+     * @return The number of fields that were read.
+     */
+    private int readRecord(@NonNull String text) {
+        int length = text.length();
+
+        if (trimRecords) {
+            while ((position < length) && isBlank(text.charAt(position))) {
+                ++position;
+            }
+        }
+
+        if (skipNewline(text)) {
+            return 0;
+        }
+
+        int fieldCount = 0;
+
+        while (true) {
+            field.setLength(0);
+
+            if ((position < length) && (text.charAt(position) == quoteCharacter)) {
+                readQuoted(text);
+            }
+
+            while ((position < length) && (text.charAt(position) != delimiter) && !isNewline(text.charAt(position))) {
+                field.append(text.charAt(position++));
+            }
+
+            fields.add(trimWhitespace ? field.toString().strip() : field.toString());
+            ++fieldCount;
+
+            if ((position < length) && (text.charAt(position) == delimiter) && !isTrimmedEndOfRecord(text)) {
+                ++position;
+            } else {
+                while ((position < length) && !isNewline(text.charAt(position))) {
+                    ++position;
+                }
+
+                skipNewline(text);
+                return fieldCount;
+            }
+        }
+    }
+
+    /**
+     * Reads a quoted field, starting at its opening quote, into {@link #field}. The position is left at the delimiter or
+     * newline after the field, or at the end of the text.
+     * <br/>
+     * Every quote character toggles whether delimiters and newlines are part of the field. A quote character at the end
+     * of the field is the closing quote. Of the other quote characters, every first one is removed and every second one
+     * is kept, which is how a doubled quote becomes one quote.
+     *
+     * @param text The CSV text.
+     */
+    private void readQuoted(@NonNull String text) {
+        int length = text.length();
+        int start = ++position;
+        boolean inQuotes = true;
+
+        while (position < length) {
+            char c = text.charAt(position);
+
+            if (c == quoteCharacter) {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && ((c == delimiter) || isNewline(c))) {
+                break;
+            }
+
+            ++position;
+        }
+
+        unterminatedQuote = inQuotes;
+        int end = ((position > start) && (text.charAt(position - 1) == quoteCharacter)) ? (position - 1) : position;
+        boolean removeQuote = false;
+
+        for (int i = start; i < end; ++i) {
+            char c = text.charAt(i);
+
+            if (c == quoteCharacter) {
+                removeQuote = !removeQuote;
+
+                if (removeQuote) {
+                    continue;
+                }
+            }
+
+            field.append(c);
+        }
+    }
+
+    /**
+     * Moves the position past a newline ("\n", "\r" or "\r\n") if there is one at the current position.
+     *
+     * @param text The CSV text.
+     * @return True if the position is at a newline or the end of the text.
+     */
+    private boolean skipNewline(@NonNull String text) {
+        if (position >= text.length()) {
+            return true;
+        }
+
+        char c = text.charAt(position);
+
+        if (c == '\r') {
+            ++position;
+
+            if ((position < text.length()) && (text.charAt(position) == '\n')) {
+                ++position;
+            }
+
+            return true;
+        }
+
+        if (c == '\n') {
+            ++position;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks if a character is a newline or carriage return.
+     *
+     * @param c The character.
+     * @return True if the character ends a record.
+     */
+    private static boolean isNewline(char c) {
+        return (c == '\n') || (c == '\r');
+    }
+
+    /**
+     * Checks if the record ends at the current position once it's trimmed, which only happens if the delimiter is blank
+     * (ex. a space or tab) and the rest of the record is blank.
+     *
+     * @param text The CSV text.
+     * @return True if there are only blank characters before the end of the record.
+     */
+    private boolean isTrimmedEndOfRecord(@NonNull String text) {
+        if (!trimRecords || !isBlank(delimiter)) {
+            return false;
+        }
+
+        for (int i = position; (i < text.length()) && !isNewline(text.charAt(i)); ++i) {
+            if (!isBlank(text.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if a character is removed when a record is trimmed, which is the same whitespace that {@link String#trim()}
+     * removes except for newlines.
+     *
+     * @param c The character.
+     * @return True if the character is blank.
+     */
+    private static boolean isBlank(char c) {
+        return (c <= ' ') && !isNewline(c);
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe cache of data provider values, so the source annotations are only validated and parsed once no matter
+ * how often TestNG calls the data provider (ex. with <code>invocationCount</code>, retries or repeated suites).
+ * <br/>
+ * The values are cached per test class (with a {@link ClassValue}, so the cache doesn't keep the test classes or their
+ * class loader alive when an IDE reloads them), and within a class by a key that describes the annotation content, so
+ * methods with identical annotations share the same values.
+ *
+ * @param <K> The type of key that identifies identical annotation content.
+ */
+final class DataProviderCache<K> {
+    private final ClassValue<Map<K, Object[][]>> values = new ClassValue<>() {
+        /**
+         * Creates the cache of a test class.
+         *
+         * @param testClass The test class.
+         * @return An empty cache.
+         */
+        @Override
+        protected Map<K, Object[][]> computeValue(Class<?> testClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Gets the cached values of a test, computing them if they aren't cached yet. Exceptions thrown by the loader
+     * aren't cached.
+     *
+     * @param testClass The class that declares the test method.
+     * @param key       The key that identifies the annotation content.
+     * @param loader    Computes the values.
+     * @return A copy of the values that the caller may modify.
+     */
+    Object[][] get(@NonNull Class<?> testClass, @NonNull K key, @NonNull Supplier<Object[][]> loader) {
+        return copyOf(values.get(testClass).computeIfAbsent(key, k -> loader.get()));
+    }
+
+    /**
+     * Gets the cached values of a single-parameter test (one value per invocation), computing them if they aren't cached
+     * yet. The values are cached as a single row. Exceptions thrown by the loader aren't cached.
+     *
+     * @param testClass The class that declares the test method.
+     * @param key       The key that identifies the annotation content.
+     * @param loader    Computes the values.
+     * @return A copy of the values that the caller may modify.
+     */
+    Object[] getValues(@NonNull Class<?> testClass, @NonNull K key, @NonNull Supplier<Object[]> loader) {
+        return values.get(testClass).computeIfAbsent(key, k -> new Object[][]{loader.get()})[0].clone();
+    }
+
+    /**
+     * Gets the number of cached values of a test class.
+     *
+     * @param testClass The test class.
+     * @return The number of cached values.
+     */
+    int size(@NonNull Class<?> testClass) {
+        return values.get(testClass).size();
+    }
+
+    /**
+     * Copies the values, so changes made by TestNG or other listeners don't leak into the cache.
+     *
+     * @param cached The cached values.
+     * @return A copy of the outer array and each row.
+     */
+    private static Object[][] copyOf(@NonNull Object[][] cached) {
+        Object[][] copy = new Object[cached.length][];
+
+        for (int i = 0; i < cached.length; ++i) {
+            copy[i] = cached[i].clone();
+        }
+
+        return copy;
+    }
+}
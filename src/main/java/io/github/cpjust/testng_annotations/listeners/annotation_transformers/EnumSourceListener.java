@@ -26,12 +26,14 @@ import java.util.stream.Collectors;
 public class EnumSourceListener extends SourceListenerBase implements IAnnotationTransformer {
     static final String ENUM_SOURCE_PROVIDER = "enumSourceProvider";
     static final Map.Entry<Class<?>, String> ENUM_SOURCE_PROVIDER_CLASS_AND_NAME = Map.entry(EnumSourceListener.class, ENUM_SOURCE_PROVIDER);
+    static final String ENUM_SOURCE_PARALLEL_PROVIDER = "enumSourceParallelProvider";
+    static final Map.Entry<Class<?>, String> ENUM_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME = Map.entry(EnumSourceListener.class, ENUM_SOURCE_PARALLEL_PROVIDER);
 
     /**
      * Constructs the listener with the enum source data provider.
      */
     public EnumSourceListener() {
-        super(List.of(ENUM_SOURCE_PROVIDER_CLASS_AND_NAME));
+        super(List.of(ENUM_SOURCE_PROVIDER_CLASS_AND_NAME, ENUM_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME));
     }
 
     /**
@@ -52,8 +54,7 @@ public class EnumSourceListener extends SourceListenerBase implements IAnnotatio
         throwIfTestHasMultipleDataProviders(testMethod);
 
         if (isEnumSourcePresent(testMethod)) {
-            annotation.setDataProvider(ENUM_SOURCE_PROVIDER_CLASS_AND_NAME.getValue());
-            annotation.setDataProviderClass(ENUM_SOURCE_PROVIDER_CLASS_AND_NAME.getKey());
+            setDataProvider(annotation, testMethod, ENUM_SOURCE_PROVIDER_CLASS_AND_NAME, ENUM_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
         }
     }
 
@@ -75,20 +76,33 @@ public class EnumSourceListener extends SourceListenerBase implements IAnnotatio
      */
     @DataProvider(name = ENUM_SOURCE_PROVIDER)
     public static Object[][] enumSourceProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Data provider that supplies parameter values for methods annotated with {@link EnumSource} with
+     * <code>parallel = true</code>, so TestNG may run the rows in parallel.
+     *
+     * @param method The test method.
+     * @return A 2D array of parameter values.
+     */
+    @DataProvider(name = ENUM_SOURCE_PARALLEL_PROVIDER, parallel = true)
+    public static Object[][] enumSourceParallelProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Provides the enum constants selected by the {@link EnumSource} annotation of a test method.
+     *
+     * @param method The test method.
+     * @return A 2D array of parameter values.
+     */
+    public static Object[][] provideValues(@NonNull Method method) {
         EnumSource enumSource = method.getAnnotation(EnumSource.class);
 
         Enum<?>[] allEnumConstants = validateMethodAndAnnotation(method, enumSource);
 
-        String[] names = enumSource.names();
-        EnumSource.Mode mode = enumSource.mode();
-        List<Enum<?>> filteredConstants;
-
-        // If no names are specified, include all enum constants.
-        if (names.length == 0) {
-            filteredConstants = Arrays.asList(allEnumConstants);
-        } else {
-            filteredConstants = filterEnumConstants(mode, names, allEnumConstants);
-        }
+        List<Enum<?>> filteredConstants = selectConstants(allEnumConstants, enumSource.names(), enumSource.mode());
 
         if (filteredConstants.isEmpty()) {
             throw new IllegalStateException("No matching enum constants found for method: " + method.getName());
@@ -100,6 +114,58 @@ public class EnumSourceListener extends SourceListenerBase implements IAnnotatio
                 .toArray(Object[][]::new);
     }
 
+    /**
+     * Selects the enum constants of an {@link EnumSource} annotation on a parameter, ex. a parameter of a
+     * {@code CartesianSource} method.
+     *
+     * @param enumSource  The annotation of the parameter.
+     * @param paramType   The type of the parameter.
+     * @param description A description of the parameter, for the error messages.
+     * @return The selected enum constants, in declaration order.
+     * @throws IllegalStateException    if the enum class doesn't match the parameter type or no constants are selected.
+     * @throws IllegalArgumentException If any of the patterns are invalid.
+     */
+    static List<Enum<?>> selectConstants(@NonNull EnumSource enumSource, @NonNull Class<?> paramType, @NonNull String description) {
+        Class<? extends Enum<?>> enumClass = enumSource.value();
+        Enum<?>[] constants = enumClass.getEnumConstants();
+
+        if (constants == null) {
+            throw new IllegalStateException("Provided class is not an enum: " + enumClass.getName());
+        }
+
+        if (!enumClass.equals(paramType)) {
+            throw new IllegalStateException(String.format("Enum class %s is not compatible with parameter type %s of %s",
+                    enumClass.getSimpleName(), paramType.getSimpleName(), description));
+        }
+
+        List<Enum<?>> selected = selectConstants(constants, enumSource.names(), enumSource.mode());
+
+        if (selected.isEmpty()) {
+            throw new IllegalStateException("No matching enum constants found for " + description);
+        }
+
+        return selected;
+    }
+
+    /**
+     * Selects the enum constants matching names with the rules of {@link EnumSource#mode()}, so other sources can filter
+     * enum constants the same way.
+     *
+     * @param allEnumConstants All enum constants of the enum class.
+     * @param names            The names or patterns to filter by. If empty, all constants are selected.
+     * @param mode             The filtering mode.
+     * @return The selected enum constants, in declaration order.
+     * @throws IllegalArgumentException If any of the patterns are invalid.
+     */
+    static List<Enum<?>> selectConstants(@NonNull Enum<?>[] allEnumConstants, @NonNull String[] names, @NonNull EnumSource.Mode mode) {
+        // If no names are specified, include all enum constants.
+        if (names.length == 0) {
+            return Arrays.asList(allEnumConstants);
+        }
+
+        return filterEnumConstants(mode, names, allEnumConstants);
+    }
+
     /**
      * Filters enum constants based on the specified mode and names.
      *
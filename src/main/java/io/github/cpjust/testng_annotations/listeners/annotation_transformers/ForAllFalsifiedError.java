@@ -0,0 +1,64 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.ForAll;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The failure of a {@link ForAll} test method, which reports the shrunk counterexample and the seed to replay the run.
+ * The original failure is the cause.
+ */
+@Getter
+public class ForAllFalsifiedError extends AssertionError {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The seed of the run, which replays it with <code>@ForAll(seed = ...)</code> or <code>-Dforall.seed=...</code>.
+     */
+    private final long seed;
+
+    /**
+     * The arguments of the trial that failed.
+     */
+    private final transient Object[] originalArgs;
+
+    /**
+     * The arguments after shrinking, which still fail.
+     */
+    private final transient Object[] counterexample;
+
+    /**
+     * Constructor.
+     *
+     * @param message        The detail message.
+     * @param cause          The failure of the trial.
+     * @param seed           The seed of the run.
+     * @param originalArgs   The arguments of the trial that failed.
+     * @param counterexample The arguments after shrinking.
+     */
+    public ForAllFalsifiedError(@NonNull String message, Throwable cause, long seed, @NonNull Object[] originalArgs,
+                                @NonNull Object[] counterexample) {
+        super(message, cause);
+        this.seed = seed;
+        this.originalArgs = originalArgs.clone();
+        this.counterexample = counterexample.clone();
+    }
+
+    /**
+     * Gets the arguments of the trial that failed.
+     *
+     * @return A copy of the arguments.
+     */
+    public Object[] getOriginalArgs() {
+        return originalArgs.clone();
+    }
+
+    /**
+     * Gets the arguments after shrinking, which still fail.
+     *
+     * @return A copy of the arguments.
+     */
+    public Object[] getCounterexample() {
+        return counterexample.clone();
+    }
+}
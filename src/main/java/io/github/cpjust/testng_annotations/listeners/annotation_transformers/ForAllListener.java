@@ -0,0 +1,565 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.ForAll;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IAnnotationTransformer;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * TestNG listener that processes {@link ForAll} annotations and converts them into a lazy data provider, which generates
+ * the values of each trial while the tests run.
+ * <br/>
+ * Each trial has its own random number generator, derived from the seed of the run and the index of the trial, so the
+ * trials are the same whether they run sequentially or in parallel. When a trial fails, {@link #reportFailure} shrinks
+ * its values and replaces the failure with a {@link ForAllFalsifiedError}.
+ */
+@Slf4j
+public class ForAllListener extends SourceListenerBase implements IAnnotationTransformer {
+    static final String FOR_ALL_PROVIDER = "forAllProvider";
+    static final Map.Entry<Class<?>, String> FOR_ALL_PROVIDER_CLASS_AND_NAME = Map.entry(ForAllListener.class, FOR_ALL_PROVIDER);
+    static final String FOR_ALL_PARALLEL_PROVIDER = "forAllParallelProvider";
+    static final Map.Entry<Class<?>, String> FOR_ALL_PARALLEL_PROVIDER_CLASS_AND_NAME = Map.entry(ForAllListener.class, FOR_ALL_PARALLEL_PROVIDER);
+
+    /**
+     * The system property containing the seed of the runs of {@link ForAll} methods that don't set a seed.
+     */
+    static final String SEED_PROPERTY = "forall.seed";
+
+    // The constants of the SplitMix64 finalizer, which are the same as SplittableRandom's.
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long MIX_MULTIPLIER_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94D049BB133111EBL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private static final Map<Method, Long> SEEDS = new ConcurrentHashMap<>();
+    private static final Set<Method> SHRUNK = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs the listener with the for-all data provider.
+     */
+    public ForAllListener() {
+        super(List.of(FOR_ALL_PROVIDER_CLASS_AND_NAME, FOR_ALL_PARALLEL_PROVIDER_CLASS_AND_NAME));
+    }
+
+    /**
+     * Transforms test methods annotated with {@link ForAll} to use a data provider.
+     *
+     * @param annotation      The TestNG annotation being transformed.
+     * @param testClass       The test class (unused).
+     * @param testConstructor The test constructor (unused).
+     * @param testMethod      The test method.
+     */
+    @Override
+    public void transform(@NonNull ITestAnnotation annotation, Class testClass,
+                          Constructor testConstructor, Method testMethod) {
+        if (testMethod == null) {
+            return;
+        }
+
+        throwIfDataProviderNotAllowed(annotation, testMethod);
+        throwIfTestHasMultipleDataProviders(testMethod);
+
+        if (isForAllPresent(testMethod)) {
+            setDataProvider(annotation, testMethod, FOR_ALL_PROVIDER_CLASS_AND_NAME, FOR_ALL_PARALLEL_PROVIDER_CLASS_AND_NAME);
+        }
+    }
+
+    /**
+     * Checks if the given method is annotated with {@link ForAll}.
+     *
+     * @param method The test method.
+     * @return True if the method is annotated with {@link ForAll}, false otherwise.
+     */
+    public static boolean isForAllPresent(@NonNull Method method) {
+        return method.isAnnotationPresent(ForAll.class);
+    }
+
+    /**
+     * Data provider that lazily generates the trials of a test method annotated with {@link ForAll}.
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values of each trial.
+     */
+    @DataProvider(name = FOR_ALL_PROVIDER)
+    public static Iterator<Object[]> forAllProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Data provider that lazily generates the trials of a test method annotated with {@link ForAll} with
+     * <code>parallel = true</code>, so TestNG may run the trials in parallel.
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values of each trial.
+     */
+    @DataProvider(name = FOR_ALL_PARALLEL_PROVIDER, parallel = true)
+    public static Iterator<Object[]> forAllParallelProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Validates the {@link ForAll} annotation of a test method, chooses the seed of the run and creates an iterator over
+     * its trials.
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values of each trial.
+     * @throws IllegalStateException    if the annotation is missing or a parameter type isn't supported.
+     * @throws IllegalArgumentException if the annotation or the seed property is invalid.
+     */
+    public static Iterator<Object[]> provideValues(@NonNull Method method) {
+        ForAll forAll = method.getAnnotation(ForAll.class);
+
+        if (forAll == null) {
+            throw new IllegalStateException("No @ForAll annotation found on method: " + method.getName());
+        }
+
+        if (forAll.trials() <= 0) {
+            throw new IllegalArgumentException(String.format("ForAll trials must be positive, but was %d", forAll.trials()));
+        }
+
+        if (forAll.maxShrinks() < 0) {
+            throw new IllegalArgumentException(String.format("ForAll maxShrinks cannot be negative, but was %d", forAll.maxShrinks()));
+        }
+
+        IGenerator[] generators = Generators.forMethod(method);
+        long seed = resolveSeed(forAll, System.getProperties());
+        SEEDS.put(method, seed);
+        SHRUNK.remove(method);
+        log.info("Running {} trials of {}.{} with seed {}", forAll.trials(), method.getDeclaringClass().getName(), method.getName(), seed);
+        return new TrialIterator(generators, seed, forAll.trials());
+    }
+
+    /**
+     * Gets the seed of the last run of a test method.
+     *
+     * @param method The test method.
+     * @return The seed, or null if the method hasn't run.
+     */
+    static Long getSeed(@NonNull Method method) {
+        return SEEDS.get(method);
+    }
+
+    /**
+     * Package-private method for unit tests to inject the system properties.
+     *
+     * @param forAll           The annotation of the test method.
+     * @param systemProperties The system properties to read the seed from.
+     * @return The seed of the annotation, else of the system property, else a random seed. It is never 0.
+     * @throws IllegalArgumentException if the seed property isn't a number.
+     */
+    static long resolveSeed(@NonNull ForAll forAll, @NonNull Properties systemProperties) {
+        if (forAll.seed() != 0) {
+            return forAll.seed();
+        }
+
+        String property = systemProperties.getProperty(SEED_PROPERTY);
+
+        if (property != null) {
+            try {
+                return Long.parseLong(property.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("The '%s' property must be a number, but was '%s'!", SEED_PROPERTY, property), e);
+            }
+        }
+
+        long seed;
+
+        do {
+            seed = ThreadLocalRandom.current().nextLong();
+        } while (seed == 0);
+
+        return seed;
+    }
+
+    /**
+     * Gets the random number generator of a trial.
+     *
+     * @param seed  The seed of the run.
+     * @param trial The zero-based index of the trial.
+     * @return The random number generator, which is always the same for the same seed and trial.
+     */
+    static SplittableRandom newTrialRandom(long seed, long trial) {
+        // The SplitMix64 finalizer, so the seeds of consecutive trials are unrelated.
+        long z = seed + ((trial + 1) * GOLDEN_GAMMA);
+        z = (z ^ (z >>> MIX_SHIFT_1)) * MIX_MULTIPLIER_1;
+        z = (z ^ (z >>> MIX_SHIFT_2)) * MIX_MULTIPLIER_2;
+        return new SplittableRandom(z ^ (z >>> MIX_SHIFT_3));
+    }
+
+    /**
+     * Shrinks the values of a failed trial of a {@link ForAll} test method, and replaces the failure with a
+     * {@link ForAllFalsifiedError} reporting the counterexample and the seed. It does nothing for other test results.
+     * <br/>
+     * The test method is called directly while shrinking, without any listeners. Since this runs between the failed
+     * trial and its <code>@AfterMethod</code> methods, each call first runs the <code>@AfterMethod</code> methods of the
+     * previous call, then the <code>@BeforeMethod</code> methods, then the test method, so the setup of each call is torn
+     * down exactly once. A value fails if the method throws anything other than a {@link SkipException}. Only the first
+     * failed trial of a run is shrunk, so a property that fails for most values doesn't run the test method
+     * <code>maxShrinks</code> times per trial. If the test method has a <code>timeOut</code>, each call fails if it
+     * doesn't finish in time, like a trial would.
+     * <br/>
+     * With <code>parallel = true</code> the failure is reported without shrinking, since shrinking would call the test
+     * method on the test class instance while other trials are still running on it.
+     * <br/>
+     * If the test method or its configuration methods can't be called (ex. a configuration method fails or takes a
+     * parameter that can't be injected), shrinking is skipped and the original failure is kept.
+     *
+     * @param method The test method.
+     * @param result The result of the trial.
+     */
+    static void reportFailure(@NonNull Method method, @NonNull ITestResult result) {
+        ForAll forAll = method.getAnnotation(ForAll.class);
+        Throwable failure = result.getThrowable();
+
+        if ((forAll == null) || (result.getStatus() != ITestResult.FAILURE) || (failure == null) || (failure instanceof ForAllFalsifiedError)) {
+            return;
+        }
+
+        Object[] args = result.getParameters();
+        long seed = SEEDS.getOrDefault(method, forAll.seed());
+        Object instance = result.getInstance();
+        int maxShrinks = (SHRUNK.add(method) && !forAll.parallel()) ? forAll.maxShrinks() : 0;
+        Throwable[] lastFailure = {failure};
+        Shrinker.Result shrunk;
+
+        try {
+            ShrinkCall call = new ShrinkCall(method, instance, result);
+            shrunk = Shrinker.shrink(args, Generators.forMethod(method), candidate -> {
+                Throwable error = call.invoke(candidate);
+
+                if (error != null) {
+                    lastFailure[0] = error;
+                }
+
+                return error != null;
+            }, maxShrinks);
+        } catch (IllegalStateException e) {
+            log.warn("Skipped shrinking the failure of {}.{} with seed {}, so the original failure is kept: {}",
+                    method.getDeclaringClass().getSimpleName(), method.getName(), seed, e.getMessage());
+            return;
+        }
+
+        String message = String.format("Property %s.%s was falsified by %s (shrunk in %d steps from %s). Replay it with "
+                        + "@ForAll(seed = %dL) or -D%s=%d. Cause: %s",
+                method.getDeclaringClass().getSimpleName(), method.getName(), describe(shrunk.getArgs()), shrunk.getSteps(),
+                describe(args), seed, SEED_PROPERTY, seed, lastFailure[0]);
+        log.debug(message);
+        result.setThrowable(new ForAllFalsifiedError(message, lastFailure[0], seed, args, shrunk.getArgs()));
+    }
+
+    /**
+     * Describes the values of a trial, quoting Strings and chars.
+     *
+     * @param args The values.
+     * @return The description, ex. <code>("abc", 'x', 42)</code>.
+     */
+    static String describe(@NonNull Object[] args) {
+        return Arrays.stream(args).map(ForAllListener::describe).collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * Describes a value, quoting Strings and chars.
+     *
+     * @param value The value.
+     * @return The description.
+     */
+    private static String describe(Object value) {
+        if (value instanceof String) {
+            return '"' + (String) value + '"';
+        } else if (value instanceof Character) {
+            return "'" + value + "'";
+        } else if ((value != null) && value.getClass().isArray()) {
+            return Arrays.deepToString(new Object[]{value}).replaceAll("^\\[|]$", "");
+        }
+
+        return String.valueOf(value);
+    }
+
+    /**
+     * Calls a test method with the values being shrunk, surrounded by its <code>@BeforeMethod</code> and
+     * <code>@AfterMethod</code> methods. Like TestNG, a test method with a <code>timeOut</code> is called on its own
+     * thread.
+     */
+    private static final class ShrinkCall {
+        private static final Set<Class<?>> INJECTABLE_TYPES = Set.of(Method.class, Object[].class, ITestResult.class, ITestContext.class);
+
+        private final Method method;
+        private final Object instance;
+        private final ITestResult result;
+        private final long timeOut;
+        private final List<Method> beforeMethods;
+        private final List<Method> afterMethods;
+
+        /**
+         * Constructor.
+         *
+         * @param method   The test method.
+         * @param instance The test class instance, or null if the method is static.
+         * @param result   The result of the failed trial, which is injected into the configuration methods.
+         * @throws IllegalStateException if a configuration method takes a parameter that can't be injected.
+         */
+        ShrinkCall(@NonNull Method method, Object instance, @NonNull ITestResult result) {
+            Class<?> testClass = (instance != null) ? instance.getClass() : method.getDeclaringClass();
+            this.method = method;
+            this.instance = instance;
+            this.result = result;
+            ITestNGMethod testMethod = result.getMethod();
+            this.timeOut = (testMethod != null) ? testMethod.getTimeOut() : 0;
+            this.beforeMethods = getConfigurationMethods(testClass, BeforeMethod.class);
+            this.afterMethods = getConfigurationMethods(testClass, AfterMethod.class);
+            // Like TestNG, call non-public methods if the module system allows it.
+            method.trySetAccessible();
+            // TestNG runs the @BeforeMethod methods of the superclasses first, and the @AfterMethod methods of the subclasses first.
+            Collections.reverse(beforeMethods);
+        }
+
+        /**
+         * Tears down the previous call, sets up this call and calls the test method with some values.
+         *
+         * @param args The values.
+         * @return The failure of the method, or null if it passed or was skipped.
+         * @throws IllegalStateException if the test method or a configuration method can't be called, or a configuration
+         *                               method fails.
+         */
+        Throwable invoke(@NonNull Object[] args) {
+            for (Method afterMethod : afterMethods) {
+                invokeConfiguration(afterMethod, args);
+            }
+
+            for (Method beforeMethod : beforeMethods) {
+                invokeConfiguration(beforeMethod, args);
+            }
+
+            return (timeOut > 0) ? invokeTestWithTimeOut(args) : invokeTest(args);
+        }
+
+        /**
+         * Calls the test method on its own thread, and interrupts it if it doesn't finish within its time-out.
+         *
+         * @param args The values.
+         * @return The failure of the method, a {@link TimeoutException} if it didn't finish in time, or null if it passed
+         * or was skipped.
+         * @throws IllegalStateException if the test method can't be called, or the current thread is interrupted.
+         */
+        private Throwable invokeTestWithTimeOut(@NonNull Object[] args) {
+            FutureTask<Throwable> task = new FutureTask<>(() -> invokeTest(args));
+            Thread thread = new Thread(task, "ForAll-shrink-" + method.getName());
+            thread.setDaemon(true);
+            thread.start();
+
+            try {
+                return task.get(timeOut, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                task.cancel(true);
+                return new TimeoutException(String.format("Method %s didn't finish within the time-out %d while shrinking",
+                        method.getName(), timeOut));
+            } catch (ExecutionException e) {
+                // The failures of the test method are returned, so this is a failure to call it.
+                throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause()
+                        : new IllegalStateException("Unable to call test method while shrinking: " + method.getName(), e.getCause());
+            } catch (InterruptedException e) {
+                task.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while shrinking: " + method.getName(), e);
+            }
+        }
+
+        /**
+         * Calls the test method.
+         *
+         * @param args The values.
+         * @return The failure of the method, or null if it passed or was skipped.
+         * @throws IllegalStateException if the test method can't be called.
+         */
+        private Throwable invokeTest(@NonNull Object[] args) {
+            try {
+                method.invoke(instance, args);
+                return null;
+            } catch (InvocationTargetException e) {
+                return (e.getCause() instanceof SkipException) ? null : e.getCause();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to call test method while shrinking: " + method.getName(), e);
+            }
+        }
+
+        /**
+         * Calls a configuration method, injecting its parameters like TestNG does.
+         *
+         * @param configuration The configuration method.
+         * @param args          The values of the test method.
+         * @throws IllegalStateException if the configuration method can't be called or fails.
+         */
+        private void invokeConfiguration(@NonNull Method configuration, @NonNull Object[] args) {
+            Class<?>[] types = configuration.getParameterTypes();
+            Object[] values = new Object[types.length];
+
+            for (int i = 0; i < types.length; ++i) {
+                if (types[i] == Method.class) {
+                    values[i] = method;
+                } else if (types[i] == Object[].class) {
+                    values[i] = args;
+                } else if (types[i] == ITestResult.class) {
+                    values[i] = result;
+                } else {
+                    values[i] = result.getTestContext();
+                }
+            }
+
+            try {
+                configuration.invoke(instance, values);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(String.format("Configuration method %s failed while shrinking: %s",
+                        configuration.getName(), e.getCause()), e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to call configuration method while shrinking: " + configuration.getName(), e);
+            }
+        }
+
+        /**
+         * Gets the enabled configuration methods of a test class and its superclasses, subclasses first. Overridden
+         * methods are only returned once.
+         *
+         * @param testClass  The test class.
+         * @param annotation The configuration annotation, {@link BeforeMethod} or {@link AfterMethod}.
+         * @return The configuration methods, which are made accessible if possible.
+         * @throws IllegalStateException if a configuration method takes a parameter that can't be injected.
+         */
+        private static List<Method> getConfigurationMethods(@NonNull Class<?> testClass, @NonNull Class<? extends Annotation> annotation) {
+            List<Method> methods = new ArrayList<>();
+            Set<String> signatures = new HashSet<>();
+
+            for (Class<?> type = testClass; (type != null) && (type != Object.class); type = type.getSuperclass()) {
+                for (Method candidate : type.getDeclaredMethods()) {
+                    String signature = candidate.getName() + Arrays.toString(candidate.getParameterTypes());
+
+                    if (signatures.add(signature) && isEnabled(candidate, annotation)) {
+                        throwIfNotInjectable(candidate);
+                        candidate.trySetAccessible();
+                        methods.add(candidate);
+                    }
+                }
+            }
+
+            return methods;
+        }
+
+        /**
+         * Checks if a method is an enabled configuration method.
+         *
+         * @param method     The method.
+         * @param annotation The configuration annotation, {@link BeforeMethod} or {@link AfterMethod}.
+         * @return True if the method has the annotation and it is enabled.
+         */
+        private static boolean isEnabled(@NonNull Method method, @NonNull Class<? extends Annotation> annotation) {
+            if (annotation == BeforeMethod.class) {
+                BeforeMethod beforeMethod = method.getAnnotation(BeforeMethod.class);
+                return (beforeMethod != null) && beforeMethod.enabled();
+            }
+
+            AfterMethod afterMethod = method.getAnnotation(AfterMethod.class);
+            return (afterMethod != null) && afterMethod.enabled();
+        }
+
+        /**
+         * Throws an exception if a configuration method takes a parameter that can't be injected while shrinking.
+         *
+         * @param configuration The configuration method.
+         * @throws IllegalStateException if a parameter can't be injected.
+         */
+        private static void throwIfNotInjectable(@NonNull Method configuration) {
+            for (Class<?> type : configuration.getParameterTypes()) {
+                if (!INJECTABLE_TYPES.contains(type)) {
+                    throw new IllegalStateException(String.format("Cannot inject a %s into configuration method %s while shrinking",
+                            type.getName(), configuration.getName()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the values of each trial on demand.
+     */
+    private static final class TrialIterator implements Iterator<Object[]> {
+        private final IGenerator[] generators;
+        private final long seed;
+        private final int trials;
+        private int trial;
+
+        /**
+         * Constructor.
+         *
+         * @param generators The generators of the parameters.
+         * @param seed       The seed of the run.
+         * @param trials     The number of trials.
+         */
+        TrialIterator(@NonNull IGenerator[] generators, long seed, int trials) {
+            this.generators = generators;
+            this.seed = seed;
+            this.trials = trials;
+        }
+
+        /**
+         * Checks if there are more trials.
+         *
+         * @return True if there are more trials.
+         */
+        @Override
+        public boolean hasNext() {
+            return trial < trials;
+        }
+
+        /**
+         * Generates the values of the next trial.
+         *
+         * @return The parameters of the next invocation.
+         * @throws NoSuchElementException if there are no more trials.
+         */
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("There are no more trials!");
+            }
+
+            SplittableRandom random = newTrialRandom(seed, trial++);
+            Object[] args = new Object[generators.length];
+
+            for (int i = 0; i < generators.length; ++i) {
+                args[i] = generators[i].generate(random);
+            }
+
+            return args;
+        }
+    }
+}
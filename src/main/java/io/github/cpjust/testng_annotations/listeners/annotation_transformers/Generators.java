@@ -0,0 +1,672 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.Gen;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Creates the {@link IGenerator}s of the parameters of {@code ForAll} test methods, from the parameter types and their
+ * {@link Gen} annotations.
+ * <br/>
+ * Numbers are generated uniformly in their range, except that 1 in {@value #EDGE_CASE_ODDS} values is an edge case (the
+ * bounds of the range, 0, 1 or -1), since those find most bugs. Numbers shrink towards 0 (or the bound closest to it),
+ * chars and enums towards the first allowed one, and Strings, collections and arrays by removing elements before
+ * shrinking each element.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Generators {
+    /**
+     * The characters of Strings and chars if {@link Gen#chars()} is empty.
+     */
+    static final String PRINTABLE_ASCII = IntStream.rangeClosed(' ', '~')
+            .mapToObj(c -> String.valueOf((char) c))
+            .collect(Collectors.joining());
+
+    private static final int EDGE_CASE_ODDS = 5;
+    /**
+     * The number of attempts per element to generate a Set of distinct elements, so a Set whose elements have fewer
+     * distinct values than its size (ex. a Set of booleans) is generated smaller instead of looping forever.
+     */
+    private static final int ATTEMPTS_PER_ELEMENT = 4;
+    private static final double DEFAULT_FLOATING_LIMIT = 1_000_000;
+    private static final IGenerator BOOLEANS = new BooleanGenerator();
+
+    /**
+     * Creates the generators of the parameters of a test method.
+     *
+     * @param method The test method.
+     * @return The generator of each parameter.
+     * @throws IllegalStateException    if a parameter type isn't supported.
+     * @throws IllegalArgumentException if a {@link Gen} annotation is invalid.
+     */
+    static IGenerator[] forMethod(@NonNull Method method) {
+        Parameter[] parameters = method.getParameters();
+        IGenerator[] generators = new IGenerator[parameters.length];
+
+        for (int i = 0; i < parameters.length; ++i) {
+            String description = String.format("parameter %d of method '%s'", i, method.getName());
+            generators[i] = forType(parameters[i].getParameterizedType(), parameters[i].getAnnotation(Gen.class), description);
+        }
+
+        return generators;
+    }
+
+    /**
+     * Creates the generator of a type.
+     *
+     * @param type        The type of the values.
+     * @param gen         The limits of the values, or null for the default limits.
+     * @param description A description of the parameter, for the error messages.
+     * @return The generator.
+     * @throws IllegalStateException    if the type isn't supported.
+     * @throws IllegalArgumentException if the {@link Gen} annotation is invalid.
+     */
+    static IGenerator forType(@NonNull Type type, Gen gen, @NonNull String description) {
+        long min = (gen == null) ? Long.MIN_VALUE : gen.min();
+        long max = (gen == null) ? Long.MAX_VALUE : gen.max();
+        int minSize = (gen == null) ? 0 : gen.minSize();
+        int maxSize = (gen == null) ? Gen.DEFAULT_MAX_SIZE : gen.maxSize();
+        String chars = ((gen == null) || gen.chars().isEmpty()) ? PRINTABLE_ASCII : gen.chars();
+
+        if (min > max) {
+            throw new IllegalArgumentException(String.format("Gen min (%d) cannot be greater than max (%d) on %s", min, max, description));
+        }
+
+        if ((minSize < 0) || (minSize > maxSize)) {
+            throw new IllegalArgumentException(String.format("Gen minSize (%d) must be between 0 and maxSize (%d) on %s",
+                    minSize, maxSize, description));
+        }
+
+        Class<?> rawType = getRawType(type);
+
+        if ((rawType == boolean.class) || (rawType == Boolean.class)) {
+            return BOOLEANS;
+        } else if ((rawType == byte.class) || (rawType == Byte.class)) {
+            return newIntegralGenerator(Byte.MIN_VALUE, Byte.MAX_VALUE, min, max, v -> (byte) v, description);
+        } else if ((rawType == short.class) || (rawType == Short.class)) {
+            return newIntegralGenerator(Short.MIN_VALUE, Short.MAX_VALUE, min, max, v -> (short) v, description);
+        } else if ((rawType == int.class) || (rawType == Integer.class)) {
+            return newIntegralGenerator(Integer.MIN_VALUE, Integer.MAX_VALUE, min, max, v -> (int) v, description);
+        } else if ((rawType == long.class) || (rawType == Long.class)) {
+            return newIntegralGenerator(Long.MIN_VALUE, Long.MAX_VALUE, min, max, v -> v, description);
+        } else if ((rawType == float.class) || (rawType == Float.class) || (rawType == double.class) || (rawType == Double.class)) {
+            boolean hasRange = (min != Long.MIN_VALUE) || (max != Long.MAX_VALUE);
+            return new FloatingGenerator(hasRange ? min : -DEFAULT_FLOATING_LIMIT, hasRange ? max : DEFAULT_FLOATING_LIMIT,
+                    (rawType == float.class) || (rawType == Float.class));
+        } else if ((rawType == char.class) || (rawType == Character.class)) {
+            return new CharGenerator(chars);
+        } else if (rawType == String.class) {
+            return new SequenceGenerator(new CharGenerator(chars), minSize, maxSize, false, Generators::toCharacters, Generators::toText);
+        } else if (rawType.isEnum()) {
+            return newEnumGenerator(rawType, gen, description);
+        } else if (rawType.isArray()) {
+            Type componentType = (type instanceof GenericArrayType) ? ((GenericArrayType) type).getGenericComponentType() : rawType.getComponentType();
+            Class<?> componentClass = rawType.getComponentType();
+            return new SequenceGenerator(forType(componentType, gen, description), minSize, maxSize, false,
+                    Generators::toElements, elements -> toArray(elements, componentClass));
+        } else if (rawType.isAssignableFrom(ArrayList.class) && (Collection.class.isAssignableFrom(rawType) || (rawType == Iterable.class))) {
+            return new SequenceGenerator(forType(getElementType(type, description), gen, description), minSize, maxSize, false,
+                    value -> new ArrayList<>((Collection<?>) value), ArrayList::new);
+        } else if (rawType.isAssignableFrom(LinkedHashSet.class) && Set.class.isAssignableFrom(rawType)) {
+            return new SequenceGenerator(forType(getElementType(type, description), gen, description), minSize, maxSize, true,
+                    value -> new ArrayList<>((Collection<?>) value), LinkedHashSet::new);
+        }
+
+        throw new IllegalStateException(String.format("Cannot generate values of type %s for %s", type.getTypeName(), description));
+    }
+
+    /**
+     * Gets the class of a type.
+     *
+     * @param type The type.
+     * @return The class, or Object if it's a type variable.
+     */
+    private static Class<?> getRawType(@NonNull Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return getRawType(((ParameterizedType) type).getRawType());
+        } else if (type instanceof WildcardType) {
+            return getRawType(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof GenericArrayType) {
+            return Array.newInstance(getRawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+
+        return Object.class;
+    }
+
+    /**
+     * Gets the element type of a collection type.
+     *
+     * @param type        The collection type.
+     * @param description A description of the parameter, for the error messages.
+     * @return The element type.
+     * @throws IllegalStateException if the collection type doesn't declare its element type.
+     */
+    private static Type getElementType(@NonNull Type type, @NonNull String description) {
+        if (!(type instanceof ParameterizedType)) {
+            throw new IllegalStateException(String.format("Cannot generate values of type %s for %s, since it doesn't declare its element type",
+                    type.getTypeName(), description));
+        }
+
+        return ((ParameterizedType) type).getActualTypeArguments()[0];
+    }
+
+    /**
+     * Creates the generator of an integer type.
+     *
+     * @param typeMin     The smallest value of the type.
+     * @param typeMax     The largest value of the type.
+     * @param min         The smallest value of the {@link Gen} annotation.
+     * @param max         The largest value of the {@link Gen} annotation.
+     * @param boxer       Converts a value to the boxed type.
+     * @param description A description of the parameter, for the error messages.
+     * @return The generator.
+     * @throws IllegalArgumentException if no value of the type is in the range.
+     */
+    private static IGenerator newIntegralGenerator(long typeMin, long typeMax, long min, long max, @NonNull LongFunction<Object> boxer,
+                                                  @NonNull String description) {
+        if ((min > typeMax) || (max < typeMin)) {
+            throw new IllegalArgumentException(String.format("Gen range [%d, %d] has no values between %d and %d on %s",
+                    min, max, typeMin, typeMax, description));
+        }
+
+        return new IntegralGenerator(Math.max(min, typeMin), Math.min(max, typeMax), boxer);
+    }
+
+    /**
+     * Creates the generator of an enum type.
+     *
+     * @param enumClass   The enum class.
+     * @param gen         The limits of the values, or null to use all the constants.
+     * @param description A description of the parameter, for the error messages.
+     * @return The generator.
+     * @throws IllegalArgumentException if no constant matches the names of the {@link Gen} annotation.
+     */
+    private static IGenerator newEnumGenerator(@NonNull Class<?> enumClass, Gen gen, @NonNull String description) {
+        Enum<?>[] allConstants = (Enum<?>[]) enumClass.getEnumConstants();
+        List<Enum<?>> constants = (gen == null) ? List.of(allConstants)
+                : EnumSourceListener.selectConstants(allConstants, gen.names(), gen.mode());
+
+        if (constants.isEmpty()) {
+            throw new IllegalArgumentException("No matching enum constants found for " + description);
+        }
+
+        return new EnumGenerator(constants);
+    }
+
+    /**
+     * Gets the simpler values of an integer, which are closer to the target, simplest first.
+     *
+     * @param value  The value.
+     * @param target The simplest value.
+     * @param min    The smallest allowed value.
+     * @param max    The largest allowed value.
+     * @return The simpler values.
+     */
+    static List<Long> towards(long value, long target, long min, long max) {
+        List<Long> candidates = new ArrayList<>();
+
+        if (value == target) {
+            return candidates;
+        }
+
+        candidates.add(target);
+
+        // A negative value is less simple than the positive value with the same magnitude.
+        if ((target == 0) && (value < 0) && (value != Long.MIN_VALUE) && (-value <= max)) {
+            candidates.add(-value);
+        }
+
+        // The value and target have the same sign (or the target is 0), so the difference doesn't overflow.
+        for (long half = (value - target) / 2; half != 0; half /= 2) {
+            if (((value - half) >= min) && ((value - half) <= max)) {
+                candidates.add(value - half);
+            }
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Gets the value in a range that is closest to a value.
+     *
+     * @param value The value.
+     * @param min   The smallest value of the range.
+     * @param max   The largest value of the range.
+     * @return The closest value.
+     */
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Gets the characters of a String.
+     *
+     * @param value The String.
+     * @return The characters.
+     */
+    private static List<Object> toCharacters(@NonNull Object value) {
+        return ((String) value).chars().mapToObj(c -> (char) c).collect(Collectors.toList());
+    }
+
+    /**
+     * Joins characters into a String.
+     *
+     * @param characters The characters.
+     * @return The String.
+     */
+    private static Object toText(@NonNull List<Object> characters) {
+        StringBuilder text = new StringBuilder(characters.size());
+        characters.forEach(text::append);
+        return text.toString();
+    }
+
+    /**
+     * Gets the elements of an array.
+     *
+     * @param array The array, which may have a primitive component type.
+     * @return The elements.
+     */
+    private static List<Object> toElements(@NonNull Object array) {
+        List<Object> elements = new ArrayList<>();
+
+        for (int i = 0; i < Array.getLength(array); ++i) {
+            elements.add(Array.get(array, i));
+        }
+
+        return elements;
+    }
+
+    /**
+     * Creates an array.
+     *
+     * @param elements       The elements.
+     * @param componentClass The component type of the array, which may be primitive.
+     * @return The array.
+     */
+    private static Object toArray(@NonNull List<Object> elements, @NonNull Class<?> componentClass) {
+        Object array = Array.newInstance(componentClass, elements.size());
+
+        for (int i = 0; i < elements.size(); ++i) {
+            Array.set(array, i, elements.get(i));
+        }
+
+        return array;
+    }
+
+    /**
+     * Generates booleans, where false is simpler than true.
+     */
+    private static final class BooleanGenerator implements IGenerator {
+        /**
+         * Generates a boolean.
+         *
+         * @param random The random number generator of the trial.
+         * @return The boolean.
+         */
+        @Override
+        public Object generate(@NonNull SplittableRandom random) {
+            return random.nextBoolean();
+        }
+
+        /**
+         * Shrinks true to false.
+         *
+         * @param value The boolean.
+         * @return False if the value is true, otherwise nothing.
+         */
+        @Override
+        public Stream<Object> shrink(@NonNull Object value) {
+            return Boolean.TRUE.equals(value) ? Stream.of(false) : Stream.empty();
+        }
+    }
+
+    /**
+     * Generates integers of any of the integer types in a range.
+     */
+    private static final class IntegralGenerator implements IGenerator {
+        private final long min;
+        private final long max;
+        private final long target;
+        private final long[] edgeCases;
+        private final LongFunction<Object> boxer;
+
+        /**
+         * Constructor.
+         *
+         * @param min   The smallest value.
+         * @param max   The largest value.
+         * @param boxer Converts a value to the boxed type.
+         */
+        IntegralGenerator(long min, long max, @NonNull LongFunction<Object> boxer) {
+            this.min = min;
+            this.max = max;
+            this.target = clamp(0, min, max);
+            this.edgeCases = new long[]{min, max, target, clamp(1, min, max), clamp(-1, min, max)};
+            this.boxer = boxer;
+        }
+
+        /**
+         * Generates an integer, which is an edge case 1 in {@value #EDGE_CASE_ODDS} times.
+         *
+         * @param random The random number generator of the trial.
+         * @return The integer.
+         */
+        @Override
+        public Object generate(@NonNull SplittableRandom random) {
+            if (random.nextInt(EDGE_CASE_ODDS) == 0) {
+                return boxer.apply(edgeCases[random.nextInt(edgeCases.length)]);
+            }
+
+            long span = max - min; // Unsigned.
+
+            if (span == -1L) {
+                return boxer.apply(random.nextLong());
+            } else if ((span >= 0) && (span < Long.MAX_VALUE)) {
+                return boxer.apply(min + random.nextLong(span + 1));
+            }
+
+            // The range has more than 2^63 values, so less than half of the random values are rejected.
+            long value;
+
+            do {
+                value = random.nextLong();
+            } while ((value < min) || (value > max));
+
+            return boxer.apply(value);
+        }
+
+        /**
+         * Gets the integers between the value and 0 (or the bound closest to 0).
+         *
+         * @param value The integer.
+         * @return The simpler integers.
+         */
+        @Override
+        public Stream<Object> shrink(@NonNull Object value) {
+            return towards(((Number) value).longValue(), target, min, max).stream().map(boxer::apply);
+        }
+    }
+
+    /**
+     * Generates floats or doubles in a range.
+     */
+    private static final class FloatingGenerator implements IGenerator {
+        private final double min;
+        private final double max;
+        private final double target;
+        private final double[] edgeCases;
+        private final boolean floats;
+
+        /**
+         * Constructor.
+         *
+         * @param min    The smallest value.
+         * @param max    The largest value.
+         * @param floats Whether to generate floats instead of doubles.
+         */
+        FloatingGenerator(double min, double max, boolean floats) {
+            this.min = min;
+            this.max = max;
+            this.target = clamp(0);
+            this.edgeCases = new double[]{min, max, target, clamp(1), clamp(-1)};
+            this.floats = floats;
+        }
+
+        /**
+         * Generates a number, which is an edge case 1 in {@value #EDGE_CASE_ODDS} times.
+         *
+         * @param random The random number generator of the trial.
+         * @return The number.
+         */
+        @Override
+        public Object generate(@NonNull SplittableRandom random) {
+            if (random.nextInt(EDGE_CASE_ODDS) == 0) {
+                return box(edgeCases[random.nextInt(edgeCases.length)]);
+            }
+
+            return box(clamp(min + (random.nextDouble() * (max - min))));
+        }
+
+        /**
+         * Gets the simpler numbers of a number: the target, the number without its fraction, and the number halfway to
+         * the target.
+         *
+         * @param value The number.
+         * @return The simpler numbers.
+         */
+        @Override
+        public Stream<Object> shrink(@NonNull Object value) {
+            double number = ((Number) value).doubleValue();
+
+            if ((number == target) || Double.isNaN(number)) {
+                return Stream.empty();
+            }
+
+            double truncated = (double) (long) number;
+            double halfway = target + ((number - target) / 2);
+            Stream.Builder<Object> candidates = Stream.builder();
+            candidates.add(box(target));
+
+            if ((truncated != number) && (truncated != target) && (truncated >= min) && (truncated <= max)) {
+                candidates.add(box(truncated));
+            }
+
+            if (Math.abs(number - target) > 1) {
+                candidates.add(box(halfway));
+            }
+
+            return candidates.build();
+        }
+
+        /**
+         * Gets the number in the range that is closest to a number.
+         *
+         * @param number The number.
+         * @return The closest number.
+         */
+        private double clamp(double number) {
+            return Math.max(min, Math.min(max, number));
+        }
+
+        /**
+         * Converts a number to the boxed type.
+         *
+         * @param number The number.
+         * @return The Float or Double.
+         */
+        private Object box(double number) {
+            if (floats) {
+                return (float) number;
+            }
+
+            return number;
+        }
+    }
+
+    /**
+     * Generates chars from a set of characters, where the first character is the simplest one.
+     */
+    private static final class CharGenerator implements IGenerator {
+        private final String chars;
+
+        /**
+         * Constructor.
+         *
+         * @param chars The characters to generate.
+         */
+        CharGenerator(@NonNull String chars) {
+            this.chars = chars;
+        }
+
+        /**
+         * Generates a char.
+         *
+         * @param random The random number generator of the trial.
+         * @return The char.
+         */
+        @Override
+        public Object generate(@NonNull SplittableRandom random) {
+            return chars.charAt(random.nextInt(chars.length()));
+        }
+
+        /**
+         * Gets the characters before a char in the set of characters.
+         *
+         * @param value The char.
+         * @return The simpler chars.
+         */
+        @Override
+        public Stream<Object> shrink(@NonNull Object value) {
+            int index = chars.indexOf((Character) value);
+            return (index <= 0) ? Stream.empty() : towards(index, 0, 0, index).stream().map(i -> chars.charAt(i.intValue()));
+        }
+    }
+
+    /**
+     * Generates the constants of an enum, where the first constant is the simplest one.
+     */
+    private static final class EnumGenerator implements IGenerator {
+        private final List<Enum<?>> constants;
+
+        /**
+         * Constructor.
+         *
+         * @param constants The constants to generate.
+         */
+        EnumGenerator(@NonNull List<Enum<?>> constants) {
+            this.constants = constants;
+        }
+
+        /**
+         * Generates a constant.
+         *
+         * @param random The random number generator of the trial.
+         * @return The constant.
+         */
+        @Override
+        public Object generate(@NonNull SplittableRandom random) {
+            return constants.get(random.nextInt(constants.size()));
+        }
+
+        /**
+         * Gets the constants before a constant.
+         *
+         * @param value The constant.
+         * @return The simpler constants.
+         */
+        @Override
+        public Stream<Object> shrink(@NonNull Object value) {
+            int index = constants.indexOf(value);
+            return (index <= 0) ? Stream.empty() : towards(index, 0, 0, index).stream().map(i -> constants.get(i.intValue()));
+        }
+    }
+
+    /**
+     * Generates Strings, collections and arrays as sequences of generated elements.
+     */
+    private static final class SequenceGenerator implements IGenerator {
+        private final IGenerator elements;
+        private final int minSize;
+        private final int maxSize;
+        private final boolean unique;
+        private final Function<Object, List<Object>> toList;
+        private final Function<List<Object>, Object> toValue;
+
+        /**
+         * Constructor.
+         *
+         * @param elements The generator of the elements.
+         * @param minSize  The smallest number of elements.
+         * @param maxSize  The largest number of elements.
+         * @param unique   Whether the elements must be unique, in which case fewer elements may be generated if there
+         *                 aren't enough unique elements.
+         * @param toList   Gets the elements of a value.
+         * @param toValue  Creates a value from its elements.
+         */
+        SequenceGenerator(@NonNull IGenerator elements, int minSize, int maxSize, boolean unique,
+                          @NonNull Function<Object, List<Object>> toList, @NonNull Function<List<Object>, Object> toValue) {
+            this.elements = elements;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.unique = unique;
+            this.toList = toList;
+            this.toValue = toValue;
+        }
+
+        /**
+         * Generates a sequence with a random size.
+         *
+         * @param random The random number generator of the trial.
+         * @return The sequence.
+         */
+        @Override
+        public Object generate(@NonNull SplittableRandom random) {
+            int size = minSize + random.nextInt(maxSize - minSize + 1);
+            Collection<Object> generated = unique ? new LinkedHashSet<>() : new ArrayList<>(size);
+
+            for (int attempt = 0; (generated.size() < size) && (attempt < (size * ATTEMPTS_PER_ELEMENT)); ++attempt) {
+                generated.add(elements.generate(random));
+            }
+
+            return toValue.apply(new ArrayList<>(generated));
+        }
+
+        /**
+         * Gets the simpler sequences of a sequence: first shorter sequences (the shortest allowed prefix, either half, or
+         * without one element), then the sequences with one simpler element.
+         *
+         * @param value The sequence.
+         * @return The simpler sequences.
+         */
+        @Override
+        public Stream<Object> shrink(@NonNull Object value) {
+            List<Object> list = toList.apply(value);
+            int size = list.size();
+            Stream<List<Object>> shorter = Stream.empty();
+
+            if (size > minSize) {
+                Stream<List<Object>> halves = Stream.of(list.subList(0, minSize), list.subList(size / 2, size), list.subList(0, size / 2))
+                        .filter(half -> (half.size() >= minSize) && (half.size() < (size - 1)))
+                        .distinct();
+                Stream<List<Object>> withoutOne = IntStream.range(0, size).mapToObj(i -> {
+                    List<Object> copy = new ArrayList<>(list);
+                    copy.remove(i);
+                    return copy;
+                });
+                shorter = Stream.concat(halves, withoutOne);
+            }
+
+            Stream<List<Object>> simplerElement = IntStream.range(0, size).boxed()
+                    .flatMap(i -> elements.shrink(list.get(i)).map(element -> {
+                        List<Object> copy = new ArrayList<>(list);
+                        copy.set(i, element);
+                        return copy;
+                    }));
+
+            return Stream.concat(shorter, simplerElement).map(toValue);
+        }
+    }
+}
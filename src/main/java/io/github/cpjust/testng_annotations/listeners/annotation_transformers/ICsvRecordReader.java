@@ -0,0 +1,27 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the records of a CSV file one at a time. The fields of the current record are only materialized as Strings when
+ * they're asked for, so implementations can skip the work for columns that a test doesn't use.
+ */
+interface ICsvRecordReader extends Closeable {
+    /**
+     * Moves to the next non-empty record.
+     *
+     * @return The number of fields in the record, or -1 if there are no more records.
+     * @throws IOException If the file can't be read.
+     */
+    int nextRecord() throws IOException;
+
+    /**
+     * Gets a field of the current record.
+     *
+     * @param index The zero-based index of the field, which must be less than the number of fields in the record.
+     * @return The value of the field.
+     * @throws IOException If the field can't be decoded.
+     */
+    String getField(int index) throws IOException;
+}
@@ -0,0 +1,27 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Generates the random values of a parameter of a {@code ForAll} test method, and the simpler values to try when a value
+ * is shrunk.
+ */
+interface IGenerator {
+    /**
+     * Generates a value.
+     *
+     * @param random The random number generator of the trial.
+     * @return The value.
+     */
+    Object generate(SplittableRandom random);
+
+    /**
+     * Gets simpler values to try instead of a failing value, simplest first. Each candidate must be strictly simpler
+     * than the value, so shrinking always ends.
+     *
+     * @param value A value generated by this generator.
+     * @return The candidates, which are computed lazily.
+     */
+    Stream<Object> shrink(Object value);
+}
@@ -0,0 +1,463 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the records of a CSV file by memory-mapping it and locating the field boundaries directly in the mapped bytes.
+ * A field is only decoded into a String when it's asked for, so the columns that a test doesn't use cost nothing but the
+ * scan. The records are parsed with the same rules as {@link CsvTokenizer#tokenizeRecord}.
+ * <br/>
+ * The file is mapped in windows, so files larger than 2 GB can be read as long as each record is smaller than 2 GB.
+ * Only ASCII-compatible encodings (UTF-8 and single-byte encodings like ISO-8859-1) are supported, where the delimiter and
+ * quote character are each a single byte; check them with {@link #isSupported}.
+ */
+final class MappedCsvRecordReader implements ICsvRecordReader {
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private final CharsetDecoder decoder;
+    private final byte delimiter;
+    private final byte quote;
+    private final char quoteCharacter;
+    private final boolean trimWhitespace;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+    private long position;
+    private long recordStart;
+    private int fieldCount;
+    private long[] fieldStarts = new long[16];
+    private long[] fieldEnds = new long[16];
+    private boolean[] fieldQuoted = new boolean[16];
+
+    /**
+     * Constructor, which maps the start of the file and skips its first lines.
+     *
+     * @param file           The file to read.
+     * @param charset        The character set of the file, which must be supported.
+     * @param numLinesToSkip The number of lines to skip at the start of the file.
+     * @param delimiter      The delimiter between fields.
+     * @param quoteCharacter The character used to quote fields.
+     * @param trimWhitespace Whether to trim the whitespace around records and fields.
+     * @throws IOException If the file can't be opened.
+     */
+    MappedCsvRecordReader(@NonNull Path file, @NonNull Charset charset, int numLinesToSkip, char delimiter,
+                          char quoteCharacter, boolean trimWhitespace) throws IOException {
+        this(file, charset, numLinesToSkip, delimiter, quoteCharacter, trimWhitespace, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Package-private constructor for unit tests to inject the window size.
+     *
+     * @param file           The file to read.
+     * @param charset        The character set of the file, which must be supported.
+     * @param numLinesToSkip The number of lines to skip at the start of the file.
+     * @param delimiter      The delimiter between fields.
+     * @param quoteCharacter The character used to quote fields.
+     * @param trimWhitespace Whether to trim the whitespace around records and fields.
+     * @param windowSize     The number of bytes to map at a time.
+     * @throws IOException If the file can't be opened.
+     */
+    MappedCsvRecordReader(@NonNull Path file, @NonNull Charset charset, int numLinesToSkip, char delimiter,
+                          char quoteCharacter, boolean trimWhitespace, int windowSize) throws IOException {
+        if (!isSupported(charset, delimiter, quoteCharacter)) {
+            throw new IllegalArgumentException(String.format(
+                    "The delimiter and quote character must each be a single byte in an ASCII-compatible encoding to memory-map a CSV file, but the encoding was '%s'!",
+                    charset.name()));
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.delimiter = encode(charset, delimiter);
+        this.quote = encode(charset, quoteCharacter);
+        this.quoteCharacter = quoteCharacter;
+        this.trimWhitespace = trimWhitespace;
+
+        try {
+            for (int i = 0; (i < numLinesToSkip) && (position < size); ++i) {
+                recordStart = position;
+
+                while ((position < size) && !isNewline(byteAt(position))) {
+                    ++position;
+                }
+
+                skipNewline();
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if a CSV file in the given encoding can be memory-mapped, which requires that the ASCII characters (including
+     * the newlines that end records) are encoded as the same single bytes as in ASCII and can't be part of another
+     * character, and that the delimiter and quote character are each encoded as a single byte.
+     *
+     * @param charset        The character set of the file.
+     * @param delimiter      The delimiter between fields.
+     * @param quoteCharacter The character used to quote fields.
+     * @return True if the file can be memory-mapped.
+     */
+    static boolean isSupported(@NonNull Charset charset, char delimiter, char quoteCharacter) {
+        if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII)
+                && (!charset.canEncode() || (charset.newEncoder().maxBytesPerChar() != 1))) {
+            return false;
+        }
+
+        byte[] ascii = new byte[128];
+
+        for (int i = 0; i < ascii.length; ++i) {
+            ascii[i] = (byte) i;
+        }
+
+        CharsetEncoder encoder = charset.newEncoder();
+        return new String(ascii, StandardCharsets.US_ASCII).equals(new String(ascii, charset))
+                && encoder.canEncode(delimiter) && encoder.canEncode(quoteCharacter)
+                && (String.valueOf(delimiter).getBytes(charset).length == 1)
+                && (String.valueOf(quoteCharacter).getBytes(charset).length == 1);
+    }
+
+    /**
+     * Locates the fields of the next non-empty record.
+     *
+     * @return The number of fields in the record, or -1 if there are no more records.
+     * @throws IOException If the file can't be mapped.
+     */
+    @Override
+    public int nextRecord() throws IOException {
+        while (position < size) {
+            recordStart = position;
+            fieldCount = 0;
+
+            if (trimWhitespace) {
+                while ((position < size) && isBlank(byteAt(position))) {
+                    ++position;
+                }
+            }
+
+            if ((position >= size) || isNewline(byteAt(position))) {
+                skipNewline();
+                continue;
+            }
+
+            readFields();
+            return fieldCount;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the byte offset where the current record starts, including any whitespace before it. A reader that is moved
+     * to this offset with {@link #seek} reads the current record next.
+     *
+     * @return The byte offset of the current record.
+     */
+    long getRecordStart() {
+        return recordStart;
+    }
+
+    /**
+     * Moves the reader to a byte offset where a record starts (ex. from {@link CsvRowIndex}), so the record at that
+     * offset is read next.
+     *
+     * @param offset The byte offset.
+     */
+    void seek(long offset) {
+        position = offset;
+        recordStart = offset;
+        fieldCount = 0;
+    }
+
+    /**
+     * Decodes a field of the current record.
+     *
+     * @param index The zero-based index of the field.
+     * @return The value of the field.
+     * @throws IOException If the field isn't valid in the file's encoding.
+     */
+    @Override
+    public String getField(int index) throws IOException {
+        ByteBuffer bytes = window.duplicate();
+        bytes.clear();
+        bytes.position((int) (fieldStarts[index] - windowStart));
+        bytes.limit((int) (fieldEnds[index] - windowStart));
+        String value;
+
+        try {
+            value = decoder.decode(bytes).toString();
+        } catch (CharacterCodingException e) {
+            throw new IOException(String.format("Field %d of the record at byte %d can't be decoded!", index, recordStart), e);
+        }
+
+        if (fieldQuoted[index]) {
+            value = unquote(value);
+        }
+
+        return trimWhitespace ? value.strip() : value;
+    }
+
+    /**
+     * Closes the file. The mapped windows are released when they're garbage collected.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Locates the fields of the record at the current position, and moves the position past the end of the record.
+     *
+     * @throws IOException If the file can't be mapped.
+     */
+    private void readFields() throws IOException {
+        while (true) {
+            long start = position;
+            long end;
+            boolean quoted = (position < size) && (byteAt(position) == quote);
+
+            if (quoted) {
+                start = ++position;
+                boolean inQuotes = true;
+
+                while (position < size) {
+                    byte b = byteAt(position);
+
+                    if (b == quote) {
+                        inQuotes = !inQuotes;
+                    } else if (!inQuotes && ((b == delimiter) || isNewline(b))) {
+                        break;
+                    }
+
+                    ++position;
+                }
+
+                // A quote that is still open at the end of the file doesn't include the last line break.
+                end = inQuotes ? trimLastNewline(start, position) : position;
+
+                if ((end > start) && (byteAt(end - 1) == quote)) {
+                    --end;
+                }
+            } else {
+                while ((position < size) && (byteAt(position) != delimiter) && !isNewline(byteAt(position))) {
+                    ++position;
+                }
+
+                end = position;
+            }
+
+            addField(start, end, quoted);
+
+            if ((position < size) && (byteAt(position) == delimiter) && !isTrimmedEndOfRecord()) {
+                ++position;
+            } else {
+                while ((position < size) && !isNewline(byteAt(position))) {
+                    ++position;
+                }
+
+                skipNewline();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds the boundaries of a field of the current record.
+     *
+     * @param start  The offset of the first byte of the field.
+     * @param end    The offset after the last byte of the field.
+     * @param quoted Whether the field is quoted.
+     */
+    private void addField(long start, long end, boolean quoted) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, fieldCount * 2);
+        }
+
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        ++fieldCount;
+    }
+
+    /**
+     * Removes the quote characters of a quoted field the same way as {@link CsvTokenizer} (every first one is removed and
+     * every second one is kept), and converts its line breaks to "\n" like a field that was read line by line.
+     *
+     * @param raw The decoded field between the opening and closing quote.
+     * @return The value of the field.
+     */
+    private String unquote(@NonNull String raw) {
+        StringBuilder value = new StringBuilder(raw.length());
+        boolean removeQuote = false;
+
+        for (int i = 0; i < raw.length(); ++i) {
+            char c = raw.charAt(i);
+
+            if (c == quoteCharacter) {
+                removeQuote = !removeQuote;
+
+                if (removeQuote) {
+                    continue;
+                }
+            } else if (c == '\r') {
+                if (((i + 1) < raw.length()) && (raw.charAt(i + 1) == '\n')) {
+                    ++i;
+                }
+
+                c = '\n';
+            }
+
+            value.append(c);
+        }
+
+        return value.toString();
+    }
+
+    /**
+     * Excludes the line break at the end of a field, if there is one.
+     *
+     * @param start The offset of the first byte of the field.
+     * @param end   The offset after the last byte of the field.
+     * @return The offset after the last byte of the field without the line break.
+     * @throws IOException If the file can't be mapped.
+     */
+    private long trimLastNewline(long start, long end) throws IOException {
+        if ((end > start) && (byteAt(end - 1) == LF)) {
+            --end;
+        }
+
+        if ((end > start) && (byteAt(end - 1) == CR)) {
+            --end;
+        }
+
+        return end;
+    }
+
+    /**
+     * Moves the position past a newline ("\n", "\r" or "\r\n") if there is one at the current position.
+     *
+     * @throws IOException If the file can't be mapped.
+     */
+    private void skipNewline() throws IOException {
+        if (position >= size) {
+            return;
+        }
+
+        byte b = byteAt(position);
+
+        if (b == CR) {
+            ++position;
+
+            if ((position < size) && (byteAt(position) == LF)) {
+                ++position;
+            }
+        } else if (b == LF) {
+            ++position;
+        }
+    }
+
+    /**
+     * Checks if the record ends at the current position once it's trimmed, which only happens if the delimiter is blank
+     * (ex. a space or tab) and the rest of the record is blank.
+     *
+     * @return True if there are only blank bytes before the end of the record.
+     * @throws IOException If the file can't be mapped.
+     */
+    private boolean isTrimmedEndOfRecord() throws IOException {
+        if (!trimWhitespace || !isBlank(delimiter)) {
+            return false;
+        }
+
+        for (long i = position; (i < size) && !isNewline(byteAt(i)); ++i) {
+            if (!isBlank(byteAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets a byte of the file, mapping a new window if the byte isn't in the current one. A new window starts at the
+     * current record, so all the fields of the record stay in the window.
+     *
+     * @param offset The offset of the byte in the file, which must be less than the file size.
+     * @return The byte.
+     * @throws IOException If the window can't be mapped, or the record is larger than 2 GB.
+     */
+    private byte byteAt(long offset) throws IOException {
+        if ((offset < windowStart) || (offset >= windowEnd)) {
+            long recordSize = offset - recordStart + 1;
+
+            if (recordSize > Integer.MAX_VALUE) {
+                throw new IOException(String.format("The record at byte %d is larger than 2 GB!", recordStart));
+            }
+
+            long length = Math.min(size - recordStart, Math.min(Integer.MAX_VALUE, Math.max(windowSize, recordSize * 2)));
+            window = channel.map(FileChannel.MapMode.READ_ONLY, recordStart, length);
+            windowStart = recordStart;
+            windowEnd = recordStart + length;
+        }
+
+        return window.get((int) (offset - windowStart));
+    }
+
+    /**
+     * Encodes a character that is a single byte in the given encoding.
+     *
+     * @param charset The character set.
+     * @param c       The character.
+     * @return The byte.
+     */
+    private static byte encode(@NonNull Charset charset, char c) {
+        return String.valueOf(c).getBytes(charset)[0];
+    }
+
+    /**
+     * Checks if a byte is a newline or carriage return.
+     *
+     * @param b The byte.
+     * @return True if the byte ends a record.
+     */
+    private static boolean isNewline(byte b) {
+        return (b == LF) || (b == CR);
+    }
+
+    /**
+     * Checks if a byte is removed when a record is trimmed, which is the same as {@link CsvTokenizer}'s blank characters.
+     *
+     * @param b The byte.
+     * @return True if the byte is blank.
+     */
+    private static boolean isBlank(byte b) {
+        return ((b & 0xFF) <= ' ') && !isNewline(b);
+    }
+}
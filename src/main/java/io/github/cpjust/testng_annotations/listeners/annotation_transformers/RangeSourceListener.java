@@ -0,0 +1,261 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.IntRangeSource;
+import io.github.cpjust.testng_annotations.annotations.LongRangeSource;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IAnnotationTransformer;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * TestNG listener that processes {@link IntRangeSource} and {@link LongRangeSource} annotations and converts them into a
+ * lazy data provider, which generates each value while the tests run instead of boxing the whole range up front.
+ */
+@Slf4j
+public class RangeSourceListener extends SourceListenerBase implements IAnnotationTransformer {
+    static final String RANGE_SOURCE_PROVIDER = "rangeSourceProvider";
+    static final Map.Entry<Class<?>, String> RANGE_SOURCE_PROVIDER_CLASS_AND_NAME = Map.entry(RangeSourceListener.class, RANGE_SOURCE_PROVIDER);
+    static final String RANGE_SOURCE_PARALLEL_PROVIDER = "rangeSourceParallelProvider";
+    static final Map.Entry<Class<?>, String> RANGE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME = Map.entry(RangeSourceListener.class, RANGE_SOURCE_PARALLEL_PROVIDER);
+
+    /**
+     * Constructs the listener with the range source data provider.
+     */
+    public RangeSourceListener() {
+        super(List.of(RANGE_SOURCE_PROVIDER_CLASS_AND_NAME, RANGE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME));
+    }
+
+    /**
+     * Transforms test methods annotated with {@link IntRangeSource} or {@link LongRangeSource} to use a data provider.
+     *
+     * @param annotation      The TestNG annotation being transformed.
+     * @param testClass       The test class (unused).
+     * @param testConstructor The test constructor (unused).
+     * @param testMethod      The test method.
+     */
+    @Override
+    public void transform(@NonNull ITestAnnotation annotation, Class testClass,
+                          Constructor testConstructor, Method testMethod) {
+        if (testMethod == null) {
+            return;
+        }
+
+        throwIfDataProviderNotAllowed(annotation, testMethod);
+        throwIfTestHasMultipleDataProviders(testMethod);
+
+        if (isRangeSourcePresent(testMethod)) {
+            setDataProvider(annotation, testMethod, RANGE_SOURCE_PROVIDER_CLASS_AND_NAME, RANGE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
+        }
+    }
+
+    /**
+     * Checks if the given method is annotated with {@link IntRangeSource} or {@link LongRangeSource}.
+     *
+     * @param method The test method.
+     * @return True if the method is annotated with either range annotation, false otherwise.
+     */
+    public static boolean isRangeSourcePresent(@NonNull Method method) {
+        return method.isAnnotationPresent(IntRangeSource.class) || method.isAnnotationPresent(LongRangeSource.class);
+    }
+
+    /**
+     * Data provider that lazily supplies the values of the range annotation of a test method.
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values.
+     */
+    @DataProvider(name = RANGE_SOURCE_PROVIDER)
+    public static Iterator<Object[]> rangeSourceProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Data provider that lazily supplies the values of the range annotation of a test method with
+     * <code>parallel = true</code>, so TestNG may run the values in parallel.
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values.
+     */
+    @DataProvider(name = RANGE_SOURCE_PARALLEL_PROVIDER, parallel = true)
+    public static Iterator<Object[]> rangeSourceParallelProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Validates the range annotation of a test method and creates an iterator over its values (or the values of the
+     * current shard if the range is sharded).
+     *
+     * @param method The test method.
+     * @return An iterator over the parameter values.
+     * @throws IllegalStateException    if the annotation is missing or the test method has the wrong parameters.
+     * @throws IllegalArgumentException if the range is invalid or empty.
+     */
+    public static Iterator<Object[]> provideValues(@NonNull Method method) {
+        IntRangeSource intRange = method.getAnnotation(IntRangeSource.class);
+        LongRangeSource longRange = method.getAnnotation(LongRangeSource.class);
+
+        if (intRange != null) {
+            checkParamType(method, "@IntRangeSource", int.class, Integer.class);
+            return newIterator(intRange.from(), intRange.to(), intRange.step(), intRange.closed(), intRange.sharded(),
+                    true, "IntRangeSource");
+        } else if (longRange != null) {
+            checkParamType(method, "@LongRangeSource", long.class, Long.class);
+            return newIterator(longRange.from(), longRange.to(), longRange.step(), longRange.closed(), longRange.sharded(),
+                    false, "LongRangeSource");
+        }
+
+        throw new IllegalStateException("No [@IntRangeSource, @LongRangeSource] annotations found on method: " + method.getName());
+    }
+
+    /**
+     * Counts the values of a range.
+     *
+     * @param from           The first value.
+     * @param to             The end of the range.
+     * @param step           The difference between consecutive values.
+     * @param closed         Whether the end of the range is included.
+     * @param annotationName The simple name of the annotation, for the error messages.
+     * @return The number of values.
+     * @throws IllegalArgumentException if the step is 0 or goes away from the end, or if the range is empty or too large.
+     */
+    static long countValues(long from, long to, long step, boolean closed, @NonNull String annotationName) {
+        if (step == 0) {
+            throw new IllegalArgumentException(annotationName + " step cannot be 0");
+        }
+
+        if (((to > from) && (step < 0)) || ((to < from) && (step > 0))) {
+            throw new IllegalArgumentException(String.format("%s step must be %s to go from %d to %d, but was %d",
+                    annotationName, (step < 0) ? "positive" : "negative", from, to, step));
+        }
+
+        // The distance and step are unsigned, since they may not fit in a signed long (ex. from Long.MIN_VALUE to 0).
+        long distance = (step > 0) ? (to - from) : (from - to);
+        long stepSize = (step > 0) ? step : -step;
+        long steps = Long.divideUnsigned(distance, stepSize);
+        boolean endIncluded = closed || (Long.remainderUnsigned(distance, stepSize) != 0);
+
+        if ((steps < 0) || (endIncluded && (steps == Long.MAX_VALUE))) {
+            throw new IllegalArgumentException(String.format("%s range from %d to %d with step %d has too many values",
+                    annotationName, from, to, step));
+        }
+
+        long count = endIncluded ? (steps + 1) : steps;
+
+        if (count == 0) {
+            throw new IllegalArgumentException(String.format("%s range from %d to %d (exclusive) is empty", annotationName, from, to));
+        }
+
+        return count;
+    }
+
+    /**
+     * Creates an iterator over the values of a range, or of its current shard.
+     *
+     * @param from           The first value.
+     * @param to             The end of the range.
+     * @param step           The difference between consecutive values.
+     * @param closed         Whether the end of the range is included.
+     * @param sharded        Whether to only use the values of the current shard.
+     * @param ints           Whether to provide the values as Integers instead of Longs.
+     * @param annotationName The simple name of the annotation, for the error messages.
+     * @return The iterator.
+     */
+    private static Iterator<Object[]> newIterator(long from, long to, long step, boolean closed, boolean sharded, boolean ints,
+                                                  @NonNull String annotationName) {
+        long count = countValues(from, to, step, closed, annotationName);
+        long[] selected = RowRange.select(0, Long.MAX_VALUE, sharded, count);
+        log.debug("Providing values {} to {} of the {} values of the {} range", selected[0], selected[1], count, annotationName);
+        return new RangeIterator(from, step, selected[0], selected[1], ints);
+    }
+
+    /**
+     * Checks that the test method has a single parameter of the type of the range values.
+     *
+     * @param method         The test method.
+     * @param annotationName The name of the annotation, for the error messages.
+     * @param primitiveType  The primitive type of the values.
+     * @param boxedType      The boxed type of the values.
+     * @throws IllegalStateException if the parameters are incorrect.
+     */
+    private static void checkParamType(@NonNull Method method, @NonNull String annotationName, @NonNull Class<?> primitiveType,
+                                       @NonNull Class<?> boxedType) {
+        Class<?>[] paramTypes = method.getParameterTypes();
+
+        if (paramTypes.length != 1) {
+            throw new IllegalStateException(annotationName + " can only be used with single-parameter test methods");
+        }
+
+        if (!primitiveType.equals(paramTypes[0]) && !boxedType.equals(paramTypes[0])) {
+            throw new IllegalStateException(String.format("Test method parameter must be %s/%s when using %s",
+                    primitiveType.getSimpleName(), boxedType.getSimpleName(), annotationName));
+        }
+    }
+
+    /**
+     * Generates the values of a range on demand, by their index in the range.
+     */
+    private static final class RangeIterator implements Iterator<Object[]> {
+        private final long from;
+        private final long step;
+        private final long endIndex;
+        private final boolean ints;
+        private long index;
+
+        /**
+         * Constructor.
+         *
+         * @param from       The first value of the range.
+         * @param step       The difference between consecutive values.
+         * @param startIndex The index of the first value to provide.
+         * @param endIndex   The index after the last value to provide.
+         * @param ints       Whether to provide the values as Integers instead of Longs.
+         */
+        RangeIterator(long from, long step, long startIndex, long endIndex, boolean ints) {
+            this.from = from;
+            this.step = step;
+            this.index = startIndex;
+            this.endIndex = endIndex;
+            this.ints = ints;
+        }
+
+        /**
+         * Checks if there are more values.
+         *
+         * @return True if there are more values.
+         */
+        @Override
+        public boolean hasNext() {
+            return index < endIndex;
+        }
+
+        /**
+         * Gets the next value.
+         *
+         * @return The parameters of the next invocation.
+         * @throws NoSuchElementException if there are no more values.
+         */
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("There are no more values in the range!");
+            }
+
+            // Any value in the range fits in a long, so the multiplication may overflow but the sum is still correct.
+            long value = from + (index++ * step);
+
+            if (ints) {
+                return new Object[]{(int) value};
+            }
+
+            return new Object[]{value};
+        }
+    }
+}
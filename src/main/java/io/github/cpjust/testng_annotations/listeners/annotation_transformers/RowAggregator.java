@@ -0,0 +1,354 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CsvColumn;
+import io.github.cpjust.testng_annotations.annotations.CsvRow;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Binds the rows of a CSV source to an object for a test method parameter annotated with {@link CsvRow}.
+ * <br/>
+ * The constructor, its converters and its column names are resolved once per target type and reused for every row and
+ * test method, so binding a row only converts its values and calls the constructor.
+ */
+final class RowAggregator {
+    private static final String RECORD_CLASS_NAME = "java.lang.Record";
+
+    private static final ClassValue<Binding> BINDINGS = new ClassValue<>() {
+        /**
+         * Resolves the binding of a type.
+         *
+         * @param type The type to bind the rows to.
+         * @return The binding.
+         */
+        @Override
+        protected Binding computeValue(Class<?> type) {
+            return new Binding(type);
+        }
+    };
+
+    @Getter
+    private final boolean byHeader;
+    private final Binding binding;
+
+    /**
+     * Constructor.
+     *
+     * @param csvRow  The annotation of the test method parameter.
+     * @param binding The binding of the parameter type.
+     */
+    private RowAggregator(@NonNull CsvRow csvRow, @NonNull Binding binding) {
+        this.byHeader = csvRow.header();
+        this.binding = binding;
+    }
+
+    /**
+     * Gets the aggregator of a test method.
+     *
+     * @param method The test method.
+     * @return The aggregator, or null if no parameter of the method is annotated with {@link CsvRow}.
+     * @throws IllegalStateException if the annotated parameter isn't the only parameter, or its type can't be bound.
+     */
+    static RowAggregator forMethod(@NonNull Method method) {
+        CsvRow csvRow = getCsvRow(method);
+
+        if (csvRow == null) {
+            return null;
+        }
+
+        if (method.getParameterCount() != 1) {
+            throw new IllegalStateException(String.format(
+                    "The @CsvRow parameter of method '%s' must be its only parameter, but the method has %d parameters",
+                    method.getName(), method.getParameterCount()));
+        }
+
+        Binding binding = BINDINGS.get(method.getParameterTypes()[0]);
+
+        if (binding.error != null) {
+            throw new IllegalStateException(binding.error);
+        }
+
+        return new RowAggregator(csvRow, binding);
+    }
+
+    /**
+     * Gets the {@link CsvRow} annotation of a test method parameter.
+     *
+     * @param method The test method.
+     * @return The annotation, or null if no parameter is annotated.
+     */
+    static CsvRow getCsvRow(@NonNull Method method) {
+        return Stream.of(method.getParameters())
+                .map(parameter -> parameter.getAnnotation(CsvRow.class))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Gets the number of columns that are bound to the constructor, which is the number of fields that each row must
+     * have if the columns are bound by position.
+     *
+     * @return The number of constructor parameters.
+     */
+    int getParameterCount() {
+        return binding.parameterTypes.length;
+    }
+
+    /**
+     * Finds the column of each constructor parameter in a header row.
+     *
+     * @param header The column names.
+     * @return The zero-based index of the column of each constructor parameter.
+     * @throws IllegalStateException if a column isn't in the header.
+     */
+    int[] getColumns(@NonNull Object[] header) {
+        Map<Object, Integer> indexes = new HashMap<>();
+
+        for (int i = header.length - 1; i >= 0; --i) {
+            indexes.put(header[i], i);
+        }
+
+        int[] columns = new int[binding.names.length];
+
+        for (int i = 0; i < columns.length; ++i) {
+            String name = binding.names[i];
+
+            if (name == null) {
+                throw new IllegalStateException(String.format(
+                        "Parameter %d of the %s constructor has no name to find its column in the CSV header, so annotate it with @CsvColumn or compile with -parameters",
+                        i, binding.type.getSimpleName()));
+            }
+
+            Integer index = indexes.get(name);
+
+            if (index == null) {
+                throw new IllegalStateException(String.format(
+                        "Column '%s' of %s is not in the CSV header %s", name, binding.type.getSimpleName(), Arrays.toString(header)));
+            }
+
+            columns[i] = index;
+        }
+
+        return columns;
+    }
+
+    /**
+     * Selects the columns of a row.
+     *
+     * @param row     The fields of the row.
+     * @param columns The zero-based indexes of the columns to select.
+     * @return The selected fields, in the order of the columns.
+     */
+    static Object[] select(@NonNull Object[] row, @NonNull int[] columns) {
+        Object[] values = new Object[columns.length];
+
+        for (int i = 0; i < columns.length; ++i) {
+            values[i] = row[columns[i]];
+        }
+
+        return values;
+    }
+
+    /**
+     * Converts the values of a row to the constructor parameter types and constructs the object.
+     *
+     * @param values The String value of each constructor parameter, which are replaced by the converted values.
+     * @return The object.
+     * @throws IllegalArgumentException if a value can't be converted or the constructor throws an exception.
+     */
+    Object bind(@NonNull Object[] values) {
+        ArgumentConverters.convertRow(values, binding.parameterTypes, binding.converters);
+
+        try {
+            return (Object) binding.constructor.invokeExact(values);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(String.format(
+                    "Cannot create %s from %s!", binding.type.getSimpleName(), Arrays.toString(values)), e);
+        }
+    }
+
+    /**
+     * The constructor, converters and column names of a type, or the reason the type can't be bound.
+     */
+    private static final class Binding {
+        private final Class<?> type;
+        private MethodHandle constructor;
+        private Class<?>[] parameterTypes;
+        private MethodHandle[] converters;
+        private String[] names;
+        private String error;
+
+        /**
+         * Resolves the binding of a type.
+         *
+         * @param type The type to bind the rows to.
+         */
+        private Binding(@NonNull Class<?> type) {
+            this.type = type;
+            Constructor<?> target = findConstructor(type);
+
+            if (target == null) {
+                return;
+            }
+
+            parameterTypes = target.getParameterTypes();
+            converters = new MethodHandle[parameterTypes.length];
+
+            for (int i = 0; i < parameterTypes.length; ++i) {
+                converters[i] = ArgumentConverters.forType(parameterTypes[i]);
+
+                if (converters[i] == null) {
+                    error = String.format("Parameter %d of the %s constructor has the type %s, which can't be converted from a String",
+                            i, type.getSimpleName(), parameterTypes[i].getSimpleName());
+                    return;
+                }
+            }
+
+            names = getNames(target);
+
+            try {
+                constructor = ArgumentConverters.getLookup(type).unreflectConstructor(target)
+                        .asSpreader(Object[].class, parameterTypes.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                error = String.format("The %s constructor is not accessible: %s", type.getSimpleName(), e.getMessage());
+            }
+        }
+
+        /**
+         * Finds the constructor to bind the rows to.
+         *
+         * @param type The type.
+         * @return The constructor, or null (with {@link #error} set) if there isn't exactly one.
+         */
+        private Constructor<?> findConstructor(@NonNull Class<?> type) {
+            if (type.isPrimitive() || type.isArray() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+                error = String.format("Cannot bind CSV rows to %s, which must be a concrete class or record", type.getSimpleName());
+                return null;
+            }
+
+            if (isRecord(type)) {
+                try {
+                    return type.getDeclaredConstructor(getRecordComponentTypes(type));
+                } catch (ReflectiveOperationException e) {
+                    error = String.format("Cannot find the canonical constructor of the %s record: %s", type.getSimpleName(), e.getMessage());
+                    return null;
+                }
+            }
+
+            Constructor<?>[] constructors = Stream.of(type.getDeclaredConstructors())
+                    .filter(constructor -> constructor.getParameterCount() > 0)
+                    .filter(constructor -> !constructor.isSynthetic())
+                    .toArray(Constructor<?>[]::new);
+
+            if (constructors.length != 1) {
+                error = String.format("Cannot bind CSV rows to %s, which must have exactly one constructor with parameters, but has %d",
+                        type.getSimpleName(), constructors.length);
+                return null;
+            }
+
+            return constructors[0];
+        }
+
+        /**
+         * Gets the column names of the constructor parameters.
+         *
+         * @param target The constructor.
+         * @return The name of each parameter, or null for parameters without a name.
+         */
+        private String[] getNames(@NonNull Constructor<?> target) {
+            Parameter[] parameters = target.getParameters();
+            String[] recordNames = isRecord(type) ? getRecordComponentNames(type) : null;
+            String[] result = new String[parameters.length];
+
+            for (int i = 0; i < parameters.length; ++i) {
+                CsvColumn column = parameters[i].getAnnotation(CsvColumn.class);
+
+                if (column != null) {
+                    result[i] = column.value();
+                } else if (recordNames != null) {
+                    result[i] = recordNames[i];
+                } else if (parameters[i].isNamePresent()) {
+                    result[i] = parameters[i].getName();
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Checks if a type is a record. Records can't be referenced directly, since this library supports Java 11.
+         *
+         * @param type The type.
+         * @return True if the type is a record.
+         */
+        private static boolean isRecord(@NonNull Class<?> type) {
+            return (type.getSuperclass() != null) && RECORD_CLASS_NAME.equals(type.getSuperclass().getName());
+        }
+
+        /**
+         * Gets the types of the components of a record.
+         *
+         * @param type The record type.
+         * @return The component types, in order.
+         * @throws ReflectiveOperationException If the components can't be read.
+         */
+        private static Class<?>[] getRecordComponentTypes(@NonNull Class<?> type) throws ReflectiveOperationException {
+            Object[] components = getRecordComponents(type);
+            Class<?>[] types = new Class<?>[components.length];
+
+            for (int i = 0; i < components.length; ++i) {
+                types[i] = (Class<?>) components[i].getClass().getMethod("getType").invoke(components[i]);
+            }
+
+            return types;
+        }
+
+        /**
+         * Gets the names of the components of a record.
+         *
+         * @param type The record type.
+         * @return The component names, in order, or null if they can't be read.
+         */
+        private static String[] getRecordComponentNames(@NonNull Class<?> type) {
+            try {
+                Object[] components = getRecordComponents(type);
+                String[] names = new String[components.length];
+
+                for (int i = 0; i < components.length; ++i) {
+                    names[i] = (String) components[i].getClass().getMethod("getName").invoke(components[i]);
+                }
+
+                return names;
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Gets the components of a record by reflection.
+         *
+         * @param type The record type.
+         * @return The RecordComponent objects.
+         * @throws ReflectiveOperationException If the components can't be read.
+         */
+        private static Object[] getRecordComponents(@NonNull Class<?> type) throws ReflectiveOperationException {
+            return (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+
+import java.util.Properties;
+
+/**
+ * Selects the rows of a CSV source that a test uses, from the <code>fromRow</code>, <code>toRow</code> and
+ * <code>sharded</code> attributes of the source annotation.
+ * <br/>
+ * The row range is applied first. If the source is sharded, the rows in the range are then split into
+ * <code>total</code> contiguous slices of (almost) equal size, and only the slice of the current shard is used, so each
+ * shard only has to read and convert its own rows. The shard is set by the <code>-Ddata.shard=index/total</code> system
+ * property, which uses the same 0-based index as {@link io.github.cpjust.testng_annotations.listeners.scheduling.ShardInterceptor};
+ * if it isn't set, all the rows in the range are used.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class RowRange {
+    /**
+     * The system property containing the shard of the rows to use, as <code>index/total</code> (ex. "1/8").
+     */
+    static final String DATA_SHARD_PROPERTY = "data.shard";
+
+    /**
+     * Throws an exception if the row range of a source annotation is invalid.
+     *
+     * @param fromRow        The zero-based index of the first row.
+     * @param toRow          The zero-based index after the last row.
+     * @param annotationName The simple name of the annotation, for the error messages.
+     * @throws IllegalArgumentException if the range is invalid.
+     */
+    static void validate(long fromRow, long toRow, @NonNull String annotationName) {
+        if (fromRow < 0) {
+            throw new IllegalArgumentException(String.format("%s fromRow cannot be negative, but was %d", annotationName, fromRow));
+        }
+
+        if (toRow < fromRow) {
+            throw new IllegalArgumentException(String.format(
+                    "%s toRow must be at least fromRow (%d), but was %d", annotationName, fromRow, toRow));
+        }
+    }
+
+    /**
+     * Checks if all the rows of a source are used, in which case they don't need to be counted.
+     *
+     * @param fromRow The zero-based index of the first row.
+     * @param toRow   The zero-based index after the last row.
+     * @param sharded Whether the rows are sharded.
+     * @return True if every row is used.
+     */
+    static boolean isAllRows(long fromRow, long toRow, boolean sharded) {
+        return (fromRow == 0) && (toRow == Long.MAX_VALUE) && (!sharded || (System.getProperty(DATA_SHARD_PROPERTY) == null));
+    }
+
+    /**
+     * Selects the rows of a source, using the shard in the system properties.
+     *
+     * @param fromRow  The zero-based index of the first row.
+     * @param toRow    The zero-based index after the last row.
+     * @param sharded  Whether the rows are sharded.
+     * @param rowCount The total number of rows of the source.
+     * @return The zero-based index of the first selected row and the index after the last selected row.
+     */
+    static long[] select(long fromRow, long toRow, boolean sharded, long rowCount) {
+        return select(fromRow, toRow, sharded, rowCount, System.getProperties());
+    }
+
+    /**
+     * Package-private method for unit tests to inject the system properties.
+     *
+     * @param fromRow          The zero-based index of the first row.
+     * @param toRow            The zero-based index after the last row.
+     * @param sharded          Whether the rows are sharded.
+     * @param rowCount         The total number of rows of the source.
+     * @param systemProperties The system properties to read the shard from.
+     * @return The zero-based index of the first selected row and the index after the last selected row.
+     * @throws IllegalArgumentException if the shard property is invalid.
+     */
+    static long[] select(long fromRow, long toRow, boolean sharded, long rowCount, @NonNull Properties systemProperties) {
+        long start = Math.min(fromRow, rowCount);
+        long end = Math.min(toRow, rowCount);
+        String shard = sharded ? systemProperties.getProperty(DATA_SHARD_PROPERTY) : null;
+
+        if (shard == null) {
+            return new long[]{start, end};
+        }
+
+        int[] indexAndTotal = parseShard(shard);
+        long count = end - start;
+        return new long[]{start + sliceStart(count, indexAndTotal[0], indexAndTotal[1]),
+                start + sliceStart(count, indexAndTotal[0] + 1, indexAndTotal[1])};
+    }
+
+    /**
+     * Gets the offset of a slice of the rows, without overflowing for any number of rows. The first
+     * <code>count % total</code> slices get one extra row.
+     *
+     * @param count  The number of rows to split.
+     * @param slices The number of slices before the slice.
+     * @param total  The total number of slices.
+     * @return The offset of the first row of the slice.
+     */
+    private static long sliceStart(long count, int slices, int total) {
+        return ((count / total) * slices) + Math.min(slices, count % total);
+    }
+
+    /**
+     * Parses a shard.
+     *
+     * @param shard The shard, as <code>index/total</code>.
+     * @return The 0-based index and the total number of shards.
+     * @throws IllegalArgumentException if the shard is invalid.
+     */
+    private static int[] parseShard(@NonNull String shard) {
+        String[] parts = shard.trim().split("/", -1);
+
+        if (parts.length == 2) {
+            try {
+                int index = Integer.parseInt(parts[0].trim());
+                int total = Integer.parseInt(parts[1].trim());
+
+                if ((index >= 0) && (index < total)) {
+                    return new int[]{index, total};
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the error below.
+            }
+        }
+
+        throw new IllegalArgumentException(String.format(
+                "The '%s' property must be 'index/total' with 0 <= index < total, but was '%s'!", DATA_SHARD_PROPERTY, shard));
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * Shrinks the arguments of a failing {@code ForAll} trial to a minimal counterexample.
+ * <br/>
+ * The shrinker is greedy: it tries the simpler values of each argument (simplest first) and keeps the first one that
+ * still fails, then starts over from the new arguments, until no simpler value fails or the maximum number of attempts is
+ * reached. Since every simpler value is strictly simpler, the shrinker always stops.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class Shrinker {
+    /**
+     * Shrinks failing arguments.
+     *
+     * @param args        The arguments of the failing trial.
+     * @param generators  The generators of the arguments, which provide their simpler values.
+     * @param fails       Checks if the test fails with some arguments.
+     * @param maxAttempts The maximum number of times the test may be run.
+     * @return The smallest failing arguments that were found.
+     */
+    static Result shrink(@NonNull Object[] args, @NonNull IGenerator[] generators, @NonNull Predicate<Object[]> fails, int maxAttempts) {
+        Object[] current = args.clone();
+        int steps = 0;
+        int attempts = 0;
+        boolean shrunk = true;
+
+        while (shrunk && (attempts < maxAttempts)) {
+            shrunk = false;
+
+            for (int i = 0; (i < current.length) && !shrunk && (attempts < maxAttempts); ++i) {
+                if (current[i] == null) {
+                    continue;
+                }
+
+                Iterator<Object> candidates = generators[i].shrink(current[i]).iterator();
+
+                while (!shrunk && (attempts < maxAttempts) && candidates.hasNext()) {
+                    Object[] candidate = current.clone();
+                    candidate[i] = candidates.next();
+                    ++attempts;
+
+                    if (fails.test(candidate)) {
+                        current = candidate;
+                        ++steps;
+                        shrunk = true;
+                    }
+                }
+            }
+        }
+
+        return new Result(current, steps, attempts);
+    }
+
+    /**
+     * The result of shrinking arguments.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static final class Result {
+        /**
+         * The smallest failing arguments that were found.
+         */
+        private final Object[] args;
+
+        /**
+         * The number of times the arguments were replaced by simpler failing arguments.
+         */
+        private final int steps;
+
+        /**
+         * The number of times the test was run.
+         */
+        private final int attempts;
+    }
+}
@@ -1,21 +1,169 @@
 package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
 
+import io.github.cpjust.testng_annotations.annotations.CartesianSource;
+import io.github.cpjust.testng_annotations.annotations.CsvFileSource;
+import io.github.cpjust.testng_annotations.annotations.CsvSource;
+import io.github.cpjust.testng_annotations.annotations.EmptySource;
+import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.ForAll;
+import io.github.cpjust.testng_annotations.annotations.IntRangeSource;
+import io.github.cpjust.testng_annotations.annotations.LongRangeSource;
+import io.github.cpjust.testng_annotations.annotations.NullAndEmptySource;
+import io.github.cpjust.testng_annotations.annotations.NullSource;
+import io.github.cpjust.testng_annotations.annotations.ValueSource;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
 import org.testng.annotations.ITestAnnotation;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Base class for source listeners that handle data provider annotations.
+ * <br/>
+ * The listeners also limit how many rows of a method run at the same time if its source annotation sets
+ * <code>maxConcurrency</code>, so the limit works with any of the listeners registered. Failed trials of {@link ForAll}
+ * methods are shrunk after they run, for the same reason.
  */
 @RequiredArgsConstructor
-public abstract class SourceListenerBase {
+public abstract class SourceListenerBase implements IInvokedMethodListener {
+    static final ConcurrencyLimiter CONCURRENCY_LIMITER = new ConcurrencyLimiter(SourceListenerBase::getMaxConcurrency);
+
+    // All source annotations, in the order they're listed in error messages.
+    private static final List<Class<? extends Annotation>> SOURCE_ANNOTATIONS = List.of(CsvSource.class, CsvFileSource.class,
+            EnumSource.class, ValueSource.class, NullSource.class, EmptySource.class, NullAndEmptySource.class, IntRangeSource.class,
+            LongRangeSource.class, ForAll.class, CartesianSource.class);
+
     private final List<Map.Entry<Class<?>, String>> allowedDataProviders;
 
+    /**
+     * Waits until the test method may run if the number of concurrent invocations of the method is limited.
+     *
+     * @param method     The method that is about to be invoked.
+     * @param testResult The test result (unused).
+     */
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            CONCURRENCY_LIMITER.enter(method.getTestMethod().getConstructorOrMethod().getMethod());
+        }
+    }
+
+    /**
+     * Shrinks the values of a failed {@link ForAll} trial, then lets the next invocation of the test method run if the
+     * number of concurrent invocations of the method is limited.
+     *
+     * @param method     The method that was invoked.
+     * @param testResult The test result.
+     */
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            Method testMethod = method.getTestMethod().getConstructorOrMethod().getMethod();
+
+            try {
+                ForAllListener.reportFailure(testMethod, testResult);
+            } finally {
+                CONCURRENCY_LIMITER.exit(testMethod);
+            }
+        }
+    }
+
+    /**
+     * Sets the data provider of a test, using the parallel variant of the data provider if the source annotation of the
+     * test method sets <code>parallel = true</code>.
+     *
+     * @param annotation       The TestNG test annotation.
+     * @param testMethod       The test method.
+     * @param provider         The class and name of the sequential data provider.
+     * @param parallelProvider The class and name of the parallel data provider.
+     * @throws IllegalArgumentException if the <code>maxConcurrency</code> of the source annotation is negative.
+     */
+    protected static void setDataProvider(@NonNull ITestAnnotation annotation, @NonNull Method testMethod,
+                                          @NonNull Map.Entry<Class<?>, String> provider,
+                                          @NonNull Map.Entry<Class<?>, String> parallelProvider) {
+        int maxConcurrency = getMaxConcurrency(testMethod);
+
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException(String.format("maxConcurrency cannot be negative, but was %d on method: %s.%s",
+                    maxConcurrency, testMethod.getDeclaringClass().getName(), testMethod.getName()));
+        }
+
+        Map.Entry<Class<?>, String> selected = isParallel(testMethod) ? parallelProvider : provider;
+        annotation.setDataProvider(selected.getValue());
+        annotation.setDataProviderClass(selected.getKey());
+    }
+
+    /**
+     * Checks if the source annotation of a test method sets <code>parallel = true</code>.
+     *
+     * @param testMethod The test method.
+     * @return True if the rows of the method may run in parallel.
+     */
+    static boolean isParallel(@NonNull Method testMethod) {
+        CsvSource csvSource = testMethod.getAnnotation(CsvSource.class);
+        CsvFileSource csvFileSource = testMethod.getAnnotation(CsvFileSource.class);
+        EnumSource enumSource = testMethod.getAnnotation(EnumSource.class);
+        ValueSource valueSource = testMethod.getAnnotation(ValueSource.class);
+        IntRangeSource intRangeSource = testMethod.getAnnotation(IntRangeSource.class);
+        LongRangeSource longRangeSource = testMethod.getAnnotation(LongRangeSource.class);
+        ForAll forAll = testMethod.getAnnotation(ForAll.class);
+        CartesianSource cartesianSource = testMethod.getAnnotation(CartesianSource.class);
+
+        return ((csvSource != null) && csvSource.parallel()) ||
+               ((csvFileSource != null) && csvFileSource.parallel()) ||
+               ((enumSource != null) && enumSource.parallel()) ||
+               ((valueSource != null) && valueSource.parallel()) ||
+               ((intRangeSource != null) && intRangeSource.parallel()) ||
+               ((longRangeSource != null) && longRangeSource.parallel()) ||
+               ((forAll != null) && forAll.parallel()) ||
+               ((cartesianSource != null) && cartesianSource.parallel());
+    }
+
+    /**
+     * Gets the <code>maxConcurrency</code> of the source annotation of a test method.
+     *
+     * @param testMethod The test method.
+     * @return The maximum number of concurrent invocations of the method, or 0 if it isn't limited.
+     */
+    static int getMaxConcurrency(@NonNull Method testMethod) {
+        CsvSource csvSource = testMethod.getAnnotation(CsvSource.class);
+        CsvFileSource csvFileSource = testMethod.getAnnotation(CsvFileSource.class);
+        EnumSource enumSource = testMethod.getAnnotation(EnumSource.class);
+        ValueSource valueSource = testMethod.getAnnotation(ValueSource.class);
+        IntRangeSource intRangeSource = testMethod.getAnnotation(IntRangeSource.class);
+        LongRangeSource longRangeSource = testMethod.getAnnotation(LongRangeSource.class);
+        ForAll forAll = testMethod.getAnnotation(ForAll.class);
+        CartesianSource cartesianSource = testMethod.getAnnotation(CartesianSource.class);
+
+        if (csvSource != null) {
+            return csvSource.maxConcurrency();
+        } else if (csvFileSource != null) {
+            return csvFileSource.maxConcurrency();
+        } else if (enumSource != null) {
+            return enumSource.maxConcurrency();
+        } else if (valueSource != null) {
+            return valueSource.maxConcurrency();
+        } else if (intRangeSource != null) {
+            return intRangeSource.maxConcurrency();
+        } else if (longRangeSource != null) {
+            return longRangeSource.maxConcurrency();
+        } else if (forAll != null) {
+            return forAll.maxConcurrency();
+        } else if (cartesianSource != null) {
+            return cartesianSource.maxConcurrency();
+        }
+
+        return 0;
+    }
+
     /**
      * Throws an exception if the test method has multiple data provider annotations that use different listeners.
      *
@@ -23,18 +171,24 @@ public abstract class SourceListenerBase {
      */
     protected static void throwIfTestHasMultipleDataProviders(@NonNull Method testMethod) {
         boolean hasCsvSource = CsvSourceListener.isCsvSourcePresent(testMethod);
+        boolean hasCsvFileSource = CsvFileSourceListener.isCsvFileSourcePresent(testMethod);
         boolean hasEnumSource = EnumSourceListener.isEnumSourcePresent(testMethod);
         boolean hasValueSource = ValueSourceListener.isValueSourcePresent(testMethod);
+        boolean hasIntRangeSource = testMethod.isAnnotationPresent(IntRangeSource.class);
+        boolean hasLongRangeSource = testMethod.isAnnotationPresent(LongRangeSource.class);
+        boolean hasForAll = ForAllListener.isForAllPresent(testMethod);
+        boolean hasCartesianSource = CartesianSourceListener.isCartesianSourcePresent(testMethod);
 
-        long sourceCount = Stream.of(hasCsvSource, hasEnumSource, hasValueSource)
+        long sourceCount = Stream.of(hasCsvSource, hasCsvFileSource, hasEnumSource, hasValueSource, hasIntRangeSource, hasLongRangeSource,
+                        hasForAll, hasCartesianSource)
                 .filter(b -> b) // Filter only true values.
                 .count();
 
         if (sourceCount > 1) {
             throw new IllegalStateException(String.format(
                     "Cannot combine @CsvSource with @EnumSource or any ValueSource annotation on method: %s.%s. "
-                            + "Only one of these annotations may be present.",
-                    testMethod.getDeclaringClass().getName(), testMethod.getName()));
+                            + "Only one of these annotations may be present. Found: %s.",
+                    testMethod.getDeclaringClass().getName(), testMethod.getName(), getSourceNames(testMethod)));
         }
     }
 
@@ -48,8 +202,8 @@ public abstract class SourceListenerBase {
         if (hasAnySource(testMethod) && !isDataProviderAllowed(annotation)) {
             throw new IllegalStateException(String.format(
                     "Cannot specify a dataProvider in @Test when also using @CsvSource or any ValueSource annotation on method: %s.%s. "+
-                            "Remove either the dataProvider or the source annotation.",
-                    testMethod.getDeclaringClass().getName(), testMethod.getName()
+                            "Remove either the dataProvider or the source annotation. Found: %s.",
+                    testMethod.getDeclaringClass().getName(), testMethod.getName(), getSourceNames(testMethod)
             ));
         }
     }
@@ -85,7 +239,30 @@ public abstract class SourceListenerBase {
      */
     protected boolean hasAnySource(@NonNull Method testMethod) {
         return CsvSourceListener.isCsvSourcePresent(testMethod) ||
+               CsvFileSourceListener.isCsvFileSourcePresent(testMethod) ||
                ValueSourceListener.isValueSourcePresent(testMethod) ||
-               EnumSourceListener.isEnumSourcePresent(testMethod);
+               EnumSourceListener.isEnumSourcePresent(testMethod) ||
+               RangeSourceListener.isRangeSourcePresent(testMethod) ||
+               ForAllListener.isForAllPresent(testMethod) ||
+               CartesianSourceListener.isCartesianSourcePresent(testMethod);
+    }
+
+    /**
+     * Gets the names of the source annotations present on a test method, for error messages.
+     *
+     * @param testMethod The test method.
+     * @return The annotation names (ex. "@CsvSource and @ValueSource").
+     */
+    static String getSourceNames(@NonNull Method testMethod) {
+        List<String> names = SOURCE_ANNOTATIONS.stream()
+                .filter(testMethod::isAnnotationPresent)
+                .map(type -> "@" + type.getSimpleName())
+                .collect(Collectors.toList());
+
+        if (names.size() < 2) {
+            return String.join("", names);
+        }
+
+        return String.join(", ", names.subList(0, names.size() - 1)) + " and " + names.get(names.size() - 1);
     }
 }
@@ -10,9 +10,11 @@ import org.testng.IAnnotationTransformer;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.ITestAnnotation;
 
+import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -22,17 +24,22 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
-import java.util.function.IntFunction;
-import java.util.function.Supplier;
 
 /**
  * TestNG listener that processes {@link ValueSource}, {@link NullSource}, {@link EmptySource}, and {@link NullAndEmptySource}
  * annotations and converts them into data provider parameters.
+ * <br/>
+ * The values of each method are only validated and boxed the first time TestNG calls the data provider, and are cached
+ * per test method. Empty values that a test could modify (the empty <code>LinkedList</code> of a <code>Queue</code>
+ * parameter) are created for every call instead.
  */
 @Slf4j
 public class ValueSourceListener extends SourceListenerBase implements IAnnotationTransformer {
     static final String VALUE_SOURCE_PROVIDER = "valueSourceProvider";
     static final Map.Entry<Class<?>, String> VALUE_SOURCE_PROVIDER_CLASS_AND_NAME = Map.entry(ValueSourceListener.class, VALUE_SOURCE_PROVIDER);
+    static final String VALUE_SOURCE_PARALLEL_PROVIDER = "valueSourceParallelProvider";
+    static final Map.Entry<Class<?>, String> VALUE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME = Map.entry(ValueSourceListener.class, VALUE_SOURCE_PARALLEL_PROVIDER);
+    static final DataProviderCache<Method> CACHE = new DataProviderCache<>();
 
     /**
      * Enum representing the possible value types in @ValueSource.
@@ -54,7 +61,7 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
      * Constructs the listener with the value source data provider.
      */
     public ValueSourceListener() {
-        super(List.of(VALUE_SOURCE_PROVIDER_CLASS_AND_NAME));
+        super(List.of(VALUE_SOURCE_PROVIDER_CLASS_AND_NAME, VALUE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME));
     }
 
     /**
@@ -77,8 +84,7 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
         throwIfTestHasMultipleDataProviders(testMethod);
 
         if (isValueSourcePresent(testMethod)) {
-            annotation.setDataProvider(VALUE_SOURCE_PROVIDER_CLASS_AND_NAME.getValue());
-            annotation.setDataProviderClass(VALUE_SOURCE_PROVIDER_CLASS_AND_NAME.getKey());
+            setDataProvider(annotation, testMethod, VALUE_SOURCE_PROVIDER_CLASS_AND_NAME, VALUE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME);
         }
     }
 
@@ -105,13 +111,79 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
      */
     @DataProvider(name = VALUE_SOURCE_PROVIDER)
     public static Object[] provideValues(@NonNull Method method) {
+        Object[] values = CACHE.getValues(method.getDeclaringClass(), method, () -> computeValues(method));
+        replaceMutableEmptyValues(values);
+        return values;
+    }
+
+    /**
+     * Replaces the cached empty values that a test could modify with new ones, so a test that adds to its empty
+     * <code>Queue</code> doesn't change the value of other invocations.
+     *
+     * @param values The values copied from the cache, ex. the values of one invocation.
+     */
+    static void replaceMutableEmptyValues(@NonNull Object[] values) {
+        for (int i = 0; i < values.length; ++i) {
+            // The source annotations never provide a Queue, so it can only be the empty value of a Queue parameter.
+            if (values[i] instanceof Queue) {
+                values[i] = getEmptyValue(Queue.class);
+            }
+        }
+    }
+
+    /**
+     * Validates the annotations of a test method and computes its parameter values.
+     *
+     * @param method The test method.
+     * @return An array of parameter values for the test method.
+     * @throws IllegalStateException if the annotation is missing or misused.
+     */
+    private static Object[] computeValues(@NonNull Method method) {
+        return computeValues(method, method.getParameterTypes(), "method: " + method.getName());
+    }
+
+    /**
+     * Provides the values of a parameter annotated with {@link ValueSource}, {@link NullSource}, {@link EmptySource},
+     * and/or {@link NullAndEmptySource}, ex. a parameter of a {@code CartesianSource} method.
+     *
+     * @param parameter   The parameter.
+     * @param description A description of the parameter, for the error messages.
+     * @return An array of values for the parameter.
+     * @throws IllegalStateException if the annotation is missing or misused.
+     */
+    static Object[] provideParameterValues(@NonNull Parameter parameter, @NonNull String description) {
+        return computeValues(parameter, new Class<?>[]{parameter.getType()}, description);
+    }
+
+    /**
+     * Checks if the given parameter is annotated with any ValueSource annotation.
+     *
+     * @param parameter The parameter.
+     * @return True if any of {@link ValueSource}, {@link NullSource}, {@link EmptySource}, or {@link NullAndEmptySource}
+     * is present on the parameter, false otherwise.
+     */
+    static boolean isValueSourcePresent(@NonNull Parameter parameter) {
+        return parameter.isAnnotationPresent(ValueSource.class) ||
+               parameter.isAnnotationPresent(NullSource.class) ||
+               parameter.isAnnotationPresent(EmptySource.class) ||
+               parameter.isAnnotationPresent(NullAndEmptySource.class);
+    }
+
+    /**
+     * Validates the annotations of a test method or parameter and computes its values.
+     *
+     * @param element     The test method or parameter with the annotations.
+     * @param paramTypes  The parameter types of the test method, or the type of the parameter.
+     * @param description A description of the element, for the error messages.
+     * @return An array of values.
+     * @throws IllegalStateException if the annotation is missing or misused.
+     */
+    private static Object[] computeValues(@NonNull AnnotatedElement element, @NonNull Class<?>[] paramTypes, @NonNull String description) {
         // Use a LinkedHashSet to maintain insertion order and avoid duplicates.
         Set<Object> resultSet = new LinkedHashSet<>();
 
         // Handle @NullSource
-        if (method.isAnnotationPresent(NullSource.class)) {
-            Class<?>[] paramTypes = method.getParameterTypes();
-
+        if (element.isAnnotationPresent(NullSource.class)) {
             if (paramTypes.length != 1) {
                 throw new IllegalStateException("@NullSource can only be used with single-parameter test methods");
             }
@@ -120,9 +192,7 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
         }
 
         // Handle @EmptySource
-        if (method.isAnnotationPresent(EmptySource.class)) {
-            Class<?>[] paramTypes = method.getParameterTypes();
-
+        if (element.isAnnotationPresent(EmptySource.class)) {
             if (paramTypes.length != 1) {
                 throw new IllegalStateException("@EmptySource can only be used with single-parameter test methods");
             }
@@ -132,9 +202,7 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
         }
 
         // Handle @NullAndEmptySource
-        if (method.isAnnotationPresent(NullAndEmptySource.class)) {
-            Class<?>[] paramTypes = method.getParameterTypes();
-
+        if (element.isAnnotationPresent(NullAndEmptySource.class)) {
             if (paramTypes.length != 1) {
                 throw new IllegalStateException("@NullAndEmptySource can only be used with single-parameter test methods");
             }
@@ -145,8 +213,8 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
         }
 
         // Handle @ValueSource
-        if (method.isAnnotationPresent(ValueSource.class)) {
-            Object[] values = getValueSourceValues(method);
+        if (element.isAnnotationPresent(ValueSource.class)) {
+            Object[] values = getValueSourceValues(element.getAnnotation(ValueSource.class), paramTypes);
             Collections.addAll(resultSet, values);
         }
 
@@ -154,22 +222,33 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
             // This would only happen if a test method is using this data provider without any @NullSource, @EmptySource,
             // @NullAndEmptySource or @ValueSource annotations.
             // Ex. @Test(dataProvider = "valueSourceProvider", dataProviderClass = ValueSourceListener.class)
-            throw new IllegalStateException("No [@NullSource, @EmptySource, @NullAndEmptySource, @ValueSource] annotations found on method: " + method.getName());
+            throw new IllegalStateException("No [@NullSource, @EmptySource, @NullAndEmptySource, @ValueSource] annotations found on " + description);
         }
 
         return resultSet.toArray();
     }
 
     /**
-     * Retrieves the values from the @ValueSource annotation on the given method.
+     * Data provider that supplies parameter values for methods annotated with {@link ValueSource} with
+     * <code>parallel = true</code>, so TestNG may run the values in parallel.
      *
      * @param method The test method.
+     * @return An array of parameter values for the test method.
+     */
+    @DataProvider(name = VALUE_SOURCE_PARALLEL_PROVIDER, parallel = true)
+    public static Object[] valueSourceParallelProvider(@NonNull Method method) {
+        return provideValues(method);
+    }
+
+    /**
+     * Retrieves the values from a @ValueSource annotation.
+     *
+     * @param valueSource The ValueSource annotation.
+     * @param paramTypes  The parameter types of the test method, or the type of the annotated parameter.
      * @return An array of values specified in the @ValueSource annotation.
      * @throws IllegalStateException if the annotation is misused or no values are provided.
      */
-    private static Object[] getValueSourceValues(Method method) {
-        ValueSource valueSource = method.getAnnotation(ValueSource.class);
-        Class<?>[] paramTypes = method.getParameterTypes();
+    private static Object[] getValueSourceValues(@NonNull ValueSource valueSource, @NonNull Class<?>[] paramTypes) {
 
         if (paramTypes.length != 1) {
             throw new IllegalStateException("@ValueSource can only be used with single-parameter test methods");
@@ -187,21 +266,29 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
             case STRINGS:
                 return handleStrings(valueSource, paramType);
             case CHARS:
-                return handlePrimitives(valueSource::chars, paramType, char.class, Character.class, (arr, i) -> ((char[]) arr)[i]);
+                checkPrimitiveParamType(paramType, char.class, Character.class);
+                return box(valueSource.chars());
             case BOOLEANS:
-                return handlePrimitives(valueSource::booleans, paramType, boolean.class, Boolean.class, (arr, i) -> ((boolean[]) arr)[i]);
+                checkPrimitiveParamType(paramType, boolean.class, Boolean.class);
+                return box(valueSource.booleans());
             case BYTES:
-                return handlePrimitives(valueSource::bytes, paramType, byte.class, Byte.class, (arr, i) -> ((byte[]) arr)[i]);
+                checkPrimitiveParamType(paramType, byte.class, Byte.class);
+                return box(valueSource.bytes());
             case SHORTS:
-                return handlePrimitives(valueSource::shorts, paramType, short.class, Short.class, (arr, i) -> ((short[]) arr)[i]);
+                checkPrimitiveParamType(paramType, short.class, Short.class);
+                return box(valueSource.shorts());
             case INTS:
-                return handlePrimitives(valueSource::ints, paramType, int.class, Integer.class, (arr, i) -> ((int[]) arr)[i]);
+                checkPrimitiveParamType(paramType, int.class, Integer.class);
+                return box(valueSource.ints());
             case LONGS:
-                return handlePrimitives(valueSource::longs, paramType, long.class, Long.class, (arr, i) -> ((long[]) arr)[i]);
+                checkPrimitiveParamType(paramType, long.class, Long.class);
+                return box(valueSource.longs());
             case FLOATS:
-                return handlePrimitives(valueSource::floats, paramType, float.class, Float.class, (arr, i) -> ((float[]) arr)[i]);
+                checkPrimitiveParamType(paramType, float.class, Float.class);
+                return box(valueSource.floats());
             case DOUBLES:
-                return handlePrimitives(valueSource::doubles, paramType, double.class, Double.class, (arr, i) -> ((double[]) arr)[i]);
+                checkPrimitiveParamType(paramType, double.class, Double.class);
+                return box(valueSource.doubles());
             case CLASSES:
                 return handleClasses(valueSource, paramType);
             default:
@@ -209,22 +296,6 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
         }
     }
 
-    /**
-     * Functional interface to retrieve an element from an array at a given index.
-     * Used to abstract array element access for different primitive types.
-     */
-    @FunctionalInterface
-    private interface ArrayElementGetter {
-        /**
-         * Returns the element at the specified index from the given array.
-         *
-         * @param arr The array to access (must be of the correct primitive type).
-         * @param i The index of the element to retrieve.
-         * @return The element at the specified index, boxed as an Object.
-         */
-        Object get(Object arr, int i);
-    }
-
     /**
      * Handles string values for @ValueSource.
      * @param valueSource The ValueSource annotation.
@@ -239,21 +310,18 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
     }
 
     /**
-     * Handles primitive values for @ValueSource.
-     * @param valueSourceMethod Supplier method to get the primitive array from ValueSource.  Ex. valueSource::ints
+     * Checks that the parameter type of the test method matches the primitive values of @ValueSource.
      * @param actualParamType The parameter type of the test method.
      * @param primitiveType The expected primitive type (e.g., int.class).
      * @param boxedType The corresponding boxed type (e.g., Integer.class).
-     * @param getter Lambda to get the primitive value at index i.
-     * @return Array of boxed values.
      * @throws IllegalStateException if the parameter type is incorrect.
      */
-    private static Object[] handlePrimitives(@NonNull Supplier<Object> valueSourceMethod, @NonNull Class<?> actualParamType,
-                                             @NonNull Class<?> primitiveType, @NonNull Class<?> boxedType, @NonNull ArrayElementGetter getter) {
-        String message = String.format("Test method parameter must be %s/%s when using %ss() in @ValueSource",
-                primitiveType.getSimpleName(), boxedType.getSimpleName(), primitiveType.getSimpleName());
-        checkParamType(primitiveType.equals(actualParamType) || Character.class.equals(actualParamType), message);
-        return boxArray(valueSourceMethod.get(), i -> (Object[]) Array.newInstance(boxedType, i), getter);
+    private static void checkPrimitiveParamType(@NonNull Class<?> actualParamType, @NonNull Class<?> primitiveType,
+                                                @NonNull Class<?> boxedType) {
+        if (!primitiveType.equals(actualParamType) && !boxedType.equals(actualParamType)) {
+            throw new IllegalStateException(String.format("Test method parameter must be %s/%s when using %ss() in @ValueSource",
+                    primitiveType.getSimpleName(), boxedType.getSimpleName(), primitiveType.getSimpleName()));
+        }
     }
 
     /**
@@ -317,19 +385,128 @@ public class ValueSourceListener extends SourceListenerBase implements IAnnotati
     }
 
     /**
-     * Generic method to box primitive arrays to their wrapper type arrays.
+     * Boxes char values.
+     *
+     * @param values The primitive values.
+     * @return The boxed values.
+     */
+    private static Object[] box(@NonNull char[] values) {
+        Character[] result = new Character[values.length];
+
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = values[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Boxes boolean values.
+     *
+     * @param values The primitive values.
+     * @return The boxed values.
+     */
+    private static Object[] box(@NonNull boolean[] values) {
+        Boolean[] result = new Boolean[values.length];
+
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = values[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Boxes byte values.
+     *
+     * @param values The primitive values.
+     * @return The boxed values.
+     */
+    private static Object[] box(@NonNull byte[] values) {
+        Byte[] result = new Byte[values.length];
+
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = values[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Boxes short values.
+     *
+     * @param values The primitive values.
+     * @return The boxed values.
+     */
+    private static Object[] box(@NonNull short[] values) {
+        Short[] result = new Short[values.length];
+
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = values[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Boxes int values.
+     *
+     * @param values The primitive values.
+     * @return The boxed values.
+     */
+    private static Object[] box(@NonNull int[] values) {
+        Integer[] result = new Integer[values.length];
+
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = values[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Boxes long values.
+     *
+     * @param values The primitive values.
+     * @return The boxed values.
+     */
+    private static Object[] box(@NonNull long[] values) {
+        Long[] result = new Long[values.length];
+
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = values[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Boxes float values.
+     *
+     * @param values The primitive values.
+     * @return The boxed values.
+     */
+    private static Object[] box(@NonNull float[] values) {
+        Float[] result = new Float[values.length];
+
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = values[i];
+        }
+
+        return result;
+    }
+
+    /**
+     * Boxes double values.
      *
-     * @param arr The primitive array (as Object).
-     * @param arrayConstructor Constructor reference for the wrapper array.
-     * @param getter Lambda to get the primitive value at index i.
-     * @return Boxed array as Object[].
+     * @param values The primitive values.
+     * @return The boxed values.
      */
-    private static <T> Object[] boxArray(Object arr, @NonNull IntFunction<T[]> arrayConstructor, @NonNull ArrayElementGetter getter) {
-        int length = Array.getLength(arr);
-        Object[] result = arrayConstructor.apply(length);
+    private static Object[] box(@NonNull double[] values) {
+        Double[] result = new Double[values.length];
 
-        for (int i = 0; i < length; ++i) {
-            result[i] = getter.get(arr, i);
+        for (int i = 0; i < values.length; ++i) {
+            result[i] = values[i];
         }
 
         return result;
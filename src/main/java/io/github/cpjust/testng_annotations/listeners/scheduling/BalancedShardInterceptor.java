@@ -0,0 +1,149 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A {@link ShardInterceptor} that balances the shards by the durations recorded by the {@link TestTimingListener} or the
+ * {@link TimingJournalListener}, so all shards take about the same time instead of one shard getting all the slow tests.
+ * <br/>
+ * The tests are assigned with the longest-processing-time-first rule: starting with the slowest test, each test is added
+ * to the shard with the lowest total duration so far. Tests without a recorded duration are estimated with the
+ * <code>-Dshard.defaultDuration=ms</code> system property, or the median recorded duration if it isn't set.
+ * If neither the timings file nor the timing journal exists yet, the tests are assigned by hash the same way as
+ * {@link ShardInterceptor}.
+ * <br/>
+ * Every shard must use the same timings file and journal (ex. restored from a CI cache) and the same tests, otherwise the
+ * shards will disagree on which tests they run.
+ */
+@Slf4j
+public class BalancedShardInterceptor extends ShardInterceptor {
+    /**
+     * The system property containing the estimated duration (in milliseconds) of tests that have no recorded duration.
+     */
+    public static final String DEFAULT_DURATION_PROPERTY = "shard.defaultDuration";
+
+    // Estimate used if there's no default duration property and no recorded durations.
+    private static final long FALLBACK_DURATION_MILLIS = 1000;
+
+    /**
+     * Constructor.
+     */
+    public BalancedShardInterceptor() {
+        super();
+    }
+
+    /**
+     * Package-private constructor for unit tests to inject the system properties.
+     *
+     * @param systemProperties The system properties to read the configuration from.
+     */
+    BalancedShardInterceptor(@NonNull Properties systemProperties) {
+        super(systemProperties);
+    }
+
+    /**
+     * Selects the tests that belong to a shard, balancing the shards by the recorded durations.
+     *
+     * @param methods    The list of test methods to filter.
+     * @param shardIndex The 0-based index of the shard to run.
+     * @param shardTotal The total number of shards.
+     * @return The tests of the shard.
+     */
+    @Override
+    protected List<IMethodInstance> selectShard(@NonNull List<IMethodInstance> methods, int shardIndex, int shardTotal) {
+        TestTimings timings = TestTimings.load(systemProperties);
+
+        if (timings.isEmpty()) {
+            log.info("No test durations were recorded yet, so the tests will be assigned to shards by hash");
+            return super.selectShard(methods, shardIndex, shardTotal);
+        }
+
+        long defaultDuration = getDefaultDuration(timings);
+        Set<Class<?>> classesWithDependencies = getClassesWithDependencies(methods);
+
+        // Tests that must run in the same shard are packed together. Sorted so every shard sees the same order.
+        Map<String, Long> groupDurations = new TreeMap<>();
+
+        for (IMethodInstance methodInstance : methods) {
+            String shardKey = getShardKey(methodInstance.getMethod(), classesWithDependencies);
+            long duration = timings.getDuration(TestIds.testId(methodInstance.getMethod())).orElse(defaultDuration);
+            groupDurations.merge(shardKey, duration, Long::sum);
+        }
+
+        Map<String, Integer> shards = assignShards(groupDurations, shardTotal);
+        List<IMethodInstance> result = new ArrayList<>();
+
+        for (IMethodInstance methodInstance : methods) {
+            if (shards.get(getShardKey(methodInstance.getMethod(), classesWithDependencies)) == shardIndex) {
+                result.add(methodInstance);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Assigns groups of tests to shards with the longest-processing-time-first rule.
+     *
+     * @param groupDurations The total duration of each group of tests by shard key.
+     * @param shardTotal     The total number of shards.
+     * @return The shard of each group by shard key.
+     */
+    static Map<String, Integer> assignShards(@NonNull Map<String, Long> groupDurations, int shardTotal) {
+        List<Map.Entry<String, Long>> groups = new ArrayList<>(groupDurations.entrySet());
+        groups.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        // Each element is {total duration, shard index}; ties go to the lowest shard index so the result is deterministic.
+        PriorityQueue<long[]> shardLoads = new PriorityQueue<>(shardTotal,
+                Comparator.<long[]>comparingLong(load -> load[0]).thenComparingLong(load -> load[1]));
+
+        for (int shard = 0; shard < shardTotal; ++shard) {
+            shardLoads.add(new long[] { 0, shard });
+        }
+
+        Map<String, Integer> shards = new HashMap<>();
+
+        for (Map.Entry<String, Long> group : groups) {
+            long[] lightestShard = shardLoads.remove();
+            shards.put(group.getKey(), (int) lightestShard[1]);
+            lightestShard[0] += group.getValue();
+            shardLoads.add(lightestShard);
+        }
+
+        return shards;
+    }
+
+    /**
+     * Gets the estimated duration of tests that have no recorded duration.
+     *
+     * @param timings The recorded durations.
+     * @return The estimated duration in milliseconds.
+     * @throws IllegalArgumentException if the default duration property isn't a number.
+     */
+    private long getDefaultDuration(@NonNull TestTimings timings) {
+        String defaultDuration = systemProperties.getProperty(DEFAULT_DURATION_PROPERTY);
+
+        if (defaultDuration == null) {
+            return timings.getMedianDuration(FALLBACK_DURATION_MILLIS);
+        }
+
+        try {
+            return Long.parseLong(defaultDuration.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("The '%s' property must be a number, but was '%s'!",
+                    DEFAULT_DURATION_PROPERTY, defaultDuration), e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+
+/**
+ * Reorders the tests so that the tests most likely to fail run first, using the history recorded by the
+ * {@link TestTimingListener} or the {@link TimingJournalListener}. On a broken build, the first failures are then
+ * reported within seconds instead of at the end of the suite.
+ * <br/>
+ * The tests are ordered by:
+ * <ol>
+ *     <li>Their <code>priority</code>, which is always respected.</li>
+ *     <li>How recently they failed (tests that failed in the latest run first, tests that never failed last).</li>
+ *     <li>Their recorded duration (fastest first). Tests without a recorded duration are estimated with the median duration.</li>
+ * </ol>
+ * A test never runs before the methods and groups it depends on. If there's no timings file or journal yet, the order isn't changed.
+ * <br/>
+ * To register this listener, either define it in the <code>src/test/resources/META-INF/services/org.testng.ITestNGListener</code>
+ * file or add it to the testng.xml file. Register it after any listener that filters tests, so only the remaining tests are
+ * reordered.
+ */
+@Slf4j
+public class FailFastInterceptor implements IMethodInterceptor {
+    private final Properties systemProperties;
+
+    /**
+     * Constructor.
+     */
+    public FailFastInterceptor() {
+        this(System.getProperties());
+    }
+
+    /**
+     * Package-private constructor for unit tests to inject the system properties.
+     *
+     * @param systemProperties The system properties to read the timings file and journal names from.
+     */
+    FailFastInterceptor(@NonNull Properties systemProperties) {
+        this.systemProperties = systemProperties;
+    }
+
+    /**
+     * Intercepts the list of tests that TestNG intends to run and reorders them to run recently failing and fast tests first.
+     *
+     * @param methods The list of test methods to reorder.
+     * @param context Unused.
+     * @return The reordered list, or the original list if there is no history.
+     */
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        TestTimings timings = TestTimings.load(systemProperties);
+
+        if (timings.isEmpty() || (methods.size() < 2)) {
+            log.debug("No test history was recorded yet, so the tests will not be reordered");
+            return methods;
+        }
+
+        int size = methods.size();
+        int[] priorities = new int[size];
+        int[] runsSinceFailure = new int[size];
+        long[] durations = new long[size];
+        long defaultDuration = timings.getMedianDuration(0);
+
+        for (int i = 0; i < size; ++i) {
+            ITestNGMethod testMethod = methods.get(i).getMethod();
+            String testId = TestIds.testId(testMethod);
+            priorities[i] = testMethod.getPriority();
+            runsSinceFailure[i] = timings.getRunsSinceFailure(testId).orElse(Integer.MAX_VALUE);
+            durations[i] = timings.getDuration(testId).orElse(defaultDuration);
+        }
+
+        Comparator<Integer> failFastOrder = Comparator.<Integer>comparingInt(i -> priorities[i])
+                .thenComparingInt(i -> runsSinceFailure[i])
+                .thenComparingLong(i -> durations[i])
+                .thenComparingInt(i -> i);
+
+        return orderRespectingDependencies(methods, failFastOrder);
+    }
+
+    /**
+     * Orders the tests by the given order, except that a test is never placed before the methods and groups it depends on.
+     *
+     * @param methods The list of test methods to reorder.
+     * @param order   The preferred order of the indexes of the tests in the list.
+     * @return The reordered list.
+     */
+    static List<IMethodInstance> orderRespectingDependencies(@NonNull List<IMethodInstance> methods, @NonNull Comparator<Integer> order) {
+        int size = methods.size();
+        List<List<Integer>> dependents = new ArrayList<>(size);
+        int[] dependencyCounts = new int[size];
+        Map<String, List<Integer>> indexesByName = new HashMap<>();
+        Map<String, List<Integer>> indexesByGroup = new HashMap<>();
+
+        for (int i = 0; i < size; ++i) {
+            ITestNGMethod testMethod = methods.get(i).getMethod();
+            dependents.add(new ArrayList<>());
+            indexesByName.computeIfAbsent(testMethod.getQualifiedName(), name -> new ArrayList<>()).add(i);
+
+            for (String group : testMethod.getGroups()) {
+                indexesByGroup.computeIfAbsent(group, g -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (int i = 0; i < size; ++i) {
+            ITestNGMethod testMethod = methods.get(i).getMethod();
+
+            for (String methodName : testMethod.getMethodsDependedUpon()) {
+                addDependencies(i, indexesByName.getOrDefault(methodName, List.of()), dependents, dependencyCounts);
+            }
+
+            for (String group : testMethod.getGroupsDependedUpon()) {
+                addDependencies(i, indexesByGroup.getOrDefault(group, List.of()), dependents, dependencyCounts);
+            }
+        }
+
+        // Topological sort that always picks the first test (in the preferred order) whose dependencies already ran.
+        PriorityQueue<Integer> ready = new PriorityQueue<>(order);
+        boolean[] added = new boolean[size];
+
+        for (int i = 0; i < size; ++i) {
+            if (dependencyCounts[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        List<IMethodInstance> result = new ArrayList<>(size);
+
+        while (!ready.isEmpty()) {
+            int next = ready.remove();
+            result.add(methods.get(next));
+            added[next] = true;
+
+            for (int dependent : dependents.get(next)) {
+                if (--dependencyCounts[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        // Tests in a dependency cycle keep their original order, and TestNG reports the cycle.
+        for (int i = 0; i < size; ++i) {
+            if (!added[i]) {
+                result.add(methods.get(i));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Records that a test depends on other tests.
+     *
+     * @param dependent        The index of the dependent test.
+     * @param dependencies     The indexes of the tests it depends on.
+     * @param dependents       The indexes of the dependent tests of each test.
+     * @param dependencyCounts The number of dependencies of each test that haven't been ordered yet.
+     */
+    private static void addDependencies(int dependent, @NonNull List<Integer> dependencies, @NonNull List<List<Integer>> dependents,
+                                        @NonNull int[] dependencyCounts) {
+        for (int dependency : dependencies) {
+            if (dependency != dependent) {
+                dependents.get(dependency).add(dependent);
+                ++dependencyCounts[dependent];
+            }
+        }
+    }
+}
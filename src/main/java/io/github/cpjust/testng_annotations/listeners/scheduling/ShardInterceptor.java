@@ -0,0 +1,205 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Splits the tests across several JVMs or CI nodes, so that each one runs a different part of the suite.
+ * <br/>
+ * The shard is configured with the <code>-Dshard.index=3 -Dshard.total=16</code> system properties, where the index is
+ * between 0 and total - 1. If <code>shard.index</code> isn't set, the (1-based) <code>surefire.forkNumber</code> property is
+ * used instead. If <code>shard.total</code> isn't set, all tests are run.
+ * <br/>
+ * Shard indexes are 0-based everywhere in this library: both <code>shard.index</code> and the index of the
+ * <code>-Ddata.shard=index/total</code> property used by the <code>sharded</code> attribute of the source annotations are
+ * between 0 and total - 1, so a CI node can pass the same index to both. Only <code>surefire.forkNumber</code> is 1-based,
+ * since Surefire sets it.
+ * <br/>
+ * Each test is assigned to a shard by a stable hash of its class and method, so every shard gets the same tests on every
+ * run and adding or removing a test doesn't move the other tests to different shards. All tests of a class that uses
+ * <code>dependsOnMethods</code> or <code>dependsOnGroups</code> are assigned to the same shard, so the dependencies within
+ * the class still run (dependencies on other classes must be kept in one shard some other way, ex. with groups).
+ * <br/>
+ * To register this listener, either define it in the <code>src/test/resources/META-INF/services/org.testng.ITestNGListener</code>
+ * file or add it to the testng.xml file.
+ */
+@Slf4j
+public class ShardInterceptor implements IMethodInterceptor {
+    /**
+     * The system property containing the 0-based index of the shard to run.
+     */
+    public static final String SHARD_INDEX_PROPERTY = "shard.index";
+
+    /**
+     * The system property containing the total number of shards.
+     */
+    public static final String SHARD_TOTAL_PROPERTY = "shard.total";
+
+    /**
+     * The system property containing the 1-based Surefire fork number, used if {@link #SHARD_INDEX_PROPERTY} isn't set.
+     */
+    public static final String SUREFIRE_FORK_NUMBER_PROPERTY = "surefire.forkNumber";
+
+    final Properties systemProperties;
+
+    /**
+     * Constructor.
+     */
+    public ShardInterceptor() {
+        this(System.getProperties());
+    }
+
+    /**
+     * Package-private constructor for unit tests to inject the system properties.
+     *
+     * @param systemProperties The system properties to read the shard configuration from.
+     */
+    ShardInterceptor(@NonNull Properties systemProperties) {
+        this.systemProperties = systemProperties;
+    }
+
+    /**
+     * Intercepts the list of tests that TestNG intends to run and removes the tests that belong to other shards.
+     *
+     * @param methods The list of test methods to filter.
+     * @param context Unused.
+     * @return The tests of the current shard, or the original list if sharding isn't configured.
+     */
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        String total = systemProperties.getProperty(SHARD_TOTAL_PROPERTY);
+
+        if (total == null) {
+            log.debug("'{}' is not set, so all tests will be run", SHARD_TOTAL_PROPERTY);
+            return methods;
+        }
+
+        int shardTotal = parseShardProperty(SHARD_TOTAL_PROPERTY, total);
+        int shardIndex = getShardIndex();
+
+        if (shardTotal < 1) {
+            throw new IllegalArgumentException(String.format("The '%s' property must be at least 1, but was %d!", SHARD_TOTAL_PROPERTY, shardTotal));
+        }
+
+        if ((shardIndex < 0) || (shardIndex >= shardTotal)) {
+            throw new IllegalArgumentException(String.format("The shard index must be between 0 and %d, but was %d!", shardTotal - 1, shardIndex));
+        }
+
+        List<IMethodInstance> result = selectShard(methods, shardIndex, shardTotal);
+        log.info("Running {} of {} tests in shard {} of {}", result.size(), methods.size(), shardIndex, shardTotal);
+        return result;
+    }
+
+    /**
+     * Selects the tests that belong to a shard.
+     * Subclasses can override this to assign the tests to shards differently.
+     *
+     * @param methods    The list of test methods to filter.
+     * @param shardIndex The 0-based index of the shard to run.
+     * @param shardTotal The total number of shards.
+     * @return The tests of the shard.
+     */
+    protected List<IMethodInstance> selectShard(@NonNull List<IMethodInstance> methods, int shardIndex, int shardTotal) {
+        Set<Class<?>> classesWithDependencies = getClassesWithDependencies(methods);
+        List<IMethodInstance> result = new ArrayList<>();
+
+        for (IMethodInstance methodInstance : methods) {
+            if (getShard(getShardKey(methodInstance.getMethod(), classesWithDependencies), shardTotal) == shardIndex) {
+                result.add(methodInstance);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the key that a test is assigned to a shard by.
+     *
+     * @param testMethod              The test method.
+     * @param classesWithDependencies The classes whose tests must all be in the same shard.
+     * @return The class name if the test's class has dependencies, otherwise the test id.
+     */
+    static String getShardKey(@NonNull ITestNGMethod testMethod, @NonNull Set<Class<?>> classesWithDependencies) {
+        return classesWithDependencies.contains(testMethod.getRealClass()) ? testMethod.getRealClass().getName() : TestIds.testId(testMethod);
+    }
+
+    /**
+     * Gets the shard that a key is assigned to.
+     *
+     * @param shardKey   The key of the test.
+     * @param shardTotal The total number of shards.
+     * @return The 0-based index of the shard.
+     */
+    static int getShard(@NonNull String shardKey, int shardTotal) {
+        return (int) Long.remainderUnsigned(TestIds.stableHash(shardKey), shardTotal);
+    }
+
+    /**
+     * Gets the classes that have any test depending on other methods or groups.
+     *
+     * @param methods The list of test methods.
+     * @return The classes with dependencies.
+     */
+    static Set<Class<?>> getClassesWithDependencies(@NonNull List<IMethodInstance> methods) {
+        Set<Class<?>> classes = new HashSet<>();
+
+        for (IMethodInstance methodInstance : methods) {
+            ITestNGMethod testMethod = methodInstance.getMethod();
+
+            if ((testMethod.getMethodsDependedUpon().length > 0) || (testMethod.getGroupsDependedUpon().length > 0)) {
+                classes.add(testMethod.getRealClass());
+            }
+        }
+
+        return classes;
+    }
+
+    /**
+     * Gets the 0-based index of the shard to run, from {@link #SHARD_INDEX_PROPERTY} or {@link #SUREFIRE_FORK_NUMBER_PROPERTY}.
+     *
+     * @return The shard index.
+     * @throws IllegalArgumentException if neither property is set or the value isn't a number.
+     */
+    private int getShardIndex() {
+        String index = systemProperties.getProperty(SHARD_INDEX_PROPERTY);
+
+        if (index != null) {
+            return parseShardProperty(SHARD_INDEX_PROPERTY, index);
+        }
+
+        String forkNumber = systemProperties.getProperty(SUREFIRE_FORK_NUMBER_PROPERTY);
+
+        if (forkNumber != null) {
+            return parseShardProperty(SUREFIRE_FORK_NUMBER_PROPERTY, forkNumber) - 1;
+        }
+
+        throw new IllegalArgumentException(String.format("The '%s' property is set, but neither '%s' nor '%s' is set!",
+                SHARD_TOTAL_PROPERTY, SHARD_INDEX_PROPERTY, SUREFIRE_FORK_NUMBER_PROPERTY));
+    }
+
+    /**
+     * Parses an integer shard property.
+     *
+     * @param propertyName The name of the property.
+     * @param value        The value of the property.
+     * @return The parsed value.
+     * @throws IllegalArgumentException if the value isn't a number.
+     */
+    private static int parseShardProperty(@NonNull String propertyName, @NonNull String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("The '%s' property must be a number, but was '%s'!", propertyName, value), e);
+        }
+    }
+}
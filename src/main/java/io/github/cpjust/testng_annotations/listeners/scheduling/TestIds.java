@@ -0,0 +1,70 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import org.testng.ITestNGMethod;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Stable identities of test methods, which stay the same across JVMs and runs (unlike {@link Object#hashCode()}).
+ */
+@UtilityClass
+class TestIds {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int FMIX_SHIFT = 33;
+    private static final long FMIX_MULTIPLIER_1 = 0xff51afd7ed558ccdL;
+    private static final long FMIX_MULTIPLIER_2 = 0xc4ceb9fe1a85ec53L;
+
+    /**
+     * Gets the id of a test method, which includes the parameter types to tell overloaded methods apart.
+     *
+     * @param testMethod The test method.
+     * @return The id (ex. "com.example.FooTest#testBar(java.lang.String)").
+     */
+    static String testId(@NonNull ITestNGMethod testMethod) {
+        Class<?> testClass = Objects.requireNonNull(testMethod.getRealClass(), "testClass was null!");
+        Method method = Objects.requireNonNull(testMethod.getConstructorOrMethod().getMethod(), "testMethod was null!");
+        return testId(testClass, method);
+    }
+
+    /**
+     * Gets the id of a test method, which includes the parameter types to tell overloaded methods apart.
+     *
+     * @param testClass The test class (which may be a subclass of the class declaring the method).
+     * @param method    The test method.
+     * @return The id (ex. "com.example.FooTest#testBar(java.lang.String)").
+     */
+    static String testId(@NonNull Class<?> testClass, @NonNull Method method) {
+        return testClass.getName() + "#" + method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getTypeName)
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /**
+     * Hashes a string with 64-bit FNV-1a followed by a final bit mix, so the result is well distributed and is the same
+     * in every JVM.
+     *
+     * @param value The string to hash.
+     * @return The hash.
+     */
+    static long stableHash(@NonNull String value) {
+        long hash = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < value.length(); ++i) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+
+        // Final mix from MurmurHash3, so similar ids (ex. "test1" and "test2") don't end up in neighbouring shards.
+        hash ^= hash >>> FMIX_SHIFT;
+        hash *= FMIX_MULTIPLIER_1;
+        hash ^= hash >>> FMIX_SHIFT;
+        hash *= FMIX_MULTIPLIER_2;
+        hash ^= hash >>> FMIX_SHIFT;
+        return hash;
+    }
+}
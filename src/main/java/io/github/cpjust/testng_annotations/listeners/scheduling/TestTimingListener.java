@@ -0,0 +1,135 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IExecutionListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how long each test method takes and whether it failed, and writes them to a timings file when TestNG finishes,
+ * so the {@link BalancedShardInterceptor} can balance the shards and the {@link FailFastInterceptor} can run recently
+ * failing tests first on the next run.
+ * <br/>
+ * The file is set by the <code>-Dtimings.file=path</code> system property (defaults to "test-timings.properties" in the
+ * working directory). The durations of all invocations of a method (ex. each row of a data provider) are added together.
+ * Tests that didn't run keep their durations from earlier runs. The file is locked while it's updated, so several JVMs
+ * (ex. Surefire forks) can share it (see {@link TestTimings#update}).
+ * <br/>
+ * To register this listener, either define it in the <code>src/test/resources/META-INF/services/org.testng.ITestNGListener</code>
+ * file or add it to the testng.xml file.
+ */
+@Slf4j
+public class TestTimingListener implements ITestListener, IExecutionListener {
+    /**
+     * The system property containing the path of the timings file.
+     */
+    public static final String TIMINGS_FILE_PROPERTY = "timings.file";
+
+    /**
+     * The timings file used if {@link #TIMINGS_FILE_PROPERTY} isn't set.
+     */
+    public static final String DEFAULT_TIMINGS_FILE = "test-timings.properties";
+
+    private final Path timingsFile;
+    private final Map<String, LongAdder> durations = new ConcurrentHashMap<>();
+    private final Set<String> failedTestIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor.
+     */
+    public TestTimingListener() {
+        this(getTimingsFile());
+    }
+
+    /**
+     * Package-private constructor for unit tests to inject the timings file.
+     *
+     * @param timingsFile The timings file.
+     */
+    TestTimingListener(@NonNull Path timingsFile) {
+        this.timingsFile = timingsFile;
+    }
+
+    /**
+     * Records the duration of a passed test.
+     *
+     * @param result The test result.
+     */
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    /**
+     * Records the duration of a failed test.
+     *
+     * @param result The test result.
+     */
+    @Override
+    public void onTestFailure(ITestResult result) {
+        failedTestIds.add(record(result));
+    }
+
+    /**
+     * Records the duration of a test that failed but is within its success percentage.
+     *
+     * @param result The test result.
+     */
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        record(result);
+    }
+
+    /**
+     * Merges the recorded durations into the timings file.
+     */
+    @Override
+    public void onExecutionFinish() {
+        if (durations.isEmpty()) {
+            return;
+        }
+
+        Map<String, Long> latestDurations = new HashMap<>();
+        durations.forEach((testId, duration) -> latestDurations.put(testId, duration.sum()));
+
+        try {
+            Set<String> failed = Set.copyOf(failedTestIds);
+            TestTimings.update(timingsFile, timings -> timings.merge(latestDurations, failed));
+            log.debug("Wrote the durations of {} tests to {}", latestDurations.size(), timingsFile);
+        } catch (IOException e) {
+            log.warn("Unable to write the test durations to {}", timingsFile, e);
+        }
+    }
+
+    /**
+     * Gets the timings file from the system properties.
+     *
+     * @return The timings file.
+     */
+    static Path getTimingsFile() {
+        return Paths.get(System.getProperty(TIMINGS_FILE_PROPERTY, DEFAULT_TIMINGS_FILE));
+    }
+
+    /**
+     * Adds the duration of a test invocation to the total duration of its method.
+     *
+     * @param result The test result.
+     * @return The test id.
+     */
+    private String record(@NonNull ITestResult result) {
+        String testId = TestIds.testId(result.getMethod());
+        long duration = Math.max(0, result.getEndMillis() - result.getStartMillis());
+        durations.computeIfAbsent(testId, id -> new LongAdder()).add(duration);
+        return testId;
+    }
+}
@@ -0,0 +1,327 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
+
+/**
+ * The durations and outcomes of past test runs, stored in a properties file with the test id (see {@link TestIds#testId})
+ * as the key. The value is the total duration of all its invocations in milliseconds, followed by a comma and the number
+ * of runs since the test last failed if it ever failed (ex. "1500,2").
+ * <br/>
+ * Tests that aren't in the properties file are looked up in the journal written by the {@link TimingJournalListener}, so
+ * either listener can record the history. A test's duration in the journal is the sum of the latest wall times of each of
+ * its data provider rows, and its runs since the last failure are the fewest of any of its rows.
+ * <br/>
+ * The properties file is shared by every JVM that runs the tests (ex. each Surefire fork), so {@link #update} holds a lock
+ * on a <code>.lock</code> file next to it while it reads, merges and writes the file, and JVMs that finish at the same
+ * time don't drop each other's timings.
+ */
+@Slf4j
+final class TestTimings {
+    private static final TestTimings EMPTY = new TestTimings(Collections.emptyMap());
+    private static final String VALUE_SEPARATOR = ",";
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+    // Serializes the updates within this JVM, since a JVM can't hold two file locks on the same file.
+    private static final Object UPDATE_LOCK = new Object();
+
+    private final Map<String, Long> durations;
+    private final Map<String, Integer> runsSinceFailure;
+    // The durations and runs since the last failure from the timing journal, by stable test id (see TestIds.stableHash).
+    private final Map<Long, Long> journalDurations;
+    private final Map<Long, Integer> journalRunsSinceFailure;
+
+    /**
+     * Constructor for timings of tests that never failed.
+     *
+     * @param durations The durations in milliseconds by test id.
+     */
+    TestTimings(@NonNull Map<String, Long> durations) {
+        this(durations, Collections.emptyMap());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param durations        The durations in milliseconds by test id.
+     * @param runsSinceFailure The number of runs since the last failure by test id, for tests that failed before.
+     */
+    TestTimings(@NonNull Map<String, Long> durations, @NonNull Map<String, Integer> runsSinceFailure) {
+        this(durations, runsSinceFailure, Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param durations               The durations in milliseconds by test id.
+     * @param runsSinceFailure        The number of runs since the last failure by test id, for tests that failed before.
+     * @param journalDurations        The durations in milliseconds from the timing journal by stable test id.
+     * @param journalRunsSinceFailure The number of runs since the last failure from the timing journal by stable test id.
+     */
+    private TestTimings(@NonNull Map<String, Long> durations, @NonNull Map<String, Integer> runsSinceFailure,
+                        @NonNull Map<Long, Long> journalDurations, @NonNull Map<Long, Integer> journalRunsSinceFailure) {
+        this.durations = Map.copyOf(durations);
+        this.runsSinceFailure = Map.copyOf(runsSinceFailure);
+        this.journalDurations = Map.copyOf(journalDurations);
+        this.journalRunsSinceFailure = Map.copyOf(journalRunsSinceFailure);
+    }
+
+    /**
+     * Loads the timings file.
+     *
+     * @param file The timings file.
+     * @return The timings, which are empty if the file doesn't exist.
+     * @throws IOException If the file can't be read.
+     */
+    static TestTimings load(@NonNull Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return EMPTY;
+        }
+
+        Properties properties = new Properties();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+
+        Map<String, Long> durations = new HashMap<>();
+        Map<String, Integer> runsSinceFailure = new HashMap<>();
+
+        for (String testId : properties.stringPropertyNames()) {
+            String[] values = properties.getProperty(testId).split(VALUE_SEPARATOR);
+
+            try {
+                durations.put(testId, Long.parseLong(values[0].trim()));
+
+                if (values.length > 1) {
+                    runsSinceFailure.put(testId, Integer.parseInt(values[1].trim()));
+                }
+            } catch (NumberFormatException e) {
+                // Ignore corrupt entries, the test will be timed again on the next run.
+                durations.remove(testId);
+            }
+        }
+
+        return new TestTimings(durations, runsSinceFailure);
+    }
+
+    /**
+     * Loads the timings file set by the {@link TestTimingListener#TIMINGS_FILE_PROPERTY} property and the timing journal
+     * set by the {@link TimingJournalListener#JOURNAL_FILE_PROPERTY} property.
+     *
+     * @param systemProperties The system properties to read the file names from.
+     * @return The timings, which are empty if neither file exists or can be read.
+     */
+    static TestTimings load(@NonNull Properties systemProperties) {
+        Path timingsFile = Paths.get(systemProperties.getProperty(TestTimingListener.TIMINGS_FILE_PROPERTY, TestTimingListener.DEFAULT_TIMINGS_FILE));
+        Path journalFile = Paths.get(systemProperties.getProperty(TimingJournalListener.JOURNAL_FILE_PROPERTY,
+                TimingJournalListener.DEFAULT_JOURNAL_FILE));
+        TestTimings timings = EMPTY;
+
+        try {
+            timings = load(timingsFile);
+        } catch (IOException e) {
+            log.warn("Unable to read the test durations from {}", timingsFile, e);
+        }
+
+        try {
+            return timings.withJournal(TimingJournal.read(journalFile));
+        } catch (IOException e) {
+            log.warn("Unable to read the test durations from {}", journalFile, e);
+            return timings;
+        }
+    }
+
+    /**
+     * Creates new timings with the history of a timing journal for the tests that aren't in these timings.
+     *
+     * @param entries The records of the journal in the order they were appended.
+     * @return The timings including the journal.
+     */
+    TestTimings withJournal(@NonNull List<TimingJournal.Entry> entries) {
+        if (entries.isEmpty()) {
+            return this;
+        }
+
+        // The latest record and the runs since the last failure of each data provider row, by test id and row index.
+        Map<List<Long>, TimingJournal.Entry> latestEntries = new HashMap<>();
+        Map<List<Long>, Integer> rowRunsSinceFailure = new HashMap<>();
+
+        for (TimingJournal.Entry entry : entries) {
+            // Skipped tests aren't timed by the TestTimingListener either.
+            if (entry.getOutcome() == TimingJournal.Outcome.SKIP) {
+                continue;
+            }
+
+            List<Long> row = List.of(entry.getTestId(), (long) entry.getRowIndex());
+            latestEntries.put(row, entry);
+
+            if (entry.getOutcome() == TimingJournal.Outcome.FAILURE) {
+                rowRunsSinceFailure.put(row, 0);
+            } else {
+                rowRunsSinceFailure.computeIfPresent(row, (key, runs) -> runs + 1);
+            }
+        }
+
+        Map<Long, Long> mergedJournalDurations = new HashMap<>();
+        Map<Long, Integer> mergedJournalRunsSinceFailure = new HashMap<>();
+        latestEntries.forEach((row, entry) -> mergedJournalDurations.merge(row.get(0),
+                TimeUnit.NANOSECONDS.toMillis(Math.max(0, entry.getWallNanos())), Long::sum));
+        rowRunsSinceFailure.forEach((row, runs) -> mergedJournalRunsSinceFailure.merge(row.get(0), runs, Math::min));
+        return new TestTimings(durations, runsSinceFailure, mergedJournalDurations, mergedJournalRunsSinceFailure);
+    }
+
+    /**
+     * Loads, updates and saves a timings file while holding a lock on its <code>.lock</code> file, so concurrent updates
+     * from this or other JVMs are applied one after the other.
+     *
+     * @param file   The timings file.
+     * @param update Creates the new timings from the timings in the file.
+     * @throws IOException If the file can't be locked, read or written.
+     */
+    static void update(@NonNull Path file, @NonNull UnaryOperator<TestTimings> update) throws IOException {
+        Path absoluteFile = file.toAbsolutePath();
+        Files.createDirectories(absoluteFile.getParent());
+        // The timings file is replaced when it's saved, so the lock is taken on a separate file that is never replaced.
+        Path lockFile = absoluteFile.resolveSibling(absoluteFile.getFileName() + LOCK_FILE_SUFFIX);
+
+        synchronized (UPDATE_LOCK) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                update.apply(load(file)).save(file);
+            }
+        }
+    }
+
+    /**
+     * Writes the timings to a file, replacing it atomically so a reader never sees a partially written file.
+     *
+     * @param file The timings file.
+     * @throws IOException If the file can't be written.
+     */
+    void save(@NonNull Path file) throws IOException {
+        Properties properties = new Properties();
+        durations.forEach((testId, duration) -> properties.setProperty(testId, runsSinceFailure.containsKey(testId)
+                ? (duration + VALUE_SEPARATOR + runsSinceFailure.get(testId))
+                : String.valueOf(duration)));
+
+        Path absoluteFile = file.toAbsolutePath();
+        Files.createDirectories(absoluteFile.getParent());
+        Path tempFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+
+        try {
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                properties.store(out, "Test durations in milliseconds, and runs since the last failure");
+            }
+
+            Files.move(tempFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Creates new timings with the durations of the latest run replacing the older durations of the same tests.
+     *
+     * @param latestDurations The durations of the latest run in milliseconds by test id.
+     * @return The merged timings.
+     */
+    TestTimings merge(@NonNull Map<String, Long> latestDurations) {
+        return merge(latestDurations, Collections.emptySet());
+    }
+
+    /**
+     * Creates new timings with the durations and outcomes of the latest run replacing the older ones of the same tests.
+     *
+     * @param latestDurations The durations of the latest run in milliseconds by test id.
+     * @param failedTestIds   The ids of the tests that failed in the latest run.
+     * @return The merged timings.
+     */
+    TestTimings merge(@NonNull Map<String, Long> latestDurations, @NonNull Set<String> failedTestIds) {
+        Map<String, Long> mergedDurations = new HashMap<>(durations);
+        Map<String, Integer> mergedRunsSinceFailure = new HashMap<>(runsSinceFailure);
+        mergedDurations.putAll(latestDurations);
+
+        for (String testId : latestDurations.keySet()) {
+            if (failedTestIds.contains(testId)) {
+                mergedRunsSinceFailure.put(testId, 0);
+            } else {
+                mergedRunsSinceFailure.computeIfPresent(testId, (id, runs) -> runs + 1);
+            }
+        }
+
+        return new TestTimings(mergedDurations, mergedRunsSinceFailure);
+    }
+
+    /**
+     * Checks if there are no timings.
+     *
+     * @return True if there are no timings.
+     */
+    boolean isEmpty() {
+        return durations.isEmpty() && journalDurations.isEmpty();
+    }
+
+    /**
+     * Gets the duration of a test.
+     *
+     * @param testId The test id.
+     * @return The duration in milliseconds, or empty if the test has no history.
+     */
+    OptionalLong getDuration(@NonNull String testId) {
+        Long duration = durations.containsKey(testId) ? durations.get(testId) : journalDurations.get(TestIds.stableHash(testId));
+        return (duration == null) ? OptionalLong.empty() : OptionalLong.of(duration);
+    }
+
+    /**
+     * Gets the number of runs since a test last failed.
+     *
+     * @param testId The test id.
+     * @return The number of runs since the last failure (0 if it failed in the latest run), or empty if it never failed.
+     */
+    OptionalInt getRunsSinceFailure(@NonNull String testId) {
+        Integer runs = durations.containsKey(testId)
+                ? runsSinceFailure.get(testId)
+                : journalRunsSinceFailure.get(TestIds.stableHash(testId));
+        return (runs == null) ? OptionalInt.empty() : OptionalInt.of(runs);
+    }
+
+    /**
+     * Gets the median duration of all tests, which is used as the estimate for tests without history.
+     *
+     * @param defaultDuration The duration to return if there are no timings.
+     * @return The median duration in milliseconds.
+     */
+    long getMedianDuration(long defaultDuration) {
+        if (isEmpty()) {
+            return defaultDuration;
+        }
+
+        long[] sorted = LongStream.concat(durations.values().stream().mapToLong(Long::longValue),
+                        journalDurations.values().stream().mapToLong(Long::longValue))
+                .sorted()
+                .toArray();
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,593 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An append-only journal of test invocations, stored as fixed-size records in a memory-mapped file.
+ * <br/>
+ * Appending a record doesn't take a lock or make a system call: each writer claims a slot with an atomic increment and
+ * writes the record straight into the mapped file, so many TestNG threads can record in parallel. When the mapped region
+ * is full, the writer that claimed the first slot past the end compacts the journal (keeping the latest
+ * {@link #MAX_HISTORY} records of each test invocation) while the other writers wait for it to finish. The region is grown
+ * if the compacted records would still fill more than half of it.
+ * <br/>
+ * Waiting never blocks a test forever: if a compaction fails, the old region is restored and the records that don't fit
+ * any more are dropped, and writers that wait longer than {@link #WAIT_TIMEOUT_NANOS} for a compaction (or a compaction
+ * that waits that long for a writer to finish its record) give up instead.
+ * <br/>
+ * The file starts with a {@value #HEADER_SIZE} byte header (magic number, version, record size), followed by records of
+ * {@value #RECORD_SIZE} bytes: the stable test id (see {@link TestIds#stableHash}), the wall time and CPU time in
+ * nanoseconds, the parameter row index and the outcome. The outcome is written last and is never 0, so a record that was
+ * only partially written (ex. the JVM crashed) marks the end of the journal.
+ * <br/>
+ * Slots are only coordinated within one JVM, so a journal file is only written by one JVM at a time: the JVM that opens it
+ * holds an exclusive {@link FileLock} until it's closed. If another JVM (ex. another Surefire fork or a shard running on
+ * the same machine) already holds the lock, {@link #open} falls back to the first unlocked fork file next to it, named
+ * after the journal with a numeric suffix (ex. <code>test-timings.journal.1</code>), so every JVM keeps its own records
+ * and the fork files are reused by later runs. {@link #read} returns the records of the journal followed by the records
+ * of each of its fork files.
+ * <br/>
+ * Use {@link #read} to read the records of a journal file written by the {@link TimingJournalListener}.
+ */
+@Slf4j
+public final class TimingJournal implements Closeable {
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 32;
+    static final int MAX_HISTORY = 4;
+    static final int DEFAULT_CAPACITY = 1 << 16;
+    static final long WAIT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    static final int MAX_FORK_FILES = 256;
+
+    // The lock covers one byte far past the end of the records, so it never blocks other processes from reading them
+    // on platforms with mandatory locks.
+    private static final long LOCK_POSITION = Long.MAX_VALUE - 1;
+
+    private static final int MAGIC = 0x544A524E; // "TJRN"
+    private static final int VERSION = 1;
+
+    // Offsets of the fields within a record.
+    private static final int TEST_ID_OFFSET = 0;
+    private static final int WALL_TIME_OFFSET = 8;
+    private static final int CPU_TIME_OFFSET = 16;
+    private static final int ROW_INDEX_OFFSET = 24;
+    private static final int OUTCOME_OFFSET = 28;
+
+    /**
+     * The outcome of a test invocation.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public enum Outcome {
+        /**
+         * The test passed.
+         */
+        SUCCESS((byte) 1),
+        /**
+         * The test failed.
+         */
+        FAILURE((byte) 2),
+        /**
+         * The test was skipped.
+         */
+        SKIP((byte) 3),
+        /**
+         * The test failed, but within its success percentage.
+         */
+        SUCCESS_PERCENTAGE_FAILURE((byte) 4);
+
+        private final byte code;
+
+        /**
+         * Gets the outcome with the given code.
+         *
+         * @param code The code written to the journal.
+         * @return The outcome.
+         * @throws IllegalArgumentException if the code is unknown.
+         */
+        static Outcome fromCode(byte code) {
+            for (Outcome outcome : values()) {
+                if (outcome.code == code) {
+                    return outcome;
+                }
+            }
+
+            throw new IllegalArgumentException(String.format("Unknown outcome code %d!", code));
+        }
+    }
+
+    /**
+     * A record of one test invocation.
+     */
+    @Value
+    public static class Entry {
+        long testId;
+        int rowIndex;
+        long wallNanos;
+        long cpuNanos;
+        Outcome outcome;
+    }
+
+    /**
+     * The currently mapped part of the file and the writers' position in it. A region is replaced by a new one after
+     * every compaction.
+     */
+    @RequiredArgsConstructor
+    private static final class Region {
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final int start;
+        private final AtomicInteger cursor;
+        private final AtomicInteger committed = new AtomicInteger();
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private volatile Region region;
+    // Set if a compaction failed, after which records that don't fit in the region are dropped instead of compacting again.
+    private volatile boolean compactionFailed;
+
+    /**
+     * Constructor.
+     *
+     * @param file    The journal file.
+     * @param channel The open channel of the file.
+     * @param region  The initially mapped region.
+     */
+    private TimingJournal(@NonNull Path file, @NonNull FileChannel channel, @NonNull Region region) {
+        this.file = file;
+        this.channel = channel;
+        this.region = region;
+    }
+
+    /**
+     * Opens a journal file for appending, creating it if it doesn't exist. If another JVM is writing to the file, the
+     * first fork file that isn't in use is opened instead.
+     *
+     * @param file     The journal file.
+     * @param capacity The initial number of records to map. The journal is compacted or grown when it's full.
+     * @return The journal, whose {@link #getFile} is the file that was opened.
+     * @throws IllegalArgumentException if the capacity is less than 1.
+     * @throws IOException              If the file can't be opened or isn't a timing journal, or the journal and all of its
+     *                                  fork files are in use.
+     */
+    static TimingJournal open(@NonNull Path file, int capacity) throws IOException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("The journal capacity must be at least 1, but was %d!", capacity));
+        }
+
+        for (int fork = 0; fork <= MAX_FORK_FILES; ++fork) {
+            Path forkFile = (fork == 0) ? file : getForkFile(file, fork);
+            TimingJournal journal = openIfUnlocked(forkFile, capacity);
+
+            if (journal != null) {
+                if (fork != 0) {
+                    log.info("The test timing journal {} is in use by another JVM, so {} is used instead", file, forkFile);
+                }
+
+                return journal;
+            }
+        }
+
+        throw new IOException(String.format("The timing journal '%s' and its %d fork files are all in use by other JVMs!",
+                file, MAX_FORK_FILES));
+    }
+
+    /**
+     * Opens a journal file for appending if no other JVM (or other journal in this JVM) is writing to it.
+     *
+     * @param file     The journal file.
+     * @param capacity The initial number of records to map.
+     * @return The journal, or null if the file is locked.
+     * @throws IOException If the file can't be opened or isn't a timing journal.
+     */
+    private static TimingJournal openIfUnlocked(@NonNull Path file, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            if (!tryLock(channel)) {
+                channel.close();
+                return null;
+            }
+
+            long existingSize = channel.size();
+            int existingCapacity = (int) (Math.max(0, existingSize - HEADER_SIZE) / RECORD_SIZE);
+            int mappedCapacity = Math.max(capacity, existingCapacity);
+            MappedByteBuffer buffer = map(channel, mappedCapacity);
+
+            if (existingSize == 0) {
+                buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_SIZE);
+            } else {
+                checkHeader(file, buffer, existingSize);
+            }
+
+            int recordCount = countRecords(buffer, mappedCapacity);
+            return new TimingJournal(file, channel, new Region(buffer, mappedCapacity, recordCount, new AtomicInteger(recordCount)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads all records of a journal file and its fork files.
+     *
+     * @param file The journal file.
+     * @return The records of the journal in the order they were appended, followed by the records of each fork file in
+     * the order of their numbers, or an empty list if the journal doesn't exist.
+     * @throws IOException If a file can't be read or isn't a timing journal.
+     */
+    public static List<Entry> read(@NonNull Path file) throws IOException {
+        List<Entry> entries = new ArrayList<>(readFile(file));
+
+        // Fork files are opened in order, so there are no more after the first missing one.
+        for (int fork = 1; (fork <= MAX_FORK_FILES) && Files.isRegularFile(getForkFile(file, fork)); ++fork) {
+            entries.addAll(readFile(getForkFile(file, fork)));
+        }
+
+        return entries;
+    }
+
+    /**
+     * Gets a fork file of a journal, which is used by a JVM when another JVM is writing to the journal.
+     *
+     * @param file The journal file.
+     * @param fork The number of the fork file, starting at 1.
+     * @return The fork file, next to the journal file.
+     */
+    static Path getForkFile(@NonNull Path file, int fork) {
+        return file.resolveSibling(file.getFileName() + "." + fork);
+    }
+
+    /**
+     * Reads all records of one journal file.
+     *
+     * @param file The journal file.
+     * @return The records in the order they were appended, or an empty list if the file doesn't exist.
+     * @throws IOException If the file can't be read or isn't a timing journal.
+     */
+    private static List<Entry> readFile(@NonNull Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Collections.emptyList();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size < HEADER_SIZE) {
+                throw new IOException(String.format("'%s' is not a timing journal!", file));
+            }
+
+            int capacity = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + ((long) capacity * RECORD_SIZE));
+            checkHeader(file, buffer, size);
+            return readEntries(buffer, countRecords(buffer, capacity));
+        }
+    }
+
+    /**
+     * Appends a record to the journal. This is safe to call from many threads at the same time.
+     * The record is dropped if the journal is full and can't be compacted.
+     *
+     * @param testId    The stable test id.
+     * @param rowIndex  The index of the data provider row, or 0 if the test has no data provider.
+     * @param wallNanos The wall time of the invocation in nanoseconds.
+     * @param cpuNanos  The CPU time of the invocation in nanoseconds, or -1 if it's unknown.
+     * @param outcome   The outcome of the invocation.
+     */
+    void append(long testId, int rowIndex, long wallNanos, long cpuNanos, @NonNull Outcome outcome) {
+        while (true) {
+            Region current = region;
+            int slot = current.cursor.getAndIncrement();
+
+            if (slot < current.capacity) {
+                int offset = HEADER_SIZE + (slot * RECORD_SIZE);
+
+                // Always count the slot as committed, so a failed write can't make a compaction wait for it.
+                try {
+                    current.buffer.putLong(offset + TEST_ID_OFFSET, testId)
+                            .putLong(offset + WALL_TIME_OFFSET, wallNanos)
+                            .putLong(offset + CPU_TIME_OFFSET, cpuNanos)
+                            .putInt(offset + ROW_INDEX_OFFSET, rowIndex)
+                            .put(offset + OUTCOME_OFFSET, outcome.getCode());
+                } finally {
+                    current.committed.incrementAndGet();
+                }
+
+                return;
+            }
+
+            boolean replaced = !compactionFailed &&
+                    ((slot == current.capacity) ? compact(current, current.capacity) : awaitReplaced(current));
+
+            if (!replaced) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compacts the journal, keeping the latest {@link #MAX_HISTORY} records of each test invocation.
+     * Writers that append during the compaction wait until it's done. Nothing is done if an earlier compaction failed.
+     */
+    void compact() {
+        while (!compactionFailed) {
+            Region current = region;
+            int end = current.cursor.get();
+
+            if (end >= current.capacity) {
+                if (!awaitReplaced(current)) {
+                    return;
+                }
+            } else if (current.cursor.compareAndSet(end, current.capacity + 1)) {
+                compact(current, end);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets all records in the journal. Records that are being appended at the same time may be missing, as well as the
+     * records after them.
+     *
+     * @return The records in the order they were appended.
+     */
+    List<Entry> getEntries() {
+        Region current = region;
+        return readEntries(current.buffer, countRecords(current.buffer, Math.min(current.cursor.get(), current.capacity)));
+    }
+
+    /**
+     * Gets the journal file.
+     *
+     * @return The journal file.
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Flushes the journal to disk and closes the file. The journal must not be used afterwards.
+     *
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        region.buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Compacts a full region and replaces it with a new one. Only the thread that claimed the region's end may call this.
+     * If the compaction fails, the region is replaced by a copy of itself so the waiting writers continue, and later
+     * records that don't fit are dropped.
+     *
+     * @param current The region to compact.
+     * @param end     The number of slots that were claimed by writers before the compaction claimed the region.
+     * @return True if the region was compacted, or false if the compaction failed.
+     */
+    private boolean compact(@NonNull Region current, int end) {
+        boolean compacted = false;
+
+        try {
+            region = compactRegion(current, end);
+            compacted = true;
+        } catch (RuntimeException e) {
+            log.warn("Unable to compact the test timing journal {}, so the records that don't fit will be dropped", file, e);
+        } finally {
+            if (!compacted) {
+                compactionFailed = true;
+                Region restored = new Region(current.buffer, current.capacity, current.start, new AtomicInteger(end));
+                restored.committed.set(current.committed.get());
+                region = restored;
+            }
+        }
+
+        return compacted;
+    }
+
+    /**
+     * Writes the latest records of each test invocation of a full region to the start of a new region.
+     *
+     * @param current The region to compact.
+     * @param end     The number of slots that were claimed by writers before the compaction claimed the region.
+     * @return The new region.
+     */
+    private Region compactRegion(@NonNull Region current, int end) {
+        // Wait for the writers that claimed a slot before the end to finish writing their records.
+        long deadline = System.nanoTime() + WAIT_TIMEOUT_NANOS;
+
+        while (current.committed.get() < (end - current.start)) {
+            if ((System.nanoTime() - deadline) > 0) {
+                throw new IllegalStateException(String.format("Timed out waiting for %d records to be written!",
+                        (end - current.start) - current.committed.get()));
+            }
+
+            Thread.yield();
+        }
+
+        List<Entry> kept = keepLatest(readEntries(current.buffer, end), MAX_HISTORY);
+        int capacity = current.capacity;
+
+        while (kept.size() > (capacity / 2)) {
+            capacity *= 2;
+        }
+
+        MappedByteBuffer buffer = current.buffer;
+
+        try {
+            if (capacity != current.capacity) {
+                buffer = map(channel, capacity);
+            }
+        } catch (IOException e) {
+            // Keep the current size, the oldest records are dropped until the journal can grow.
+            capacity = current.capacity;
+            kept = kept.subList(kept.size() - (capacity / 2), kept.size());
+        }
+
+        for (int i = 0; i < kept.size(); ++i) {
+            Entry entry = kept.get(i);
+            int offset = HEADER_SIZE + (i * RECORD_SIZE);
+            buffer.putLong(offset + TEST_ID_OFFSET, entry.getTestId())
+                    .putLong(offset + WALL_TIME_OFFSET, entry.getWallNanos())
+                    .putLong(offset + CPU_TIME_OFFSET, entry.getCpuNanos())
+                    .putInt(offset + ROW_INDEX_OFFSET, entry.getRowIndex())
+                    .put(offset + OUTCOME_OFFSET, entry.getOutcome().getCode());
+        }
+
+        for (int i = kept.size(); i < Math.min(end, capacity); ++i) {
+            int offset = HEADER_SIZE + (i * RECORD_SIZE);
+            buffer.putLong(offset, 0).putLong(offset + 8, 0).putLong(offset + 16, 0).putLong(offset + 24, 0);
+        }
+
+        return new Region(buffer, capacity, kept.size(), new AtomicInteger(kept.size()));
+    }
+
+    /**
+     * Waits until a region has been replaced by a compaction, for at most {@link #WAIT_TIMEOUT_NANOS}.
+     *
+     * @param current The region to wait for.
+     * @return True if the region was replaced, or false if the wait timed out.
+     */
+    private boolean awaitReplaced(@NonNull Region current) {
+        long deadline = System.nanoTime() + WAIT_TIMEOUT_NANOS;
+
+        while (region == current) {
+            if ((System.nanoTime() - deadline) > 0) {
+                log.warn("Timed out waiting for the test timing journal {} to be compacted, so a record will be dropped", file);
+                return false;
+            }
+
+            Thread.yield();
+        }
+
+        return true;
+    }
+
+    /**
+     * Keeps the latest records of each test invocation.
+     *
+     * @param entries    The records in the order they were appended.
+     * @param maxHistory The maximum number of records to keep per test id and row index.
+     * @return The kept records in the order they were appended.
+     */
+    static List<Entry> keepLatest(@NonNull List<Entry> entries, int maxHistory) {
+        Map<List<Long>, Integer> counts = new HashMap<>();
+        List<Entry> kept = new ArrayList<>();
+
+        for (int i = entries.size() - 1; i >= 0; --i) {
+            Entry entry = entries.get(i);
+
+            if (counts.merge(List.of(entry.getTestId(), (long) entry.getRowIndex()), 1, Integer::sum) <= maxHistory) {
+                kept.add(entry);
+            }
+        }
+
+        Collections.reverse(kept);
+        return kept;
+    }
+
+    /**
+     * Takes the exclusive lock of a journal file, which is released when the channel is closed.
+     *
+     * @param channel The open channel of the file.
+     * @return True if the lock was taken, or false if another JVM or another channel in this JVM holds it.
+     * @throws IOException If the lock can't be taken for another reason.
+     */
+    private static boolean tryLock(@NonNull FileChannel channel) throws IOException {
+        try {
+            FileLock lock = channel.tryLock(LOCK_POSITION, 1, false);
+            return lock != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Maps the header and the given number of records of a file, growing the file if needed.
+     *
+     * @param channel  The open channel of the file.
+     * @param capacity The number of records to map.
+     * @return The mapped buffer.
+     * @throws IOException If the file can't be mapped.
+     */
+    private static MappedByteBuffer map(@NonNull FileChannel channel, int capacity) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + ((long) capacity * RECORD_SIZE));
+    }
+
+    /**
+     * Checks that a file starts with a timing journal header.
+     *
+     * @param file   The journal file.
+     * @param buffer The mapped file.
+     * @param size   The size of the file.
+     * @throws IOException If the file isn't a timing journal.
+     */
+    private static void checkHeader(@NonNull Path file, @NonNull MappedByteBuffer buffer, long size) throws IOException {
+        if ((size < HEADER_SIZE) || (buffer.getInt(0) != MAGIC) || (buffer.getInt(8) != RECORD_SIZE)) {
+            throw new IOException(String.format("'%s' is not a timing journal!", file));
+        }
+
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(String.format("'%s' has unsupported journal version %d!", file, buffer.getInt(4)));
+        }
+    }
+
+    /**
+     * Counts the complete records at the start of a mapped journal.
+     *
+     * @param buffer   The mapped file.
+     * @param capacity The number of mapped records.
+     * @return The number of records before the first empty or partially written slot.
+     */
+    private static int countRecords(@NonNull MappedByteBuffer buffer, int capacity) {
+        int count = 0;
+
+        while ((count < capacity) && (buffer.get(HEADER_SIZE + (count * RECORD_SIZE) + OUTCOME_OFFSET) != 0)) {
+            ++count;
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads the records at the start of a mapped journal.
+     *
+     * @param buffer The mapped file.
+     * @param count  The number of records to read.
+     * @return The records in the order they were appended.
+     */
+    private static List<Entry> readEntries(@NonNull MappedByteBuffer buffer, int count) {
+        List<Entry> entries = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            int offset = HEADER_SIZE + (i * RECORD_SIZE);
+            entries.add(new Entry(buffer.getLong(offset + TEST_ID_OFFSET), buffer.getInt(offset + ROW_INDEX_OFFSET),
+                    buffer.getLong(offset + WALL_TIME_OFFSET), buffer.getLong(offset + CPU_TIME_OFFSET),
+                    Outcome.fromCode(buffer.get(offset + OUTCOME_OFFSET))));
+        }
+
+        return entries;
+    }
+}
@@ -0,0 +1,264 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.IExecutionListener;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends a record of every test invocation (stable test id, data provider row index, wall time, CPU time and outcome) to
+ * a memory-mapped {@link TimingJournal}, which keeps the latest few records of each invocation across runs.
+ * <br/>
+ * The journal is set by the <code>-Dtimings.journal=path</code> system property (defaults to "test-timings.journal" in
+ * the working directory). Recording a test takes no lock and no system call, so it's safe to use with parallel tests.
+ * The journal is compacted when it fills up and when TestNG finishes. A journal file is only written by one JVM at a
+ * time, so if another JVM (ex. another Surefire fork) is using it, this JVM records to a numbered fork file next to it
+ * instead (see {@link TimingJournal}).
+ * <br/>
+ * The CPU time is only known if the JVM supports measuring the CPU time of the current thread and the test runs on the
+ * thread that started it (ex. not with <code>timeOut</code>); otherwise it's recorded as -1.
+ * <br/>
+ * TestNG only exposes the index of the data provider row on its internal result class, so the row index is read with
+ * the <code>getParameterIndex()</code> method of the result's class if it has one (see {@link #getRowIndex}), and is
+ * recorded as 0 otherwise. This is the only use of TestNG's internals, and nothing else depends on it at compile time.
+ * <br/>
+ * To register this listener, either define it in the <code>src/test/resources/META-INF/services/org.testng.ITestNGListener</code>
+ * file or add it to the testng.xml file.
+ */
+@Slf4j
+public class TimingJournalListener implements ITestListener, IExecutionListener {
+    /**
+     * The system property containing the path of the journal file.
+     */
+    public static final String JOURNAL_FILE_PROPERTY = "timings.journal";
+
+    /**
+     * The journal file used if {@link #JOURNAL_FILE_PROPERTY} isn't set.
+     */
+    public static final String DEFAULT_JOURNAL_FILE = "test-timings.journal";
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final String PARAMETER_INDEX_GETTER = "getParameterIndex";
+
+    // The getParameterIndex() method of each result class as an (ITestResult)int handle, or null if the class doesn't have one.
+    private static final ClassValue<MethodHandle> PARAMETER_INDEX_GETTERS = new ClassValue<>() {
+        /**
+         * Finds the parameter index getter of a result class.
+         *
+         * @param type The result class.
+         * @return The getter, or null if there isn't one.
+         */
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                return MethodHandles.publicLookup().findVirtual(type, PARAMETER_INDEX_GETTER, MethodType.methodType(int.class))
+                        .asType(MethodType.methodType(int.class, ITestResult.class));
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+    };
+
+    private final Path journalFile;
+    private final int capacity;
+    private final Map<ITestNGMethod, Long> testIds = new ConcurrentHashMap<>();
+    // {start nano time, start CPU time, 1 if a test was started} of the test started on each thread.
+    private final ThreadLocal<long[]> starts = ThreadLocal.withInitial(() -> new long[3]);
+    private volatile TimingJournal journal;
+    private volatile boolean disabled;
+
+    /**
+     * Constructor.
+     */
+    public TimingJournalListener() {
+        this(Paths.get(System.getProperty(JOURNAL_FILE_PROPERTY, DEFAULT_JOURNAL_FILE)), TimingJournal.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Package-private constructor for unit tests to inject the journal file and capacity.
+     *
+     * @param journalFile The journal file.
+     * @param capacity    The initial number of records the journal can hold before it's compacted.
+     */
+    TimingJournalListener(@NonNull Path journalFile, int capacity) {
+        this.journalFile = journalFile;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Remembers when a test started.
+     *
+     * @param result The test result.
+     */
+    @Override
+    public void onTestStart(ITestResult result) {
+        long[] start = starts.get();
+        start[0] = System.nanoTime();
+        start[1] = getCurrentThreadCpuTime();
+        start[2] = 1;
+    }
+
+    /**
+     * Records a passed test.
+     *
+     * @param result The test result.
+     */
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result, TimingJournal.Outcome.SUCCESS);
+    }
+
+    /**
+     * Records a failed test.
+     *
+     * @param result The test result.
+     */
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result, TimingJournal.Outcome.FAILURE);
+    }
+
+    /**
+     * Records a skipped test.
+     *
+     * @param result The test result.
+     */
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        record(result, TimingJournal.Outcome.SKIP);
+    }
+
+    /**
+     * Records a test that failed but is within its success percentage.
+     *
+     * @param result The test result.
+     */
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult result) {
+        record(result, TimingJournal.Outcome.SUCCESS_PERCENTAGE_FAILURE);
+    }
+
+    /**
+     * Compacts and closes the journal.
+     */
+    @Override
+    public synchronized void onExecutionFinish() {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.compact();
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Unable to close the test timing journal {}", journalFile, e);
+        } finally {
+            journal = null;
+        }
+    }
+
+    /**
+     * Appends a record of a test invocation to the journal.
+     *
+     * @param result  The test result.
+     * @param outcome The outcome of the test.
+     */
+    private void record(@NonNull ITestResult result, @NonNull TimingJournal.Outcome outcome) {
+        TimingJournal currentJournal = getJournal();
+
+        if (currentJournal == null) {
+            return;
+        }
+
+        long[] start = starts.get();
+        long wallNanos;
+        long cpuNanos = -1;
+
+        if (start[2] != 0) {
+            wallNanos = System.nanoTime() - start[0];
+
+            if (start[1] >= 0) {
+                cpuNanos = Math.max(0, getCurrentThreadCpuTime() - start[1]);
+            }
+
+            start[2] = 0;
+        } else {
+            // The test didn't start on this thread (or was skipped before it started), so only the result's times are known.
+            wallNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, result.getEndMillis() - result.getStartMillis()));
+        }
+
+        long testId = testIds.computeIfAbsent(result.getMethod(), method -> TestIds.stableHash(TestIds.testId(method)));
+        currentJournal.append(testId, getRowIndex(result), wallNanos, cpuNanos, outcome);
+    }
+
+    /**
+     * Gets the index of the data provider row of a test invocation.
+     *
+     * @param result The test result.
+     * @return The row index, or 0 if the test has no data provider or the result class doesn't expose the index.
+     */
+    static int getRowIndex(@NonNull ITestResult result) {
+        MethodHandle getter = PARAMETER_INDEX_GETTERS.get(result.getClass());
+
+        if (getter == null) {
+            return 0;
+        }
+
+        try {
+            return Math.max(0, (int) getter.invokeExact(result));
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets the journal, opening it on first use.
+     *
+     * @return The journal, or null if it can't be opened.
+     */
+    private TimingJournal getJournal() {
+        TimingJournal currentJournal = journal;
+
+        if ((currentJournal != null) || disabled) {
+            return currentJournal;
+        }
+
+        synchronized (this) {
+            if ((journal == null) && !disabled) {
+                try {
+                    journal = TimingJournal.open(journalFile, capacity);
+                } catch (IOException e) {
+                    log.warn("Unable to open the test timing journal {}, so no timings will be recorded", journalFile, e);
+                    disabled = true;
+                }
+            }
+
+            return journal;
+        }
+    }
+
+    /**
+     * Gets the CPU time of the current thread.
+     *
+     * @return The CPU time in nanoseconds, or -1 if it isn't supported.
+     */
+    private static long getCurrentThreadCpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+    }
+}
@@ -0,0 +1,233 @@
+package io.github.cpjust.testng_annotations.processors;
+
+import lombok.AccessLevel;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The index of <code>@IncludeOnEnv</code> and <code>@ExcludeOnEnv</code> annotations generated by the {@link EnvAnnotationProcessor}.
+ * <br/>
+ * The index is a properties file with these keys:
+ * <ul>
+ *     <li><code>type.&lt;class&gt;</code>: Each class that was compiled with the processor, so a missing annotation entry
+ *     for it (or its methods) means it has no annotation.</li>
+ *     <li><code>&lt;annotation&gt;.&lt;element&gt;</code>: The property name and the already split and validated environment
+ *     names of an annotated class or method, separated by {@link #VALUE_SEPARATOR}.</li>
+ *     <li><code>expression.&lt;annotation&gt;.&lt;element&gt;</code>: The already validated <code>expression</code> of an
+ *     annotated class or method.</li>
+ * </ul>
+ * Classes that are not in the index (ex. they were compiled without the processor) have to be checked by reflection.
+ * <br/>
+ * NOTE: This class is also used by the processor at compile time, so it must not depend on TestNG or any logging library.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class EnvAnnotationIndex {
+    /**
+     * The location of the index resource in the compiled output.
+     */
+    public static final String RESOURCE_NAME = "META-INF/testng-annotations/env-annotations.properties";
+
+    /**
+     * Set this system property to "false" to ignore the index and always read the annotations by reflection.
+     */
+    public static final String USE_INDEX_PROPERTY = "testng-annotations.useEnvIndex";
+
+    static final String TYPE_PREFIX = "type.";
+    static final String EXPRESSION_PREFIX = "expression.";
+    static final char VALUE_SEPARATOR = '\u001F'; // ASCII unit separator, which can't reasonably be part of an env name.
+
+    private static final EnvAnnotationIndex EMPTY = new EnvAnnotationIndex(Collections.emptyMap());
+
+    private final Map<String, String> entries;
+
+    /**
+     * An indexed annotation.
+     */
+    @Value
+    public static class Entry {
+        String propertyName;
+        String[] envs;
+    }
+
+    /**
+     * Gets an empty index, which doesn't cover any class.
+     *
+     * @return The empty index.
+     */
+    public static EnvAnnotationIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Loads and merges all index resources visible to the class loader, unless disabled by {@link #USE_INDEX_PROPERTY}.
+     *
+     * @param classLoader The class loader to load the index resources from.
+     * @return The index, which is empty if there are no index resources or the index is disabled.
+     * @throws IOException If an index resource can't be read.
+     */
+    public static EnvAnnotationIndex load(ClassLoader classLoader) throws IOException {
+        if ((classLoader == null) || "false".equalsIgnoreCase(System.getProperty(USE_INDEX_PROPERTY))) {
+            return EMPTY;
+        }
+
+        Map<String, String> entries = new HashMap<>();
+        Enumeration<URL> resources = classLoader.getResources(RESOURCE_NAME);
+
+        while (resources.hasMoreElements()) {
+            entries.putAll(readIndex(resources.nextElement()));
+        }
+
+        return entries.isEmpty() ? EMPTY : new EnvAnnotationIndex(Map.copyOf(entries));
+    }
+
+    /**
+     * Checks if the class declaring the element was compiled with the processor.
+     *
+     * @param element The class or method to check.
+     * @return True if the index has the annotations of the element, otherwise false.
+     */
+    public boolean covers(@NonNull AnnotatedElement element) {
+        if (element instanceof Method) {
+            return entries.containsKey(TYPE_PREFIX + ((Method) element).getDeclaringClass().getName());
+        }
+
+        return (element instanceof Class) && entries.containsKey(TYPE_PREFIX + ((Class<?>) element).getName());
+    }
+
+    /**
+     * Gets an indexed annotation of a class or method.
+     *
+     * @param annotationName The simple name of the annotation (ex. "IncludeOnEnv").
+     * @param element        The class or method.
+     * @return The indexed annotation, or empty if the element doesn't have the annotation or isn't in the index.
+     */
+    public Optional<Entry> getEntry(@NonNull String annotationName, @NonNull AnnotatedElement element) {
+        return Optional.ofNullable(entries.get(annotationKey(annotationName, elementName(element))))
+                .map(EnvAnnotationIndex::decodeEntry);
+    }
+
+    /**
+     * Gets the indexed expression of a class or method.
+     *
+     * @param annotationName The simple name of the annotation (ex. "IncludeOnEnv").
+     * @param element        The class or method.
+     * @return The expression, or empty if the element doesn't have the annotation, doesn't use an expression or isn't in the index.
+     */
+    public Optional<String> getExpression(@NonNull String annotationName, @NonNull AnnotatedElement element) {
+        return Optional.ofNullable(entries.get(EXPRESSION_PREFIX + annotationKey(annotationName, elementName(element))));
+    }
+
+    /**
+     * Gets the index key of an annotation.
+     *
+     * @param annotationName The simple name of the annotation (ex. "IncludeOnEnv").
+     * @param elementName    The name of the class or method (see {@link #methodName(String, String, List)}).
+     * @return The index key.
+     */
+    static String annotationKey(@NonNull String annotationName, @NonNull String elementName) {
+        return annotationName + "." + elementName;
+    }
+
+    /**
+     * Gets the name of a method in the index, which includes its parameter types to tell overloaded methods apart.
+     *
+     * @param className      The binary name of the class declaring the method.
+     * @param methodName     The method name.
+     * @param parameterTypes The erased parameter type names (arrays use a "[]" suffix).
+     * @return The name of the method in the index.
+     */
+    static String methodName(@NonNull String className, @NonNull String methodName, @NonNull List<String> parameterTypes) {
+        return className + "#" + methodName + "(" + String.join(",", parameterTypes) + ")";
+    }
+
+    /**
+     * Encodes an annotation as an index value.
+     *
+     * @param propertyName The property name of the annotation.
+     * @param envs         The split and validated environment names.
+     * @return The encoded value.
+     */
+    static String encodeEntry(@NonNull String propertyName, @NonNull String[] envs) {
+        StringBuilder sb = new StringBuilder(propertyName);
+
+        for (String env : envs) {
+            sb.append(VALUE_SEPARATOR).append(env);
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Decodes an index value into an annotation entry.
+     *
+     * @param value The encoded value.
+     * @return The decoded entry.
+     */
+    private static Entry decodeEntry(@NonNull String value) {
+        String[] parts = value.split(Pattern.quote(String.valueOf(VALUE_SEPARATOR)));
+        return new Entry(parts[0], Arrays.copyOfRange(parts, 1, parts.length));
+    }
+
+    /**
+     * Gets the name of a class or method in the index.
+     *
+     * @param element The class or method.
+     * @return The name of the element in the index.
+     */
+    private static String elementName(@NonNull AnnotatedElement element) {
+        if (element instanceof Method) {
+            Method method = (Method) element;
+            List<String> parameterTypes = Arrays.stream(method.getParameterTypes())
+                    .map(EnvAnnotationIndex::typeName)
+                    .collect(Collectors.toList());
+            return methodName(method.getDeclaringClass().getName(), method.getName(), parameterTypes);
+        }
+
+        return ((Class<?>) element).getName();
+    }
+
+    /**
+     * Gets the name of a parameter type in the same format as the processor.
+     *
+     * @param type The parameter type.
+     * @return The binary name of the type, with a "[]" suffix for each array dimension.
+     */
+    private static String typeName(@NonNull Class<?> type) {
+        return type.isArray() ? (typeName(type.getComponentType()) + "[]") : type.getName();
+    }
+
+    /**
+     * Reads a single index resource.
+     *
+     * @param url The location of the index resource.
+     * @return The entries of the index.
+     * @throws IOException If the index can't be read.
+     */
+    private static Map<String, String> readIndex(@NonNull URL url) throws IOException {
+        Properties properties = new Properties();
+
+        try (InputStream in = url.openStream()) {
+            properties.load(in);
+        }
+
+        return properties.stringPropertyNames().stream()
+                .collect(Collectors.toMap(key -> key, properties::getProperty));
+    }
+}
@@ -0,0 +1,206 @@
+package io.github.cpjust.testng_annotations.processors;
+
+import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;
+import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;
+import io.github.cpjust.testng_annotations.listeners.EnvExpression;
+import lombok.NonNull;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Annotation processor that validates <code>@IncludeOnEnv</code> and <code>@ExcludeOnEnv</code> annotations at compile time,
+ * and writes an {@link EnvAnnotationIndex} that the env listeners use instead of reading the annotations by reflection.
+ * <br/>
+ * A blank <code>propertyName</code>, an empty <code>value</code>, values that split into blank environment names, or an
+ * invalid <code>expression</code> are reported as compile errors instead of failing the test run.
+ * <br/>
+ * The processor is opt-in: the main jar doesn't register it, so javac never runs it just because the jar is on the
+ * classpath. To use it, add the artifact with the <code>processor</code> classifier (which registers it) to the
+ * <code>annotationProcessorPaths</code> of the maven-compiler-plugin.
+ */
+@SupportedAnnotationTypes({
+        "io.github.cpjust.testng_annotations.annotations.IncludeOnEnv",
+        "io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv"
+})
+public class EnvAnnotationProcessor extends AbstractProcessor {
+    private static final String INCLUDE_ON_ENV = IncludeOnEnv.class.getSimpleName();
+    private static final String EXCLUDE_ON_ENV = ExcludeOnEnv.class.getSimpleName();
+
+    private final Properties index = new Properties();
+
+    /**
+     * Supports whatever source version javac is running with, since the processor only reads annotations.
+     *
+     * @return The latest supported source version.
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Validates and indexes the annotations of each round, and writes the index after the last round.
+     *
+     * @param annotations The annotation types requested to be processed.
+     * @param roundEnv    The environment for this round.
+     * @return False, so other processors can also process these annotations.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+
+        // Record every class in this round, so the listeners know a class without an entry has no annotation.
+        for (Element rootElement : roundEnv.getRootElements()) {
+            indexTypes(rootElement);
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(IncludeOnEnv.class)) {
+            IncludeOnEnv annotation = element.getAnnotation(IncludeOnEnv.class);
+            indexAnnotation(element, INCLUDE_ON_ENV, annotation.expression(), annotation.propertyName(), annotation.value(),
+                    annotation.delimiter());
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(ExcludeOnEnv.class)) {
+            ExcludeOnEnv annotation = element.getAnnotation(ExcludeOnEnv.class);
+            indexAnnotation(element, EXCLUDE_ON_ENV, annotation.expression(), annotation.propertyName(), annotation.value(),
+                    annotation.delimiter());
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds a type and all of its nested types to the index.
+     *
+     * @param element The root element of the round.
+     */
+    private void indexTypes(@NonNull Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+
+        index.setProperty(EnvAnnotationIndex.TYPE_PREFIX + getBinaryName((TypeElement) element), "");
+
+        for (Element enclosed : element.getEnclosedElements()) {
+            indexTypes(enclosed);
+        }
+    }
+
+    /**
+     * Validates an annotation and adds it to the index, or reports a compile error if it's invalid.
+     *
+     * @param element        The annotated class or method.
+     * @param annotationName The simple name of the annotation.
+     * @param expression     The expression of the annotation.
+     * @param propertyName   The property name of the annotation.
+     * @param envs           The values of the annotation.
+     * @param delimiter      The delimiter of the annotation.
+     */
+    private void indexAnnotation(@NonNull Element element, @NonNull String annotationName, @NonNull String expression,
+                                 @NonNull String propertyName, @NonNull String[] envs, @NonNull String delimiter) {
+        String key = EnvAnnotationIndex.annotationKey(annotationName, getElementName(element));
+
+        try {
+            if (expression.isEmpty()) {
+                EnvAnnotationValidator.validatePropertyNameAndEnvs(propertyName, envs, annotationName);
+                index.setProperty(key, EnvAnnotationIndex.encodeEntry(propertyName,
+                        EnvAnnotationValidator.splitAndValidateEnvs(envs, annotationName, delimiter)));
+            } else {
+                EnvAnnotationValidator.validateExpression(expression, envs, annotationName);
+                EnvExpression.parse(expression, annotationName);
+                index.setProperty(EnvAnnotationIndex.EXPRESSION_PREFIX + key, expression);
+            }
+        } catch (IllegalArgumentException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), element);
+        }
+    }
+
+    /**
+     * Writes the index to the class output.
+     */
+    private void writeIndex() {
+        if (index.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", EnvAnnotationIndex.RESOURCE_NAME);
+
+            try (OutputStream out = resource.openOutputStream()) {
+                index.store(out, "Generated by " + getClass().getName());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Unable to write " + EnvAnnotationIndex.RESOURCE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the name of an annotated class or method in the index.
+     *
+     * @param element The annotated class or method.
+     * @return The name of the element in the index.
+     */
+    private String getElementName(@NonNull Element element) {
+        if (element.getKind() == ElementKind.METHOD) {
+            ExecutableElement method = (ExecutableElement) element;
+            List<String> parameterTypes = method.getParameters().stream()
+                    .map(parameter -> getTypeName(processingEnv.getTypeUtils().erasure(parameter.asType())))
+                    .collect(Collectors.toList());
+            return EnvAnnotationIndex.methodName(getBinaryName((TypeElement) method.getEnclosingElement()),
+                    method.getSimpleName().toString(), parameterTypes);
+        }
+
+        return getBinaryName((TypeElement) element);
+    }
+
+    /**
+     * Gets the name of an erased parameter type in the same format as {@link Class#getName()}, except arrays use a "[]" suffix.
+     *
+     * @param type The erased parameter type.
+     * @return The name of the type.
+     */
+    private String getTypeName(@NonNull TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return getTypeName(((ArrayType) type).getComponentType()) + "[]";
+        }
+
+        if (type.getKind() == TypeKind.DECLARED) {
+            return getBinaryName((TypeElement) processingEnv.getTypeUtils().asElement(type));
+        }
+
+        return type.toString(); // Primitive types.
+    }
+
+    /**
+     * Gets the binary name of a class (ex. "com.example.Outer$Inner"), which is the same as {@link Class#getName()}.
+     *
+     * @param type The class.
+     * @return The binary name of the class.
+     */
+    private String getBinaryName(@NonNull TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.cpjust.testng_annotations.processors;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Validates the parameters of the <code>@IncludeOnEnv</code> and <code>@ExcludeOnEnv</code> annotations.
+ * This is shared by the env listeners at runtime and the {@link EnvAnnotationProcessor} at compile time, so it must not
+ * depend on TestNG.
+ */
+@UtilityClass
+public class EnvAnnotationValidator {
+    /**
+     * Validates that the property name isn't blank and that the array of environments isn't empty.
+     *
+     * @param propertyName   The system property containing the current environment name.
+     * @param envs           The array of environments to compare against.
+     * @param annotationName The name of the annotation for error reporting.
+     * @throws IllegalArgumentException if the property name is blank or the array of environments is empty.
+     */
+    public static void validatePropertyNameAndEnvs(@NonNull String propertyName, @NonNull String[] envs, @NonNull String annotationName) {
+        if (propertyName.isBlank()) {
+            throw new IllegalArgumentException(String.format("The 'propertyName' parameter of the %s annotation cannot be blank!", annotationName));
+        }
+
+        if (envs.length == 0) {
+            throw new IllegalArgumentException(String.format("The 'value' parameter of the %s annotation cannot be an empty array!", annotationName));
+        }
+    }
+
+    /**
+     * Validates the expression of an annotation that uses the <code>expression</code> attribute instead of <code>value</code>.
+     * The syntax of the expression is checked when it's parsed.
+     *
+     * @param expression     The non-empty expression.
+     * @param envs           The array of environments, which must be empty if the expression is set.
+     * @param annotationName The name of the annotation for error reporting.
+     * @throws IllegalArgumentException if the expression is blank or the array of environments isn't empty.
+     */
+    public static void validateExpression(@NonNull String expression, @NonNull String[] envs, @NonNull String annotationName) {
+        if (expression.isBlank()) {
+            throw new IllegalArgumentException(String.format("The 'expression' parameter of the %s annotation cannot be blank!", annotationName));
+        }
+
+        if (envs.length != 0) {
+            throw new IllegalArgumentException(
+                    String.format("The 'value' and 'expression' parameters of the %s annotation cannot both be set!", annotationName));
+        }
+    }
+
+    /**
+     * Splits and validates the provided environment names.
+     * <p>
+     * For each string in the {@code envs} array, this method splits it using the specified {@code delimiter}
+     * (if provided and not empty), trims whitespace, filters out empty or blank values, and ensures all
+     * resulting environment names are unique and non-blank.
+     * </p>
+     *
+     * @param envs           The array of environment names or CSV strings to process.
+     * @param annotationName The name of the annotation for error reporting.
+     * @param delimiter      The delimiter to use for splitting environment names. If empty, no splitting is performed.
+     * @return A deduplicated array of trimmed, non-blank environment names.
+     * @throws IllegalArgumentException if any resulting environment name is null or blank.
+     */
+    public static String[] splitAndValidateEnvs(@NonNull String[] envs, @NonNull String annotationName, @NonNull String delimiter) {
+        return Arrays.stream(envs)
+                .flatMap(env -> {
+                    if (env == null) { // NOTE: IntelliJ says this condition is always false, but it's not!
+                        throw new IllegalArgumentException(
+                                String.format("The 'value' parameter of the %s annotation cannot contain null elements!", annotationName));
+                    } else if (delimiter.isEmpty()) {
+                        return Stream.of(env);
+                    } else {
+                        return Arrays.stream(env.split(Pattern.quote(delimiter)));
+                    }
+                })
+                .map(env -> {
+                    env = env.trim();
+
+                    if (env.isEmpty()) {
+                        throw new IllegalArgumentException(
+                                String.format("The 'value' parameter of the %s annotation cannot contain blank elements!", annotationName));
+                    }
+                    return env;
+                })
+                .distinct()
+                .toArray(String[]::new);
+    }
+}
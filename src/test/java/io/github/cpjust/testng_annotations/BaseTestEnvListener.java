@@ -44,6 +44,18 @@ public abstract class BaseTestEnvListener {
      * @throws NoSuchMethodException If the specified method does not exist on the class.
      */
     protected List<IMethodInstance> setupMethodAndCallIntercept(@NonNull Class<?> clazz, String methodName) throws NoSuchMethodException {
+        return listener.intercept(setupMethod(clazz, methodName), null);
+    }
+
+    /**
+     * Helper to set the env system property and mock the method instance.
+     *
+     * @param clazz      The class containing the method to test.
+     * @param methodName The name of the method to test.
+     * @return A list containing the mocked IMethodInstance.
+     * @throws NoSuchMethodException If the specified method does not exist on the class.
+     */
+    protected List<IMethodInstance> setupMethod(@NonNull Class<?> clazz, String methodName) throws NoSuchMethodException {
         System.setProperty(ENV, MATCH_ENV);
 
         Method m = clazz.getMethod(methodName);
@@ -51,6 +63,6 @@ public abstract class BaseTestEnvListener {
         when(testNgMethod.getRealClass()).thenReturn(clazz);
         when(testNgMethod.getConstructorOrMethod()).thenReturn(new ConstructorOrMethod(m));
 
-        return listener.intercept(List.of(methodInstance), null);
+        return List.of(methodInstance);
     }
 }
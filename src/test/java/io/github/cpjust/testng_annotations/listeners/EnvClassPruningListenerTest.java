@@ -0,0 +1,144 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;
+import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EnvClassPruningListenerTest {
+    private static final String ENV = "env";
+    private static final String MATCH_ENV = "matchEnv";
+    static final String METHODS_SHOULD_NOT_BE_EMPTY = "java:S1186"; // Suppress "Methods should not be empty" warning
+
+    @Mock
+    Properties mockProperties;
+
+    private EnvClassPruningListener listener;
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class UnannotatedClass {
+        public void noAnnotation() {}
+    }
+
+    @ExcludeOnEnv(MATCH_ENV)
+    public static class ClassWithMatchingExclude extends UnannotatedClass {
+        // Inherits methods from UnannotatedClass
+    }
+
+    @ExcludeOnEnv("unmatchEnv")
+    public static class ClassWithUnmatchingExclude extends UnannotatedClass {
+        // Inherits methods from UnannotatedClass
+    }
+
+    @IncludeOnEnv("unmatchEnv")
+    public static class ClassWithUnmatchingInclude extends UnannotatedClass {
+        // Inherits methods from UnannotatedClass
+    }
+
+    @IncludeOnEnv("unmatchEnv")
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class ClassWithUnmatchingIncludeAndMatchingMethod {
+        @IncludeOnEnv(MATCH_ENV)
+        public void methodIncluded() {}
+    }
+
+    @IncludeOnEnv(value = "unmatchEnv", propertyName = "notSetYet")
+    public static class ClassWithUnsetProperty extends UnannotatedClass {
+        // Inherits methods from UnannotatedClass
+    }
+
+    @BeforeEach
+    void setUp() {
+        listener = new EnvClassPruningListener(mockProperties);
+    }
+
+    @Test
+    void alter_fullyExcludedClasses_areRemoved() {
+        when(mockProperties.getProperty(ENV)).thenReturn(MATCH_ENV);
+        XmlTest test = createTest(UnannotatedClass.class, ClassWithMatchingExclude.class, ClassWithUnmatchingExclude.class,
+                ClassWithUnmatchingInclude.class, ClassWithUnmatchingIncludeAndMatchingMethod.class);
+
+        listener.alter(List.of(test.getSuite()));
+
+        assertThat("Only classes with runnable tests should be kept!", getClassNames(test), contains(
+                UnannotatedClass.class.getName(),
+                ClassWithUnmatchingExclude.class.getName(),
+                ClassWithUnmatchingIncludeAndMatchingMethod.class.getName()));
+    }
+
+    @Test
+    void alter_propertyNotSet_classIsKept() {
+        when(mockProperties.getProperty("notSetYet")).thenReturn(null);
+        XmlTest test = createTest(ClassWithUnsetProperty.class);
+
+        listener.alter(List.of(test.getSuite()));
+
+        assertThat("Class should be kept when its env property isn't set yet!", getClassNames(test),
+                contains(ClassWithUnsetProperty.class.getName()));
+    }
+
+    @Test
+    void alter_allClassesExcluded_testHasNoClasses() {
+        when(mockProperties.getProperty(ENV)).thenReturn(MATCH_ENV);
+        XmlTest test = createTest(ClassWithMatchingExclude.class, ClassWithUnmatchingInclude.class);
+
+        listener.alter(List.of(test.getSuite()));
+
+        assertThat("All classes should be removed!", getClassNames(test), empty());
+    }
+
+    @Test
+    void alter_unknownClass_classIsKept() {
+        XmlSuite suite = new XmlSuite();
+        XmlTest test = new XmlTest(suite);
+        test.setXmlClasses(List.of(new XmlClass("does.not.Exist", false)));
+
+        listener.alter(List.of(suite));
+
+        assertThat("Classes that can't be loaded should be left for TestNG to report!", getClassNames(test), contains("does.not.Exist"));
+    }
+
+    /**
+     * Creates a suite with a single test containing the given classes.
+     *
+     * @param classes The test classes.
+     * @return The test definition.
+     */
+    private static XmlTest createTest(Class<?>... classes) {
+        XmlSuite suite = new XmlSuite();
+        XmlTest test = new XmlTest(suite);
+        test.setXmlClasses(Arrays.stream(classes)
+                .map(XmlClass::new)
+                .collect(Collectors.toList()));
+        return test;
+    }
+
+    /**
+     * Gets the names of the classes in a test definition.
+     *
+     * @param test The test definition.
+     * @return The class names.
+     */
+    private static List<String> getClassNames(XmlTest test) {
+        return test.getXmlClasses().stream()
+                .map(XmlClass::getName)
+                .collect(Collectors.toList());
+    }
+}
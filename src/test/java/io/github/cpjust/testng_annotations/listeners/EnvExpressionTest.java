@@ -0,0 +1,97 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Properties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnvExpressionTest {
+    private static final String ANNOTATION_NAME = "Foo";
+
+    private EnvSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("env", " QA ");
+        properties.setProperty("region", "us-east-1");
+        properties.setProperty("cloud", "aws");
+        snapshot = new EnvSnapshot(properties);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "env == qa;true",
+            "env == prod;false",
+            "env != prod;true",
+            "env in (dev, QA, stage);true",
+            "env not in (dev, qa);false",
+            "env NOT IN (dev, stage);true",
+            "env in (qa,stage) && region != eu-west-1;true",
+            "env in (qa,stage) && region != us-east-1;false",
+            "env == prod || region == us-east-1;true",
+            "env == prod || cloud == aws && region == eu-west-1;false",
+            "(env == prod || cloud == aws) && region == us-east-1;true",
+            "!(env == qa);false",
+            "!env == prod;true",
+            "region == 'US-EAST-1';true",
+            "region == \" us-east-1 \";true",
+            "region == us-*;true",
+            "region in (eu-*, ap-*);false",
+            "env != q?;false",
+            "env == 'q\\?';false",
+            "cloud in ('aws\\*', aw?);true",
+            "unset == qa;false",
+            "unset in (qa);false",
+            "unset != qa;true",
+            "unset not in (qa);true"
+    })
+    void parse_validExpression_evaluatesAgainstSnapshot(String expression, boolean expected) {
+        assertThat(String.format("Wrong result for '%s'!", expression),
+                EnvExpression.parse(expression, ANNOTATION_NAME).evaluate(snapshot), equalTo(expected));
+    }
+
+    @Test
+    void parse_sameText_returnsSameExpression() {
+        String expression = "env in (qa, stage) && region != eu-west-1";
+        assertThat("Expressions with the same text should be shared!",
+                EnvExpression.parse(expression, "IncludeOnEnv"), sameInstance(EnvExpression.parse(expression, "ExcludeOnEnv")));
+    }
+
+    @Test
+    void getPropertyNames_expressionWithSeveralProperties_returnsAllProperties() {
+        assertThat("Wrong property names!",
+                EnvExpression.parse("env == qa && (region != eu-west-1 || !(cloud in (aws)) || env == dev)", ANNOTATION_NAME).getPropertyNames(),
+                containsInAnyOrder("env", "region", "cloud"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "env;Expected '==', '!=', 'in' or 'not in' at position 3 of 'env'!",
+            "env ==;Expected value at position 6 of 'env =='!",
+            "env not (qa);Expected 'in' at position 8 of 'env not (qa)'!",
+            "env in qa;Expected '(' at position 7 of 'env in qa'!",
+            "env in (qa, );Expected value at position 12 of 'env in (qa, )'!",
+            "env in (qa;Expected ')' at position 10 of 'env in (qa'!",
+            "(env == qa;Expected ')' at position 10 of '(env == qa'!",
+            "env == qa &&;Expected property name at position 12 of 'env == qa &&'!",
+            "env == qa region == us;Unexpected 'r' at position 10 of 'env == qa region == us'!",
+            "env == 'qa;Unterminated quoted value at position 7 of 'env == 'qa'!",
+            "env == ' ';Expected value at position 7 of 'env == ' ''!"
+    })
+    void parse_invalidExpression_throwsException(String expression, String expectedReason) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> EnvExpression.parse(expression, ANNOTATION_NAME),
+                "parse() should throw an IllegalArgumentException for an invalid expression!");
+        assertThat("parse() threw the wrong message!", ex.getMessage(),
+                equalTo(String.format("The 'expression' parameter of the %s annotation is invalid: %s", ANNOTATION_NAME, expectedReason)));
+    }
+}
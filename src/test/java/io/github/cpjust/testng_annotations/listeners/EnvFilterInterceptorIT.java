@@ -0,0 +1,103 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import io.github.cpjust.testng_annotations.BaseITEnvListener;
+import io.github.cpjust.testng_annotations.TestUtils;
+import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;
+import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;
+import lombok.extern.slf4j.Slf4j;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.cpjust.testng_annotations.TestUtils.getCurrentMethodNameWithParams;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+@Slf4j
+@Listeners(value = EnvFilterInterceptor.class)
+public class EnvFilterInterceptorIT extends BaseITEnvListener {
+    private static final List<String> testsRun = new ArrayList<>();
+
+    @Test
+    public void testWithNoAnnotations_isRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+    }
+
+    @IncludeOnEnv("matchEnv")
+    @ExcludeOnEnv("unmatchEnv")
+    @Test
+    public void testWithIncludedAndNonExcludedEnv_isRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+    }
+
+    @IncludeOnEnv("matchEnv")
+    @ExcludeOnEnv("matchEnv")
+    @Test
+    public void testWithIncludedAndExcludedEnv_isNotRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+        TestUtils.failTestThatShouldNotRun();
+    }
+
+    @IncludeOnEnv("unmatchEnv")
+    @ExcludeOnEnv("unmatchEnv")
+    @Test
+    public void testWithNonIncludedAndNonExcludedEnv_isNotRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+        TestUtils.failTestThatShouldNotRun();
+    }
+
+    @IncludeOnEnv(value = "matchEnvironment", propertyName = "environment")
+    @ExcludeOnEnv("unmatchEnv")
+    @Test
+    public void testWithIncludedEnvironmentAndNonExcludedEnv_isRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+    }
+
+    @IncludeOnEnv(expression = "env == matchEnv && environment in (matchEnvironment, otherEnvironment)")
+    @Test
+    public void testWithIncludedExpression_isRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+    }
+
+    @IncludeOnEnv(expression = "env == matchEnv && environment != matchEnvironment")
+    @Test
+    public void testWithNonIncludedExpression_isNotRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+        TestUtils.failTestThatShouldNotRun();
+    }
+
+    @ExcludeOnEnv(expression = "env == matchEnv || environment == matchEnvironment")
+    @Test
+    public void testWithExcludedExpression_isNotRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+        TestUtils.failTestThatShouldNotRun();
+    }
+
+    @IncludeOnEnv("MATCH*")
+    @ExcludeOnEnv(value = "unmatch*, *Env?", delimiter = ",")
+    @Test
+    public void testWithIncludedAndNonExcludedPattern_isRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+    }
+
+    @IncludeOnEnv("match?")
+    @Test
+    public void testWithNonIncludedPattern_isNotRun() {
+        testsRun.add(getCurrentMethodNameWithParams());
+        TestUtils.failTestThatShouldNotRun();
+    }
+
+    @Test(priority = 2)
+    public void verifyTestsRun() {
+        log.debug("Verifying tests run: {}", testsRun);
+        assertThat("Wrong tests were run!", testsRun, containsInAnyOrder(
+                "testWithNoAnnotations_isRun()",
+                "testWithIncludedAndNonExcludedEnv_isRun()",
+                "testWithIncludedEnvironmentAndNonExcludedEnv_isRun()",
+                "testWithIncludedExpression_isRun()",
+                "testWithIncludedAndNonExcludedPattern_isRun()"
+        ));
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import io.github.cpjust.testng_annotations.BaseTestEnvListener;
+import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;
+import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.testng.IMethodInstance;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.sameInstance;
+
+@ExtendWith(MockitoExtension.class)
+class EnvFilterInterceptorTest extends BaseTestEnvListener {
+    static final String METHODS_SHOULD_NOT_BE_EMPTY = "java:S1186"; // Suppress "Methods should not be empty" warning
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class TestClass {
+        public void noAnnotation() {}
+
+        @IncludeOnEnv(MATCH_ENV)
+        public void methodIncluded() {}
+
+        @IncludeOnEnv("unmatchEnv")
+        public void methodNotIncluded() {}
+
+        @ExcludeOnEnv(MATCH_ENV)
+        public void methodExcluded() {}
+
+        @ExcludeOnEnv("unmatchEnv")
+        public void methodNotExcluded() {}
+
+        @IncludeOnEnv(MATCH_ENV)
+        @ExcludeOnEnv(MATCH_ENV)
+        public void methodIncludedAndExcluded() {}
+    }
+
+    @IncludeOnEnv("unmatchEnv")
+    public static class ClassWithUnmatchingInclude extends TestClass {
+        // Inherits methods from TestClass
+    }
+
+    @ExcludeOnEnv(MATCH_ENV)
+    public static class ClassWithMatchingExclude extends TestClass {
+        // Inherits methods from TestClass
+    }
+
+    @BeforeEach
+    void setUp() {
+        previousEnv = System.getProperty(ENV);
+        listener = new EnvFilterInterceptor();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "noAnnotation", "methodIncluded", "methodNotExcluded" })
+    void intercept_testClassWithRunnableMethod_returnsOriginalList(String methodName) throws NoSuchMethodException {
+        List<IMethodInstance> methods = setupMethod(TestClass.class, methodName);
+        List<IMethodInstance> result = listener.intercept(methods, null);
+        assertThat("intercept() should return the original list when no tests are removed!", result, sameInstance(methods));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "methodNotIncluded", "methodExcluded", "methodIncludedAndExcluded" })
+    void intercept_testClassWithNonRunnableMethod_removesMethod(String methodName) throws NoSuchMethodException {
+        List<IMethodInstance> result = setupMethodAndCallIntercept(TestClass.class, methodName);
+        assertThat("Method should be removed when it is not included or is excluded!", result, empty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "noAnnotation", "methodNotIncluded", "methodNotExcluded" })
+    void intercept_classWithUnmatchingInclude_removesMethod(String methodName) throws NoSuchMethodException {
+        List<IMethodInstance> result = setupMethodAndCallIntercept(ClassWithUnmatchingInclude.class, methodName);
+        assertThat("Method should be removed when the class-level IncludeOnEnv doesn't match!", result, empty());
+    }
+
+    @Test
+    void intercept_classWithUnmatchingIncludeAndMethodIncluded_returnsOriginalList() throws NoSuchMethodException {
+        List<IMethodInstance> methods = setupMethod(ClassWithUnmatchingInclude.class, "methodIncluded");
+        List<IMethodInstance> result = listener.intercept(methods, null);
+        assertThat("Method-level IncludeOnEnv matching should include the test even if class-level include does not match!",
+                result, sameInstance(methods));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "noAnnotation", "methodIncluded", "methodNotExcluded" })
+    void intercept_classWithMatchingExclude_removesMethod(String methodName) throws NoSuchMethodException {
+        List<IMethodInstance> result = setupMethodAndCallIntercept(ClassWithMatchingExclude.class, methodName);
+        assertThat("Method should be removed when the class-level ExcludeOnEnv matches!", result, empty());
+    }
+}
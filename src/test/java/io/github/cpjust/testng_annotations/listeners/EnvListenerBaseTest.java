@@ -1,22 +1,34 @@
 package io.github.cpjust.testng_annotations.listeners;
 
+import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;
+import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Optional;
 import java.util.Properties;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 // NOTE: These tests need to be unit tests and use Mockito because they throw exceptions that would cause TestNG to
@@ -30,6 +42,24 @@ class EnvListenerBaseTest {
 
     private EnvListenerBase listener;
 
+    @IncludeOnEnv(value = "dev, prod", delimiter = ",")
+    @ExcludeOnEnv("stage")
+    private static class AnnotatedClass {}
+
+    private static class UnannotatedClass {}
+
+    @IncludeOnEnv(value = "dev", propertyName = " ")
+    private static class BlankPropertyNameClass {}
+
+    @IncludeOnEnv(expression = "env in (dev, qa) && region != eu-west-1")
+    private static class ExpressionClass {}
+
+    @ExcludeOnEnv(value = "dev", expression = "env == dev")
+    private static class ValueAndExpressionClass {}
+
+    @ExcludeOnEnv(expression = " ")
+    private static class BlankExpressionClass {}
+
     @BeforeEach
     void setUp() {
         // Anonymous concrete subclass so we can call anyEnvMatches().
@@ -61,7 +91,6 @@ class EnvListenerBaseTest {
     @ValueSource(strings = {"", " ", "\n"})
     @DisplayName("blank entry in envs array should throw IllegalArgumentException")
     void anyEnvMatches_blankEnvValue_throwsException(String blankEnv) {
-        when(mockProperties.getProperty("foo")).thenReturn("bar");
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
                 () -> listener.anyEnvMatches("foo", new String[] { blankEnv, "bar" }, ANNOTATION_NAME, ""),
@@ -112,7 +141,6 @@ class EnvListenerBaseTest {
     @Test
     @DisplayName("CSV value with blank or empty string throws exception")
     void anyEnvMatches_csvBlankValue_throwsException() {
-        when(mockProperties.getProperty("env")).thenReturn("qa");
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
                 () -> listener.anyEnvMatches("env", new String[] { "   " }, ANNOTATION_NAME, ","),
@@ -200,4 +228,167 @@ class EnvListenerBaseTest {
                 equalTo(String.format("The 'value' parameter of the %s annotation cannot contain null elements!", ANNOTATION_NAME))
         );
     }
+
+    // --- Tests for compiled rules ---
+
+    @Test
+    @DisplayName("getIncludeOnEnvRule returns the same compiled rule for repeated lookups")
+    void getIncludeOnEnvRule_calledTwice_returnsCachedRule() {
+        Optional<EnvRule> first = listener.getIncludeOnEnvRule(AnnotatedClass.class);
+        Optional<EnvRule> second = listener.getIncludeOnEnvRule(AnnotatedClass.class);
+        assertTrue(first.isPresent(), "getIncludeOnEnvRule() should return a rule for an annotated class");
+        assertThat("getIncludeOnEnvRule() should return the cached rule!", second.get(), sameInstance(first.get()));
+    }
+
+    @Test
+    @DisplayName("getEnvRule returns the same compiled rule for repeated lookups of the same parameters")
+    void getEnvRule_calledTwice_returnsCachedRule() {
+        String[] envs = { "dev,prod" };
+        EnvRule first = listener.getEnvRule("env", envs, ANNOTATION_NAME, ",");
+        envs[0] = "qa";
+        EnvRule second = listener.getEnvRule("env", new String[] { "dev,prod" }, ANNOTATION_NAME, ",");
+        assertThat("getEnvRule() should return the cached rule!", second, sameInstance(first));
+        assertThat("getEnvRule() should compile a new rule for different envs!", listener.getEnvRule("env", envs, ANNOTATION_NAME, ","),
+                not(sameInstance(first)));
+    }
+
+    @Test
+    @DisplayName("anyEnvMatches reuses the compiled rule of the same parameters")
+    void anyEnvMatches_calledTwice_compilesRuleOnce() {
+        EnvListenerBase spyListener = spy(listener);
+        when(mockProperties.getProperty("env")).thenReturn("prod");
+        String[] envs = { "dev,prod" };
+        assertTrue(spyListener.anyEnvMatches("env", envs, ANNOTATION_NAME, ","), "anyEnvMatches() should match 'prod'");
+        assertTrue(spyListener.anyEnvMatches("env", envs.clone(), ANNOTATION_NAME, ","), "anyEnvMatches() should still match 'prod'");
+        verify(spyListener, times(1)).compileEnvRule("env", envs, ANNOTATION_NAME, ",");
+    }
+
+    @Test
+    @DisplayName("getIncludeOnEnvRule and getExcludeOnEnvRule return empty for an unannotated class")
+    void getEnvRules_noAnnotation_returnsEmpty() {
+        assertFalse(listener.getIncludeOnEnvRule(UnannotatedClass.class).isPresent(),
+                "getIncludeOnEnvRule() should return empty for an unannotated class");
+        assertFalse(listener.getExcludeOnEnvRule(UnannotatedClass.class).isPresent(),
+                "getExcludeOnEnvRule() should return empty for an unannotated class");
+    }
+
+    @Test
+    @DisplayName("getIncludeOnEnvRule throws IllegalArgumentException for an invalid annotation")
+    void getIncludeOnEnvRule_blankPropertyName_throwsException() {
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> listener.getIncludeOnEnvRule(BlankPropertyNameClass.class),
+                "getIncludeOnEnvRule() should throw an IllegalArgumentException for a blank propertyName!"
+        );
+        assertThat("getIncludeOnEnvRule() threw the wrong assert message!", ex.getMessage(),
+                equalTo("The 'propertyName' parameter of the IncludeOnEnv annotation cannot be blank!"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "prod", " PROD ", "Dev" })
+    @DisplayName("currentEnvMatches returns true when the current env matches the compiled rule")
+    void currentEnvMatches_matchingEnv_returnsTrue(String currentEnv) {
+        when(mockProperties.getProperty("env")).thenReturn(currentEnv);
+        EnvRule rule = listener.getIncludeOnEnvRule(AnnotatedClass.class).orElseThrow();
+        assertTrue(listener.currentEnvMatches(rule), "currentEnvMatches() should return true for a matching env");
+    }
+
+    @Test
+    @DisplayName("currentEnvMatches returns false when the current env property is not set")
+    void currentEnvMatches_missingProperty_returnsFalse() {
+        when(mockProperties.getProperty("env")).thenReturn(null);
+        EnvRule rule = listener.getExcludeOnEnvRule(AnnotatedClass.class).orElseThrow();
+        assertFalse(listener.currentEnvMatches(rule), "currentEnvMatches() should return false if the env property is not set");
+    }
+
+    @Test
+    @DisplayName("currentEnvMatches reads each env property only once until the environment is refreshed")
+    void currentEnvMatches_envChangesWithoutRefresh_usesSnapshot() {
+        when(mockProperties.getProperty("env")).thenReturn("stage", "dev");
+        EnvRule rule = listener.getExcludeOnEnvRule(AnnotatedClass.class).orElseThrow();
+        assertTrue(listener.currentEnvMatches(rule), "currentEnvMatches() should return true for 'stage'");
+        assertTrue(listener.currentEnvMatches(rule), "currentEnvMatches() should still use the 'stage' snapshot");
+        verify(mockProperties, times(1)).getProperty("env");
+    }
+
+    @Test
+    @DisplayName("currentEnvMatches re-evaluates the rule when the environment is refreshed")
+    void currentEnvMatches_envChangesWithRefresh_reevaluatesRule() {
+        when(mockProperties.getProperty("env")).thenReturn("stage", "dev");
+        EnvRule rule = listener.getExcludeOnEnvRule(AnnotatedClass.class).orElseThrow();
+        assertTrue(listener.currentEnvMatches(rule), "currentEnvMatches() should return true for 'stage'");
+        listener.refreshEnvironment();
+        assertFalse(listener.currentEnvMatches(rule), "currentEnvMatches() should return false after env changes to 'dev'");
+    }
+
+    @Test
+    @DisplayName("the class-level decision is made once per class until the environment is refreshed")
+    void isExcludedByExcludeOnEnv_sameClassTwice_evaluatesClassRuleOncePerSnapshot() throws NoSuchMethodException {
+        EnvListenerBase spyListener = spy(listener);
+        when(mockProperties.getProperty("env")).thenReturn("stage", "dev");
+        EnvRule classRule = spyListener.getExcludeOnEnvRule(AnnotatedClass.class).orElseThrow();
+
+        assertTrue(spyListener.isExcludedByExcludeOnEnv(AnnotatedClass.class, Object.class.getMethod("toString")),
+                "isExcludedByExcludeOnEnv() should exclude the class for 'stage'");
+        assertTrue(spyListener.isExcludedByExcludeOnEnv(AnnotatedClass.class, Object.class.getMethod("hashCode")),
+                "isExcludedByExcludeOnEnv() should still exclude the class for 'stage'");
+        verify(spyListener, times(1)).currentEnvMatches(same(classRule), any(EnvSnapshot.class));
+
+        spyListener.refreshEnvironment();
+
+        assertFalse(spyListener.isExcludedByExcludeOnEnv(AnnotatedClass.class, Object.class.getMethod("toString")),
+                "isExcludedByExcludeOnEnv() should include the class after env changes to 'dev'");
+        verify(spyListener, times(2)).currentEnvMatches(same(classRule), any(EnvSnapshot.class));
+    }
+
+    @Test
+    @DisplayName("onStart refreshes the environment snapshot")
+    void onStart_envChanged_reevaluatesRule() {
+        when(mockProperties.getProperty("env")).thenReturn("stage", "dev");
+        EnvRule rule = listener.getExcludeOnEnvRule(AnnotatedClass.class).orElseThrow();
+        assertTrue(listener.currentEnvMatches(rule), "currentEnvMatches() should return true for 'stage'");
+        listener.onStart(null);
+        assertFalse(listener.currentEnvMatches(rule), "currentEnvMatches() should return false after a new suite starts with 'dev'");
+    }
+
+    // --- Tests for expressions ---
+
+    @ParameterizedTest
+    @CsvSource({
+            "qa, us-east-1, true",
+            "QA, , true",
+            "qa, eu-west-1, false",
+            "prod, us-east-1, false"
+    })
+    @DisplayName("currentEnvMatches evaluates the expression of an annotation against all of its properties")
+    void currentEnvMatches_expression_evaluatesExpression(String env, String region, boolean expected) {
+        when(mockProperties.getProperty("env")).thenReturn(env);
+        lenient().when(mockProperties.getProperty("region")).thenReturn(region);
+        EnvRule rule = listener.getIncludeOnEnvRule(ExpressionClass.class).orElseThrow();
+        assertThat("currentEnvMatches() returned the wrong result!", listener.currentEnvMatches(rule), equalTo(expected));
+    }
+
+    @Test
+    @DisplayName("getExcludeOnEnvRule throws IllegalArgumentException if both value and expression are set")
+    void getExcludeOnEnvRule_valueAndExpression_throwsException() {
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> listener.getExcludeOnEnvRule(ValueAndExpressionClass.class),
+                "getExcludeOnEnvRule() should throw an IllegalArgumentException if both value and expression are set!"
+        );
+        assertThat("getExcludeOnEnvRule() threw the wrong assert message!", ex.getMessage(),
+                equalTo("The 'value' and 'expression' parameters of the ExcludeOnEnv annotation cannot both be set!"));
+    }
+
+    @Test
+    @DisplayName("getExcludeOnEnvRule throws IllegalArgumentException for a blank expression")
+    void getExcludeOnEnvRule_blankExpression_throwsException() {
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> listener.getExcludeOnEnvRule(BlankExpressionClass.class),
+                "getExcludeOnEnvRule() should throw an IllegalArgumentException for a blank expression!"
+        );
+        assertThat("getExcludeOnEnvRule() threw the wrong assert message!", ex.getMessage(),
+                equalTo("The 'expression' parameter of the ExcludeOnEnv annotation cannot be blank!"));
+    }
 }
@@ -0,0 +1,86 @@
+package io.github.cpjust.testng_annotations.listeners;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnvMatcherTest {
+    @ParameterizedTest
+    @CsvSource({
+            "dev, dev, true",
+            "dev, dev2, false",
+            "pr-*, pr-1234, true",
+            "pr-*, pr-, true",
+            "pr-*, pr, false",
+            "pr-*, xpr-1, false",
+            "*-eu-*, perf-eu-3, true",
+            "*-eu-*, perf-us-3, false",
+            "*eu, eu, true",
+            "perf-eu-?, perf-eu-3, true",
+            "perf-eu-?, perf-eu-31, false",
+            "perf-eu-?, perf-eu-, false",
+            "a*b*c, abc, true",
+            "a*b*c, axxbyyc, true",
+            "a*b*c, axxbyy, false",
+            "**, '', true",
+            "*, anything, true",
+            "qa\\*, qa*, true",
+            "qa\\*, qa1, false",
+            "qa\\?, qa?, true",
+            "qa\\?, qa1, false",
+            "pr-\\*-*, pr-*-42, true",
+            "pr-\\*-*, pr-1-42, false",
+            "a\\\\b, a\\b, true",
+            "a\\b, a\\b, true",
+            "a\\\\*, a\\x, true"
+    })
+    void matches_singleEnvOrPattern_returnsExpectedResult(String pattern, String env, boolean expected) {
+        assertThat(String.format("Wrong result for '%s' matching '%s'!", env, pattern),
+                EnvMatcher.of(List.of(pattern)).matches(env), equalTo(expected));
+    }
+
+    @Test
+    void matches_exactNamesAndPatterns_matchesAny() {
+        EnvMatcher matcher = EnvMatcher.of(List.of("dev", "pr-*", "perf-eu-?", "stage"));
+
+        assertTrue(matcher.matches("dev"), "Exact name should match!");
+        assertTrue(matcher.matches("stage"), "Exact name should match!");
+        assertTrue(matcher.matches("pr-42"), "Prefix pattern should match!");
+        assertTrue(matcher.matches("perf-eu-1"), "Single character pattern should match!");
+        assertFalse(matcher.matches("prod"), "Non-matching name shouldn't match!");
+        assertFalse(matcher.matches("perf-eu-10"), "Non-matching name shouldn't match!");
+    }
+
+    @Test
+    void matches_manyPatterns_matchesRepeatedly() {
+        List<String> patterns = IntStream.range(0, 500)
+                .mapToObj(i -> "env-" + i + "-*")
+                .collect(Collectors.toList());
+        EnvMatcher matcher = EnvMatcher.of(patterns);
+
+        for (int i = 0; i < 3; ++i) { // Later iterations reuse the DFA states built by the first one.
+            assertTrue(matcher.matches("env-499-x"), "Last pattern should match!");
+            assertTrue(matcher.matches("env-0-"), "First pattern should match!");
+            assertFalse(matcher.matches("env-500-x"), "Name not covered by any pattern shouldn't match!");
+        }
+    }
+
+    @Test
+    void isPattern_namesWithAndWithoutWildcards_returnsExpectedResult() {
+        assertTrue(EnvMatcher.isPattern("pr-*"), "'*' should be a wildcard!");
+        assertTrue(EnvMatcher.isPattern("perf-?"), "'?' should be a wildcard!");
+        assertFalse(EnvMatcher.isPattern("prod"), "Names without '*' or '?' aren't patterns!");
+        assertFalse(EnvMatcher.isPattern("qa\\*"), "An escaped '*' isn't a wildcard!");
+        assertFalse(EnvMatcher.isPattern("qa\\?"), "An escaped '?' isn't a wildcard!");
+        assertTrue(EnvMatcher.isPattern("qa\\\\*"), "A '*' after an escaped backslash should be a wildcard!");
+    }
+}
@@ -1,7 +1,11 @@
 package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
 
+import io.github.cpjust.testng_annotations.annotations.CartesianSource;
 import io.github.cpjust.testng_annotations.annotations.CsvSource;
 import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.ForAll;
+import io.github.cpjust.testng_annotations.annotations.IntRangeSource;
+import io.github.cpjust.testng_annotations.annotations.LongRangeSource;
 import io.github.cpjust.testng_annotations.annotations.NullAndEmptySource;
 import io.github.cpjust.testng_annotations.annotations.NullSource;
 import io.github.cpjust.testng_annotations.annotations.ValueSource;
@@ -18,12 +22,14 @@ import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class AllAnnotationTransformersTest extends SourceListenerTestBase {
     static final String METHODS_SHOULD_NOT_BE_EMPTY = "java:S1186"; // Suppress "Methods should not be empty" warning
     static final String CANNOT_COMBINE_MULTIPLE_SOURCE_ANNOTATIONS_ON_METHOD = "Cannot combine @CsvSource with @EnumSource or any ValueSource annotation on method";
+    static final String FOUND = " Found: ";
 
     // Dummy test class for tests
     @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Suppress "Methods should not be empty" warning
@@ -59,6 +65,54 @@ class AllAnnotationTransformersTest extends SourceListenerTestBase {
         @EnumSource(TestEnum.class)
         public void testMethodWithValueSourceAndEnumSource(String value) {}
 
+        @CsvSource(value = {"1", "2"}, parallel = true)
+        public void testMethodWithParallelCsvSource(String value) {}
+
+        @ValueSource(strings = {"5", "6"}, parallel = true, maxConcurrency = 2)
+        public void testMethodWithParallelValueSource(String value) {}
+
+        @CsvSource(value = {"1", "2"}, parallel = true, maxConcurrency = -1)
+        public void testMethodWithNegativeMaxConcurrency(String value) {}
+
+        @IntRangeSource(from = 0, to = 10)
+        public void testMethodWithOnlyIntRangeSource(String value) {}
+
+        @LongRangeSource(from = 0, to = 10, parallel = true)
+        public void testMethodWithParallelLongRangeSource(String value) {}
+
+        @IntRangeSource(from = 0, to = 10)
+        @LongRangeSource(from = 0, to = 10)
+        public void testMethodWithIntRangeSourceAndLongRangeSource(String value) {}
+
+        @ValueSource(strings = {"5", "6"})
+        @IntRangeSource(from = 0, to = 10)
+        public void testMethodWithValueSourceAndIntRangeSource(String value) {}
+
+        @ForAll
+        public void testMethodWithOnlyForAll(String value) {}
+
+        @ForAll(parallel = true)
+        public void testMethodWithParallelForAll(String value) {}
+
+        @ValueSource(strings = {"5", "6"})
+        @ForAll
+        public void testMethodWithValueSourceAndForAll(String value) {}
+
+        @CartesianSource
+        public void testMethodWithOnlyCartesianSource(@ValueSource(strings = "a") String value) {}
+
+        @CartesianSource(parallel = true)
+        public void testMethodWithParallelCartesianSource(@ValueSource(strings = "a") String value) {}
+
+        @CartesianSource
+        @ForAll
+        public void testMethodWithCartesianSourceAndForAll(String value) {}
+
+        @CsvSource({"1,2", "3,4"})
+        @NullSource
+        @ForAll
+        public void testMethodWithCsvSourceAndNullSourceAndForAll(String value) {}
+
     }
     
     //region Positive tests for valid annotation combinations
@@ -66,7 +120,15 @@ class AllAnnotationTransformersTest extends SourceListenerTestBase {
         return Stream.of(
                 Arguments.of("testMethodWithOnlyCsvSource", CsvSourceListener.CSV_SOURCE_PROVIDER_CLASS_AND_NAME),
                 Arguments.of("testMethodWithOnlyValueSource", ValueSourceListener.VALUE_SOURCE_PROVIDER_CLASS_AND_NAME),
-                Arguments.of("testMethodWithNullAndEmptySourceAndValueSource", ValueSourceListener.VALUE_SOURCE_PROVIDER_CLASS_AND_NAME)
+                Arguments.of("testMethodWithNullAndEmptySourceAndValueSource", ValueSourceListener.VALUE_SOURCE_PROVIDER_CLASS_AND_NAME),
+                Arguments.of("testMethodWithParallelCsvSource", CsvSourceListener.CSV_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME),
+                Arguments.of("testMethodWithParallelValueSource", ValueSourceListener.VALUE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME),
+                Arguments.of("testMethodWithOnlyIntRangeSource", RangeSourceListener.RANGE_SOURCE_PROVIDER_CLASS_AND_NAME),
+                Arguments.of("testMethodWithParallelLongRangeSource", RangeSourceListener.RANGE_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME),
+                Arguments.of("testMethodWithOnlyForAll", ForAllListener.FOR_ALL_PROVIDER_CLASS_AND_NAME),
+                Arguments.of("testMethodWithParallelForAll", ForAllListener.FOR_ALL_PARALLEL_PROVIDER_CLASS_AND_NAME),
+                Arguments.of("testMethodWithOnlyCartesianSource", CartesianSourceListener.CARTESIAN_SOURCE_PROVIDER_CLASS_AND_NAME),
+                Arguments.of("testMethodWithParallelCartesianSource", CartesianSourceListener.CARTESIAN_SOURCE_PARALLEL_PROVIDER_CLASS_AND_NAME)
         );
     }
 
@@ -85,20 +147,37 @@ class AllAnnotationTransformersTest extends SourceListenerTestBase {
     }
     //endregion Positive tests for valid annotation combinations
 
+    @Test
+    void transform_negativeMaxConcurrency_throwsException() throws NoSuchMethodException {
+        AllAnnotationTransformers transformer = new AllAnnotationTransformers();
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Method method = TestClass.class.getMethod("testMethodWithNegativeMaxConcurrency", String.class);
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> transformer.transform(annotation, TestClass.class, null, method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, thrown.getMessage(), containsString("maxConcurrency cannot be negative, but was -1 on method"));
+    }
+
     //region Negative tests for invalid annotation combinations
     static Stream<Arguments> incompatibleAnnotationsProvider() {
         return Stream.of(
-                Arguments.of("testMethodWithCsvSourceAndNullAndEmptySource"),
-                Arguments.of("testMethodWithCsvSourceAndNullSource"),
-                Arguments.of("testMethodWithCsvSourceAndValueSource"),
-                Arguments.of("testMethodWithCsvSourceAndEnumSource"),
-                Arguments.of("testMethodWithValueSourceAndEnumSource")
+                Arguments.of("testMethodWithCsvSourceAndNullAndEmptySource", "@CsvSource and @NullAndEmptySource"),
+                Arguments.of("testMethodWithCsvSourceAndNullSource", "@CsvSource and @NullSource"),
+                Arguments.of("testMethodWithCsvSourceAndValueSource", "@CsvSource and @ValueSource"),
+                Arguments.of("testMethodWithCsvSourceAndEnumSource", "@CsvSource and @EnumSource"),
+                Arguments.of("testMethodWithValueSourceAndEnumSource", "@EnumSource and @ValueSource"),
+                Arguments.of("testMethodWithIntRangeSourceAndLongRangeSource", "@IntRangeSource and @LongRangeSource"),
+                Arguments.of("testMethodWithValueSourceAndIntRangeSource", "@ValueSource and @IntRangeSource"),
+                Arguments.of("testMethodWithValueSourceAndForAll", "@ValueSource and @ForAll"),
+                Arguments.of("testMethodWithCartesianSourceAndForAll", "@ForAll and @CartesianSource"),
+                Arguments.of("testMethodWithCsvSourceAndNullSourceAndForAll", "@CsvSource, @NullSource and @ForAll")
         );
     }
 
     @ParameterizedTest
     @MethodSource("incompatibleAnnotationsProvider")
-    void transform_bothCsvSourceAndValueSourcePresent_throwsException(String methodName) throws NoSuchMethodException {
+    void transform_bothCsvSourceAndValueSourcePresent_throwsException(String methodName, String sourceNames) throws NoSuchMethodException {
         AllAnnotationTransformers transformer = new AllAnnotationTransformers();
         ITestAnnotation mockAnnotation = Mockito.mock(ITestAnnotation.class);
         Method method = TestClass.class.getMethod(methodName, String.class);
@@ -112,27 +191,30 @@ class AllAnnotationTransformersTest extends SourceListenerTestBase {
                 thrown.getMessage(),
                 containsString(CANNOT_COMBINE_MULTIPLE_SOURCE_ANNOTATIONS_ON_METHOD)
         );
+        assertThat("Exception message should name the annotations found", thrown.getMessage(), endsWith(FOUND + sourceNames + "."));
     }
     //endregion Negative tests for invalid annotation combinations
 
     //region Negative tests for conflicting data providers
     static Stream<Arguments> dataProviderConflictProvider() {
         return Stream.of(
-                Arguments.of("testValueSourceAndDataProvider_throwsException", int.class),
-                Arguments.of("testCsvSourceAndDataProvider_throwsException", String.class),
-                Arguments.of("testValueSourceAndValidDataProviderNameButWrongClass_throwsException", int.class),
-                Arguments.of("testCsvSourceAndValidDataProviderNameButNoClass_throwsException", String.class)
+                Arguments.of("testValueSourceAndDataProvider_throwsException", int.class, "@ValueSource"),
+                Arguments.of("testCsvSourceAndDataProvider_throwsException", String.class, "@CsvSource"),
+                Arguments.of("testValueSourceAndValidDataProviderNameButWrongClass_throwsException", int.class, "@ValueSource"),
+                Arguments.of("testCsvSourceAndValidDataProviderNameButNoClass_throwsException", String.class, "@CsvSource")
         );
     }
 
     @ParameterizedTest
     @MethodSource("dataProviderConflictProvider")
-    void transform_dataProviderAndSourceAnnotationPresent_throwsException(String methodName, Class<?> paramType) throws NoSuchMethodException {
+    void transform_dataProviderAndSourceAnnotationPresent_throwsException(String methodName, Class<?> paramType, String sourceName)
+            throws NoSuchMethodException {
         IllegalStateException thrown = transform_dataProviderAndSourceAnnotationPresent_throwsException(methodName, paramType, new AllAnnotationTransformers());
 
         assertThat(EXCEPTION_MESSAGE_SHOULD_MENTION_DATA_PROVIDER_CONFLICT,
                 thrown.getMessage(),
                 containsString(CANNOT_SPECIFY_A_DATA_PROVIDER_IN_TEST_WHEN_ALSO_USING_CSV_SOURCE_OR_ANY_VALUE_SOURCE_ANNOTATION));
+        assertThat("Exception message should name the annotation found", thrown.getMessage(), endsWith(FOUND + sourceName + "."));
 
     }
     //endregion Negative tests for conflicting data providers
@@ -140,13 +222,15 @@ class AllAnnotationTransformersTest extends SourceListenerTestBase {
     //region Tests for SourceListenerBase methods
     @ParameterizedTest
     @MethodSource("incompatibleAnnotationsProvider")
-    void throwIfTestHasMultipleDataProviders_incompatibleAnnotations_throwsException(String methodName) throws NoSuchMethodException {
+    void throwIfTestHasMultipleDataProviders_incompatibleAnnotations_throwsException(String methodName, String sourceNames)
+            throws NoSuchMethodException {
         Method method = TestClass.class.getMethod(methodName, String.class);
         IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
                 SourceListenerBase.throwIfTestHasMultipleDataProviders(method),
                 "throwIfTestHasMultipleDataProviders() should throw an exception when multiple source annotations are present");
         assertThat(WRONG_EXCEPTION_MESSAGE, exception.getMessage(),
                 containsString(CANNOT_COMBINE_MULTIPLE_SOURCE_ANNOTATIONS_ON_METHOD));
+        assertThat(WRONG_EXCEPTION_MESSAGE, exception.getMessage(), endsWith(FOUND + sourceNames + "."));
     }
 
     @Test
@@ -183,8 +267,15 @@ class AllAnnotationTransformersTest extends SourceListenerTestBase {
     static Stream<Arguments> allowedDataProvidersProvider() {
         return Stream.of(
                 Arguments.of(CsvSourceListener.CSV_SOURCE_PROVIDER, CsvSourceListener.class),
+                Arguments.of(CsvSourceListener.CSV_SOURCE_PARALLEL_PROVIDER, CsvSourceListener.class),
                 Arguments.of(EnumSourceListener.ENUM_SOURCE_PROVIDER, EnumSourceListener.class),
-                Arguments.of(ValueSourceListener.VALUE_SOURCE_PROVIDER, ValueSourceListener.class)
+                Arguments.of(ValueSourceListener.VALUE_SOURCE_PROVIDER, ValueSourceListener.class),
+                Arguments.of(RangeSourceListener.RANGE_SOURCE_PROVIDER, RangeSourceListener.class),
+                Arguments.of(RangeSourceListener.RANGE_SOURCE_PARALLEL_PROVIDER, RangeSourceListener.class),
+                Arguments.of(ForAllListener.FOR_ALL_PROVIDER, ForAllListener.class),
+                Arguments.of(ForAllListener.FOR_ALL_PARALLEL_PROVIDER, ForAllListener.class),
+                Arguments.of(CartesianSourceListener.CARTESIAN_SOURCE_PROVIDER, CartesianSourceListener.class),
+                Arguments.of(CartesianSourceListener.CARTESIAN_SOURCE_PARALLEL_PROVIDER, CartesianSourceListener.class)
         );
     }
 
@@ -0,0 +1,187 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArgumentConvertersTest {
+    enum Color { RED, GREEN }
+
+    static final class Money {
+        private final String amount;
+
+        private Money(String amount) {
+            this.amount = amount;
+        }
+
+        static Money valueOf(String amount) {
+            return new Money("$" + amount);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return (other instanceof Money) && ((Money) other).amount.equals(amount);
+        }
+
+        @Override
+        public int hashCode() {
+            return amount.hashCode();
+        }
+    }
+
+    @SuppressWarnings(SourceListenerTestBase.METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    static class Methods {
+        public void primitives(boolean a, byte b, char c, short d, int e, long f, float g, double h) {}
+
+        public void boxed(Boolean a, Byte b, Character c, Short d, Integer e, Long f, Float g, Double h) {}
+
+        public void objects(String a, CharSequence b, Object c, Color d, LocalDate e, Duration f, BigDecimal g, Money h) {}
+
+        public void unsupported(String a, Object[] b) {}
+    }
+
+    static Stream<Arguments> convertibleRows() {
+        return Stream.of(
+                Arguments.of("primitives",
+                        new Object[]{"TRUE", "-8", "x", "16", "32", "64", "1.5", "2.5"},
+                        new Object[]{true, (byte) -8, 'x', (short) 16, 32, 64L, 1.5F, 2.5D}),
+                Arguments.of("boxed",
+                        new Object[]{"false", "8", "y", "-16", "-32", "-64", "-1.5", "-2.5"},
+                        new Object[]{false, (byte) 8, 'y', (short) -16, -32, -64L, -1.5F, -2.5D}),
+                Arguments.of("objects",
+                        new Object[]{"text", "chars", "object", "GREEN", "2024-02-29", "PT1H", "12.50", "3"},
+                        new Object[]{"text", "chars", "object", Color.GREEN, LocalDate.of(2024, 2, 29), Duration.ofHours(1),
+                                new BigDecimal("12.50"), Money.valueOf("3")}),
+                Arguments.of("objects",
+                        new Object[]{"", "", "", "", "", "", "", ""},
+                        new Object[]{"", "", "", null, null, null, null, null}),
+                Arguments.of("boxed",
+                        new Object[]{"", "", "", "", "", "", "", ""},
+                        new Object[]{null, null, null, null, null, null, null, null})
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("convertibleRows")
+    void testConvertRow_convertibleValues_convertsToParameterTypes(String methodName, Object[] row, Object[] expected) {
+        Method method = getMethod(methodName);
+
+        Object[] converted = ArgumentConverters.convertRow(row.clone(), method.getParameterTypes(), ArgumentConverters.forParameters(method));
+
+        assertArrayEquals(expected, converted, "Unexpected converted values!");
+    }
+
+    @Test
+    void testForParameters_calledTwice_reusesConverters() {
+        Method method = getMethod("objects");
+
+        MethodHandle[] first = ArgumentConverters.forParameters(method);
+        MethodHandle[] second = ArgumentConverters.forParameters(method);
+
+        for (int i = 0; i < first.length; ++i) {
+            assertSame(first[i], second[i], "The converter at index " + i + " should be resolved once!");
+        }
+    }
+
+    @Test
+    void testForParameters_unsupportedType_throws() {
+        Method method = getMethod("unsupported");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> ArgumentConverters.forParameters(method));
+
+        assertThat(ex.getMessage(), containsString("Parameter at index 1 of method 'unsupported' does not match method parameter type"));
+        assertThat(ex.getMessage(), containsString("found: Object[]"));
+    }
+
+    static Stream<Arguments> unconvertibleRows() {
+        return Stream.of(
+                Arguments.of(new Object[]{"yes", "1", "c", "1", "1", "1", "1", "1"}, "Cannot convert value 'yes' to boolean for parameter at index 0!"),
+                Arguments.of(new Object[]{"true", "1", "cc", "1", "1", "1", "1", "1"}, "Cannot convert value 'cc' to char for parameter at index 2!"),
+                Arguments.of(new Object[]{"true", "1", "c", "1", "1.5", "1", "1", "1"}, "Cannot convert value '1.5' to int for parameter at index 4!"),
+                Arguments.of(new Object[]{"true", "1", "c", "1", "1", "", "1", "1"}, "Cannot convert an empty value to long for parameter at index 5!")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("unconvertibleRows")
+    void testConvertRow_unconvertibleValue_throws(Object[] row, String expectedMessage) {
+        Method method = getMethod("primitives");
+        MethodHandle[] converters = ArgumentConverters.forParameters(method);
+        Class<?>[] types = method.getParameterTypes();
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> ArgumentConverters.convertRow(row, types, converters));
+
+        assertThat(ex.getMessage(), containsString(expectedMessage));
+    }
+
+    @Test
+    void testConvertRow_unknownEnumConstant_throws() {
+        Method method = getMethod("objects");
+        Object[] row = {"a", "b", "c", "BLUE", "", "", "", ""};
+        MethodHandle[] converters = ArgumentConverters.forParameters(method);
+        Class<?>[] types = method.getParameterTypes();
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> ArgumentConverters.convertRow(row, types, converters));
+
+        assertThat(ex.getMessage(), containsString("Cannot convert value 'BLUE' to Color for parameter at index 3!"));
+    }
+
+    static Stream<Arguments> immutableTypes() {
+        return Stream.of(
+                Arguments.of(int.class, true),
+                Arguments.of(Long.class, true),
+                Arguments.of(String.class, true),
+                Arguments.of(Object.class, true),
+                Arguments.of(Color.class, true),
+                Arguments.of(LocalDate.class, true),
+                Arguments.of(Duration.class, true),
+                Arguments.of(BigDecimal.class, true),
+                Arguments.of(StringBuilder.class, false),
+                Arguments.of(Date.class, false),
+                Arguments.of(Money.class, false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("immutableTypes")
+    void testIsImmutable_type_returnsWhetherValuesCanBeShared(Class<?> type, boolean expected) {
+        assertEquals(expected, ArgumentConverters.isImmutable(type), "Wrong immutability of " + type.getSimpleName());
+    }
+
+    @Test
+    void testAreImmutable_oneMutableType_returnsFalse() {
+        assertTrue(ArgumentConverters.areImmutable(getMethod("boxed").getParameterTypes()), "Boxed types are immutable!");
+        assertFalse(ArgumentConverters.areImmutable(getMethod("objects").getParameterTypes()), "Money may be mutable!");
+    }
+
+    /**
+     * Gets a method of {@link Methods} by name.
+     *
+     * @param name The name of the method.
+     * @return The method.
+     */
+    private static Method getMethod(String name) {
+        return Stream.of(Methods.class.getMethods())
+                .filter(m -> m.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackgroundInputStreamTest {
+    @Test
+    void testRead_returnsAllBytesInOrder() throws IOException {
+        byte[] data = new byte[10_000];
+        new Random(1).nextBytes(data);
+
+        try (InputStream in = new BackgroundInputStream(new ByteArrayInputStream(data), "test", 7, 2)) {
+            assertArrayEquals(data, in.readAllBytes(), "The bytes should be the same as the source's!");
+            assertEquals(-1, in.read(), "The stream should have ended!");
+        }
+    }
+
+    @Test
+    void testRead_singleBytes_returnsAllBytesInOrder() throws IOException {
+        byte[] data = {1, 2, (byte) 0xFF, 4};
+
+        try (InputStream in = new BackgroundInputStream(new ByteArrayInputStream(data), "test", 3, 1)) {
+            assertEquals(1, in.read());
+            assertEquals(2, in.read());
+            assertEquals(0xFF, in.read(), "Bytes should be returned as unsigned values!");
+            assertEquals(4, in.read());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void testRead_emptySource_returnsEndOfStream() throws IOException {
+        try (InputStream in = new BackgroundInputStream(new ByteArrayInputStream(new byte[0]), "test")) {
+            assertEquals(-1, in.read(new byte[10], 0, 10));
+        }
+    }
+
+    @Test
+    void testRead_sourceFails_throwsAfterBufferedBytes() throws IOException {
+        InputStream failing = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count >= 3) {
+                    throw new IOException("Broken source!");
+                }
+
+                return ++count;
+            }
+        };
+
+        try (InputStream in = new BackgroundInputStream(failing, "test", 1, 4)) {
+            assertEquals(1, in.read());
+            assertEquals(2, in.read());
+            assertEquals(3, in.read());
+
+            IOException ex = assertThrows(IOException.class, in::read);
+
+            assertThat(ex.getCause().getMessage(), containsString("Broken source!"));
+        }
+    }
+
+    @Test
+    void testClose_stopsBackgroundThreadAndClosesSource() throws Exception {
+        CountDownLatch sourceClosed = new CountDownLatch(1);
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 'x';
+            }
+
+            @Override
+            public void close() {
+                sourceClosed.countDown();
+            }
+        };
+
+        InputStream in = new BackgroundInputStream(endless, "test", 16, 1);
+        assertEquals('x', in.read());
+        in.close();
+
+        assertTrue(sourceClosed.await(10, TimeUnit.SECONDS), "The source should be closed when the stream is closed!");
+        assertThrows(IOException.class, in::read, "A closed stream shouldn't be readable!");
+    }
+
+    @Test
+    void testConstructor_invalidCapacity_throws() {
+        ByteArrayInputStream source = new ByteArrayInputStream(new byte[0]);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> new BackgroundInputStream(source, "test", 1, 0));
+
+        assertThat(ex.getMessage(), containsString("The chunk size and capacity must be at least 1, but were 1 and 0!"));
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CartesianSource;
+import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.NullSource;
+import io.github.cpjust.testng_annotations.annotations.ValueSource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// NOTE: The listeners are registered through the AllAnnotationTransformers in META-INF/services/org.testng.ITestNGListener
+public class CartesianSourceIT {
+    private final Set<String> combinationsSeen = ConcurrentHashMap.newKeySet();
+    private final Set<String> parallelCombinationsSeen = ConcurrentHashMap.newKeySet();
+    private final Set<String> pairsSeen = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pairwiseRows = new AtomicInteger();
+
+    @Test
+    @CartesianSource
+    public void testCartesianSource(@EnumSource(SourceListenerTestBase.TestEnum.class) SourceListenerTestBase.TestEnum value,
+                                    @ValueSource(ints = {1, 2, 3}) int number, boolean flag) {
+        Assert.assertTrue(combinationsSeen.add(value + "-" + number + "-" + flag), "Each combination should only be provided once!");
+    }
+
+    @Test(dependsOnMethods = "testCartesianSource")
+    public void testAllCombinationsSeen() {
+        Assert.assertEquals(combinationsSeen.size(), 3 * 3 * 2, "Every combination should have been provided!");
+    }
+
+    @Test
+    @CartesianSource(parallel = true)
+    public void testParallelCartesianSource(@NullSource @ValueSource(strings = {"a", "b"}) String text, @ValueSource(longs = {10, 20}) Long number) {
+        Assert.assertTrue(parallelCombinationsSeen.add(text + "-" + number), "Each combination should only be provided once!");
+    }
+
+    @Test(dependsOnMethods = "testParallelCartesianSource")
+    public void testAllParallelCombinationsSeen() {
+        Assert.assertEquals(parallelCombinationsSeen.size(), 3 * 2, "Every combination should have been provided!");
+    }
+
+    @Test
+    @CartesianSource(strength = 2)
+    public void testPairwiseCartesianSource(@EnumSource(SourceListenerTestBase.TestEnum.class) SourceListenerTestBase.TestEnum value,
+                                            @ValueSource(ints = {1, 2, 3}) int number, @ValueSource(strings = {"a", "b", "c"}) String text,
+                                            boolean flag) {
+        Object[] args = {value, number, text, flag};
+        pairwiseRows.incrementAndGet();
+
+        for (int i = 0; i < args.length; ++i) {
+            for (int j = i + 1; j < args.length; ++j) {
+                pairsSeen.add(i + "=" + args[i] + "," + j + "=" + args[j]);
+            }
+        }
+    }
+
+    @Test(dependsOnMethods = "testPairwiseCartesianSource")
+    public void testAllPairsSeen() {
+        // 3 pairs of 3-valued parameters with 9 combinations each, and 3 pairs with the boolean with 6 combinations each.
+        Assert.assertEquals(pairsSeen.size(), (3 * 9) + (3 * 6), "Every pair of values should have been provided!");
+        Assert.assertTrue(pairwiseRows.get() < 3 * 3 * 3 * 2, "Fewer rows than combinations should have been provided!");
+    }
+}
@@ -0,0 +1,356 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CartesianSource;
+import io.github.cpjust.testng_annotations.annotations.EmptySource;
+import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.NullAndEmptySource;
+import io.github.cpjust.testng_annotations.annotations.NullSource;
+import io.github.cpjust.testng_annotations.annotations.ValueSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mockito;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.github.cpjust.testng_annotations.listeners.annotation_transformers.SourceListenerTestBase.TestEnum.VALUE_ONE;
+import static io.github.cpjust.testng_annotations.listeners.annotation_transformers.SourceListenerTestBase.TestEnum.VALUE_THREE;
+import static io.github.cpjust.testng_annotations.listeners.annotation_transformers.SourceListenerTestBase.TestEnum.VALUE_TWO;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link CartesianSourceListener}.
+ */
+class CartesianSourceListenerTest extends SourceListenerTestBase {
+    // region Positive test cases
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class PositiveCases {
+        @CartesianSource
+        public void intsAndEnums(@ValueSource(ints = {1, 2}) int number, @EnumSource(TestEnum.class) TestEnum value) {}
+
+        @CartesianSource
+        public void defaults(boolean flag, TestEnum value) {}
+
+        @CartesianSource
+        public void filteredEnumAndNull(@NullSource @EnumSource(value = TestEnum.class, names = "VALUE_ONE", mode = EnumSource.Mode.EXCLUDE) TestEnum value) {}
+
+        @CartesianSource
+        public void nullAndEmptyStrings(@NullAndEmptySource @ValueSource(strings = {"a", ""}) String value,
+                                        @NullSource @ValueSource(booleans = true) Boolean flag) {}
+
+        @CartesianSource
+        public void million(@ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}) int a, @ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}) int b,
+                            @ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}) int c, @ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}) int d,
+                            @ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}) int e, @ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}) int f) {}
+
+        @CartesianSource
+        public void emptyQueue(@EmptySource Queue<String> queue, boolean flag) {}
+
+        @CartesianSource(strength = 1)
+        public void coveredEmptyQueue(@EmptySource Queue<String> queue, boolean flag) {}
+
+        @CartesianSource(sharded = true)
+        public void sharded(@ValueSource(longs = {1, 2, 3}) long number, boolean flag) {}
+
+        @CartesianSource(parallel = true)
+        public void parallel(boolean flag) {}
+
+        @CartesianSource(strength = 2, seed = 7)
+        public void pairwise(@ValueSource(ints = {1, 2, 3, 4, 5}) int a, @ValueSource(ints = {1, 2, 3, 4, 5}) int b,
+                             @ValueSource(strings = {"a", "b", "c", "d"}) String c, TestEnum d, TestEnum e, boolean f, boolean g) {}
+
+        @CartesianSource(strength = 2, seed = 7, sharded = true)
+        public void shardedPairwise(@ValueSource(ints = {1, 2, 3, 4, 5}) int a, @ValueSource(ints = {1, 2, 3, 4, 5}) int b,
+                                    @ValueSource(strings = {"a", "b", "c", "d"}) String c, TestEnum d, TestEnum e, boolean f, boolean g) {}
+
+        @CartesianSource(strength = 2)
+        public void strengthOfEveryParameter(boolean flag, TestEnum value) {}
+    }
+
+    static Stream<Arguments> combinationsProvider() {
+        return Stream.of(
+                Arguments.of("intsAndEnums", List.of(
+                        List.of(1, VALUE_ONE), List.of(1, VALUE_TWO), List.of(1, VALUE_THREE),
+                        List.of(2, VALUE_ONE), List.of(2, VALUE_TWO), List.of(2, VALUE_THREE))),
+                Arguments.of("defaults", List.of(
+                        List.of(false, VALUE_ONE), List.of(false, VALUE_TWO), List.of(false, VALUE_THREE),
+                        List.of(true, VALUE_ONE), List.of(true, VALUE_TWO), List.of(true, VALUE_THREE))),
+                Arguments.of("filteredEnumAndNull", List.of(
+                        Arrays.asList((Object) null), List.of(VALUE_TWO), List.of(VALUE_THREE))),
+                Arguments.of("nullAndEmptyStrings", List.of(
+                        Arrays.asList(null, null), Arrays.asList(null, true), Arrays.asList("", null), Arrays.asList("", true),
+                        Arrays.asList("a", null), Arrays.asList("a", true)))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("combinationsProvider")
+    void provideValues_parameterSources_returnsCartesianProduct(String methodName, List<List<Object>> expected) {
+        Method method = getMethod(methodName);
+
+        assertEquals(expected, readAll(CartesianSourceListener.provideValues(method)), "Unexpected combinations!");
+    }
+
+    @ParameterizedTest
+    @org.junit.jupiter.params.provider.ValueSource(strings = {"emptyQueue", "coveredEmptyQueue"})
+    @SuppressWarnings("unchecked")
+    void provideValues_emptyQueue_returnsNewQueueForEveryCombination(String methodName) {
+        Iterator<Object[]> combinations = CartesianSourceListener.provideValues(getMethod(methodName));
+
+        Queue<String> first = (Queue<String>) combinations.next()[0];
+        first.add("changed by a test");
+        Queue<String> second = (Queue<String>) combinations.next()[0];
+        Queue<String> nextCall = (Queue<String>) CartesianSourceListener.provideValues(getMethod(methodName)).next()[0];
+
+        assertNotSame(first, second, "Every combination should get its own empty Queue!");
+        assertTrue(second.isEmpty(), "Changes to an empty Queue shouldn't leak into later combinations!");
+        assertTrue(nextCall.isEmpty(), "Changes to an empty Queue shouldn't leak into later calls!");
+    }
+
+    @Test
+    void provideValues_million_generatesCombinationsLazilyInOrder() {
+        Iterator<Object[]> combinations = CartesianSourceListener.cartesianSourceProvider(getMethod("million"));
+        int count = 0;
+
+        while (combinations.hasNext()) {
+            Object[] args = combinations.next();
+            int number = 0;
+
+            for (Object arg : args) {
+                number = (number * 10) + (Integer) arg;
+            }
+
+            assertEquals(count, number, "The combinations should count up like an odometer!");
+            ++count;
+        }
+
+        assertEquals(1_000_000, count, "Unexpected number of combinations!");
+        assertThrows(NoSuchElementException.class, combinations::next);
+    }
+
+    @Test
+    void provideValues_sharded_returnsOnlyCombinationsOfShard() {
+        Method method = getMethod("sharded");
+        List<List<Object>> combinations = new ArrayList<>();
+        List<List<Object>> lastShard;
+
+        try {
+            for (int shard = 0; shard < 4; ++shard) {
+                System.setProperty(RowRange.DATA_SHARD_PROPERTY, shard + "/4");
+                combinations.addAll(readAll(CartesianSourceListener.provideValues(method)));
+            }
+
+            lastShard = readAll(CartesianSourceListener.provideValues(method));
+        } finally {
+            System.clearProperty(RowRange.DATA_SHARD_PROPERTY);
+        }
+
+        assertEquals(readAll(CartesianSourceListener.provideValues(method)), combinations, "The shards should contain every combination once, in order!");
+        // 6 combinations in 4 shards: the first 2 shards get the extra combinations.
+        assertEquals(List.of(List.of(3L, true)), lastShard, "The last shard should start in the middle of the product!");
+    }
+
+    @Test
+    void provideValues_strength_returnsRowsCoveringEveryPair() {
+        Method method = getMethod("pairwise");
+        Object[][] values = CartesianSourceListener.getParameterValues(method);
+
+        List<List<Object>> rows = readAll(CartesianSourceListener.provideValues(method));
+
+        for (int p1 = 0; p1 < values.length; ++p1) {
+            for (int p2 = p1 + 1; p2 < values.length; ++p2) {
+                for (Object v1 : values[p1]) {
+                    for (Object v2 : values[p2]) {
+                        int first = p1;
+                        int second = p2;
+                        assertThat(String.format("Pair (%s, %s) of parameters %d and %d isn't covered!", v1, v2, p1, p2),
+                                rows.stream().anyMatch(row -> row.get(first).equals(v1) && row.get(second).equals(v2)));
+                    }
+                }
+            }
+        }
+
+        assertThat("Expected far fewer rows than the 5400 combinations!", rows.size(), lessThanOrEqualTo(40));
+        assertEquals(rows, readAll(CartesianSourceListener.provideValues(method)), "The same seed should always generate the same rows!");
+    }
+
+    @Test
+    void provideValues_shardedStrength_returnsOnlyRowsOfShard() {
+        Method method = getMethod("shardedPairwise");
+        List<List<Object>> rows = new ArrayList<>();
+
+        try {
+            for (int shard = 0; shard < 3; ++shard) {
+                System.setProperty(RowRange.DATA_SHARD_PROPERTY, shard + "/3");
+                rows.addAll(readAll(CartesianSourceListener.provideValues(method)));
+            }
+        } finally {
+            System.clearProperty(RowRange.DATA_SHARD_PROPERTY);
+        }
+
+        assertEquals(readAll(CartesianSourceListener.provideValues(method)), rows, "The shards should contain every row once, in order!");
+        assertEquals(readAll(CartesianSourceListener.provideValues(getMethod("pairwise"))), rows,
+                "Methods with the same values and seed should have the same rows!");
+    }
+
+    @Test
+    void provideValues_strengthOfEveryParameter_returnsCartesianProduct() {
+        assertEquals(readAll(CartesianSourceListener.provideValues(getMethod("defaults"))),
+                readAll(CartesianSourceListener.provideValues(getMethod("strengthOfEveryParameter"))),
+                "A strength of every parameter should run every combination!");
+    }
+
+    @Test
+    void getParameterValues_sameMethod_isCached() {
+        Method method = getMethod("intsAndEnums");
+
+        Object[][] first = CartesianSourceListener.getParameterValues(method);
+        first[0][0] = 42;
+        Object[][] second = CartesianSourceListener.getParameterValues(method);
+
+        assertEquals(1, second[0][0], "Changing the returned values shouldn't change the cache!");
+        assertEquals(List.of(1, 2), Arrays.asList(second[0]), "Wrong values!");
+    }
+
+    static Stream<Arguments> transformProvider() {
+        return Stream.of(
+                Arguments.of("intsAndEnums", CartesianSourceListener.CARTESIAN_SOURCE_PROVIDER),
+                Arguments.of("parallel", CartesianSourceListener.CARTESIAN_SOURCE_PARALLEL_PROVIDER)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("transformProvider")
+    void transform_cartesianSource_setsDataProvider(String methodName, String expectedProvider) {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+
+        new CartesianSourceListener().transform(annotation, null, null, getMethod(methodName));
+
+        Mockito.verify(annotation).setDataProvider(expectedProvider);
+        Mockito.verify(annotation).setDataProviderClass(CartesianSourceListener.class);
+    }
+    // endregion Positive test cases
+
+    // region Error cases
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class ErrorCases {
+        public void noAnnotation(@ValueSource(ints = 1) int value) {}
+
+        @CartesianSource
+        public void noParameters() {}
+
+        @CartesianSource
+        public void missingValues(boolean flag, String value) {}
+
+        @CartesianSource
+        public void wrongEnumType(@EnumSource(TestEnum.class) String value) {}
+
+        @CartesianSource
+        public void noMatchingConstants(@EnumSource(value = TestEnum.class, names = "MISSING") TestEnum value) {}
+
+        @CartesianSource
+        public void wrongValueType(@ValueSource(ints = 1) long value) {}
+
+        @CartesianSource(strength = -1)
+        public void negativeStrength(boolean flag, boolean other) {}
+
+        @CartesianSource
+        @org.testng.annotations.Test(dataProvider = "wrongDataProvider")
+        public void cartesianSourceAndDataProvider(boolean value) {}
+    }
+
+    static Stream<Arguments> invalidMethodProvider() {
+        return Stream.of(
+                Arguments.of("noAnnotation", "No @CartesianSource annotation found on method: noAnnotation"),
+                Arguments.of("noParameters", "@CartesianSource can only be used with test methods that have parameters: noParameters"),
+                Arguments.of("missingValues", "No [@ValueSource, @NullSource, @EmptySource, @NullAndEmptySource, @EnumSource] annotations found on parameter 1 of method 'missingValues', which is needed for a String parameter"),
+                Arguments.of("wrongEnumType", "Enum class TestEnum is not compatible with parameter type String of parameter 0 of method 'wrongEnumType'"),
+                Arguments.of("noMatchingConstants", "No matching enum constants found for parameter 0 of method 'noMatchingConstants'"),
+                Arguments.of("wrongValueType", "Test method parameter must be int/Integer when using ints() in @ValueSource")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidMethodProvider")
+    void provideValues_invalidMethod_throwsIllegalStateException(String methodName, String expectedMessage) {
+        Method method = Arrays.stream(ErrorCases.class.getMethods()).filter(m -> m.getName().equals(methodName)).findFirst().orElseThrow();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> CartesianSourceListener.provideValues(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString(expectedMessage));
+    }
+
+    @Test
+    void provideValues_negativeStrength_throwsIllegalArgumentException() {
+        Method method = Arrays.stream(ErrorCases.class.getMethods()).filter(m -> m.getName().equals("negativeStrength")).findFirst().orElseThrow();
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CartesianSourceListener.provideValues(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString("CartesianSource strength cannot be negative, but was -1 on method: negativeStrength"));
+    }
+
+    @Test
+    void countCombinations_tooManyCombinations_throwsIllegalArgumentException() {
+        Object[] values = new Object[65_536];
+        Object[][] parameterValues = {values, values, values, values};
+        Method method = getMethod("million");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> CartesianSourceListener.countCombinations(parameterValues, method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString("CartesianSource has too many combinations on method: million"));
+        assertEquals(65_536L * 65_536 * 65_536, CartesianSourceListener.countCombinations(Arrays.copyOf(parameterValues, 3), method),
+                "Wrong number of combinations!");
+    }
+
+    @Test
+    void transform_cartesianSourceAndDataProvider_throwsException() throws Exception {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Mockito.doReturn("wrongDataProvider").when(annotation).getDataProvider();
+        Method method = ErrorCases.class.getMethod("cartesianSourceAndDataProvider", boolean.class);
+        CartesianSourceListener listener = new CartesianSourceListener();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> listener.transform(annotation, null, null, method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString(CANNOT_SPECIFY_A_DATA_PROVIDER_IN_TEST_WHEN_ALSO_USING_CSV_SOURCE_OR_ANY_VALUE_SOURCE_ANNOTATION));
+    }
+    // endregion Error cases
+
+    /**
+     * Gets a method of {@link PositiveCases} by name.
+     *
+     * @param name The method name.
+     * @return The method.
+     */
+    private static Method getMethod(String name) {
+        return Arrays.stream(PositiveCases.class.getMethods()).filter(m -> m.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    /**
+     * Reads every combination.
+     *
+     * @param combinations The combinations.
+     * @return The combinations as lists.
+     */
+    private static List<List<Object>> readAll(Iterator<Object[]> combinations) {
+        List<List<Object>> list = new ArrayList<>();
+        combinations.forEachRemaining(args -> list.add(Arrays.stream(args).collect(Collectors.toList())));
+        return list;
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimiterTest {
+    @SuppressWarnings(SourceListenerTestBase.METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    static class Methods {
+        public void limited() {}
+
+        public void unlimited() {}
+    }
+
+    @Test
+    void testEnter_limitedMethod_neverExceedsLimit() throws Exception {
+        Method method = Methods.class.getMethod("limited");
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(m -> 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 16; ++i) {
+                futures.add(executor.submit(() -> {
+                    limiter.enter(method);
+
+                    try {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        Thread.sleep(10);
+                    } finally {
+                        running.decrementAndGet();
+                        limiter.exit(method);
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(maxRunning.get() <= 2, "At most 2 invocations should run at once, but " + maxRunning.get() + " did!");
+    }
+
+    @Test
+    void testEnter_sameThreadTwice_doesNotWaitForItself() throws Exception {
+        Method method = Methods.class.getMethod("limited");
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(m -> 1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            // Ex. both the AllAnnotationTransformers and the CsvSourceListener are registered.
+            limiter.enter(method);
+            limiter.enter(method);
+            limiter.exit(method);
+            limiter.exit(method);
+
+            // The permit was released, so the method can be entered again.
+            limiter.enter(method);
+            limiter.exit(method);
+        });
+    }
+
+    @Test
+    void testEnter_unlimitedMethod_doesNotWait() throws Exception {
+        Method method = Methods.class.getMethod("unlimited");
+        AtomicInteger lookups = new AtomicInteger();
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(m -> {
+            lookups.incrementAndGet();
+            return 0;
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 3; ++i) {
+                limiter.enter(method);
+            }
+
+            for (int i = 0; i < 3; ++i) {
+                limiter.exit(method);
+            }
+        });
+
+        assertEquals(3, lookups.get(), "Unexpected number of limit lookups!");
+    }
+}
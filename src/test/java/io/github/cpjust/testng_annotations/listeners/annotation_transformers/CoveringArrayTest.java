@@ -0,0 +1,170 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link CoveringArray}.
+ */
+class CoveringArrayTest {
+    private static final String WRONG_EXCEPTION_MESSAGE = "Wrong exception message!";
+
+    // region Positive test cases
+    static Stream<Arguments> coveringArrayProvider() {
+        return Stream.of(
+                Arguments.of(new int[]{5, 5, 5, 5, 5, 5, 5, 5}, 1, 5),
+                Arguments.of(new int[]{5, 5, 5, 5, 5, 5, 5, 5}, 2, 50),
+                Arguments.of(new int[]{5, 5, 5, 5, 5, 5, 5, 5}, 3, 300),
+                Arguments.of(new int[]{3, 3, 3, 3}, 2, 9),
+                Arguments.of(new int[]{2, 2, 2, 2, 2, 2, 2, 2, 2, 2}, 2, 12),
+                Arguments.of(new int[]{1, 4, 2, 1, 3}, 2, 12),
+                Arguments.of(new int[]{2, 7, 3}, 3, 42)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("coveringArrayProvider")
+    void generate_anySizes_coversEveryCombinationOfStrengthParameters(int[] sizes, int strength, int maxRows) {
+        int[][] rows = CoveringArray.generate(sizes, strength, 0);
+
+        assertCovered(rows, sizes, strength);
+        assertTrue(rows.length <= maxRows, String.format("Expected at most %d rows, but got %d!", maxRows, rows.length));
+    }
+
+    @Test
+    void generate_largeParameterSpace_finishesQuickly() {
+        int[] sizes = new int[50];
+        Arrays.fill(sizes, 10);
+
+        int[][] rows = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> CoveringArray.generate(sizes, 2, 0));
+
+        assertCovered(rows, sizes, 2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, -42, Long.MAX_VALUE})
+    void generate_sameSeed_generatesSameRows(long seed) {
+        int[] sizes = {5, 4, 3, 5, 2, 5};
+
+        int[][] first = CoveringArray.generate(sizes, 2, seed);
+        int[][] second = CoveringArray.generate(sizes, 2, seed);
+
+        assertTrue(Arrays.deepEquals(first, second), "The same seed should generate the same rows!");
+    }
+
+    @Test
+    void generate_differentSeeds_generatesDifferentRows() {
+        int[] sizes = {5, 5, 5, 5, 5, 5, 5, 5};
+
+        int[][] first = CoveringArray.generate(sizes, 2, 1);
+        int[][] second = CoveringArray.generate(sizes, 2, 2);
+
+        assertCovered(second, sizes, 2);
+        assertFalse(Arrays.deepEquals(first, second), "Different seeds should break ties differently!");
+    }
+
+    @Test
+    void generate_strengthOfEveryParameter_generatesProduct() {
+        int[] sizes = {2, 3, 2};
+
+        int[][] rows = CoveringArray.generate(sizes, 3, 0);
+
+        assertEquals(12, rows.length, "Every combination should appear exactly once!");
+        assertCovered(rows, sizes, 3);
+    }
+    // endregion Positive test cases
+
+    // region Error cases
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, 4})
+    void generate_invalidStrength_throwsIllegalArgumentException(int strength) {
+        int[] sizes = {2, 2, 2};
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CoveringArray.generate(sizes, strength, 0));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString("The strength must be between 1 and 3, but was " + strength));
+    }
+    // endregion Error cases
+
+    /**
+     * Asserts that every combination of the values of any <code>strength</code> parameters appears in a row.
+     *
+     * @param rows     The rows of the covering array.
+     * @param sizes    The number of values of each parameter.
+     * @param strength The number of parameters whose combinations must be covered.
+     */
+    private static void assertCovered(int[][] rows, int[] sizes, int strength) {
+        for (int[] row : rows) {
+            assertEquals(sizes.length, row.length, "Every row should have a value for each parameter!");
+
+            for (int p = 0; p < sizes.length; ++p) {
+                assertTrue((row[p] >= 0) && (row[p] < sizes[p]), "Value out of range in row: " + Arrays.toString(row));
+            }
+        }
+
+        for (int[] subset : subsets(sizes.length, strength)) {
+            Set<List<Integer>> covered = new HashSet<>();
+
+            for (int[] row : rows) {
+                covered.add(Arrays.stream(subset).mapToObj(p -> row[p]).collect(Collectors.toList()));
+            }
+
+            int expected = Arrays.stream(subset).map(p -> sizes[p]).reduce(1, Math::multiplyExact);
+            assertEquals(expected, covered.size(), "Uncovered combinations of parameters " + Arrays.toString(subset));
+        }
+    }
+
+    /**
+     * Gets every subset of parameters of a size.
+     *
+     * @param parameterCount The number of parameters.
+     * @param size           The size of each subset.
+     * @return The subsets.
+     */
+    private static List<int[]> subsets(int parameterCount, int size) {
+        List<int[]> subsets = new ArrayList<>();
+        addSubsets(subsets, new int[size], 0, 0, parameterCount);
+        return subsets;
+    }
+
+    /**
+     * Recursively adds the subsets that start with a prefix.
+     *
+     * @param subsets        The subsets.
+     * @param subset         The prefix of the subset.
+     * @param length         The length of the prefix.
+     * @param first          The first parameter that may be added.
+     * @param parameterCount The number of parameters.
+     */
+    private static void addSubsets(List<int[]> subsets, int[] subset, int length, int first, int parameterCount) {
+        if (length == subset.length) {
+            subsets.add(subset.clone());
+            return;
+        }
+
+        for (int p = first; p < parameterCount; ++p) {
+            subset[length] = p;
+            addSubsets(subsets, subset, length + 1, p + 1, parameterCount);
+        }
+    }
+}
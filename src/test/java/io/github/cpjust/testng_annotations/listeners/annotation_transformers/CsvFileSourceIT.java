@@ -0,0 +1,66 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CsvColumn;
+import io.github.cpjust.testng_annotations.annotations.CsvFileSource;
+import io.github.cpjust.testng_annotations.annotations.CsvRow;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// NOTE: The CsvFileSourceListener is registered through the AllAnnotationTransformers in META-INF/services/org.testng.ITestNGListener
+public class CsvFileSourceIT {
+    private final Set<String> peopleSeen = ConcurrentHashMap.newKeySet();
+
+    @Test
+    @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = 1)
+    public void testPeople(String name, String greeting) {
+        Assert.assertTrue(List.of("alice", "bob, jr.", "carol").contains(name), "Unexpected name: " + name);
+        Assert.assertTrue(List.of("hello", "hi", "multi\nline").contains(greeting), "Unexpected greeting: " + greeting);
+        Assert.assertTrue(peopleSeen.add(name), "Each row should only be provided once: " + name);
+    }
+
+    @Test(dependsOnMethods = "testPeople")
+    public void testAllPeopleSeen() {
+        Assert.assertEquals(peopleSeen, Set.of("alice", "bob, jr.", "carol"), "Every row should have been provided!");
+    }
+
+    @Test
+    @CsvFileSource(resources = "/csv/semicolons.csv", delimiter = ';', numLinesToSkip = 1)
+    public void testCustomDelimiter(String a, String b) {
+        Assert.assertEquals(a, "1", "Unexpected value for a");
+        Assert.assertEquals(b, "2", "Unexpected value for b");
+    }
+
+    @Test
+    @CsvFileSource(resources = "/csv/people.csv.gz", numLinesToSkip = 1, columns = 0)
+    public void testGzipResource(String name) {
+        Assert.assertTrue(List.of("alice", "bob, jr.", "carol").contains(name), "Unexpected name: " + name);
+    }
+
+    @Test
+    @CsvFileSource(resources = "/csv/people.csv")
+    public void testCsvRowByHeader(@CsvRow(header = true) Person person) {
+        Assert.assertTrue(List.of("alice", "bob, jr.", "carol").contains(person.name), "Unexpected name: " + person.name);
+        Assert.assertTrue(List.of("hello", "hi", "multi\nline").contains(person.greeting), "Unexpected greeting: " + person.greeting);
+    }
+
+    @Test
+    @CsvFileSource(resources = "/csv/numbers.csv", numLinesToSkip = 1, fromRow = 2500, toRow = 2510)
+    public void testRowRange(int number, String text) {
+        Assert.assertTrue(number >= 2500 && number < 2510, "Unexpected number: " + number);
+        Assert.assertTrue(text.endsWith(String.valueOf(number)), "Unexpected text: " + text);
+    }
+
+    public static final class Person {
+        private final String name;
+        private final String greeting;
+
+        public Person(@CsvColumn("name") String name, @CsvColumn("greeting") String greeting) {
+            this.name = name;
+            this.greeting = greeting;
+        }
+    }
+}
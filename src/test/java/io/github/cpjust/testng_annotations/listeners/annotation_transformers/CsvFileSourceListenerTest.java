@@ -0,0 +1,578 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CsvColumn;
+import io.github.cpjust.testng_annotations.annotations.CsvFileSource;
+import io.github.cpjust.testng_annotations.annotations.CsvRow;
+import io.github.cpjust.testng_annotations.annotations.CsvSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mockito;
+import org.testng.ITestContext;
+import org.testng.annotations.ITestAnnotation;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvFileSourceListenerTest extends SourceListenerTestBase {
+    private static final String ABANDONED_FILE = "target/csv-file-source-listener-test/abandoned.csv.gz";
+    // Enough rows to fill the read-ahead buffer, so the background thread blocks until the rows are read.
+    private static final int ABANDONED_ROW_COUNT = 200_000;
+    private static final long THREAD_EXIT_MILLIS = 10_000;
+
+    static final class Person {
+        private final String name;
+        private final String greeting;
+
+        Person(@CsvColumn("greeting") String greeting, @CsvColumn("name") String name) {
+            this.name = name;
+            this.greeting = greeting;
+        }
+    }
+
+    // Dummy test methods for reflection
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty method is intentional for test purposes
+    public static class PositiveCases {
+        @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = 1)
+        public void people(String name, String greeting) {}
+
+        @CsvFileSource(resources = "/csv/people.csv")
+        public void peopleWithHeader(String name, String greeting) {}
+
+        @CsvFileSource(resources = {"/csv/semicolons.csv", "/csv/semicolons.csv"}, delimiter = ';', numLinesToSkip = 1)
+        public void twoResources(String a, String b) {}
+
+        @CsvFileSource(resources = "/csv/latin1.csv", encoding = "ISO-8859-1")
+        public void latin1(String a, String b) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = 100)
+        public void allLinesSkipped(String name, String greeting) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = 1, memoryMapped = true)
+        public void peopleMapped(String name, String greeting) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = 1, columns = {1, 0})
+        public void swappedColumns(String greeting, String name) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = 1, columns = 1, memoryMapped = true)
+        public void greetingColumnMapped(String greeting) {}
+
+        @CsvFileSource(resources = {"/csv/people.csv.gz", "/csv/people.zip"}, numLinesToSkip = 1, memoryMapped = true)
+        public void compressed(String name, String greeting) {}
+
+        @CsvFileSource(resources = {"/csv/people.csv", "/csv/people.csv.gz"}, memoryMapped = true)
+        public void personByHeader(@CsvRow(header = true) Person person) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = 1, columns = {1, 0})
+        public void personByPosition(@CsvRow Person person) {}
+
+        @CsvFileSource(resources = {"/csv/people.csv", "/csv/people.csv.gz"}, numLinesToSkip = 1, fromRow = 2, toRow = 4)
+        public void rangeAcrossFiles(String name, String greeting) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", fromRow = 1)
+        public void personByHeaderFromRow(@CsvRow(header = true) Person person) {}
+
+        @CsvFileSource(resources = "/csv/numbers.csv", numLinesToSkip = 1, fromRow = 2045, toRow = 2055)
+        public void numbersRange(int number, String text) {}
+
+        @CsvFileSource(resources = "/csv/numbers.csv", numLinesToSkip = 1, fromRow = 2045, toRow = 2055, memoryMapped = true)
+        public void numbersRangeMapped(int number, String text) {}
+
+        @CsvFileSource(resources = "/csv/numbers.csv", numLinesToSkip = 1, sharded = true)
+        public void numbersSharded(int number, String text) {}
+
+        @CsvFileSource(files = ABANDONED_FILE)
+        public void abandoned(int number, String text) {}
+    }
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty method is intentional for test purposes
+    public static class ErrorCases {
+        @CsvFileSource(resources = "/csv/people.csv")
+        public void wrongParamType(String name, Object[] greeting) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = 1)
+        public void wrongParamCount(String name) {}
+
+        @CsvFileSource(resources = "/csv/missing.csv")
+        public void missingResource(String a) {}
+
+        @CsvFileSource(files = "missing/file.csv")
+        public void missingFile(String a) {}
+
+        @CsvFileSource
+        public void noSources(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", numLinesToSkip = -1)
+        public void negativeLinesToSkip(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", encoding = "no-such-charset")
+        public void unknownEncoding(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", delimiter = '\n')
+        public void newlineDelimiter(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", delimiter = '"')
+        public void delimiterIsQuote(String a) {}
+
+        @CsvFileSource(resources = "/csv/latin1.csv")
+        public void malformedInput(String a, String b) {}
+
+        public void noAnnotation(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", columns = {0, 1})
+        public void tooManyColumns(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", columns = -1)
+        public void negativeColumn(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", columns = 2)
+        public void missingColumn(String a) {}
+
+        @CsvFileSource(resources = "/csv/not-gzip.csv.gz")
+        public void notGzip(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", encoding = "UTF-16", memoryMapped = true)
+        public void memoryMappedUtf16(String a) {}
+
+        @CsvFileSource(resources = "/csv/one-column.csv")
+        @CsvSource("foo")
+        public void csvSourceAndCsvFileSource(String a) {}
+
+        @CsvFileSource(resources = "/csv/one-column.csv")
+        @org.testng.annotations.Test(dataProvider = "wrongDataProvider")
+        public void csvFileSourceAndDataProvider(String a) {}
+
+        @CsvFileSource(resources = "/csv/semicolons.csv", delimiter = ';')
+        public void personMissingHeaderColumn(@CsvRow(header = true) Person person) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", columns = 0)
+        public void personByHeaderWithColumns(@CsvRow(header = true) Person person) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", fromRow = -1)
+        public void negativeFromRow(String a) {}
+
+        @CsvFileSource(resources = "/csv/people.csv", fromRow = 2, toRow = 1)
+        public void toRowBeforeFromRow(String a) {}
+    }
+
+    @Test
+    void testTransform_csvFileSource_setsDataProvider() throws NoSuchMethodException {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Method method = PositiveCases.class.getMethod("people", String.class, String.class);
+
+        new CsvFileSourceListener().transform(annotation, null, null, method);
+
+        Mockito.verify(annotation).setDataProvider(CsvFileSourceListener.CSV_FILE_SOURCE_PROVIDER);
+        Mockito.verify(annotation).setDataProviderClass(CsvFileSourceListener.class);
+    }
+
+    @Test
+    void testTransform_csvFileSourceAndCsvSource_throws() throws NoSuchMethodException {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Method method = ErrorCases.class.getMethod("csvSourceAndCsvFileSource", String.class);
+        CsvFileSourceListener listener = new CsvFileSourceListener();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> listener.transform(annotation, null, null, method));
+
+        assertThat(ex.getMessage(), containsString("Only one of these annotations may be present."));
+    }
+
+    @Test
+    void testTransform_csvFileSourceAndDataProvider_throws() throws NoSuchMethodException {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Mockito.doReturn("wrongDataProvider").when(annotation).getDataProvider();
+        Method method = ErrorCases.class.getMethod("csvFileSourceAndDataProvider", String.class);
+        CsvFileSourceListener listener = new CsvFileSourceListener();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> listener.transform(annotation, null, null, method));
+
+        assertThat(ex.getMessage(), containsString(CANNOT_SPECIFY_A_DATA_PROVIDER_IN_TEST_WHEN_ALSO_USING_CSV_SOURCE_OR_ANY_VALUE_SOURCE_ANNOTATION));
+    }
+
+    @Test
+    void testProvideValues_resourceWithHeader_skipsHeaderAndParsesQuotedValues() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("people", String.class, String.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(3, rows.size(), "Unexpected number of rows!");
+        assertArrayEquals(new Object[]{"alice", "hello"}, rows.get(0));
+        assertArrayEquals(new Object[]{"bob, jr.", "hi"}, rows.get(1));
+        assertArrayEquals(new Object[]{"carol", "multi\nline"}, rows.get(2), "A quoted value may span several lines!");
+    }
+
+    @Test
+    void testProvideValues_memoryMapped_returnsSameRowsAsStreamed() throws NoSuchMethodException {
+        List<Object[]> streamed = readAll(CsvFileSourceListener.provideValues(PositiveCases.class.getMethod("people", String.class, String.class)));
+        List<Object[]> mapped = readAll(CsvFileSourceListener.provideValues(PositiveCases.class.getMethod("peopleMapped", String.class, String.class)));
+
+        assertEquals(streamed.size(), mapped.size(), "Unexpected number of rows!");
+
+        for (int i = 0; i < streamed.size(); ++i) {
+            assertArrayEquals(streamed.get(i), mapped.get(i), "Unexpected row at index " + i);
+        }
+    }
+
+    @Test
+    void testProvideValues_columns_returnsSelectedColumnsInOrder() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("swappedColumns", String.class, String.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(3, rows.size(), "Unexpected number of rows!");
+        assertArrayEquals(new Object[]{"hello", "alice"}, rows.get(0));
+        assertArrayEquals(new Object[]{"multi\nline", "carol"}, rows.get(2));
+    }
+
+    @Test
+    void testProvideValues_memoryMappedColumn_returnsOnlySelectedColumn() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("greetingColumnMapped", String.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(3, rows.size(), "Unexpected number of rows!");
+        assertArrayEquals(new Object[]{"hello"}, rows.get(0));
+        assertArrayEquals(new Object[]{"hi"}, rows.get(1));
+        assertArrayEquals(new Object[]{"multi\nline"}, rows.get(2));
+    }
+
+    @Test
+    void testProvideValues_missingColumn_throwsWhenRowIsRead() throws NoSuchMethodException {
+        Method method = ErrorCases.class.getMethod("missingColumn", String.class);
+        Iterator<Object[]> rows = CsvFileSourceListener.provideValues(method);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, rows::hasNext);
+
+        assertThat(ex.getMessage(), containsString("CSV record at index 0 of '/csv/people.csv' has 2 fields, but the selected columns [2] need at least 3 fields"));
+    }
+
+    @Test
+    void testProvideValues_csvRowByHeader_bindsColumnsByNameInEachFile() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("personByHeader", Person.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(6, rows.size(), "The header of each file shouldn't be a row!");
+
+        for (int i = 0; i < rows.size(); i += 3) {
+            assertEquals("alice", ((Person) rows.get(i)[0]).name, "Unexpected name at index " + i);
+            assertEquals("hello", ((Person) rows.get(i)[0]).greeting, "Unexpected greeting at index " + i);
+            assertEquals("multi\nline", ((Person) rows.get(i + 2)[0]).greeting, "Unexpected greeting at index " + (i + 2));
+        }
+    }
+
+    @Test
+    void testProvideValues_csvRowByPosition_bindsSelectedColumns() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("personByPosition", Person.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(3, rows.size(), "Unexpected number of rows!");
+        assertEquals("bob, jr.", ((Person) rows.get(1)[0]).name, "Unexpected name!");
+        assertEquals("hi", ((Person) rows.get(1)[0]).greeting, "Unexpected greeting!");
+    }
+
+    @Test
+    void testProvideValues_csvRowMissingHeaderColumn_throwsWhenRowIsRead() throws NoSuchMethodException {
+        Iterator<Object[]> rows = CsvFileSourceListener.provideValues(ErrorCases.class.getMethod("personMissingHeaderColumn", Person.class));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, rows::hasNext);
+
+        assertThat(ex.getMessage(), containsString("Error in the CSV header of '/csv/semicolons.csv': Column 'greeting' of Person is not in the CSV header"));
+    }
+
+    @Test
+    void testProvideValues_csvRowByHeaderWithColumns_throws() throws NoSuchMethodException {
+        Method method = ErrorCases.class.getMethod("personByHeaderWithColumns", Person.class);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CsvFileSourceListener.provideValues(method));
+
+        assertThat(ex.getMessage(), containsString("since its @CsvRow parameter selects the columns by header name"));
+    }
+
+    @Test
+    void testProvideValues_compressedResources_decompressesThem() throws NoSuchMethodException {
+        List<Object[]> plain = readAll(CsvFileSourceListener.provideValues(PositiveCases.class.getMethod("people", String.class, String.class)));
+        List<Object[]> compressed = readAll(CsvFileSourceListener.provideValues(PositiveCases.class.getMethod("compressed", String.class, String.class)));
+
+        assertEquals(plain.size() * 2, compressed.size(), "Both the gzip and zip resources should be read!");
+
+        for (int i = 0; i < compressed.size(); ++i) {
+            assertArrayEquals(plain.get(i % plain.size()), compressed.get(i), "Unexpected row at index " + i);
+        }
+    }
+
+    @Test
+    void testProvideValues_rowRangeAcrossFiles_numbersRowsOfAllFilesTogether() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("rangeAcrossFiles", String.class, String.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(2, rows.size(), "Unexpected number of rows!");
+        assertArrayEquals(new Object[]{"carol", "multi\nline"}, rows.get(0), "The last row of the first file should be used!");
+        assertArrayEquals(new Object[]{"alice", "hello"}, rows.get(1), "The first row of the compressed file should be used!");
+    }
+
+    @Test
+    void testProvideValues_csvRowByHeaderFromRow_skipsRowsAfterHeader() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("personByHeaderFromRow", Person.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(2, rows.size(), "Unexpected number of rows!");
+        assertEquals("bob, jr.", ((Person) rows.get(0)[0]).name, "The header shouldn't be counted as a row!");
+        assertEquals("hi", ((Person) rows.get(0)[0]).greeting, "Unexpected greeting!");
+    }
+
+    @ParameterizedTest
+    @org.junit.jupiter.params.provider.ValueSource(strings = {"numbersRange", "numbersRangeMapped"})
+    void testProvideValues_rowRangePastCheckpoint_startsAtRange(String methodName) throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod(methodName, int.class, String.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(10, rows.size(), "Unexpected number of rows!");
+
+        for (int i = 0; i < rows.size(); ++i) {
+            int number = 2045 + i;
+            String text = ((number % 10) == 0) ? "multi\nline, " + number : "text " + number;
+            assertArrayEquals(new Object[]{number, text}, rows.get(i), "Unexpected row at index " + i);
+        }
+    }
+
+    @Test
+    void testProvideValues_sharded_shardsCoverAllRowsOnce() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("numbersSharded", int.class, String.class);
+        List<Object> numbers = new ArrayList<>();
+
+        try {
+            for (int shard = 0; shard < 3; ++shard) {
+                System.setProperty(RowRange.DATA_SHARD_PROPERTY, shard + "/3");
+                List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+                assertEquals(1000, rows.size(), "Unexpected number of rows in shard " + shard);
+                rows.forEach(row -> numbers.add(row[0]));
+            }
+        } finally {
+            System.clearProperty(RowRange.DATA_SHARD_PROPERTY);
+        }
+
+        for (int i = 0; i < numbers.size(); ++i) {
+            assertEquals(i, numbers.get(i), "The shards should contain every row once, in order!");
+        }
+
+        assertEquals(3000, readAll(CsvFileSourceListener.provideValues(method)).size(), "All rows should be used without a shard!");
+    }
+
+    @Test
+    void testProvideValues_notGzip_throwsWhenRowIsRead() throws NoSuchMethodException {
+        Iterator<Object[]> rows = CsvFileSourceListener.provideValues(ErrorCases.class.getMethod("notGzip", String.class));
+
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class, rows::hasNext);
+
+        assertThat(ex.getMessage(), containsString("Error opening CSV file '/csv/not-gzip.csv.gz'!"));
+    }
+
+    @Test
+    void testProvideValues_noLinesSkipped_returnsHeader() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("peopleWithHeader", String.class, String.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(4, rows.size(), "Unexpected number of rows!");
+        assertArrayEquals(new Object[]{"name", "greeting"}, rows.get(0));
+    }
+
+    @Test
+    void testProvideValues_twoResources_readsBothAndSkipsHeaderOfEach() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("twoResources", String.class, String.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(2, rows.size(), "Unexpected number of rows!");
+        assertArrayEquals(new Object[]{"1", "2"}, rows.get(0));
+        assertArrayEquals(new Object[]{"1", "2"}, rows.get(1));
+    }
+
+    @Test
+    void testProvideValues_encoding_decodesWithCharset() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("latin1", String.class, String.class);
+
+        List<Object[]> rows = readAll(CsvFileSourceListener.provideValues(method));
+
+        assertEquals(1, rows.size(), "Unexpected number of rows!");
+        assertArrayEquals(new Object[]{"x", "\u00e9"}, rows.get(0));
+    }
+
+    @Test
+    void testProvideValues_allLinesSkipped_returnsNoRows() throws NoSuchMethodException {
+        Method method = PositiveCases.class.getMethod("allLinesSkipped", String.class, String.class);
+
+        Iterator<Object[]> rows = CsvFileSourceListener.provideValues(method);
+
+        assertFalse(rows.hasNext(), "All lines should have been skipped!");
+        assertThrows(NoSuchElementException.class, rows::next);
+    }
+
+    @Test
+    void testProvideValues_file_readsRowsLazily(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("data.csv");
+        Files.write(file, List.of("a,1", "b,2"), StandardCharsets.UTF_8);
+        List<CsvFileIterator.Source> sources = List.of(new CsvFileIterator.Source(file.toString(),
+                firstRecord -> new BufferedCsvRecordReader(FileChannel.open(file), StandardCharsets.UTF_8, 0, new CsvTokenizer(',', '"', true))));
+
+        try (CsvFileIterator rows = new CsvFileIterator(sources, new Class<?>[]{String.class, String.class}, ArgumentConverters.forParameters(PositiveCases.class.getMethod("people", String.class, String.class)), null, new int[0])) {
+            assertArrayEquals(new Object[]{"a", "1"}, rows.next());
+
+            // Lines appended after the first row was read are still returned, since the file is read lazily.
+            Files.write(file, List.of("c,3"), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+            assertArrayEquals(new Object[]{"b", "2"}, rows.next());
+            assertArrayEquals(new Object[]{"c", "3"}, rows.next());
+            assertFalse(rows.hasNext(), "There should be no more rows!");
+        }
+    }
+
+    @Test
+    void testClose_stopsIteration(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("data.csv");
+        Files.write(file, List.of("a,1", "b,2"), StandardCharsets.UTF_8);
+        List<CsvFileIterator.Source> sources = List.of(new CsvFileIterator.Source(file.toString(),
+                firstRecord -> new BufferedCsvRecordReader(FileChannel.open(file), StandardCharsets.UTF_8, 0, new CsvTokenizer(',', '"', true))));
+        CsvFileIterator rows = new CsvFileIterator(sources, new Class<?>[]{String.class, String.class}, ArgumentConverters.forParameters(PositiveCases.class.getMethod("people", String.class, String.class)), null, new int[0]);
+
+        assertTrue(rows.hasNext(), "There should be a row!");
+        rows.close();
+
+        assertFalse(rows.hasNext(), "There should be no rows after closing!");
+    }
+
+    @Test
+    void testOnFinish_abandonedCompressedFile_stopsBackgroundThread() throws Exception {
+        Path file = Path.of(ABANDONED_FILE);
+        Files.createDirectories(file.getParent());
+
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < ABANDONED_ROW_COUNT; ++i) {
+                writer.write(i + ",row " + i + "\n");
+            }
+        }
+
+        ITestContext context = Mockito.mock(ITestContext.class);
+        Method method = PositiveCases.class.getMethod("abandoned", int.class, String.class);
+        Iterator<Object[]> rows = CsvFileSourceListener.provideValues(method, context);
+        assertArrayEquals(new Object[]{0, "row 0"}, rows.next());
+        Thread readerThread = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("read-ahead-" + ABANDONED_FILE))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("The file should be read on a background thread!"));
+
+        new CsvFileSourceListener().onFinish(context);
+        readerThread.join(THREAD_EXIT_MILLIS);
+
+        assertFalse(readerThread.isAlive(), "The background thread of an abandoned file should exit when the test finishes!");
+        assertFalse(rows.hasNext(), "There should be no rows after the test finished!");
+    }
+
+    @Test
+    void testProvideValues_noAnnotation_throws() throws NoSuchMethodException {
+        Method method = ErrorCases.class.getMethod("noAnnotation", String.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> CsvFileSourceListener.provideValues(method));
+
+        assertThat(ex.getMessage(), containsString("No @CsvFileSource annotation found on method"));
+    }
+
+    @Test
+    void testProvideValues_wrongParamType_throws() throws NoSuchMethodException {
+        Method method = ErrorCases.class.getMethod("wrongParamType", String.class, Object[].class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> CsvFileSourceListener.provideValues(method));
+
+        assertThat(ex.getMessage(), containsString("Parameter at index 1 of method 'wrongParamType' does not match method parameter type"));
+    }
+
+    @Test
+    void testProvideValues_wrongParamCount_throwsWhenRowIsRead() throws NoSuchMethodException {
+        Method method = ErrorCases.class.getMethod("wrongParamCount", String.class);
+        Iterator<Object[]> rows = CsvFileSourceListener.provideValues(method);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, rows::hasNext);
+
+        assertThat(ex.getMessage(), containsString("CSV record at index 0 of '/csv/people.csv' does not match method parameter count"));
+    }
+
+    @Test
+    void testProvideValues_malformedInput_throws() throws NoSuchMethodException {
+        Method method = ErrorCases.class.getMethod("malformedInput", String.class, String.class);
+        Iterator<Object[]> rows = CsvFileSourceListener.provideValues(method);
+
+        UncheckedIOException ex = assertThrows(UncheckedIOException.class, rows::hasNext);
+
+        assertThat(ex.getMessage(), containsString("Error reading CSV file '/csv/latin1.csv'!"));
+    }
+
+    static Stream<Arguments> invalidAnnotations() {
+        return Stream.of(
+                Arguments.of("missingResource", IllegalStateException.class, "Classpath resource '/csv/missing.csv' in @CsvFileSource annotation on method 'missingResource' does not exist"),
+                Arguments.of("missingFile", IllegalStateException.class, "File 'missing/file.csv' in @CsvFileSource annotation on method 'missingFile' does not exist"),
+                Arguments.of("noSources", IllegalStateException.class, "No resources or files provided in @CsvFileSource annotation"),
+                Arguments.of("negativeLinesToSkip", IllegalArgumentException.class, "CsvFileSource numLinesToSkip cannot be negative, but was -1"),
+                Arguments.of("unknownEncoding", IllegalArgumentException.class, "CsvFileSource encoding 'no-such-charset' is not a supported character set"),
+                Arguments.of("newlineDelimiter", IllegalArgumentException.class, "CsvFileSource delimiter cannot be a newline or carriage return character"),
+                Arguments.of("delimiterIsQuote", IllegalArgumentException.class, "CsvFileSource delimiter cannot be the same as the quote character"),
+                Arguments.of("tooManyColumns", IllegalArgumentException.class, "CsvFileSource columns must select one column for each of the 1 parameters of method 'tooManyColumns', but selects 2 columns"),
+                Arguments.of("negativeColumn", IllegalArgumentException.class, "CsvFileSource columns cannot be negative, but found -1"),
+                Arguments.of("memoryMappedUtf16", IllegalArgumentException.class, "CsvFileSource memoryMapped requires UTF-8 or a single-byte encoding"),
+                Arguments.of("negativeFromRow", IllegalArgumentException.class, "CsvFileSource fromRow cannot be negative, but was -1"),
+                Arguments.of("toRowBeforeFromRow", IllegalArgumentException.class, "CsvFileSource toRow must be at least fromRow (2), but was 1")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidAnnotations")
+    void testProvideValues_invalidAnnotation_throws(String methodName, Class<? extends Exception> exceptionClass, String expectedMessage)
+            throws NoSuchMethodException {
+        Method method = ErrorCases.class.getMethod(methodName, String.class);
+
+        Exception ex = assertThrows(exceptionClass, () -> CsvFileSourceListener.provideValues(method));
+
+        assertThat(ex.getMessage(), containsString(expectedMessage));
+    }
+
+    /**
+     * Reads all rows of an iterator.
+     *
+     * @param rows The rows.
+     * @return A list of the rows.
+     */
+    private static List<Object[]> readAll(Iterator<Object[]> rows) {
+        List<Object[]> list = new ArrayList<>();
+        rows.forEachRemaining(list::add);
+        return list;
+    }
+}
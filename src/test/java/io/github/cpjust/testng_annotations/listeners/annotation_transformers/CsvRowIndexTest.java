@@ -0,0 +1,146 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvRowIndexTest {
+    private static final int RECORD_COUNT = 5000;
+
+    @Test
+    void testGet_largeFile_writesIndexFileAndCountsRecords(@TempDir Path tempDir) throws IOException {
+        Path file = writeCsv(tempDir.resolve("data.csv"), RECORD_COUNT);
+
+        CsvRowIndex index = get(file);
+
+        assertEquals(RECORD_COUNT, index.getRecordCount(), "Multi-line quoted fields and the skipped line shouldn't be counted!");
+        assertTrue(Files.size(CsvRowIndex.getIndexFile(file)) > 0, "The index should be cached next to the CSV file!");
+        assertSame(index, get(file), "The index should be cached in memory!");
+    }
+
+    @Test
+    void testGetCheckpointOffset_seekingToCheckpoint_readsSameRecordsAsSequentialRead(@TempDir Path tempDir) throws IOException {
+        Path file = writeCsv(tempDir.resolve("data.csv"), RECORD_COUNT);
+        List<String> expected = readFirstFields(new MappedCsvRecordReader(file, StandardCharsets.UTF_8, 1, ',', '"', true));
+        CsvRowIndex index = get(file);
+
+        for (long record : new long[]{0, 1023, 1024, 2500, 4096, RECORD_COUNT - 1}) {
+            long checkpoint = CsvRowIndex.getCheckpointRecord(record);
+            long offset = index.getCheckpointOffset(record);
+
+            MappedCsvRecordReader mapped = new MappedCsvRecordReader(file, StandardCharsets.UTF_8, 0, ',', '"', true);
+            mapped.seek(offset);
+            assertEquals(expected.subList((int) checkpoint, expected.size()), readFirstFields(mapped), "Unexpected mapped records from " + checkpoint);
+
+            if (offset > 0) {
+                BufferedCsvRecordReader buffered = new BufferedCsvRecordReader(FileChannel.open(file).position(offset),
+                        StandardCharsets.UTF_8, 0, new CsvTokenizer(',', '"', true));
+                assertEquals(expected.subList((int) checkpoint, expected.size()), readFirstFields(buffered), "Unexpected buffered records from " + checkpoint);
+            }
+        }
+    }
+
+    @Test
+    void testGet_indexFileFromEarlierRun_isReused(@TempDir Path tempDir) throws IOException {
+        Path original = writeCsv(tempDir.resolve("original.csv"), 10);
+        get(original);
+        Path copy = Files.copy(original, tempDir.resolve("copy.csv"));
+        Files.setLastModifiedTime(copy, Files.getLastModifiedTime(original));
+        String format = String.format("%s|%d|%d|%d|%b", StandardCharsets.UTF_8.name(), 1, (int) ',', (int) '"', true);
+
+        // Write an index with a different record count, so we can tell that it was read instead of rebuilt.
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(CsvRowIndex.getIndexFile(copy)))) {
+            out.writeInt(0x43535649);
+            out.writeInt(1);
+            out.writeLong(Files.size(copy));
+            out.writeLong(Files.getLastModifiedTime(copy).toMillis());
+            out.writeUTF(format);
+            out.writeLong(42);
+            out.writeInt(1);
+            out.writeLong(0);
+        }
+
+        assertEquals(42, get(copy).getRecordCount(), "The up-to-date index file should have been used!");
+    }
+
+    @Test
+    void testGet_modifiedFile_rebuildsIndex(@TempDir Path tempDir) throws IOException {
+        Path file = writeCsv(tempDir.resolve("data.csv"), 10);
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        assertEquals(10, get(file).getRecordCount(), "Unexpected record count!");
+
+        writeCsv(file, 20);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 1000));
+
+        assertEquals(20, get(file).getRecordCount(), "The index should be rebuilt after the file changes!");
+    }
+
+    @Test
+    void testGet_corruptIndexFile_rebuildsIndex(@TempDir Path tempDir) throws IOException {
+        Path file = writeCsv(tempDir.resolve("data.csv"), 10);
+        Files.write(CsvRowIndex.getIndexFile(file), new byte[]{1, 2, 3});
+
+        assertEquals(10, get(file).getRecordCount(), "A corrupt index file should be ignored!");
+    }
+
+    /**
+     * Gets the index of a CSV file written by {@link #writeCsv}.
+     *
+     * @param file The CSV file.
+     * @return The index.
+     * @throws IOException If the file can't be read.
+     */
+    private static CsvRowIndex get(Path file) throws IOException {
+        return CsvRowIndex.get(file, StandardCharsets.UTF_8, 1, ',', '"', true);
+    }
+
+    /**
+     * Writes a CSV file with a header line, where every 7th record has a quoted field spanning several lines.
+     *
+     * @param file        The file.
+     * @param recordCount The number of records after the header.
+     * @return The file.
+     * @throws IOException If the file can't be written.
+     */
+    private static Path writeCsv(Path file, int recordCount) throws IOException {
+        StringBuilder csv = new StringBuilder("id,text\n");
+
+        for (int i = 0; i < recordCount; ++i) {
+            csv.append(i).append(((i % 7) == 0) ? ",\"line\nbreak, " + i + "\"\r\n" : ",text " + i + "\n");
+        }
+
+        return Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the first field of each remaining record, and closes the reader.
+     *
+     * @param reader The reader.
+     * @return The first fields.
+     * @throws IOException If the records can't be read.
+     */
+    private static List<String> readFirstFields(ICsvRecordReader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+
+        try (reader) {
+            while (reader.nextRecord() >= 0) {
+                fields.add(reader.getField(0));
+            }
+        }
+
+        return fields;
+    }
+}
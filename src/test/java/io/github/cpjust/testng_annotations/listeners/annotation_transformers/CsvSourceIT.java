@@ -4,6 +4,9 @@ import io.github.cpjust.testng_annotations.annotations.CsvSource;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
 // NOTE: Using '@Listeners({CsvSourceListener.class})' here doesn't work for some reason.
 // If you want to use the CsvSourceListener, you need to register it in META-INF/services/org.testng.ITestNGListener
 public class CsvSourceIT {
@@ -112,4 +115,32 @@ public class CsvSourceIT {
             Assert.fail(String.format(UNEXPECTED_PARAMETER_VALUES_S_S, a, b));
         }
     }
+
+    @Test
+    @CsvSource(textBlock = "foo, 1\n"
+            + "'bar, baz', 2\n")
+    public void testTextBlock(String a, String b) {
+        if ("1".equals(b)) {
+            Assert.assertEquals(a, "foo", "First row of the text block not parsed correctly");
+        } else if ("2".equals(b)) {
+            Assert.assertEquals(a, "bar, baz", "Quoted value in the text block not parsed correctly");
+        } else {
+            Assert.fail(String.format(UNEXPECTED_PARAMETER_VALUES_S_S, a, b));
+        }
+    }
+
+    @Test
+    @CsvSource({"1, 2024-02-29, 1.50, true", "2, 2025-01-01, , false"})
+    public void testTypedParameters(int id, LocalDate date, BigDecimal amount, boolean active) {
+        if (id == 1) {
+            Assert.assertEquals(date, LocalDate.of(2024, 2, 29), "Unexpected date");
+            Assert.assertEquals(amount, new BigDecimal("1.50"), "Unexpected amount");
+            Assert.assertTrue(active, "Unexpected active flag");
+        } else {
+            Assert.assertEquals(id, 2, "Unexpected id");
+            Assert.assertEquals(date, LocalDate.of(2025, 1, 1), "Unexpected date");
+            Assert.assertNull(amount, "An empty value should be null");
+            Assert.assertFalse(active, "Unexpected active flag");
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
 
+import io.github.cpjust.testng_annotations.annotations.CsvColumn;
+import io.github.cpjust.testng_annotations.annotations.CsvRow;
 import io.github.cpjust.testng_annotations.annotations.CsvSource;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Slf4j
@@ -49,7 +52,7 @@ class CsvSourceListenerTest extends SourceListenerTestBase {
         @CsvSource(value = {" ' a, '' b '' ',c"})
         public void quotedEscapedValueWithWhitespace(String a, String b) {}
 
-        // NOTE: We can't start with a space before the ' when not trimming whitespace, otherwise FastCSV doesn't treat it as a quoted string.
+        // NOTE: We can't start with a space before the ' when not trimming whitespace, otherwise CsvTokenizer doesn't treat it as a quoted string.
         @CsvSource(value = {"' a, '' b '' ',c"}, trimWhitespace = false)
         public void quotedEscapedValueTrimWhitespaceFalse(String a, String b) {}
 
@@ -165,7 +168,10 @@ class CsvSourceListenerTest extends SourceListenerTestBase {
         public void wrongParamCount(String a) {}
 
         @CsvSource({"foo,bar"})
-        public void wrongParamType(int a, int b) {}
+        public void wrongParamType(Object[] a, Object[] b) {}
+
+        @CsvSource({"foo,bar"})
+        public void unconvertibleValue(int a, int b) {}
 
         @CsvSource(value = {"aaa,bbb\rccc"}, delimiter = '\r')
         public void carriageReturnDelimiter(String a, String b) {}
@@ -202,7 +208,7 @@ class CsvSourceListenerTest extends SourceListenerTestBase {
 
     @Test
     void provideValues_wrongParamType_throwsIllegalStateException() throws Exception {
-        Method method = ErrorCases.class.getMethod("wrongParamType", int.class, int.class);
+        Method method = ErrorCases.class.getMethod("wrongParamType", Object[].class, Object[].class);
 
         IllegalStateException ex = assertThrows(IllegalStateException.class, () ->
                 CsvSourceListener.provideValues(method),
@@ -212,6 +218,153 @@ class CsvSourceListenerTest extends SourceListenerTestBase {
         assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString("does not match method parameter type"));
     }
 
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty method is intentional for test purposes
+    public static class TypedCases {
+        @CsvSource({"1, 2.5, VALUE_ONE", "-2, , VALUE_TWO"})
+        public void typed(int a, Double b, TestEnum c) {}
+    }
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty method is intentional for test purposes
+    public static class MutableCases {
+        @CsvSource({"a, 1", "b, 2"})
+        public void mutable(StringBuilder text, int number) {}
+    }
+
+    @Test
+    void provideValues_mutableParameterType_convertsValuesOnEveryCall() throws Exception {
+        Method method = MutableCases.class.getMethod("mutable", StringBuilder.class, int.class);
+        Object[][] first = CsvSourceListener.provideValues(method);
+        ((StringBuilder) first[0][0]).append("-changed");
+
+        Object[][] second = CsvSourceListener.provideValues(method);
+
+        assertNotSame(first[0][0], second[0][0], "Each call should convert new objects!");
+        assertEquals("a", second[0][0].toString(), "Changes to a converted value shouldn't leak into the next call!");
+        assertEquals(2, second[1][1], "Unexpected number!");
+    }
+
+    @Test
+    void provideValues_typedParameters_convertsValues() throws Exception {
+        Method method = TypedCases.class.getMethod("typed", int.class, Double.class, TestEnum.class);
+
+        Object[][] values = CsvSourceListener.provideValues(method);
+
+        assertArrayEquals(new Object[][] {
+                {1, 2.5, TestEnum.VALUE_ONE}, {-2, null, TestEnum.VALUE_TWO}
+        }, values);
+    }
+
+    static final class Greeting {
+        private final String name;
+        private final int count;
+
+        Greeting(@CsvColumn("name") String name, @CsvColumn("count") int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    static final class MutableGreeting {
+        private String name;
+
+        MutableGreeting(String name) {
+            this.name = name;
+        }
+    }
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty method is intentional for test purposes
+    public static class RowCases {
+        @CsvSource({"alice, 1", "bob, 2"})
+        public void byPosition(@CsvRow Greeting greeting) {}
+
+        @CsvSource(textBlock = "count, name\n1, alice\n2, bob")
+        public void byHeader(@CsvRow(header = true) Greeting greeting) {}
+
+        @CsvSource(textBlock = "count, name\n1, alice\n2")
+        public void byHeaderWrongFieldCount(@CsvRow(header = true) Greeting greeting) {}
+
+        @CsvSource({"count, greeting", "1, alice"})
+        public void missingHeaderColumn(@CsvRow(header = true) Greeting greeting) {}
+
+        @CsvSource({"alice, 1, extra"})
+        public void wrongFieldCount(@CsvRow Greeting greeting) {}
+
+        @CsvSource({"alice", "bob"})
+        public void mutable(@CsvRow MutableGreeting greeting) {}
+    }
+
+    @Test
+    void provideValues_csvRowByPosition_bindsEachRow() throws Exception {
+        Method method = RowCases.class.getMethod("byPosition", Greeting.class);
+
+        Object[][] values = CsvSourceListener.provideValues(method);
+
+        assertEquals(2, values.length, "Unexpected number of rows!");
+        assertEquals("alice", ((Greeting) values[0][0]).name, "Unexpected name!");
+        assertEquals(2, ((Greeting) values[1][0]).count, "Unexpected count!");
+    }
+
+    @Test
+    void provideValues_csvRowByHeader_skipsHeaderAndBindsColumnsByName() throws Exception {
+        Method method = RowCases.class.getMethod("byHeader", Greeting.class);
+
+        Object[][] values = CsvSourceListener.provideValues(method);
+
+        assertEquals(2, values.length, "The header shouldn't be a row!");
+        assertEquals("alice", ((Greeting) values[0][0]).name, "Unexpected name!");
+        assertEquals(1, ((Greeting) values[0][0]).count, "Unexpected count!");
+        assertEquals("bob", ((Greeting) values[1][0]).name, "Unexpected name!");
+    }
+
+    @Test
+    void provideValues_mutatedCsvRow_bindsNewObjectsOnNextCall() throws Exception {
+        Method method = RowCases.class.getMethod("mutable", MutableGreeting.class);
+        Object[][] first = CsvSourceListener.provideValues(method);
+        ((MutableGreeting) first[0][0]).name = "changed";
+
+        Object[][] second = CsvSourceListener.provideValues(method);
+
+        assertNotSame(first[0][0], second[0][0], "Each call should bind new objects!");
+        assertEquals("alice", ((MutableGreeting) second[0][0]).name, "Changes to a bound object shouldn't leak into the next call!");
+    }
+
+    @Test
+    void provideValues_csvRowMissingHeaderColumn_throwsIllegalStateException() throws Exception {
+        Method method = RowCases.class.getMethod("missingHeaderColumn", Greeting.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> CsvSourceListener.provideValues(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString("Column 'name' of Greeting is not in the CSV header [count, greeting]"));
+    }
+
+    @Test
+    void provideValues_csvRowByHeaderWrongFieldCount_reportsIndexInTextBlock() throws Exception {
+        Method method = RowCases.class.getMethod("byHeaderWrongFieldCount", Greeting.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> CsvSourceListener.provideValues(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString("CSV line at index 2 does not match method parameter count"));
+    }
+
+    @Test
+    void provideValues_csvRowWrongFieldCount_throwsIllegalStateException() throws Exception {
+        Method method = RowCases.class.getMethod("wrongFieldCount", Greeting.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> CsvSourceListener.provideValues(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString("parsed 3 params, but method takes 2 params"));
+    }
+
+    @Test
+    void provideValues_unconvertibleValue_throwsIllegalStateException() throws Exception {
+        Method method = ErrorCases.class.getMethod("unconvertibleValue", int.class, int.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> CsvSourceListener.provideValues(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(),
+                containsString("Error converting CSV line at index 0: Cannot convert value 'foo' to int for parameter at index 0!"));
+    }
+
     // Parameterized test for delimiter/quote char errors
     static Stream<Arguments> invalidDelimiterOrQuoteProvider() {
         return Stream.of(
@@ -290,6 +443,137 @@ class CsvSourceListenerTest extends SourceListenerTestBase {
         assertEquals("No values provided in @CsvSource annotation", ex.getMessage(), WRONG_EXCEPTION_MESSAGE);
     }
 
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class TextBlockCases {
+        @CsvSource(textBlock = "foo, bar\n"
+                + "'baz, qux', quux\n")
+        public void textBlock(String a, String b) {}
+
+        @CsvSource(value = {"foo,bar"}, textBlock = "foo,bar")
+        public void valueAndTextBlock(String a, String b) {}
+
+        @CsvSource(textBlock = "\n  \n")
+        public void blankTextBlock(String a, String b) {}
+
+        @CsvSource(textBlock = "foo,bar\nbaz")
+        public void textBlockWrongParamCount(String a, String b) {}
+    }
+
+    @Test
+    void provideValues_textBlock_returnsEachLineAsRow() throws Exception {
+        Method method = TextBlockCases.class.getMethod("textBlock", String.class, String.class);
+        assertArrayEquals(new Object[][] { {"foo", "bar"}, {"baz, qux", "quux"} }, CsvSourceListener.provideValues(method),
+                "Wrong rows parsed from the text block!");
+    }
+
+    static Stream<Arguments> invalidTextBlockProvider() {
+        return Stream.of(
+                Arguments.of("valueAndTextBlock", "Cannot specify both 'value' and 'textBlock' in @CsvSource annotation"),
+                Arguments.of("blankTextBlock", "No values provided in @CsvSource annotation"),
+                Arguments.of("textBlockWrongParamCount", "CSV line at index 1 does not match method parameter count")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidTextBlockProvider")
+    void provideValues_invalidTextBlock_throwsIllegalStateException(String methodName, String expectedMessage) throws Exception {
+        Method method = TextBlockCases.class.getMethod(methodName, String.class, String.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> CsvSourceListener.provideValues(method),
+                "provideValues() should throw an exception for method: " + methodName);
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString(expectedMessage));
+    }
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class CachedCases {
+        @CsvSource({"foo,bar", "baz,qux"})
+        public void first(String a, String b) {}
+
+        @CsvSource({"foo,bar", "baz,qux"})
+        public void sameTable(String a, String b) {}
+
+        @CsvSource({"foo,bar", "baz,qux"})
+        public void sameTableOtherParams(String a, Integer b) {}
+    }
+
+    @Test
+    void provideValues_calledTwice_returnsEqualCopies() throws Exception {
+        Method method = CachedCases.class.getMethod("first", String.class, String.class);
+        Object[][] first = CsvSourceListener.provideValues(method);
+        first[0][0] = "changed";
+
+        Object[][] second = CsvSourceListener.provideValues(method);
+        assertArrayEquals(new Object[][] { {"foo", "bar"}, {"baz", "qux"} }, second,
+                "Changes to the returned values shouldn't change the cached values!");
+    }
+
+    @Test
+    void provideValues_identicalAnnotations_sharesCachedValues() throws Exception {
+        CsvSourceListener.provideValues(CachedCases.class.getMethod("first", String.class, String.class));
+        CsvSourceListener.provideValues(CachedCases.class.getMethod("sameTable", String.class, String.class));
+        assertEquals(1, CsvSourceListener.CACHE.size(CachedCases.class), "Methods with identical annotations should share the cached values!");
+
+        Method otherParams = CachedCases.class.getMethod("sameTableOtherParams", String.class, Integer.class);
+        assertThrows(IllegalStateException.class, () -> CsvSourceListener.provideValues(otherParams),
+                "Different parameter types should be validated separately!");
+        assertEquals(1, CsvSourceListener.CACHE.size(CachedCases.class), "Failed validations shouldn't be cached!");
+    }
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class RangeCases {
+        @CsvSource(value = {"a", "b", "c", "d", "e"}, fromRow = 1, toRow = 3)
+        public void range(String a) {}
+
+        @CsvSource(value = {"a", "b", "c", "d", "e"}, fromRow = 1, sharded = true)
+        public void sharded(String a) {}
+
+        @CsvSource(value = {"a", "b"}, fromRow = -1)
+        public void negativeFromRow(String a) {}
+
+        @CsvSource(value = {"a", "b"}, fromRow = 2, toRow = 1)
+        public void toRowBeforeFromRow(String a) {}
+    }
+
+    @Test
+    void provideValues_rowRange_returnsOnlyRowsInRange() throws Exception {
+        Object[][] rows = CsvSourceListener.provideValues(RangeCases.class.getMethod("range", String.class));
+
+        assertArrayEquals(new Object[][] { {"b"}, {"c"} }, rows, "Unexpected rows!");
+    }
+
+    @Test
+    void provideValues_sharded_returnsOnlyRowsOfShard() throws Exception {
+        Method method = RangeCases.class.getMethod("sharded", String.class);
+        assertEquals(4, CsvSourceListener.provideValues(method).length, "All rows in the range should be used without a shard!");
+
+        try {
+            System.setProperty(RowRange.DATA_SHARD_PROPERTY, "0/2");
+            assertArrayEquals(new Object[][] { {"b"}, {"c"} }, CsvSourceListener.provideValues(method), "Unexpected rows of shard 0/2!");
+
+            System.setProperty(RowRange.DATA_SHARD_PROPERTY, "1/2");
+            assertArrayEquals(new Object[][] { {"d"}, {"e"} }, CsvSourceListener.provideValues(method), "Unexpected rows of shard 1/2!");
+        } finally {
+            System.clearProperty(RowRange.DATA_SHARD_PROPERTY);
+        }
+    }
+
+    static Stream<Arguments> invalidRowRangeProvider() {
+        return Stream.of(
+                Arguments.of("negativeFromRow", "CsvSource fromRow cannot be negative, but was -1"),
+                Arguments.of("toRowBeforeFromRow", "CsvSource toRow must be at least fromRow (2), but was 1")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidRowRangeProvider")
+    void provideValues_invalidRowRange_throwsIllegalArgumentException(String methodName, String expectedMessage) throws Exception {
+        Method method = RangeCases.class.getMethod(methodName, String.class);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> CsvSourceListener.provideValues(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString(expectedMessage));
+    }
+
     @Test
     void transform_withCsvSourceAnnotation_setsDataProvider() throws Exception {
         @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty method is intentional for test purposes
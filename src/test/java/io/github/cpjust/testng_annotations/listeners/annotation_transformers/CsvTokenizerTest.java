@@ -0,0 +1,83 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvTokenizerTest {
+    static Stream<Arguments> tokenizeLineProvider() {
+        return Stream.of(
+                Arguments.of("a,b", true, new Object[] {"a", "b"}),
+                Arguments.of(" a , b ", true, new Object[] {"a", "b"}),
+                Arguments.of(" a , b ", false, new Object[] {" a ", " b "}),
+                Arguments.of(",", true, new Object[] {"", ""}),
+                Arguments.of("'a,b',c", true, new Object[] {"a,b", "c"}),
+                Arguments.of("  'a,b',c", true, new Object[] {"a,b", "c"}),
+                Arguments.of(" 'a,b',c", false, new Object[] {" 'a", "b'", "c"}),
+                Arguments.of("'a''b',c", true, new Object[] {"a'b", "c"}),
+                Arguments.of("'a'bc,d", true, new Object[] {"abc", "d"}),
+                Arguments.of("'a'b'c,d'e,f", true, new Object[] {"ab'c,de", "f"}),
+                Arguments.of("'',b", true, new Object[] {"", "b"}),
+                Arguments.of("'unterminated,b", true, new Object[] {"unterminated,b"}),
+                Arguments.of("x'y,z", true, new Object[] {"x'y", "z"}),
+                Arguments.of("a,b\nc,d", true, new Object[] {"a", "b", "c", "d"}),
+                Arguments.of("'a\nb',c", true, new Object[] {"a\nb", "c"}),
+                Arguments.of("", true, new Object[0])
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenizeLineProvider")
+    void tokenizeLine_validLine_returnsFields(String line, boolean trimWhitespace, Object[] expected) {
+        CsvTokenizer tokenizer = new CsvTokenizer(',', '\'', trimWhitespace);
+        assertThat("Wrong fields!", tokenizer.tokenizeLine(line), equalTo(expected));
+    }
+
+    @Test
+    void tokenizeLine_blankDelimiter_trimsTrailingDelimiters() {
+        CsvTokenizer tokenizer = new CsvTokenizer(' ', '\'', true);
+        assertThat("Wrong fields!", tokenizer.tokenizeLine(" a b  "), arrayContaining("a", "b"));
+    }
+
+    @Test
+    void tokenizeLine_recordsWithDifferentFieldCounts_throwsIllegalArgumentException() {
+        CsvTokenizer tokenizer = new CsvTokenizer(',', '\'', true);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> tokenizer.tokenizeLine("a,b\nc"));
+        assertThat("Wrong exception message!", e.getMessage(), equalTo("Every record must have 2 fields, but found a record with 1 fields!"));
+    }
+
+    @Test
+    void tokenizeLine_calledTwice_reusesBuffersWithoutLeakingFields() {
+        CsvTokenizer tokenizer = new CsvTokenizer(';', '"', true);
+        tokenizer.tokenizeLine("\"a;b\";c;d");
+        assertThat("Fields of the previous line shouldn't be returned!", tokenizer.tokenizeLine("e;f"), arrayContaining("e", "f"));
+    }
+
+    @Test
+    void tokenizeRows_textBlock_returnsEachRecordAsRow() {
+        CsvTokenizer tokenizer = new CsvTokenizer(',', '\'', true);
+        List<Object[]> rows = tokenizer.tokenizeRows("    a, b\n\n    'c\nd', e\r\n   \n    f,\n");
+
+        assertThat("Wrong rows!", rows, contains(
+                arrayContaining("a", "b"),
+                arrayContaining("c\nd", "e"),
+                arrayContaining("f", "")));
+    }
+
+    @Test
+    void tokenizeRows_blankText_returnsNoRows() {
+        CsvTokenizer tokenizer = new CsvTokenizer(',', '\'', true);
+        assertThat("Blank text should have no rows!", tokenizer.tokenizeRows(" \n\t\n"), empty());
+    }
+}
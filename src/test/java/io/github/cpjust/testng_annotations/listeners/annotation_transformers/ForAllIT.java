@@ -0,0 +1,60 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.ForAll;
+import io.github.cpjust.testng_annotations.annotations.Gen;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// NOTE: The listeners are registered through the AllAnnotationTransformers in META-INF/services/org.testng.ITestNGListener
+public class ForAllIT {
+    private static final int PARALLEL_TRIALS = 500;
+
+    private final AtomicInteger parallelTrials = new AtomicInteger();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    @Test
+    @ForAll(trials = 1000)
+    public void testReverseTwice(@Gen(min = -100, max = 100, maxSize = 50) List<Integer> list) {
+        List<Integer> reversed = new ArrayList<>(list);
+        Collections.reverse(reversed);
+        Collections.reverse(reversed);
+        Assert.assertEquals(reversed, list, "Reversing a list twice should return the same list!");
+    }
+
+    @Test
+    @ForAll(trials = 1000)
+    public void testStringConcatenation(String first, @Gen(chars = "xyz", minSize = 1) String second) {
+        Assert.assertTrue((first + second).endsWith(second), "The concatenation should end with the second String!");
+        Assert.assertEquals((first + second).length(), first.length() + second.length(), "Wrong length!");
+    }
+
+    @Test
+    @ForAll(trials = 200)
+    public void testEnumAndBoundedInt(@Gen(names = "VALUE_ONE", mode = EnumSource.Mode.EXCLUDE)
+                                      SourceListenerTestBase.TestEnum value, @Gen(min = 1, max = 6) int die) {
+        Assert.assertNotEquals(value, SourceListenerTestBase.TestEnum.VALUE_ONE, "Excluded constant was generated!");
+        Assert.assertTrue((die >= 1) && (die <= 6), "Unexpected value: " + die);
+    }
+
+    @Test
+    @ForAll(trials = PARALLEL_TRIALS, parallel = true)
+    public void testParallelTrials(long value, double other) {
+        parallelTrials.incrementAndGet();
+        threads.add(Thread.currentThread().getName());
+        Assert.assertEquals(Long.valueOf(value).hashCode(), (int) (value ^ (value >>> 32)), "Unexpected hash code!");
+    }
+
+    @Test(dependsOnMethods = "testParallelTrials")
+    public void testAllParallelTrialsRan() {
+        Assert.assertEquals(parallelTrials.get(), PARALLEL_TRIALS, "Every trial should have run!");
+        Assert.assertTrue(threads.size() > 1, "The trials should run on several threads, but only used: " + threads);
+    }
+}
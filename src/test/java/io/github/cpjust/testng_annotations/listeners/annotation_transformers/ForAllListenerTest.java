@@ -0,0 +1,520 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.ForAll;
+import io.github.cpjust.testng_annotations.annotations.Gen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link ForAllListener}.
+ */
+class ForAllListenerTest extends SourceListenerTestBase {
+    // region Positive test cases
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class PositiveCases {
+        @ForAll(seed = 1234)
+        public void seeded(int first, String second, List<TestEnum> third) {}
+
+        @ForAll(seed = 1234, trials = 10_000)
+        public void manyTrials(long value) {}
+
+        @ForAll
+        public void unseeded(int value) {}
+
+        @ForAll(parallel = true)
+        public void parallel(int value) {}
+    }
+
+    @Test
+    void provideValues_sameSeed_providesSameTrials() throws Exception {
+        Method method = PositiveCases.class.getMethod("seeded", int.class, String.class, List.class);
+
+        List<String> first = readAll(ForAllListener.provideValues(method));
+        List<String> second = readAll(ForAllListener.forAllProvider(method));
+
+        assertEquals(100, first.size(), "The default number of trials should be provided!");
+        assertEquals(first, second, "The same seed should provide the same trials!");
+        assertEquals(1234L, ForAllListener.getSeed(method), "The seed of the run should be remembered!");
+    }
+
+    @Test
+    void provideValues_manyTrials_generatesTrialsLazily() throws Exception {
+        Iterator<Object[]> trials = ForAllListener.provideValues(PositiveCases.class.getMethod("manyTrials", long.class));
+        int count = 0;
+
+        while (trials.hasNext()) {
+            assertInstanceOf(Long.class, trials.next()[0], "Wrong value type!");
+            ++count;
+        }
+
+        assertEquals(10_000, count, "Unexpected number of trials!");
+        assertThrows(NoSuchElementException.class, trials::next);
+    }
+
+    @Test
+    void provideValues_noSeed_usesSeedProperty() throws Exception {
+        Method method = PositiveCases.class.getMethod("unseeded", int.class);
+
+        try {
+            System.setProperty(ForAllListener.SEED_PROPERTY, "987");
+            List<String> first = readAll(ForAllListener.provideValues(method));
+            List<String> second = readAll(ForAllListener.provideValues(method));
+
+            assertEquals(first, second, "The seed property should provide the same trials!");
+            assertEquals(987L, ForAllListener.getSeed(method), "The seed property should be used!");
+        } finally {
+            System.clearProperty(ForAllListener.SEED_PROPERTY);
+        }
+    }
+
+    @Test
+    void resolveSeed_noSeed_returnsRandomNonZeroSeed() throws Exception {
+        ForAll forAll = PositiveCases.class.getMethod("unseeded", int.class).getAnnotation(ForAll.class);
+
+        long first = ForAllListener.resolveSeed(forAll, new Properties());
+        long second = ForAllListener.resolveSeed(forAll, new Properties());
+
+        assertNotEquals(0L, first, "The seed should never be 0!");
+        assertNotEquals(first, second, "Random seeds should differ!");
+    }
+
+    @Test
+    void resolveSeed_annotationSeed_overridesProperty() throws Exception {
+        ForAll forAll = PositiveCases.class.getMethod("seeded", int.class, String.class, List.class).getAnnotation(ForAll.class);
+        Properties properties = new Properties();
+        properties.setProperty(ForAllListener.SEED_PROPERTY, "5");
+
+        assertEquals(1234L, ForAllListener.resolveSeed(forAll, properties), "The seed of the annotation should be used!");
+    }
+
+    @Test
+    void newTrialRandom_differentTrials_areIndependent() {
+        assertEquals(ForAllListener.newTrialRandom(1, 0).nextLong(), ForAllListener.newTrialRandom(1, 0).nextLong(),
+                "The same seed and trial should be reproducible!");
+        assertNotEquals(ForAllListener.newTrialRandom(1, 0).nextLong(), ForAllListener.newTrialRandom(1, 1).nextLong(),
+                "Different trials should differ!");
+        assertNotEquals(ForAllListener.newTrialRandom(1, 1).nextLong(), ForAllListener.newTrialRandom(2, 0).nextLong(),
+                "Trials of neighbouring seeds should differ!");
+    }
+
+    static Stream<Arguments> transformProvider() {
+        return Stream.of(
+                Arguments.of("unseeded", ForAllListener.FOR_ALL_PROVIDER),
+                Arguments.of("parallel", ForAllListener.FOR_ALL_PARALLEL_PROVIDER)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("transformProvider")
+    void transform_forAll_setsDataProvider(String methodName, String expectedProvider) throws Exception {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Method method = PositiveCases.class.getMethod(methodName, int.class);
+
+        new ForAllListener().transform(annotation, null, null, method);
+
+        Mockito.verify(annotation).setDataProvider(expectedProvider);
+        Mockito.verify(annotation).setDataProviderClass(ForAllListener.class);
+    }
+
+    @Test
+    void describe_values_quotesStringsAndChars() {
+        assertEquals("(\"a b\", 'c', 1, null, [1, 2], [x])", ForAllListener.describe(new Object[]{"a b", 'c', 1, null, new int[]{1, 2}, List.of("x")}),
+                "Unexpected description!");
+    }
+    // endregion Positive test cases
+
+    // region Failure reporting
+    public static class PropertyCases {
+        private static final long HANG_MILLIS = 60_000;
+
+        @ForAll(seed = 42)
+        public void lessThan42(@Gen(min = 0, max = 1000) int value) {
+            Assert.assertTrue(value < 42, "Too big: " + value);
+        }
+
+        @ForAll(seed = 42)
+        public void shortStrings(String value, @Gen(min = 0, max = 100) int other) {
+            Assert.assertTrue(value.length() < 3, "Too long: " + value);
+        }
+
+        @ForAll(seed = 42)
+        public void skipsSomeValues(@Gen(min = 0, max = 1000) int value) {
+            if ((value % 10) == 7) {
+                throw new SkipException("Skipped value: " + value);
+            }
+
+            Assert.assertTrue(value < 11, "Too big: " + value);
+        }
+
+        @ForAll(seed = 42, maxShrinks = 0)
+        public void noShrinking(@Gen(min = 100, max = 1000) int value) {
+            Assert.fail("Always fails");
+        }
+
+        @ForAll(seed = 42, parallel = true)
+        public void parallelLessThan42(@Gen(min = 0, max = 1000) int value) {
+            Assert.assertTrue(value < 42, "Too big: " + value);
+        }
+
+        @ForAll(seed = 42)
+        public void hangsFrom42(@Gen(min = 0, max = 1000) int value) throws InterruptedException {
+            if (value >= 42) {
+                Thread.sleep(HANG_MILLIS);
+            }
+        }
+
+        public void notForAll(int value) {
+            Assert.fail("Always fails");
+        }
+    }
+
+    static Stream<Arguments> failureProvider() {
+        return Stream.of(
+                Arguments.of("lessThan42", new Class<?>[]{int.class}, new Object[]{42}, "(42)"),
+                Arguments.of("shortStrings", new Class<?>[]{String.class, int.class}, new Object[]{"   ", 0}, "(\"   \", 0)"),
+                Arguments.of("skipsSomeValues", new Class<?>[]{int.class}, new Object[]{11}, "(11)")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("failureProvider")
+    void reportFailure_failedTrial_reportsShrunkCounterexampleAndSeed(String methodName, Class<?>[] paramTypes, Object[] expected,
+                                                                     String expectedDescription) throws Exception {
+        Method method = PropertyCases.class.getMethod(methodName, paramTypes);
+        ITestResult result = runUntilFailure(method, new PropertyCases());
+
+        ForAllListener.reportFailure(method, result);
+
+        ForAllFalsifiedError error = getReportedError(result);
+        assertArrayEquals(expected, error.getCounterexample(), "The counterexample should be shrunk!");
+        assertEquals(42L, error.getSeed(), "Wrong seed!");
+        assertArrayEquals(result.getParameters(), error.getOriginalArgs(), "The original values should be kept!");
+        assertInstanceOf(AssertionError.class, error.getCause(), "The cause should be the failure of the counterexample!");
+        assertThat(WRONG_EXCEPTION_MESSAGE, error.getMessage(), containsString("Property PropertyCases." + methodName + " was falsified by " + expectedDescription));
+        assertThat(WRONG_EXCEPTION_MESSAGE, error.getMessage(), containsString("Replay it with @ForAll(seed = 42L) or -Dforall.seed=42"));
+    }
+
+    @Test
+    void reportFailure_maxShrinksZero_reportsOriginalValues() throws Exception {
+        Method method = PropertyCases.class.getMethod("noShrinking", int.class);
+        ITestResult result = runUntilFailure(method, new PropertyCases());
+
+        ForAllListener.reportFailure(method, result);
+
+        ForAllFalsifiedError error = getReportedError(result);
+        assertArrayEquals(result.getParameters(), error.getCounterexample(), "The values shouldn't be shrunk!");
+        assertThat(WRONG_EXCEPTION_MESSAGE, error.getMessage(), containsString("shrunk in 0 steps"));
+    }
+
+    @Test
+    void reportFailure_parallel_reportsOriginalValues() throws Exception {
+        Method method = PropertyCases.class.getMethod("parallelLessThan42", int.class);
+        ITestResult result = runUntilFailure(method, new PropertyCases());
+
+        ForAllListener.reportFailure(method, result);
+
+        ForAllFalsifiedError error = getReportedError(result);
+        assertArrayEquals(result.getParameters(), error.getCounterexample(), "Parallel trials shouldn't be shrunk!");
+        assertThat(WRONG_EXCEPTION_MESSAGE, error.getMessage(), containsString("shrunk in 0 steps"));
+    }
+
+    @Test
+    void reportFailure_testTimeOut_failsCallsThatTakeTooLong() throws Exception {
+        Method method = PropertyCases.class.getMethod("hangsFrom42", int.class);
+        ITestResult result = mockResult(ITestResult.FAILURE, new TimeoutException("Timed out"), new Object[]{500});
+        ITestNGMethod testMethod = Mockito.mock(ITestNGMethod.class);
+        Mockito.when(testMethod.getTimeOut()).thenReturn(50L);
+        Mockito.when(result.getMethod()).thenReturn(testMethod);
+        Mockito.when(result.getInstance()).thenReturn(new PropertyCases());
+        ForAllListener.provideValues(method);
+
+        ForAllListener.reportFailure(method, result);
+
+        ForAllFalsifiedError error = getReportedError(result);
+        assertArrayEquals(new Object[]{42}, error.getCounterexample(), "The calls that time out should fail!");
+        assertInstanceOf(TimeoutException.class, error.getCause(), "The cause should be the time-out of the counterexample!");
+    }
+
+    @Test
+    void reportFailure_laterFailures_areNotShrunk() throws Exception {
+        Method method = PropertyCases.class.getMethod("lessThan42", int.class);
+        ITestResult first = runUntilFailure(method, new PropertyCases());
+        ITestResult second = mockResult(ITestResult.FAILURE, new AssertionError("Too big"), new Object[]{500});
+        Mockito.when(second.getInstance()).thenReturn(new PropertyCases());
+
+        ForAllListener.reportFailure(method, first);
+        ForAllListener.reportFailure(method, second);
+
+        assertArrayEquals(new Object[]{42}, getReportedError(first).getCounterexample(), "The first failure should be shrunk!");
+        assertArrayEquals(new Object[]{500}, getReportedError(second).getCounterexample(), "Later failures shouldn't be shrunk!");
+    }
+
+    @Test
+    void reportFailure_otherResults_doesNothing() throws Exception {
+        Method forAll = PropertyCases.class.getMethod("lessThan42", int.class);
+        Method notForAll = PropertyCases.class.getMethod("notForAll", int.class);
+        ITestResult passed = mockResult(ITestResult.SUCCESS, null, new Object[]{1});
+        ITestResult notForAllFailure = mockResult(ITestResult.FAILURE, new AssertionError("failed"), new Object[]{1});
+        ITestResult alreadyReported = mockResult(ITestResult.FAILURE,
+                new ForAllFalsifiedError("reported", null, 1, new Object[]{50}, new Object[]{42}), new Object[]{50});
+
+        ForAllListener.reportFailure(forAll, passed);
+        ForAllListener.reportFailure(notForAll, notForAllFailure);
+        ForAllListener.reportFailure(forAll, alreadyReported);
+
+        Mockito.verify(passed, Mockito.never()).setThrowable(Mockito.any());
+        Mockito.verify(notForAllFailure, Mockito.never()).setThrowable(Mockito.any());
+        Mockito.verify(alreadyReported, Mockito.never()).setThrowable(Mockito.any());
+    }
+
+    public static class SetupCases {
+        private List<Integer> values;
+        private boolean tornDown = true;
+        private int setUps;
+
+        @BeforeMethod
+        public void setUp(Method method) {
+            Assert.assertTrue(tornDown, "The previous call of " + method.getName() + " should have been torn down!");
+            values = new ArrayList<>();
+            tornDown = false;
+            ++setUps;
+        }
+
+        @AfterMethod
+        public void tearDown() {
+            values = null;
+            tornDown = true;
+        }
+
+        @ForAll(seed = 42)
+        public void dependsOnSetup(@Gen(min = 0, max = 1000) int value) {
+            values.add(value);
+            Assert.assertEquals(values.size(), 1, "The values should be reset before every call!");
+            Assert.assertTrue(value < 42, "Too big: " + value);
+        }
+    }
+
+    public static class UninjectableSetupCases {
+        @BeforeMethod
+        public void setUp(String unsupported) {
+            Assert.fail("Shouldn't be called");
+        }
+
+        @ForAll(seed = 42)
+        public void lessThan42(@Gen(min = 0, max = 1000) int value) {
+            Assert.assertTrue(value < 42, "Too big: " + value);
+        }
+    }
+
+    static class NonPublicCases {
+        @ForAll(seed = 42)
+        void lessThan42(@Gen(min = 0, max = 1000) int value) {
+            Assert.assertTrue(value < 42, "Too big: " + value);
+        }
+    }
+
+    @Test
+    void reportFailure_propertyWithPerMethodSetup_runsSetupAndTeardownAroundEachCall() throws Exception {
+        Method method = SetupCases.class.getMethod("dependsOnSetup", int.class);
+        SetupCases instance = new SetupCases();
+        // TestNG calls the listener after the failed trial, before its @AfterMethod methods.
+        instance.setUp(method);
+        ITestResult result = mockResult(ITestResult.FAILURE, assertThrows(AssertionError.class, () -> instance.dependsOnSetup(500)),
+                new Object[]{500});
+        Mockito.when(result.getInstance()).thenReturn(instance);
+
+        ForAllListener.reportFailure(method, result);
+
+        assertArrayEquals(new Object[]{42}, getReportedError(result).getCounterexample(), "The counterexample should be shrunk!");
+        assertThat("The failure should be the property's, not the stale setup's!", getReportedError(result).getCause().getMessage(),
+                containsString("Too big: 42"));
+        assertTrue(instance.setUps > 1, "The setup should run before every shrinking call!");
+        assertFalse(instance.tornDown, "The last call should be left for TestNG to tear down!");
+    }
+
+    @Test
+    void reportFailure_uninjectableSetup_keepsOriginalFailure() throws Exception {
+        Method method = UninjectableSetupCases.class.getMethod("lessThan42", int.class);
+        ITestResult result = runUntilFailure(method, new UninjectableSetupCases());
+
+        ForAllListener.reportFailure(method, result);
+
+        Mockito.verify(result, Mockito.never()).setThrowable(Mockito.any());
+    }
+
+    @Test
+    void reportFailure_nonPublicMethod_shrinksCounterexample() throws Exception {
+        Method method = NonPublicCases.class.getDeclaredMethod("lessThan42", int.class);
+        method.setAccessible(true);
+        ITestResult result = runUntilFailure(method, new NonPublicCases());
+        method.setAccessible(false);
+
+        ForAllListener.reportFailure(method, result);
+
+        assertArrayEquals(new Object[]{42}, getReportedError(result).getCounterexample(),
+                "Non-public methods should be shrunk like TestNG calls them!");
+    }
+    // endregion Failure reporting
+
+    // region Error cases
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class ErrorCases {
+        public void noAnnotation(int value) {}
+
+        @ForAll(trials = 0)
+        public void zeroTrials(int value) {}
+
+        @ForAll(maxShrinks = -1)
+        public void negativeMaxShrinks(int value) {}
+
+        @ForAll
+        public void unsupportedType(Object value) {}
+
+        @ForAll
+        @org.testng.annotations.Test(dataProvider = "wrongDataProvider")
+        public void forAllAndDataProvider(int value) {}
+    }
+
+    @Test
+    void provideValues_invalidAnnotation_throwsException() throws Exception {
+        Method noAnnotation = ErrorCases.class.getMethod("noAnnotation", int.class);
+        Method zeroTrials = ErrorCases.class.getMethod("zeroTrials", int.class);
+        Method negativeMaxShrinks = ErrorCases.class.getMethod("negativeMaxShrinks", int.class);
+        Method unsupportedType = ErrorCases.class.getMethod("unsupportedType", Object.class);
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalStateException.class, () -> ForAllListener.provideValues(noAnnotation)).getMessage(),
+                containsString("No @ForAll annotation found on method: noAnnotation"));
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalArgumentException.class, () -> ForAllListener.provideValues(zeroTrials)).getMessage(),
+                containsString("ForAll trials must be positive, but was 0"));
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalArgumentException.class, () -> ForAllListener.provideValues(negativeMaxShrinks)).getMessage(),
+                containsString("ForAll maxShrinks cannot be negative, but was -1"));
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalStateException.class, () -> ForAllListener.provideValues(unsupportedType)).getMessage(),
+                containsString("Cannot generate values of type java.lang.Object for parameter 0 of method 'unsupportedType'"));
+    }
+
+    @Test
+    void resolveSeed_invalidProperty_throwsIllegalArgumentException() throws Exception {
+        ForAll forAll = PositiveCases.class.getMethod("unseeded", int.class).getAnnotation(ForAll.class);
+        Properties properties = new Properties();
+        properties.setProperty(ForAllListener.SEED_PROPERTY, "abc");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> ForAllListener.resolveSeed(forAll, properties));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString("The 'forall.seed' property must be a number, but was 'abc'!"));
+    }
+
+    @Test
+    void transform_forAllAndDataProvider_throwsException() throws Exception {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Mockito.doReturn("wrongDataProvider").when(annotation).getDataProvider();
+        Method method = ErrorCases.class.getMethod("forAllAndDataProvider", int.class);
+        ForAllListener listener = new ForAllListener();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> listener.transform(annotation, null, null, method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString(CANNOT_SPECIFY_A_DATA_PROVIDER_IN_TEST_WHEN_ALSO_USING_CSV_SOURCE_OR_ANY_VALUE_SOURCE_ANNOTATION));
+    }
+    // endregion Error cases
+
+    /**
+     * Runs the trials of a property until one fails, like TestNG would.
+     *
+     * @param method   The property.
+     * @param instance The test class instance.
+     * @return A mock result of the failed trial.
+     * @throws Exception If no trial fails.
+     */
+    private static ITestResult runUntilFailure(Method method, Object instance) throws Exception {
+        Iterator<Object[]> trials = ForAllListener.provideValues(method);
+
+        while (trials.hasNext()) {
+            Object[] args = trials.next();
+
+            try {
+                method.invoke(instance, args);
+            } catch (InvocationTargetException e) {
+                if (!(e.getCause() instanceof SkipException)) {
+                    ITestResult result = mockResult(ITestResult.FAILURE, e.getCause(), args);
+                    Mockito.when(result.getInstance()).thenReturn(instance);
+                    return result;
+                }
+            }
+        }
+
+        throw new AssertionError("No trial of " + method.getName() + " failed!");
+    }
+
+    /**
+     * Creates a mock test result.
+     *
+     * @param status    The status of the result.
+     * @param throwable The failure, or null.
+     * @param args      The parameters of the invocation.
+     * @return The mock result.
+     */
+    private static ITestResult mockResult(int status, Throwable throwable, Object[] args) {
+        ITestResult result = Mockito.mock(ITestResult.class);
+        Mockito.when(result.getStatus()).thenReturn(status);
+        Mockito.when(result.getThrowable()).thenReturn(throwable);
+        Mockito.when(result.getParameters()).thenReturn(args);
+        return result;
+    }
+
+    /**
+     * Gets the error that was set on a test result.
+     *
+     * @param result The mock test result.
+     * @return The error.
+     */
+    private static ForAllFalsifiedError getReportedError(ITestResult result) {
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        Mockito.verify(result).setThrowable(captor.capture());
+        assertNotNull(captor.getValue(), "An error should have been reported!");
+        return assertInstanceOf(ForAllFalsifiedError.class, captor.getValue(), "Wrong error type!");
+    }
+
+    /**
+     * Describes every trial, so trials with arrays and collections can be compared.
+     *
+     * @param trials The trials.
+     * @return A description of each trial.
+     */
+    private static List<String> readAll(Iterator<Object[]> trials) {
+        List<String> list = new ArrayList<>();
+        trials.forEachRemaining(args -> list.add(Arrays.deepToString(args)));
+        return list;
+    }
+}
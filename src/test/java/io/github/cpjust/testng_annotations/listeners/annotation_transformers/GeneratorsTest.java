@@ -0,0 +1,267 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.Gen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link Generators}.
+ */
+class GeneratorsTest extends SourceListenerTestBase {
+    private static final int TRIALS = 1000;
+
+    // region Positive test cases
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class PositiveCases {
+        public void allTypes(boolean a, Byte b, short c, int d, Long e, float f, Double g, char h, String i, TestEnum j,
+                             List<Integer> k, Set<String> l, int[] m, List<? extends Integer> n) {}
+
+        public void bounded(@Gen(min = -5, max = 5) int value, @Gen(min = 100) byte small, @Gen(min = 0, max = 10) double floating) {}
+
+        public void strings(@Gen(chars = "ab", minSize = 2, maxSize = 4) String value) {}
+
+        public void enums(@Gen(names = {"VALUE_ONE", "VALUE_THREE"}) TestEnum value, @Gen(names = "VALUE_T.*", mode = EnumSource.Mode.MATCH_ALL) TestEnum matching) {}
+
+        public void collections(@Gen(min = 0, max = 3, minSize = 1, maxSize = 3) List<Integer> list,
+                                @Gen(min = 0, max = 3, maxSize = 10) Set<Integer> set, @Gen(min = 1, max = 9, maxSize = 5) long[] array) {}
+    }
+
+    @Test
+    void forMethod_sameSeed_generatesSameValues() throws Exception {
+        Method method = getMethod("allTypes");
+
+        List<String> first = generate(Generators.forMethod(method), 42, 50);
+        List<String> second = generate(Generators.forMethod(method), 42, 50);
+        List<String> other = generate(Generators.forMethod(method), 43, 50);
+
+        assertEquals(first, second, "The same seed should generate the same values!");
+        assertFalse(first.equals(other), "Different seeds should generate different values!");
+    }
+
+    @Test
+    void forMethod_allTypes_generatesValuesOfParameterTypes() throws Exception {
+        Method method = getMethod("allTypes");
+        IGenerator[] generators = Generators.forMethod(method);
+        List<Class<?>> expected = List.of(Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+                Character.class, String.class, TestEnum.class, ArrayList.class, LinkedHashSet.class, int[].class, ArrayList.class);
+        SplittableRandom random = new SplittableRandom(1);
+
+        for (int i = 0; i < generators.length; ++i) {
+            assertInstanceOf(expected.get(i), generators[i].generate(random), "Wrong type for parameter " + i);
+        }
+
+        List<?> integers = (List<?>) generators[10].generate(new SplittableRandom(2));
+        assertTrue(integers.stream().allMatch(Integer.class::isInstance), "The List elements should be Integers: " + integers);
+    }
+
+    @Test
+    void forMethod_bounded_generatesValuesInRange() throws Exception {
+        IGenerator[] generators = Generators.forMethod(getMethod("bounded"));
+        SplittableRandom random = new SplittableRandom(3);
+        Set<Object> ints = new LinkedHashSet<>();
+
+        for (int i = 0; i < TRIALS; ++i) {
+            int value = (Integer) generators[0].generate(random);
+            byte small = (Byte) generators[1].generate(random);
+            double floating = (Double) generators[2].generate(random);
+
+            assertTrue((value >= -5) && (value <= 5), "Value out of range: " + value);
+            assertTrue(small >= 100, "Byte out of range: " + small);
+            assertTrue((floating >= 0) && (floating <= 10), "Double out of range: " + floating);
+            ints.add(value);
+        }
+
+        assertEquals(11, ints.size(), "Every value in the range should be generated: " + ints);
+    }
+
+    @Test
+    void forMethod_strings_usesCharsAndSizes() throws Exception {
+        IGenerator generator = Generators.forMethod(getMethod("strings"))[0];
+        SplittableRandom random = new SplittableRandom(4);
+
+        for (int i = 0; i < TRIALS; ++i) {
+            String value = (String) generator.generate(random);
+            assertTrue(value.matches("[ab]{2,4}"), "Unexpected String: " + value);
+        }
+    }
+
+    @Test
+    void forMethod_enums_usesEnumSourceRules() throws Exception {
+        IGenerator[] generators = Generators.forMethod(getMethod("enums"));
+        SplittableRandom random = new SplittableRandom(5);
+        Set<Object> values = new LinkedHashSet<>();
+        Set<Object> matching = new LinkedHashSet<>();
+
+        for (int i = 0; i < TRIALS; ++i) {
+            values.add(generators[0].generate(random));
+            matching.add(generators[1].generate(random));
+        }
+
+        assertEquals(Set.of(TestEnum.VALUE_ONE, TestEnum.VALUE_THREE), values, "Only the named constants should be generated!");
+        assertEquals(Set.of(TestEnum.VALUE_TWO, TestEnum.VALUE_THREE), matching, "Only the matching constants should be generated!");
+    }
+
+    @Test
+    void forMethod_collections_appliesGenToElements() throws Exception {
+        IGenerator[] generators = Generators.forMethod(getMethod("collections"));
+        SplittableRandom random = new SplittableRandom(6);
+
+        for (int i = 0; i < TRIALS; ++i) {
+            List<?> list = (List<?>) generators[0].generate(random);
+            Set<?> set = (Set<?>) generators[1].generate(random);
+            long[] array = (long[]) generators[2].generate(random);
+
+            assertTrue((list.size() >= 1) && (list.size() <= 3), "Wrong List size: " + list);
+            assertTrue(list.stream().allMatch(v -> ((Integer) v >= 0) && ((Integer) v <= 3)), "List element out of range: " + list);
+            assertTrue(set.size() <= 4, "A Set can only have the 4 values in the range: " + set);
+            assertTrue(Arrays.stream(array).allMatch(v -> (v >= 1) && (v <= 9)), "Array element out of range: " + Arrays.toString(array));
+        }
+    }
+
+    static Stream<Arguments> shrinkProvider() {
+        return Stream.of(
+                Arguments.of(int.class, 100, List.of(0, 50, 75, 88, 94, 97, 99)),
+                Arguments.of(int.class, -8, List.of(0, 8, -4, -6, -7)),
+                Arguments.of(int.class, 0, List.of()),
+                Arguments.of(long.class, Long.MIN_VALUE, List.of(0L, Long.MIN_VALUE / 2, Long.MIN_VALUE / 4 * 3)),
+                Arguments.of(boolean.class, true, List.of(false)),
+                Arguments.of(boolean.class, false, List.of()),
+                Arguments.of(char.class, '#', List.of(' ', '"')),
+                Arguments.of(double.class, 2.5, List.of(0.0, 2.0, 1.25)),
+                Arguments.of(String.class, "abc", List.of("", "a", "bc", "ac", "ab"))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("shrinkProvider")
+    void shrink_value_returnsSimplerValuesFirst(Class<?> type, Object value, List<Object> expectedFirst) {
+        IGenerator generator = Generators.forType(type, null, "test");
+
+        List<Object> candidates = generator.shrink(value).limit(expectedFirst.size() + 1L).collect(Collectors.toList());
+
+        assertEquals(expectedFirst, candidates.subList(0, Math.min(candidates.size(), expectedFirst.size())), "Unexpected candidates!");
+    }
+
+    @Test
+    void shrink_array_removesThenShrinksElements() throws Exception {
+        IGenerator generator = Generators.forMethod(getMethod("collections"))[2];
+
+        List<long[]> candidates = generator.shrink(new long[]{3, 5}).map(long[].class::cast).collect(Collectors.toList());
+
+        assertArrayEquals(new long[]{}, candidates.get(0), "The shortest array should be tried first!");
+        assertArrayEquals(new long[]{5}, candidates.get(1), "Removing the first element should be tried next!");
+        assertArrayEquals(new long[]{1, 5}, candidates.get(3), "Shrinking the first element should be tried after removing elements!");
+        assertTrue(candidates.stream().allMatch(a -> Arrays.stream(a).allMatch(v -> (v >= 1) && (v <= 9))),
+                "The candidates should stay in the range!");
+    }
+    // endregion Positive test cases
+
+    // region Error cases
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class ErrorCases {
+        public void minAboveMax(@Gen(min = 5, max = 4) int value) {}
+
+        public void outsideType(@Gen(min = 1000) byte value) {}
+
+        public void negativeMinSize(@Gen(minSize = -1) String value) {}
+
+        public void noConstants(@Gen(names = "MISSING") TestEnum value) {}
+
+        public void unsupported(Object value) {}
+
+        @SuppressWarnings("rawtypes")
+        public void rawList(List value) {}
+    }
+
+    static Stream<Arguments> invalidGenProvider() {
+        return Stream.of(
+                Arguments.of("minAboveMax", "Gen min (5) cannot be greater than max (4) on parameter 0 of method 'minAboveMax'"),
+                Arguments.of("outsideType", "Gen range [1000, 9223372036854775807] has no values between -128 and 127"),
+                Arguments.of("negativeMinSize", "Gen minSize (-1) must be between 0 and maxSize (20)"),
+                Arguments.of("noConstants", "No matching enum constants found for parameter 0 of method 'noConstants'")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidGenProvider")
+    void forMethod_invalidGen_throwsIllegalArgumentException(String methodName, String expectedMessage) {
+        Method method = getErrorMethod(methodName);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> Generators.forMethod(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString(expectedMessage));
+    }
+
+    @Test
+    void forMethod_unsupportedType_throwsIllegalStateException() {
+        Method unsupported = getErrorMethod("unsupported");
+        Method rawList = getErrorMethod("rawList");
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalStateException.class, () -> Generators.forMethod(unsupported)).getMessage(),
+                containsString("Cannot generate values of type java.lang.Object for parameter 0 of method 'unsupported'"));
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalStateException.class, () -> Generators.forMethod(rawList)).getMessage(),
+                containsString("since it doesn't declare its element type"));
+    }
+    // endregion Error cases
+
+    /**
+     * Gets a method of {@link PositiveCases} by name.
+     *
+     * @param name The method name.
+     * @return The method.
+     */
+    private static Method getMethod(String name) {
+        return Arrays.stream(PositiveCases.class.getMethods()).filter(m -> m.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    /**
+     * Gets a method of {@link ErrorCases} by name.
+     *
+     * @param name The method name.
+     * @return The method.
+     */
+    private static Method getErrorMethod(String name) {
+        return Arrays.stream(ErrorCases.class.getMethods()).filter(m -> m.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    /**
+     * Generates the values of several trials, as Strings so arrays can be compared.
+     *
+     * @param generators The generators of the parameters.
+     * @param seed       The seed.
+     * @param trials     The number of trials.
+     * @return The values of each trial.
+     */
+    private static List<String> generate(IGenerator[] generators, long seed, int trials) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> values = new ArrayList<>();
+
+        for (int i = 0; i < trials; ++i) {
+            values.add(Arrays.deepToString(Arrays.stream(generators).map(g -> g.generate(random)).toArray()));
+        }
+
+        return values;
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedCsvRecordReaderTest {
+    private static final int SMALL_WINDOW_SIZE = 5;
+
+    @TempDir
+    Path tempDir;
+
+    static Stream<Arguments> csvTexts() {
+        return Stream.of(
+                Arguments.of("a,b\nc,d\n"),
+                Arguments.of("a,b\r\nc,d\r\n"),
+                Arguments.of("a,b\rc,d"),
+                Arguments.of("\n\n  \na,b\n\n"),
+                Arguments.of(" a , b \n"),
+                Arguments.of("\"a,b\",c\n"),
+                Arguments.of("\"a\"\"b\",c\n"),
+                Arguments.of("\"multi\nline\",x\n\"crlf\r\nline\",y\r\n"),
+                Arguments.of("\"a\"b,c\n"),
+                Arguments.of("\"a\"b\"c,d\"e,f\n"),
+                Arguments.of("\"unterminated,a\nb\n"),
+                Arguments.of("\"unterminated\"\"\n\n"),
+                Arguments.of("\"\",\"\"\n"),
+                Arguments.of("a,\n,b\n,\n"),
+                Arguments.of("  \"quoted\" ,b\n"),
+                Arguments.of("caf\u00e9,\u00fcber\n")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("csvTexts")
+    void testNextRecord_sameRecordsAsBufferedReader(String text) throws IOException {
+        for (char delimiter : new char[]{',', ' ', '\t'}) {
+            for (boolean trimWhitespace : new boolean[]{true, false}) {
+                assertSameRecords(text, delimiter, trimWhitespace, 0);
+                assertSameRecords(text, delimiter, trimWhitespace, 1);
+            }
+        }
+    }
+
+    @Test
+    void testNextRecord_randomText_sameRecordsAsBufferedReader() throws IOException {
+        Random random = new Random(42);
+        char[] alphabet = {'a', 'b', ' ', '\t', ',', '"', '\n', '\r', '\u00e9'};
+
+        for (int i = 0; i < 300; ++i) {
+            StringBuilder text = new StringBuilder();
+            int length = random.nextInt(40);
+
+            for (int j = 0; j < length; ++j) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+
+            assertSameRecords(text.toString(), random.nextBoolean() ? ',' : ' ', random.nextBoolean(), random.nextInt(2));
+        }
+    }
+
+    @Test
+    void testNextRecord_emptyFile_returnsNoRecords() throws IOException {
+        Path file = write("", StandardCharsets.UTF_8);
+
+        try (MappedCsvRecordReader reader = new MappedCsvRecordReader(file, StandardCharsets.UTF_8, 1, ',', '"', true)) {
+            assertEquals(-1, reader.nextRecord(), "An empty file should have no records!");
+        }
+    }
+
+    @Test
+    void testNextRecord_recordLargerThanWindow_remapsWindow() throws IOException {
+        String longValue = "x".repeat(1000);
+        Path file = write("a,b\n" + longValue + ",\"" + longValue + "\"\nc,d\n", StandardCharsets.UTF_8);
+
+        try (MappedCsvRecordReader reader = new MappedCsvRecordReader(file, StandardCharsets.UTF_8, 0, ',', '"', true, SMALL_WINDOW_SIZE)) {
+            assertEquals(2, reader.nextRecord());
+            assertEquals(2, reader.nextRecord());
+            assertEquals(longValue, reader.getField(0));
+            assertEquals(longValue, reader.getField(1));
+            assertEquals(2, reader.nextRecord());
+            assertEquals("d", reader.getField(1));
+            assertEquals(-1, reader.nextRecord());
+        }
+    }
+
+    @Test
+    void testGetField_malformedInput_throws() throws IOException {
+        Path file = tempDir.resolve("malformed.csv");
+        Files.write(file, new byte[]{'a', ',', (byte) 0xE9, '\n'});
+
+        try (MappedCsvRecordReader reader = new MappedCsvRecordReader(file, StandardCharsets.UTF_8, 0, ',', '"', true)) {
+            assertEquals(2, reader.nextRecord());
+            assertEquals("a", reader.getField(0));
+
+            IOException ex = assertThrows(IOException.class, () -> reader.getField(1));
+
+            assertThat(ex.getMessage(), containsString("Field 1 of the record at byte 0 can't be decoded!"));
+        }
+    }
+
+    @Test
+    void testIsSupported() {
+        assertTrue(MappedCsvRecordReader.isSupported(StandardCharsets.UTF_8, ',', '"'), "UTF-8 should be supported!");
+        assertTrue(MappedCsvRecordReader.isSupported(StandardCharsets.ISO_8859_1, '\u00a7', '"'), "A single-byte delimiter should be supported!");
+        assertFalse(MappedCsvRecordReader.isSupported(StandardCharsets.UTF_8, '\u00a7', '"'), "A multi-byte delimiter shouldn't be supported!");
+        assertFalse(MappedCsvRecordReader.isSupported(StandardCharsets.UTF_16, ',', '"'), "UTF-16 shouldn't be supported!");
+        assertFalse(MappedCsvRecordReader.isSupported(Charset.forName("IBM037"), ',', '"'), "EBCDIC shouldn't be supported!");
+    }
+
+    @Test
+    void testConstructor_unsupportedEncoding_throws() {
+        Path file = tempDir.resolve("unused.csv");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> new MappedCsvRecordReader(file, StandardCharsets.UTF_16, 0, ',', '"', true));
+
+        assertThat(ex.getMessage(), containsString("but the encoding was 'UTF-16'!"));
+    }
+
+    /**
+     * Asserts that the mapped reader returns the same records as the buffered reader, with a small window so that the
+     * window is remapped in the middle of records.
+     *
+     * @param text           The CSV text.
+     * @param delimiter      The delimiter.
+     * @param trimWhitespace Whether to trim whitespace.
+     * @param numLinesToSkip The number of lines to skip.
+     * @throws IOException If the file can't be written or read.
+     */
+    private void assertSameRecords(String text, char delimiter, boolean trimWhitespace, int numLinesToSkip) throws IOException {
+        Path file = write(text, StandardCharsets.UTF_8);
+        List<List<String>> expected;
+        List<List<String>> actual;
+
+        try (ICsvRecordReader buffered = new BufferedCsvRecordReader(FileChannel.open(file), StandardCharsets.UTF_8, numLinesToSkip,
+                new CsvTokenizer(delimiter, '"', trimWhitespace))) {
+            expected = readAll(buffered);
+        }
+
+        try (ICsvRecordReader mapped = new MappedCsvRecordReader(file, StandardCharsets.UTF_8, numLinesToSkip, delimiter, '"',
+                trimWhitespace, SMALL_WINDOW_SIZE)) {
+            actual = readAll(mapped);
+        }
+
+        assertEquals(expected, actual, String.format("Unexpected records for %s with delimiter '%s', trimWhitespace=%s and numLinesToSkip=%d",
+                escape(text), escape(String.valueOf(delimiter)), trimWhitespace, numLinesToSkip));
+    }
+
+    /**
+     * Reads all records of a reader.
+     *
+     * @param reader The reader.
+     * @return The fields of each record.
+     * @throws IOException If the reader can't be read.
+     */
+    private static List<List<String>> readAll(ICsvRecordReader reader) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        int fieldCount;
+
+        while ((fieldCount = reader.nextRecord()) >= 0) {
+            List<String> fields = new ArrayList<>();
+
+            for (int i = 0; i < fieldCount; ++i) {
+                fields.add(reader.getField(i));
+            }
+
+            records.add(fields);
+        }
+
+        return records;
+    }
+
+    /**
+     * Writes a CSV text to a new file.
+     *
+     * @param text    The text.
+     * @param charset The encoding of the file.
+     * @return The file.
+     * @throws IOException If the file can't be written.
+     */
+    private Path write(String text, Charset charset) throws IOException {
+        Path file = Files.createTempFile(tempDir, "test", ".csv");
+        Files.write(file, text.getBytes(charset));
+        return file;
+    }
+
+    /**
+     * Escapes the line breaks and tabs of a text for an assertion message.
+     *
+     * @param text The text.
+     * @return The escaped text.
+     */
+    private static String escape(String text) {
+        return text.replace("\r", "\\r").replace("\n", "\\n").replace("\t", "\\t");
+    }
+}
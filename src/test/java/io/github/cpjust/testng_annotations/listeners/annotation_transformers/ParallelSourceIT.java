@@ -0,0 +1,56 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CsvSource;
+import io.github.cpjust.testng_annotations.annotations.EnumSource;
+import io.github.cpjust.testng_annotations.annotations.ValueSource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// NOTE: The listeners are registered through the AllAnnotationTransformers in META-INF/services/org.testng.ITestNGListener
+public class ParallelSourceIT {
+    private static final int MAX_CONCURRENCY = 2;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+    private final Set<Object> valuesSeen = ConcurrentHashMap.newKeySet();
+
+    @Test
+    @CsvSource(value = {"a, 1", "b, 2", "c, 3", "d, 4", "e, 5", "f, 6"}, parallel = true, maxConcurrency = MAX_CONCURRENCY)
+    public void testParallelCsvSource(String name, int number) throws InterruptedException {
+        int now = running.incrementAndGet();
+        maxRunning.accumulateAndGet(now, Math::max);
+        threads.add(Thread.currentThread().getName());
+
+        try {
+            Thread.sleep(100);
+            Assert.assertTrue(valuesSeen.add(name + number), "Each row should only be provided once: " + name);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    @Test(dependsOnMethods = "testParallelCsvSource")
+    public void testParallelCsvSourceWasLimited() {
+        Assert.assertEquals(valuesSeen.size(), 6, "Every row should have been provided!");
+        Assert.assertTrue(maxRunning.get() <= MAX_CONCURRENCY,
+                "At most " + MAX_CONCURRENCY + " rows should run at once, but " + maxRunning.get() + " did!");
+        Assert.assertTrue(threads.size() > 1, "The rows should run on several threads, but only used: " + threads);
+    }
+
+    @Test
+    @ValueSource(ints = {1, 2, 3}, parallel = true)
+    public void testParallelValueSource(int value) {
+        Assert.assertTrue(value >= 1 && value <= 3, "Unexpected value: " + value);
+    }
+
+    @Test
+    @EnumSource(value = SourceListenerTestBase.TestEnum.class, parallel = true)
+    public void testParallelEnumSource(SourceListenerTestBase.TestEnum value) {
+        Assert.assertNotNull(value, "The enum constant should not be null!");
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.IntRangeSource;
+import io.github.cpjust.testng_annotations.annotations.LongRangeSource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// NOTE: The listeners are registered through the AllAnnotationTransformers in META-INF/services/org.testng.ITestNGListener
+public class RangeSourceIT {
+    private final Set<Integer> intsSeen = ConcurrentHashMap.newKeySet();
+
+    @Test
+    @IntRangeSource(from = 0, to = 100, step = 7)
+    public void testIntRange(int value) {
+        Assert.assertEquals(value % 7, 0, "Unexpected value: " + value);
+        Assert.assertTrue(intsSeen.add(value), "Each value should only be provided once: " + value);
+    }
+
+    @Test(dependsOnMethods = "testIntRange")
+    public void testAllIntsSeen() {
+        Assert.assertEquals(intsSeen.size(), 15, "Every value should have been provided!");
+    }
+
+    @Test
+    @LongRangeSource(from = 10, to = 0, step = -5, closed = true, parallel = true)
+    public void testDescendingLongRange(Long value) {
+        Assert.assertTrue(value == 10 || value == 5 || value == 0, "Unexpected value: " + value);
+    }
+}
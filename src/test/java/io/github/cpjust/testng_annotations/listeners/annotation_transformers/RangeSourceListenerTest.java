@@ -0,0 +1,237 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.IntRangeSource;
+import io.github.cpjust.testng_annotations.annotations.LongRangeSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mockito;
+import org.testng.annotations.ITestAnnotation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link RangeSourceListener}.
+ */
+class RangeSourceListenerTest extends SourceListenerTestBase {
+    // region Positive test cases
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class PositiveCases {
+        @IntRangeSource(from = 0, to = 5)
+        public void exclusive(int value) {}
+
+        @IntRangeSource(from = 0, to = 5, closed = true)
+        public void closed(Integer value) {}
+
+        @IntRangeSource(from = 0, to = 20, step = 7)
+        public void step(int value) {}
+
+        @IntRangeSource(from = 0, to = 21, step = 7, closed = true)
+        public void stepReachesClosedEnd(int value) {}
+
+        @IntRangeSource(from = 3, to = -3, step = -2)
+        public void descending(int value) {}
+
+        @IntRangeSource(from = Integer.MAX_VALUE - 2, to = Integer.MAX_VALUE, closed = true)
+        public void intMaxValue(int value) {}
+
+        @LongRangeSource(from = Long.MAX_VALUE - 4, to = Long.MAX_VALUE, step = 2, closed = true)
+        public void longMaxValue(long value) {}
+
+        @LongRangeSource(from = Long.MIN_VALUE, to = Long.MAX_VALUE, step = Long.MAX_VALUE)
+        public void longFullRange(Long value) {}
+
+        @IntRangeSource(from = 0, to = 1_000_000, step = 7)
+        public void large(int value) {}
+
+        @LongRangeSource(from = 0, to = 10, sharded = true)
+        public void sharded(long value) {}
+
+        @LongRangeSource(from = Long.MIN_VALUE, to = Long.MAX_VALUE, step = 4, sharded = true)
+        public void shardedFullRange(long value) {}
+    }
+
+    static Stream<Arguments> rangeProvider() {
+        return Stream.of(
+                Arguments.of("exclusive", int.class, List.of(0, 1, 2, 3, 4)),
+                Arguments.of("closed", Integer.class, List.of(0, 1, 2, 3, 4, 5)),
+                Arguments.of("step", int.class, List.of(0, 7, 14)),
+                Arguments.of("stepReachesClosedEnd", int.class, List.of(0, 7, 14, 21)),
+                Arguments.of("descending", int.class, List.of(3, 1, -1)),
+                Arguments.of("intMaxValue", int.class, List.of(Integer.MAX_VALUE - 2, Integer.MAX_VALUE - 1, Integer.MAX_VALUE)),
+                Arguments.of("longMaxValue", long.class, List.of(Long.MAX_VALUE - 4, Long.MAX_VALUE - 2, Long.MAX_VALUE)),
+                Arguments.of("longFullRange", Long.class, List.of(Long.MIN_VALUE, -1L, Long.MAX_VALUE - 1))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("rangeProvider")
+    void provideValues_range_returnsExpectedValues(String methodName, Class<?> paramType, List<Object> expected) throws Exception {
+        Method method = PositiveCases.class.getMethod(methodName, paramType);
+
+        assertEquals(expected, readAll(RangeSourceListener.provideValues(method)), "Unexpected values!");
+    }
+
+    @Test
+    void provideValues_largeRange_generatesValuesLazily() throws Exception {
+        Iterator<Object[]> values = RangeSourceListener.rangeSourceProvider(PositiveCases.class.getMethod("large", int.class));
+        int count = 0;
+
+        while (values.hasNext()) {
+            assertEquals(count * 7, values.next()[0], "Unexpected value at index " + count);
+            ++count;
+        }
+
+        assertEquals(142_858, count, "Unexpected number of values!");
+        assertThrows(NoSuchElementException.class, values::next);
+    }
+
+    @Test
+    void provideValues_sharded_returnsOnlyValuesOfShard() throws Exception {
+        Method method = PositiveCases.class.getMethod("sharded", long.class);
+        List<Object> values = new ArrayList<>();
+
+        try {
+            for (int shard = 0; shard < 3; ++shard) {
+                System.setProperty(RowRange.DATA_SHARD_PROPERTY, shard + "/3");
+                values.addAll(readAll(RangeSourceListener.provideValues(method)));
+            }
+        } finally {
+            System.clearProperty(RowRange.DATA_SHARD_PROPERTY);
+        }
+
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), values, "The shards should contain every value once, in order!");
+        assertEquals(10, readAll(RangeSourceListener.provideValues(method)).size(), "All values should be used without a shard!");
+    }
+
+    @Test
+    void provideValues_shardOfHugeRange_startsAtFirstValueOfShard() throws Exception {
+        Method method = PositiveCases.class.getMethod("shardedFullRange", long.class);
+        Iterator<Object[]> values;
+
+        try {
+            System.setProperty(RowRange.DATA_SHARD_PROPERTY, "2/8");
+            values = RangeSourceListener.rangeSourceProvider(method);
+        } finally {
+            System.clearProperty(RowRange.DATA_SHARD_PROPERTY);
+        }
+
+        // The range has 2^62 values, so each shard has 2^59 values and shard 2 starts at value 2^60.
+        assertEquals(Long.MIN_VALUE + (4L << 60), values.next()[0], "Unexpected first value of the shard!");
+        assertEquals(Long.MIN_VALUE + (4L << 60) + 4, values.next()[0], "Unexpected second value of the shard!");
+    }
+
+    @Test
+    void transform_rangeSource_setsDataProvider() throws Exception {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Method method = PositiveCases.class.getMethod("exclusive", int.class);
+
+        new RangeSourceListener().transform(annotation, null, null, method);
+
+        Mockito.verify(annotation).setDataProvider(RangeSourceListener.RANGE_SOURCE_PROVIDER);
+        Mockito.verify(annotation).setDataProviderClass(RangeSourceListener.class);
+    }
+    // endregion Positive test cases
+
+    // region Error cases
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class ErrorCases {
+        public void noAnnotation(int value) {}
+
+        @IntRangeSource(from = 0, to = 5, step = 0)
+        public void zeroStep(int value) {}
+
+        @IntRangeSource(from = 0, to = 5, step = -1)
+        public void negativeStepAscending(int value) {}
+
+        @LongRangeSource(from = 5, to = 0)
+        public void positiveStepDescending(long value) {}
+
+        @IntRangeSource(from = 5, to = 5)
+        public void empty(int value) {}
+
+        @LongRangeSource(from = Long.MIN_VALUE, to = Long.MAX_VALUE, closed = true)
+        public void tooManyValues(long value) {}
+
+        @IntRangeSource(from = 0, to = 5)
+        public void wrongParamType(long value) {}
+
+        @LongRangeSource(from = 0, to = 5)
+        public void twoParams(long first, long second) {}
+
+        @IntRangeSource(from = 0, to = 5)
+        @org.testng.annotations.Test(dataProvider = "wrongDataProvider")
+        public void rangeSourceAndDataProvider(int value) {}
+    }
+
+    static Stream<Arguments> invalidRangeProvider() {
+        return Stream.of(
+                Arguments.of("zeroStep", int.class, "IntRangeSource step cannot be 0"),
+                Arguments.of("negativeStepAscending", int.class, "IntRangeSource step must be positive to go from 0 to 5, but was -1"),
+                Arguments.of("positiveStepDescending", long.class, "LongRangeSource step must be negative to go from 5 to 0, but was 1"),
+                Arguments.of("empty", int.class, "IntRangeSource range from 5 to 5 (exclusive) is empty"),
+                Arguments.of("tooManyValues", long.class, "LongRangeSource range from -9223372036854775808 to 9223372036854775807 with step 1 has too many values")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidRangeProvider")
+    void provideValues_invalidRange_throwsIllegalArgumentException(String methodName, Class<?> paramType, String expectedMessage) throws Exception {
+        Method method = ErrorCases.class.getMethod(methodName, paramType);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> RangeSourceListener.provideValues(method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString(expectedMessage));
+    }
+
+    @Test
+    void provideValues_invalidMethod_throwsIllegalStateException() throws Exception {
+        Method noAnnotation = ErrorCases.class.getMethod("noAnnotation", int.class);
+        Method wrongParamType = ErrorCases.class.getMethod("wrongParamType", long.class);
+        Method twoParams = ErrorCases.class.getMethod("twoParams", long.class, long.class);
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalStateException.class, () -> RangeSourceListener.provideValues(noAnnotation)).getMessage(),
+                containsString("No [@IntRangeSource, @LongRangeSource] annotations found on method: noAnnotation"));
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalStateException.class, () -> RangeSourceListener.provideValues(wrongParamType)).getMessage(),
+                containsString("Test method parameter must be int/Integer when using @IntRangeSource"));
+        assertThat(WRONG_EXCEPTION_MESSAGE, assertThrows(IllegalStateException.class, () -> RangeSourceListener.provideValues(twoParams)).getMessage(),
+                containsString("@LongRangeSource can only be used with single-parameter test methods"));
+    }
+
+    @Test
+    void transform_rangeSourceAndDataProvider_throwsException() throws Exception {
+        ITestAnnotation annotation = Mockito.mock(ITestAnnotation.class);
+        Mockito.doReturn("wrongDataProvider").when(annotation).getDataProvider();
+        Method method = ErrorCases.class.getMethod("rangeSourceAndDataProvider", int.class);
+        RangeSourceListener listener = new RangeSourceListener();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> listener.transform(annotation, null, null, method));
+
+        assertThat(WRONG_EXCEPTION_MESSAGE, ex.getMessage(), containsString(CANNOT_SPECIFY_A_DATA_PROVIDER_IN_TEST_WHEN_ALSO_USING_CSV_SOURCE_OR_ANY_VALUE_SOURCE_ANNOTATION));
+    }
+    // endregion Error cases
+
+    /**
+     * Reads the first parameter of every invocation.
+     *
+     * @param values The parameter values.
+     * @return The first parameters.
+     */
+    private static List<Object> readAll(Iterator<Object[]> values) {
+        List<Object> list = new ArrayList<>();
+        values.forEachRemaining(params -> list.add(params[0]));
+        return list;
+    }
+}
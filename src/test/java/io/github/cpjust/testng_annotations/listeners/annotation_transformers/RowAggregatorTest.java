@@ -0,0 +1,182 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import io.github.cpjust.testng_annotations.annotations.CsvColumn;
+import io.github.cpjust.testng_annotations.annotations.CsvRow;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowAggregatorTest {
+    static final class Order {
+        private final String customer;
+        private final int quantity;
+        private final LocalDate date;
+
+        Order(@CsvColumn("customer") String customer, @CsvColumn("qty") int quantity, @CsvColumn("date") LocalDate date) {
+            this.customer = customer;
+            this.quantity = quantity;
+            this.date = date;
+        }
+    }
+
+    static final class Unnamed {
+        Unnamed(String a, String b) {}
+    }
+
+    static final class TwoConstructors {
+        TwoConstructors(String a) {}
+
+        TwoConstructors(String a, String b) {}
+    }
+
+    static final class NotConvertible {
+        NotConvertible(List<String> values) {}
+    }
+
+    static final class Positive {
+        Positive(int value) {
+            if (value <= 0) {
+                throw new IllegalArgumentException("Not positive: " + value);
+            }
+        }
+    }
+
+    @SuppressWarnings(SourceListenerTestBase.METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    static class Methods {
+        public void order(@CsvRow Order order) {}
+
+        public void orderByHeader(@CsvRow(header = true) Order order) {}
+
+        public void unnamed(@CsvRow(header = true) Unnamed unnamed) {}
+
+        public void twoConstructors(@CsvRow TwoConstructors value) {}
+
+        public void notConvertible(@CsvRow NotConvertible value) {}
+
+        public void abstractType(@CsvRow Number value) {}
+
+        public void positive(@CsvRow Positive value) {}
+
+        public void extraParameter(@CsvRow Order order, String extra) {}
+
+        public void notAnnotated(Order order) {}
+    }
+
+    @Test
+    void testForMethod_notAnnotated_returnsNull() throws NoSuchMethodException {
+        assertNull(RowAggregator.forMethod(Methods.class.getMethod("notAnnotated", Order.class)));
+    }
+
+    @Test
+    void testBind_byPosition_convertsValuesAndCallsConstructor() throws NoSuchMethodException {
+        RowAggregator aggregator = RowAggregator.forMethod(Methods.class.getMethod("order", Order.class));
+
+        Order order = (Order) aggregator.bind(new Object[]{"alice", "3", "2024-02-29"});
+
+        assertFalse(aggregator.isByHeader(), "The columns should be bound by position!");
+        assertEquals(3, aggregator.getParameterCount(), "Unexpected parameter count!");
+        assertEquals("alice", order.customer, "Unexpected customer!");
+        assertEquals(3, order.quantity, "Unexpected quantity!");
+        assertEquals(LocalDate.of(2024, 2, 29), order.date, "Unexpected date!");
+    }
+
+    @Test
+    void testGetColumns_byHeader_findsColumnOfEachParameter() throws NoSuchMethodException {
+        RowAggregator aggregator = RowAggregator.forMethod(Methods.class.getMethod("orderByHeader", Order.class));
+
+        int[] columns = aggregator.getColumns(new Object[]{"date", "unused", "customer", "qty"});
+        Order order = (Order) aggregator.bind(RowAggregator.select(new Object[]{"2024-01-02", "x", "bob", "7"}, columns));
+
+        assertTrue(aggregator.isByHeader(), "The columns should be bound by header!");
+        assertArrayEquals(new int[]{2, 3, 0}, columns, "Unexpected columns!");
+        assertEquals("bob", order.customer, "Unexpected customer!");
+        assertEquals(7, order.quantity, "Unexpected quantity!");
+        assertEquals(LocalDate.of(2024, 1, 2), order.date, "Unexpected date!");
+    }
+
+    @Test
+    void testGetColumns_missingColumn_throws() throws NoSuchMethodException {
+        RowAggregator aggregator = RowAggregator.forMethod(Methods.class.getMethod("orderByHeader", Order.class));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> aggregator.getColumns(new Object[]{"customer", "date"}));
+
+        assertThat(ex.getMessage(), containsString("Column 'qty' of Order is not in the CSV header [customer, date]"));
+    }
+
+    @Test
+    void testGetColumns_unnamedParameter_throws() throws NoSuchMethodException {
+        RowAggregator aggregator = RowAggregator.forMethod(Methods.class.getMethod("unnamed", Unnamed.class));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> aggregator.getColumns(new Object[]{"a", "b"}));
+
+        assertThat(ex.getMessage(), containsString("annotate it with @CsvColumn or compile with -parameters"));
+    }
+
+    @Test
+    void testBind_unconvertibleValue_throws() throws NoSuchMethodException {
+        RowAggregator aggregator = RowAggregator.forMethod(Methods.class.getMethod("order", Order.class));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> aggregator.bind(new Object[]{"alice", "many", "2024-02-29"}));
+
+        assertThat(ex.getMessage(), containsString("Cannot convert value 'many' to int for parameter at index 1!"));
+    }
+
+    @Test
+    void testBind_constructorThrows_wrapsException() throws NoSuchMethodException {
+        RowAggregator aggregator = RowAggregator.forMethod(Methods.class.getMethod("positive", Positive.class));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> aggregator.bind(new Object[]{"-1"}));
+
+        assertThat(ex.getMessage(), containsString("Cannot create Positive from [-1]!"));
+        assertThat(ex.getCause().getMessage(), containsString("Not positive: -1"));
+    }
+
+    @Test
+    void testForMethod_twoConstructors_throws() throws NoSuchMethodException {
+        Method method = Methods.class.getMethod("twoConstructors", TwoConstructors.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> RowAggregator.forMethod(method));
+
+        assertThat(ex.getMessage(), containsString("must have exactly one constructor with parameters, but has 2"));
+    }
+
+    @Test
+    void testForMethod_notConvertibleParameter_throws() throws NoSuchMethodException {
+        Method method = Methods.class.getMethod("notConvertible", NotConvertible.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> RowAggregator.forMethod(method));
+
+        assertThat(ex.getMessage(), containsString("Parameter 0 of the NotConvertible constructor has the type List, which can't be converted from a String"));
+    }
+
+    @Test
+    void testForMethod_abstractType_throws() throws NoSuchMethodException {
+        Method method = Methods.class.getMethod("abstractType", Number.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> RowAggregator.forMethod(method));
+
+        assertThat(ex.getMessage(), containsString("Cannot bind CSV rows to Number, which must be a concrete class or record"));
+    }
+
+    @Test
+    void testForMethod_extraParameter_throws() throws NoSuchMethodException {
+        Method method = Methods.class.getMethod("extraParameter", Order.class, String.class);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> RowAggregator.forMethod(method));
+
+        assertThat(ex.getMessage(), containsString("The @CsvRow parameter of method 'extraParameter' must be its only parameter, but the method has 2 parameters"));
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Properties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowRangeTest {
+    @Test
+    void testSelect_defaultRange_selectsAllRows() {
+        assertArrayEquals(new long[]{0, 10}, RowRange.select(0, Long.MAX_VALUE, false, 10, new Properties()));
+    }
+
+    @Test
+    void testSelect_rangePastEnd_isClampedToRowCount() {
+        assertArrayEquals(new long[]{5, 10}, RowRange.select(5, 100, false, 10, new Properties()));
+        assertArrayEquals(new long[]{10, 10}, RowRange.select(20, 30, false, 10, new Properties()));
+    }
+
+    @Test
+    void testSelect_notSharded_ignoresShardProperty() {
+        assertArrayEquals(new long[]{2, 8}, RowRange.select(2, 8, false, 10, shard("2/3")));
+    }
+
+    @Test
+    void testSelect_shardedWithoutProperty_selectsWholeRange() {
+        assertArrayEquals(new long[]{2, 8}, RowRange.select(2, 8, true, 10, new Properties()));
+    }
+
+    @Test
+    void testSelect_shards_coverRangeContiguouslyWithoutOverlap() {
+        for (long rowCount : new long[]{0, 1, 7, 8, 1000, 1001}) {
+            for (int total = 1; total <= 9; ++total) {
+                long expectedStart = Math.min(3, rowCount);
+
+                for (int index = 0; index < total; ++index) {
+                    long[] slice = RowRange.select(3, Long.MAX_VALUE, true, rowCount, shard(index + "/" + total));
+                    String description = String.format("shard %d/%d of %d rows", index, total, rowCount);
+
+                    assertEquals(expectedStart, slice[0], "Unexpected start of " + description);
+                    assertTrue(slice[1] - slice[0] <= ((rowCount - Math.min(3, rowCount)) / total) + 1, "Unbalanced " + description);
+                    expectedStart = slice[1];
+                }
+
+                assertEquals(rowCount, expectedStart, "The last shard should end at the last row!");
+            }
+        }
+    }
+
+    @Test
+    void testSelect_shardOfHugeRange_doesNotOverflow() {
+        // Long.MAX_VALUE = 8 * (2^60 - 1) + 7, so each of the first 7 shards has one extra row.
+        assertArrayEquals(new long[]{1L << 61, 3L << 60}, RowRange.select(0, Long.MAX_VALUE, true, Long.MAX_VALUE, shard("2/8")));
+        assertArrayEquals(new long[]{Long.MAX_VALUE - ((1L << 60) - 1), Long.MAX_VALUE},
+                RowRange.select(0, Long.MAX_VALUE, true, Long.MAX_VALUE, shard("7/8")));
+    }
+
+    @Test
+    void testIsAllRows_onlyWhenNothingIsExcluded() {
+        assertTrue(RowRange.isAllRows(0, Long.MAX_VALUE, false), "The default range should use all rows!");
+        assertFalse(RowRange.isAllRows(1, Long.MAX_VALUE, false), "A fromRow should exclude rows!");
+        assertFalse(RowRange.isAllRows(0, 5, false), "A toRow should exclude rows!");
+    }
+
+    @Test
+    void testValidate_invalidRanges_throw() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> RowRange.validate(-1, 5, "CsvSource"));
+        assertThat(ex.getMessage(), containsString("CsvSource fromRow cannot be negative, but was -1"));
+
+        ex = assertThrows(IllegalArgumentException.class, () -> RowRange.validate(5, 4, "CsvFileSource"));
+        assertThat(ex.getMessage(), containsString("CsvFileSource toRow must be at least fromRow (5), but was 4"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2", "8/8", "9/8", "-1/8", "a/b", "1/2/3", "1/0"})
+    void testSelect_invalidShard_throws(String shard) {
+        Properties properties = shard(shard);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> RowRange.select(0, Long.MAX_VALUE, true, 10, properties));
+
+        assertThat(ex.getMessage(), containsString("The 'data.shard' property must be 'index/total' with 0 <= index < total, but was '" + shard + "'!"));
+    }
+
+    /**
+     * Creates system properties with a shard.
+     *
+     * @param shard The shard.
+     * @return The properties.
+     */
+    private static Properties shard(String shard) {
+        Properties properties = new Properties();
+        properties.setProperty(RowRange.DATA_SHARD_PROPERTY, shard);
+        return properties;
+    }
+}
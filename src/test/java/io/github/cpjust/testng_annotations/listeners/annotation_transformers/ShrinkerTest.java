@@ -0,0 +1,72 @@
+package io.github.cpjust.testng_annotations.listeners.annotation_transformers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link Shrinker}.
+ */
+class ShrinkerTest {
+    private static final IGenerator INTS = Generators.forType(int.class, null, "test");
+    private static final IGenerator STRINGS = Generators.forType(String.class, null, "test");
+
+    @Test
+    void shrink_threshold_findsSmallestFailingValue() {
+        Shrinker.Result result = Shrinker.shrink(new Object[]{987_654}, new IGenerator[]{INTS}, args -> (Integer) args[0] >= 10, 1000);
+
+        assertArrayEquals(new Object[]{10}, result.getArgs(), "The smallest failing value should be found!");
+        assertTrue(result.getSteps() > 0, "Some steps should have been made!");
+    }
+
+    @Test
+    void shrink_negativeThreshold_prefersPositiveValue() {
+        Shrinker.Result result = Shrinker.shrink(new Object[]{-500}, new IGenerator[]{INTS},
+                args -> Math.abs((Integer) args[0]) >= 7, 1000);
+
+        assertArrayEquals(new Object[]{7}, result.getArgs(), "The positive value should be simpler than the negative one!");
+    }
+
+    @Test
+    void shrink_severalArguments_shrinksEachArgument() {
+        Shrinker.Result result = Shrinker.shrink(new Object[]{"hello world", 77}, new IGenerator[]{STRINGS, INTS},
+                args -> (((String) args[0]).length() >= 3) && ((Integer) args[1] > 5), 1000);
+
+        assertArrayEquals(new Object[]{"   ", 6}, result.getArgs(), "Each argument should be shrunk!");
+    }
+
+    @Test
+    void shrink_passingCandidates_keepsOriginalArguments() {
+        Object[] args = {12};
+
+        Shrinker.Result result = Shrinker.shrink(args, new IGenerator[]{INTS}, candidate -> candidate[0].equals(12), 1000);
+
+        assertArrayEquals(args, result.getArgs(), "The arguments can't be shrunk!");
+        assertEquals(0, result.getSteps(), "No steps should have been made!");
+        assertEquals(4, result.getAttempts(), "Every candidate (0, 6, 9 and 11) should have been tried once!");
+    }
+
+    @Test
+    void shrink_maxAttempts_stopsShrinking() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Shrinker.Result result = Shrinker.shrink(new Object[]{1_000_000}, new IGenerator[]{INTS}, args -> {
+            calls.incrementAndGet();
+            return (Integer) args[0] >= 10;
+        }, 3);
+
+        assertEquals(3, calls.get(), "The test should only run up to the maximum number of attempts!");
+        assertEquals(3, result.getAttempts(), "Wrong number of attempts!");
+    }
+
+    @Test
+    void shrink_nullArgument_isNotShrunk() {
+        Shrinker.Result result = Shrinker.shrink(new Object[]{null, 3}, new IGenerator[]{STRINGS, INTS}, args -> true, 1000);
+
+        assertArrayEquals(new Object[]{null, 0}, result.getArgs(), "Only the non-null argument should be shrunk!");
+    }
+}
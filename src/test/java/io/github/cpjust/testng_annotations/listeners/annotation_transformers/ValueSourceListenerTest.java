@@ -20,9 +20,13 @@ import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ValueSourceListenerTest extends SourceListenerTestBase {
     static final String METHODS_SHOULD_NOT_BE_EMPTY = "java:S1186"; // Suppress "Methods should not be empty" warning
@@ -62,6 +66,15 @@ class ValueSourceListenerTest extends SourceListenerTestBase {
 
         @ValueSource(classes = {String.class, Integer.class})
         public void classValues(Class<?> value) {}
+
+        @ValueSource(ints = {-1, 2, 3})
+        public void boxedIntValues(Integer value) {}
+
+        @ValueSource(chars = {'a', 'b'})
+        public void boxedCharValues(Character value) {}
+
+        @ValueSource(doubles = {1.1, 2.2})
+        public void boxedDoubleValues(Double value) {}
     }
 
     /**
@@ -79,7 +92,10 @@ class ValueSourceListenerTest extends SourceListenerTestBase {
             Arguments.of("longValues", long.class, new Object[]{10L, 20L}),
             Arguments.of("floatValues", float.class, new Object[]{1.5f, 2.5f}),
             Arguments.of("doubleValues", double.class, new Object[]{1.1, 2.2}),
-            Arguments.of("classValues", Class.class, new Object[]{String.class, Integer.class})
+            Arguments.of("classValues", Class.class, new Object[]{String.class, Integer.class}),
+            Arguments.of("boxedIntValues", Integer.class, new Object[]{-1, 2, 3}),
+            Arguments.of("boxedCharValues", Character.class, new Object[]{'a', 'b'}),
+            Arguments.of("boxedDoubleValues", Double.class, new Object[]{1.1, 2.2})
         );
     }
 
@@ -94,6 +110,46 @@ class ValueSourceListenerTest extends SourceListenerTestBase {
             assertEquals(expected[i], values[i], "Value at index " + i + " does not match!");
         }
     }
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY)
+    public static class CachedCases {
+        @ValueSource(longs = {1L, 2L, 3L})
+        public void first(long value) {}
+
+        @ValueSource(longs = {1L, 2L, 3L})
+        public void sameValues(long value) {}
+
+        @ValueSource(longs = {1L, 2L, 3L})
+        public void sameValuesBoxed(Long value) {}
+
+        @NullSource
+        @ValueSource(longs = {1L, 2L, 3L})
+        public void sameValuesWithNull(Long value) {}
+    }
+
+    @Test
+    void provideValues_calledTwice_returnsEqualCopies() throws Exception {
+        Method method = CachedCases.class.getMethod("first", long.class);
+        Object[] first = ValueSourceListener.provideValues(method);
+        first[0] = 42L;
+
+        Object[] second = ValueSourceListener.provideValues(method);
+        assertArrayEquals(new Object[]{1L, 2L, 3L}, second, "Changes to the returned values shouldn't change the cached values!");
+        assertSame(second[1], ValueSourceListener.provideValues(method)[1], "The cached values shouldn't be boxed again!");
+    }
+
+    @Test
+    void provideValues_identicalAnnotations_cachesValuesPerMethod() throws Exception {
+        ValueSourceListener.provideValues(CachedCases.class.getMethod("first", long.class));
+        ValueSourceListener.provideValues(CachedCases.class.getMethod("first", long.class));
+        assertEquals(1, ValueSourceListener.CACHE.size(CachedCases.class), "Calling the same method again should reuse the cached values!");
+
+        ValueSourceListener.provideValues(CachedCases.class.getMethod("sameValues", long.class));
+        ValueSourceListener.provideValues(CachedCases.class.getMethod("sameValuesBoxed", Long.class));
+        assertArrayEquals(new Object[]{null, 1L, 2L, 3L}, ValueSourceListener.provideValues(CachedCases.class.getMethod("sameValuesWithNull", Long.class)),
+                "Other annotations should be cached separately!");
+        assertEquals(4, ValueSourceListener.CACHE.size(CachedCases.class), "Each method should be cached separately!");
+    }
     // endregion Positive cases
 
     // region Error cases
@@ -126,6 +182,9 @@ class ValueSourceListenerTest extends SourceListenerTestBase {
         @ValueSource(ints = {5, 6})
         public void wrongIntType(long value) {} // should be int/Integer
 
+        @ValueSource(ints = {5, 6})
+        public void wrongBoxedIntType(Character value) {} // should be int/Integer
+
         @ValueSource(longs = {7L, 8L})
         public void wrongLongType(short value) {} // should be long/Long
 
@@ -205,6 +264,7 @@ class ValueSourceListenerTest extends SourceListenerTestBase {
                 Arguments.of("wrongByteType", new Class<?>[]{int.class}, "byte/Byte when using bytes()"),
                 Arguments.of("wrongShortType", new Class<?>[]{int.class}, "short/Short when using shorts()"),
                 Arguments.of("wrongIntType", new Class<?>[]{long.class}, "int/Integer when using ints()"),
+                Arguments.of("wrongBoxedIntType", new Class<?>[]{Character.class}, "int/Integer when using ints()"),
                 Arguments.of("wrongLongType", new Class<?>[]{short.class}, "long/Long when using longs()"),
                 Arguments.of("wrongFloatType", new Class<?>[]{double.class}, "float/Float when using floats()"),
                 Arguments.of("wrongDoubleType", new Class<?>[]{float.class}, "double/Double when using doubles()"),
@@ -371,6 +431,19 @@ class ValueSourceListenerTest extends SourceListenerTestBase {
             }
         }
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void provideValues_emptyQueue_returnsNewQueueForEveryCall() throws Exception {
+        Method method = NullAndEmptyPositiveCases.class.getMethod("nullAndEmptyQueue", Queue.class);
+
+        Queue<String> first = (Queue<String>) ValueSourceListener.provideValues(method)[1];
+        first.add("changed by a test");
+        Queue<String> second = (Queue<String>) ValueSourceListener.provideValues(method)[1];
+
+        assertNotSame(first, second, "Every call should get its own empty Queue!");
+        assertTrue(second.isEmpty(), "Changes to an empty Queue shouldn't leak into later calls!");
+    }
     // endregion NullSource/EmptySource/NullAndEmptySource positive cases
 
     // region NullSource/EmptySource/NullAndEmptySource error cases
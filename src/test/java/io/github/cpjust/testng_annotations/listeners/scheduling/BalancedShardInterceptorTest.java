@@ -0,0 +1,155 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import io.github.cpjust.testng_annotations.listeners.scheduling.TimingJournal.Outcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testng.IMethodInstance;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BalancedShardInterceptorTest {
+    private static final String TEST_CLASS = ShardInterceptorTest.ManyTests.class.getName();
+
+    @TempDir
+    Path tempDir;
+
+    private Path timingsFile;
+    private Path journalFile;
+    private Properties properties;
+    private BalancedShardInterceptor interceptor;
+    private List<IMethodInstance> methods;
+
+    @BeforeEach
+    void setUp() {
+        timingsFile = tempDir.resolve("timings.properties");
+        journalFile = tempDir.resolve("timings.journal");
+        properties = new Properties();
+        properties.setProperty(TestTimingListener.TIMINGS_FILE_PROPERTY, timingsFile.toString());
+        properties.setProperty(TimingJournalListener.JOURNAL_FILE_PROPERTY, journalFile.toString());
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, "2");
+        interceptor = new BalancedShardInterceptor(properties);
+        methods = Arrays.stream(ShardInterceptorTest.ManyTests.class.getDeclaredMethods())
+                .sorted(Comparator.comparing(Method::getName))
+                .limit(5)
+                .map(method -> ShardInterceptorTest.mockMethodInstance(ShardInterceptorTest.ManyTests.class, method, false))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void assignShards_groupsWithDurations_usesLongestProcessingTimeFirst() {
+        Map<String, Long> durations = Map.of("a", 5L, "b", 4L, "c", 3L, "d", 3L, "e", 2L);
+
+        // a -> 0 (5), b -> 1 (4), c -> 1 (7), d -> 0 (8), e -> 1 (9)
+        assertThat("Wrong shard assignment!", BalancedShardInterceptor.assignShards(durations, 2),
+                equalTo(Map.of("a", 0, "b", 1, "c", 1, "d", 0, "e", 1)));
+    }
+
+    @Test
+    void intercept_recordedDurations_balancesShards() throws IOException {
+        // test01 alone takes as long as all the others together.
+        new TestTimings(Map.of(
+                TEST_CLASS + "#test01()", 400L,
+                TEST_CLASS + "#test02()", 100L,
+                TEST_CLASS + "#test03()", 100L,
+                TEST_CLASS + "#test04()", 100L,
+                TEST_CLASS + "#test05()", 100L)).save(timingsFile);
+
+        assertThat("The slowest test should be alone in its shard!", runShard(0), containsInAnyOrder(methods.get(0)));
+        assertThat("The other tests should be in the other shard!", runShard(1),
+                containsInAnyOrder(methods.get(1), methods.get(2), methods.get(3), methods.get(4)));
+    }
+
+    @Test
+    void intercept_journalDurations_balancesShards() throws IOException {
+        // test01 has two rows that together take as long as all the other tests.
+        try (TimingJournal journal = TimingJournal.open(journalFile, 16)) {
+            journal.append(TestIds.stableHash(TEST_CLASS + "#test01()"), 0, TimeUnit.MILLISECONDS.toNanos(200), -1, Outcome.SUCCESS);
+            journal.append(TestIds.stableHash(TEST_CLASS + "#test01()"), 1, TimeUnit.MILLISECONDS.toNanos(200), -1, Outcome.SUCCESS);
+
+            for (int i = 2; i <= 5; ++i) {
+                journal.append(TestIds.stableHash(String.format("%s#test%02d()", TEST_CLASS, i)), 0, TimeUnit.MILLISECONDS.toNanos(100),
+                        -1, Outcome.SUCCESS);
+            }
+        }
+
+        assertThat("The slowest test should be alone in its shard!", runShard(0), containsInAnyOrder(methods.get(0)));
+        assertThat("The other tests should be in the other shard!", runShard(1),
+                containsInAnyOrder(methods.get(1), methods.get(2), methods.get(3), methods.get(4)));
+    }
+
+    @Test
+    void intercept_testsWithoutHistory_useDefaultDuration() throws IOException {
+        new TestTimings(Map.of(TEST_CLASS + "#test01()", 250L)).save(timingsFile);
+        properties.setProperty(BalancedShardInterceptor.DEFAULT_DURATION_PROPERTY, "100");
+
+        // test01 -> 0 (250); test02..test05 -> 1, 1, 1 (300), then 0 (350).
+        assertThat("Wrong tests in shard 0!", runShard(0), containsInAnyOrder(methods.get(0), methods.get(4)));
+        assertThat("Wrong tests in shard 1!", runShard(1), containsInAnyOrder(methods.get(1), methods.get(2), methods.get(3)));
+    }
+
+    @Test
+    void intercept_noTimingsFile_assignsByHash() {
+        properties.setProperty(ShardInterceptor.SHARD_INDEX_PROPERTY, "1");
+        List<IMethodInstance> expected = new ShardInterceptor(properties).intercept(methods, null);
+
+        assertThat("Without timings the tests should be assigned by hash!", runShard(1), equalTo(expected));
+    }
+
+    @Test
+    void intercept_invalidDefaultDuration_throwsException() throws IOException {
+        new TestTimings(Map.of(TEST_CLASS + "#test01()", 250L)).save(timingsFile);
+        properties.setProperty(BalancedShardInterceptor.DEFAULT_DURATION_PROPERTY, "slow");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> runShard(0),
+                "intercept() should throw an IllegalArgumentException for an invalid default duration!");
+        assertThat("intercept() threw the wrong message!", ex.getMessage(),
+                equalTo("The 'shard.defaultDuration' property must be a number, but was 'slow'!"));
+    }
+
+    @Test
+    void intercept_allShards_runsEveryTestExactlyOnce() throws IOException {
+        Map<String, Long> durations = new HashMap<>();
+
+        for (int i = 1; i <= 5; ++i) {
+            durations.put(String.format("%s#test%02d()", TEST_CLASS, i), i * 37L);
+        }
+
+        new TestTimings(durations).save(timingsFile);
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, "3");
+        List<IMethodInstance> allShards = new ArrayList<>();
+
+        for (int shard = 0; shard < 3; ++shard) {
+            allShards.addAll(runShard(shard));
+        }
+
+        assertThat("Every test should be run in exactly one shard!", allShards, containsInAnyOrder(methods.toArray()));
+    }
+
+    /**
+     * Runs the interceptor for a shard.
+     *
+     * @param shardIndex The shard index.
+     * @return The tests of the shard.
+     */
+    private List<IMethodInstance> runShard(int shardIndex) {
+        properties.setProperty(ShardInterceptor.SHARD_INDEX_PROPERTY, String.valueOf(shardIndex));
+        return interceptor.intercept(methods, null);
+    }
+}
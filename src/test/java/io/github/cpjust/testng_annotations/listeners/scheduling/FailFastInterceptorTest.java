@@ -0,0 +1,193 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import io.github.cpjust.testng_annotations.listeners.scheduling.TimingJournal.Outcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testng.IMethodInstance;
+import org.testng.ITestNGMethod;
+import org.testng.internal.ConstructorOrMethod;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+class FailFastInterceptorTest {
+    static final String METHODS_SHOULD_NOT_BE_EMPTY = "java:S1186"; // Suppress "Methods should not be empty" warning
+    private static final String TEST_CLASS = OrderedTests.class.getName();
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class OrderedTests {
+        public void neverFailedSlow() {}
+        public void neverFailedFast() {}
+        public void failedLastRun() {}
+        public void failedTwoRunsAgo() {}
+        public void noHistory() {}
+    }
+
+    @TempDir
+    Path tempDir;
+
+    private Path timingsFile;
+    private Path journalFile;
+    private FailFastInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        timingsFile = tempDir.resolve("timings.properties");
+        journalFile = tempDir.resolve("timings.journal");
+        Properties properties = new Properties();
+        properties.setProperty(TestTimingListener.TIMINGS_FILE_PROPERTY, timingsFile.toString());
+        properties.setProperty(TimingJournalListener.JOURNAL_FILE_PROPERTY, journalFile.toString());
+        interceptor = new FailFastInterceptor(properties);
+    }
+
+    @Test
+    void intercept_noHistory_returnsOriginalList() {
+        List<IMethodInstance> methods = List.of(mockMethod("neverFailedSlow", 0), mockMethod("neverFailedFast", 0));
+        assertThat("intercept() should return the original list without history!", interceptor.intercept(methods, null), sameInstance(methods));
+    }
+
+    @Test
+    void intercept_history_runsRecentFailuresThenFastTestsFirst() throws IOException {
+        saveHistory();
+        List<IMethodInstance> methods = List.of(mockMethod("neverFailedSlow", 0), mockMethod("neverFailedFast", 0),
+                mockMethod("failedTwoRunsAgo", 0), mockMethod("noHistory", 0), mockMethod("failedLastRun", 0));
+
+        assertThat("Wrong order!", namesOf(interceptor.intercept(methods, null)),
+                contains("failedLastRun", "failedTwoRunsAgo", "neverFailedFast", "noHistory", "neverFailedSlow"));
+    }
+
+    @Test
+    void intercept_journalHistory_runsRecentFailuresThenFastTestsFirst() throws IOException {
+        try (TimingJournal journal = TimingJournal.open(journalFile, 16)) {
+            appendRun(journal, "neverFailedSlow", 5000, Outcome.SUCCESS);
+            appendRun(journal, "neverFailedFast", 10, Outcome.SUCCESS);
+            appendRun(journal, "failedTwoRunsAgo", 20, Outcome.FAILURE);
+            appendRun(journal, "failedLastRun", 3000, Outcome.SUCCESS);
+            appendRun(journal, "failedTwoRunsAgo", 20, Outcome.SUCCESS);
+            appendRun(journal, "failedLastRun", 3000, Outcome.FAILURE);
+            appendRun(journal, "failedTwoRunsAgo", 20, Outcome.SUCCESS);
+        }
+
+        List<IMethodInstance> methods = List.of(mockMethod("neverFailedSlow", 0), mockMethod("neverFailedFast", 0),
+                mockMethod("failedTwoRunsAgo", 0), mockMethod("noHistory", 0), mockMethod("failedLastRun", 0));
+
+        assertThat("Wrong order!", namesOf(interceptor.intercept(methods, null)),
+                contains("failedLastRun", "failedTwoRunsAgo", "neverFailedFast", "noHistory", "neverFailedSlow"));
+    }
+
+    @Test
+    void intercept_priorities_respectsPriorities() throws IOException {
+        saveHistory();
+        List<IMethodInstance> methods = List.of(mockMethod("neverFailedSlow", -1), mockMethod("failedLastRun", 1),
+                mockMethod("neverFailedFast", 0));
+
+        assertThat("Priorities should be respected before the history!", namesOf(interceptor.intercept(methods, null)),
+                contains("neverFailedSlow", "neverFailedFast", "failedLastRun"));
+    }
+
+    @Test
+    void intercept_dependencies_runsDependenciesFirst() throws IOException {
+        saveHistory();
+        List<IMethodInstance> methods = List.of(
+                mockMethod("neverFailedSlow", 0, new String[] { "slow" }, new String[0], new String[0]),
+                mockMethod("neverFailedFast", 0),
+                mockMethod("failedLastRun", 0, new String[0], new String[] { TEST_CLASS + ".neverFailedSlow" }, new String[0]),
+                mockMethod("failedTwoRunsAgo", 0, new String[0], new String[0], new String[] { "slow" }));
+
+        assertThat("Tests should run after the methods and groups they depend on!", namesOf(interceptor.intercept(methods, null)),
+                contains("neverFailedFast", "neverFailedSlow", "failedLastRun", "failedTwoRunsAgo"));
+    }
+
+    /**
+     * Saves a history with the durations and failures of the OrderedTests methods.
+     *
+     * @throws IOException If the history can't be saved.
+     */
+    private void saveHistory() throws IOException {
+        new TestTimings(
+                Map.of(TEST_CLASS + "#neverFailedSlow()", 5000L,
+                        TEST_CLASS + "#neverFailedFast()", 10L,
+                        TEST_CLASS + "#failedLastRun()", 3000L,
+                        TEST_CLASS + "#failedTwoRunsAgo()", 20L),
+                Map.of(TEST_CLASS + "#failedLastRun()", 0,
+                        TEST_CLASS + "#failedTwoRunsAgo()", 2)).save(timingsFile);
+    }
+
+    /**
+     * Appends a run of an OrderedTests method to a timing journal.
+     *
+     * @param journal    The journal.
+     * @param methodName The name of the test method.
+     * @param millis     The duration of the run in milliseconds.
+     * @param outcome    The outcome of the run.
+     */
+    private static void appendRun(TimingJournal journal, String methodName, long millis, Outcome outcome) {
+        journal.append(TestIds.stableHash(TEST_CLASS + "#" + methodName + "()"), 0, TimeUnit.MILLISECONDS.toNanos(millis), -1, outcome);
+    }
+
+    /**
+     * Gets the method names of the tests.
+     *
+     * @param methods The tests.
+     * @return The method names.
+     */
+    private static List<String> namesOf(List<IMethodInstance> methods) {
+        return methods.stream()
+                .map(method -> method.getMethod().getConstructorOrMethod().getName())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Mocks a test without groups or dependencies.
+     *
+     * @param methodName The OrderedTests method name.
+     * @param priority   The priority of the test.
+     * @return The mocked method instance.
+     */
+    private static IMethodInstance mockMethod(String methodName, int priority) {
+        return mockMethod(methodName, priority, new String[0], new String[0], new String[0]);
+    }
+
+    /**
+     * Mocks a test.
+     *
+     * @param methodName          The OrderedTests method name.
+     * @param priority            The priority of the test.
+     * @param groups              The groups of the test.
+     * @param methodsDependedUpon The qualified names of the methods the test depends on.
+     * @param groupsDependedUpon  The groups the test depends on.
+     * @return The mocked method instance.
+     */
+    private static IMethodInstance mockMethod(String methodName, int priority, String[] groups, String[] methodsDependedUpon,
+                                              String[] groupsDependedUpon) {
+        IMethodInstance methodInstance = mock(IMethodInstance.class);
+        ITestNGMethod testNgMethod = mock(ITestNGMethod.class);
+
+        try {
+            lenient().when(testNgMethod.getConstructorOrMethod()).thenReturn(new ConstructorOrMethod(OrderedTests.class.getMethod(methodName)));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        lenient().when(methodInstance.getMethod()).thenReturn(testNgMethod);
+        lenient().when(testNgMethod.getRealClass()).thenReturn((Class) OrderedTests.class);
+        lenient().when(testNgMethod.getPriority()).thenReturn(priority);
+        lenient().when(testNgMethod.getQualifiedName()).thenReturn(TEST_CLASS + "." + methodName);
+        lenient().when(testNgMethod.getGroups()).thenReturn(groups);
+        lenient().when(testNgMethod.getMethodsDependedUpon()).thenReturn(methodsDependedUpon);
+        lenient().when(testNgMethod.getGroupsDependedUpon()).thenReturn(groupsDependedUpon);
+        return methodInstance;
+    }
+}
@@ -0,0 +1,200 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.testng.IMethodInstance;
+import org.testng.ITestNGMethod;
+import org.testng.internal.ConstructorOrMethod;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+class ShardInterceptorTest {
+    static final String METHODS_SHOULD_NOT_BE_EMPTY = "java:S1186"; // Suppress "Methods should not be empty" warning
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class ManyTests {
+        public void test01() {}
+        public void test02() {}
+        public void test03() {}
+        public void test04() {}
+        public void test05() {}
+        public void test06() {}
+        public void test07() {}
+        public void test08() {}
+        public void test09() {}
+        public void test10() {}
+        public void test11() {}
+        public void test12() {}
+        public void test13() {}
+        public void test14() {}
+        public void test15() {}
+        public void test16() {}
+    }
+
+    private Properties properties;
+    private ShardInterceptor interceptor;
+    private List<IMethodInstance> methods;
+
+    @BeforeEach
+    void setUp() {
+        properties = new Properties();
+        interceptor = new ShardInterceptor(properties);
+        methods = Arrays.stream(ManyTests.class.getDeclaredMethods())
+                .sorted(Comparator.comparing(Method::getName))
+                .map(method -> mockMethodInstance(ManyTests.class, method, false))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void intercept_shardingNotConfigured_returnsOriginalList() {
+        assertThat("intercept() should return the original list if sharding isn't configured!",
+                interceptor.intercept(methods, null), sameInstance(methods));
+    }
+
+    @Test
+    void intercept_allShards_runsEveryTestExactlyOnce() {
+        List<IMethodInstance> allShards = new ArrayList<>();
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, "4");
+
+        for (int shard = 0; shard < 4; ++shard) {
+            properties.setProperty(ShardInterceptor.SHARD_INDEX_PROPERTY, String.valueOf(shard));
+            allShards.addAll(interceptor.intercept(methods, null));
+        }
+
+        assertThat("Every test should be run in exactly one shard!", allShards, containsInAnyOrder(methods.toArray()));
+    }
+
+    @Test
+    void intercept_calledTwice_returnsSameTests() {
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, "3");
+        properties.setProperty(ShardInterceptor.SHARD_INDEX_PROPERTY, "1");
+
+        List<IMethodInstance> first = interceptor.intercept(methods, null);
+        List<IMethodInstance> second = interceptor.intercept(new ArrayList<>(methods.subList(0, 8)), null);
+
+        assertThat("Removing other tests shouldn't move a test to another shard!", second,
+                equalTo(first.stream().filter(methods.subList(0, 8)::contains).collect(Collectors.toList())));
+    }
+
+    @Test
+    void intercept_singleShard_runsAllTests() {
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, "1");
+        properties.setProperty(ShardInterceptor.SHARD_INDEX_PROPERTY, "0");
+        assertThat("A single shard should run all tests!", interceptor.intercept(methods, null), equalTo(methods));
+    }
+
+    @Test
+    void intercept_surefireForkNumber_usedAsOneBasedShardIndex() {
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, "2");
+        properties.setProperty(ShardInterceptor.SHARD_INDEX_PROPERTY, "1");
+        List<IMethodInstance> expected = interceptor.intercept(methods, null);
+
+        properties.remove(ShardInterceptor.SHARD_INDEX_PROPERTY);
+        properties.setProperty(ShardInterceptor.SUREFIRE_FORK_NUMBER_PROPERTY, "2");
+
+        assertThat("Fork number 2 should run shard 1!", interceptor.intercept(methods, null), equalTo(expected));
+    }
+
+    @Test
+    void intercept_classWithDependencies_runsWholeClassInOneShard() {
+        List<IMethodInstance> dependentMethods = Arrays.stream(ManyTests.class.getDeclaredMethods())
+                .map(method -> mockMethodInstance(ManyTests.class, method, method.getName().equals("test16")))
+                .collect(Collectors.toList());
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, "2");
+        properties.setProperty(ShardInterceptor.SHARD_INDEX_PROPERTY, "0");
+
+        assertThat("All tests of a class with dependencies should be in the same shard!",
+                interceptor.intercept(dependentMethods, null), anyOf(empty(), hasSize(dependentMethods.size())));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "0|0|The 'shard.total' property must be at least 1, but was 0!",
+            "4|4|The shard index must be between 0 and 3, but was 4!",
+            "4|-1|The shard index must be between 0 and 3, but was -1!",
+            "four|0|The 'shard.total' property must be a number, but was 'four'!",
+            "4|x|The 'shard.index' property must be a number, but was 'x'!"
+    })
+    void intercept_invalidConfiguration_throwsException(String total, String index, String expectedMessage) {
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, total);
+        properties.setProperty(ShardInterceptor.SHARD_INDEX_PROPERTY, index);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> interceptor.intercept(methods, null),
+                "intercept() should throw an IllegalArgumentException for an invalid configuration!");
+        assertThat("intercept() threw the wrong message!", ex.getMessage(), equalTo(expectedMessage));
+    }
+
+    @Test
+    void intercept_indexNotSet_throwsException() {
+        properties.setProperty(ShardInterceptor.SHARD_TOTAL_PROPERTY, "4");
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> interceptor.intercept(methods, null),
+                "intercept() should throw an IllegalArgumentException if the shard index isn't set!");
+        assertThat("intercept() threw the wrong message!", ex.getMessage(),
+                equalTo("The 'shard.total' property is set, but neither 'shard.index' nor 'surefire.forkNumber' is set!"));
+    }
+
+    @Test
+    void stableHash_sameValue_returnsKnownHash() {
+        // The hash must never change, otherwise tests would move to other shards after upgrading.
+        assertThat("stableHash() changed!", TestIds.stableHash("a.B#c()"), equalTo(6591255378467222800L));
+        assertThat("testId() has the wrong format!", TestIds.testId(String.class, getMethod(String.class, "indexOf", String.class, int.class)),
+                equalTo("java.lang.String#indexOf(java.lang.String,int)"));
+    }
+
+    /**
+     * Mocks a method instance.
+     *
+     * @param testClass       The test class.
+     * @param method          The test method.
+     * @param hasDependencies True if the method depends on other methods.
+     * @return The mocked method instance.
+     */
+    static IMethodInstance mockMethodInstance(Class<?> testClass, Method method, boolean hasDependencies) {
+        IMethodInstance methodInstance = mock(IMethodInstance.class);
+        ITestNGMethod testNgMethod = mock(ITestNGMethod.class);
+
+        lenient().when(methodInstance.getMethod()).thenReturn(testNgMethod);
+        lenient().when(testNgMethod.getRealClass()).thenReturn((Class) testClass);
+        lenient().when(testNgMethod.getConstructorOrMethod()).thenReturn(new ConstructorOrMethod(method));
+        lenient().when(testNgMethod.getMethodsDependedUpon()).thenReturn(hasDependencies ? new String[] { "other" } : new String[0]);
+        lenient().when(testNgMethod.getGroupsDependedUpon()).thenReturn(new String[0]);
+        lenient().when(testNgMethod.toString()).thenReturn(method.getName());
+        return methodInstance;
+    }
+
+    /**
+     * Gets a public method, wrapping the checked exception.
+     *
+     * @param clazz          The class declaring the method.
+     * @param name           The method name.
+     * @param parameterTypes The parameter types.
+     * @return The method.
+     */
+    private static Method getMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        try {
+            return clazz.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.internal.ConstructorOrMethod;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TestTimingListenerTest {
+    static final String METHODS_SHOULD_NOT_BE_EMPTY = "java:S1186"; // Suppress "Methods should not be empty" warning
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class TimedTests {
+        public void fast() {}
+        public void slow(int row) {}
+    }
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void onExecutionFinish_testsRun_writesTotalDurationOfEachMethod() throws Exception {
+        Path timingsFile = tempDir.resolve("timings.properties");
+        TestTimingListener listener = new TestTimingListener(timingsFile);
+
+        listener.onTestSuccess(mockResult(TimedTests.class.getMethod("fast"), 100, 150));
+        listener.onTestSuccess(mockResult(TimedTests.class.getMethod("slow", int.class), 1000, 3000));
+        listener.onTestFailure(mockResult(TimedTests.class.getMethod("slow", int.class), 3000, 4500));
+        listener.onExecutionFinish();
+
+        TestTimings timings = TestTimings.load(timingsFile);
+        assertThat("Wrong duration for a single invocation!", timings.getDuration(TimedTests.class.getName() + "#fast()"),
+                equalTo(OptionalLong.of(50)));
+        assertThat("Durations of all invocations should be added together!", timings.getDuration(TimedTests.class.getName() + "#slow(int)"),
+                equalTo(OptionalLong.of(3500)));
+    }
+
+    @Test
+    void onExecutionFinish_twoListenersSameFile_keepsDurationsOfBoth() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int round = 0; round < 20; ++round) {
+                Path timingsFile = tempDir.resolve("timings-" + round + ".properties");
+                TestTimingListener fastListener = new TestTimingListener(timingsFile);
+                TestTimingListener slowListener = new TestTimingListener(timingsFile);
+                fastListener.onTestSuccess(mockResult(TimedTests.class.getMethod("fast"), 0, 10));
+                slowListener.onTestFailure(mockResult(TimedTests.class.getMethod("slow", int.class), 0, 2000));
+                CountDownLatch start = new CountDownLatch(1);
+
+                List<Future<?>> futures = List.of(
+                        executor.submit(() -> { start.await(); fastListener.onExecutionFinish(); return null; }),
+                        executor.submit(() -> { start.await(); slowListener.onExecutionFinish(); return null; }));
+                start.countDown();
+
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                TestTimings timings = TestTimings.load(timingsFile);
+                assertThat("The durations of the first listener should be kept!",
+                        timings.getDuration(TimedTests.class.getName() + "#fast()"), equalTo(OptionalLong.of(10)));
+                assertThat("The durations of the second listener should be kept!",
+                        timings.getDuration(TimedTests.class.getName() + "#slow(int)"), equalTo(OptionalLong.of(2000)));
+                assertThat("The failure of the second listener should be kept!",
+                        timings.getRunsSinceFailure(TimedTests.class.getName() + "#slow(int)"), equalTo(OptionalInt.of(0)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void onExecutionFinish_existingTimings_keepsTestsThatDidNotRun() throws Exception {
+        Path timingsFile = tempDir.resolve("timings.properties");
+        new TestTimings(Map.of("other#test()", 42L, TimedTests.class.getName() + "#fast()", 999L)).save(timingsFile);
+        TestTimingListener listener = new TestTimingListener(timingsFile);
+
+        listener.onTestSuccess(mockResult(TimedTests.class.getMethod("fast"), 0, 10));
+        listener.onExecutionFinish();
+
+        TestTimings timings = TestTimings.load(timingsFile);
+        assertThat("Tests that didn't run should keep their durations!", timings.getDuration("other#test()"), equalTo(OptionalLong.of(42)));
+        assertThat("Tests that ran should get their latest duration!", timings.getDuration(TimedTests.class.getName() + "#fast()"),
+                equalTo(OptionalLong.of(10)));
+    }
+
+    @Test
+    void onExecutionFinish_failedTests_recordsRunsSinceFailure() throws Exception {
+        Path timingsFile = tempDir.resolve("timings.properties");
+        String fastId = TimedTests.class.getName() + "#fast()";
+        String slowId = TimedTests.class.getName() + "#slow(int)";
+        new TestTimings(Map.of(fastId, 1L, slowId, 1L), Map.of(fastId, 3)).save(timingsFile);
+        TestTimingListener listener = new TestTimingListener(timingsFile);
+
+        listener.onTestSuccess(mockResult(TimedTests.class.getMethod("fast"), 0, 10));
+        listener.onTestFailure(mockResult(TimedTests.class.getMethod("slow", int.class), 0, 10));
+        listener.onExecutionFinish();
+
+        TestTimings timings = TestTimings.load(timingsFile);
+        assertThat("Passing test should count another run since its last failure!", timings.getRunsSinceFailure(fastId),
+                equalTo(OptionalInt.of(4)));
+        assertThat("Failing test should reset its runs since failure!", timings.getRunsSinceFailure(slowId),
+                equalTo(OptionalInt.of(0)));
+    }
+
+    @Test
+    void onExecutionFinish_noTestsRun_doesNotWriteFile() {
+        Path timingsFile = tempDir.resolve("timings.properties");
+        new TestTimingListener(timingsFile).onExecutionFinish();
+        assertFalse(Files.exists(timingsFile), "The timings file shouldn't be written if no tests ran!");
+    }
+
+    @Test
+    void load_corruptEntry_ignoresEntry() throws IOException {
+        Path timingsFile = tempDir.resolve("timings.properties");
+        Files.writeString(timingsFile, "a#b()=12\nc#d()=oops\n");
+
+        TestTimings timings = TestTimings.load(timingsFile);
+        assertThat("Valid entry should be loaded!", timings.getDuration("a#b()"), equalTo(OptionalLong.of(12)));
+        assertThat("Corrupt entry should be ignored!", timings.getDuration("c#d()"), equalTo(OptionalLong.empty()));
+    }
+
+    /**
+     * Mocks the result of a test invocation.
+     *
+     * @param method      The test method.
+     * @param startMillis The start time.
+     * @param endMillis   The end time.
+     * @return The mocked result.
+     */
+    private static ITestResult mockResult(Method method, long startMillis, long endMillis) {
+        ITestResult result = mock(ITestResult.class);
+        ITestNGMethod testNgMethod = mock(ITestNGMethod.class);
+
+        when(result.getMethod()).thenReturn(testNgMethod);
+        when(result.getStartMillis()).thenReturn(startMillis);
+        when(result.getEndMillis()).thenReturn(endMillis);
+        when(testNgMethod.getRealClass()).thenReturn((Class) TimedTests.class);
+        when(testNgMethod.getConstructorOrMethod()).thenReturn(new ConstructorOrMethod(method));
+        return result;
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import io.github.cpjust.testng_annotations.listeners.scheduling.TimingJournal.Entry;
+import io.github.cpjust.testng_annotations.listeners.scheduling.TimingJournal.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.internal.ConstructorOrMethod;
+import org.testng.internal.TestResult;
+
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+class TimingJournalListenerTest {
+    static final String METHODS_SHOULD_NOT_BE_EMPTY = "java:S1186"; // Suppress "Methods should not be empty" warning
+
+    @SuppressWarnings(METHODS_SHOULD_NOT_BE_EMPTY) // Empty methods are intentional for test purposes
+    public static class JournaledTests {
+        public void passes() {}
+        public void fails() {}
+        public void skipped() {}
+    }
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void onExecutionFinish_testsRun_recordsEveryOutcome() throws Exception {
+        Path journalFile = tempDir.resolve("timings.journal");
+        TimingJournalListener listener = new TimingJournalListener(journalFile, 16);
+
+        ITestResult passed = mockResult(JournaledTests.class.getMethod("passes"), 0, 0);
+        listener.onTestStart(passed);
+        listener.onTestSuccess(passed);
+        ITestResult failed = mockResult(JournaledTests.class.getMethod("fails"), 0, 0);
+        listener.onTestStart(failed);
+        listener.onTestFailure(failed);
+        listener.onTestSkipped(mockResult(JournaledTests.class.getMethod("skipped"), 1000, 1250));
+        listener.onExecutionFinish();
+
+        List<Entry> entries = TimingJournal.read(journalFile);
+        assertThat("Wrong number of records!", entries, hasSize(3));
+        assertAll(
+                () -> assertThat("Wrong test id!", entries.get(0).getTestId(),
+                        equalTo(TestIds.stableHash(JournaledTests.class.getName() + "#passes()"))),
+                () -> assertThat("Wrong outcome!", entries.get(0).getOutcome(), equalTo(Outcome.SUCCESS)),
+                () -> assertThat("Wrong outcome!", entries.get(1).getOutcome(), equalTo(Outcome.FAILURE)),
+                () -> assertThat("Started test should have a measured wall time!", entries.get(1).getWallNanos(), greaterThanOrEqualTo(0L)),
+                () -> assertThat("Wrong outcome!", entries.get(2).getOutcome(), equalTo(Outcome.SKIP)),
+                () -> assertThat("Test that never started should use the result's times!", entries.get(2).getWallNanos(),
+                        equalTo(TimeUnit.MILLISECONDS.toNanos(250))),
+                () -> assertThat("Test that never started should have an unknown CPU time!", entries.get(2).getCpuNanos(), equalTo(-1L)));
+    }
+
+    @Test
+    void onExecutionFinish_secondRun_appendsToJournal() throws Exception {
+        Path journalFile = tempDir.resolve("timings.journal");
+
+        for (int run = 0; run < 2; ++run) {
+            TimingJournalListener listener = new TimingJournalListener(journalFile, 16);
+            listener.onTestSuccess(mockResult(JournaledTests.class.getMethod("passes"), 0, 10));
+            listener.onExecutionFinish();
+        }
+
+        assertThat("Both runs should be recorded!", TimingJournal.read(journalFile), hasSize(2));
+    }
+
+    @Test
+    void onExecutionFinish_noTestsRun_doesNotCreateJournal() {
+        Path journalFile = tempDir.resolve("timings.journal");
+        new TimingJournalListener(journalFile, 16).onExecutionFinish();
+        assertFalse(Files.exists(journalFile), "The journal shouldn't be created if no tests ran!");
+    }
+
+    @Test
+    void getRowIndex_testNgResult_returnsParameterIndex() {
+        TestResult result = TestResult.newEmptyTestResult();
+        result.setParameterIndex(3);
+
+        assertThat("Wrong row index!", TimingJournalListener.getRowIndex(result), equalTo(3));
+    }
+
+    @Test
+    void getRowIndex_resultWithoutParameterIndex_returnsZero() throws Exception {
+        ITestResult result = mockResult(JournaledTests.class.getMethod("passes"), 0, 0);
+
+        assertThat("Results without a parameter index should be row 0!", TimingJournalListener.getRowIndex(result), equalTo(0));
+    }
+
+    /**
+     * Mocks the result of a test.
+     *
+     * @param method      The test method.
+     * @param startMillis The start time of the test.
+     * @param endMillis   The end time of the test.
+     * @return The mocked result.
+     */
+    private static ITestResult mockResult(Method method, long startMillis, long endMillis) {
+        ITestResult result = mock(ITestResult.class);
+        ITestNGMethod testNgMethod = mock(ITestNGMethod.class);
+
+        lenient().when(result.getMethod()).thenReturn(testNgMethod);
+        lenient().when(result.getStartMillis()).thenReturn(startMillis);
+        lenient().when(result.getEndMillis()).thenReturn(endMillis);
+        lenient().when(testNgMethod.getRealClass()).thenReturn((Class) JournaledTests.class);
+        lenient().when(testNgMethod.getConstructorOrMethod()).thenReturn(new ConstructorOrMethod(method));
+        return result;
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.cpjust.testng_annotations.listeners.scheduling;
+
+import io.github.cpjust.testng_annotations.listeners.scheduling.TimingJournal.Entry;
+import io.github.cpjust.testng_annotations.listeners.scheduling.TimingJournal.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class TimingJournalTest {
+    private static final int OUTCOME_OFFSET = 28;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void append_reopened_keepsExistingRecords() throws IOException {
+        Path journalFile = tempDir.resolve("timings.journal");
+
+        try (TimingJournal journal = TimingJournal.open(journalFile, 8)) {
+            journal.append(1, 0, 100, 50, Outcome.SUCCESS);
+            journal.append(2, 3, 200, -1, Outcome.FAILURE);
+        }
+
+        try (TimingJournal journal = TimingJournal.open(journalFile, 8)) {
+            journal.append(3, 0, 300, 10, Outcome.SKIP);
+            assertThat("Wrong records before closing!", journal.getEntries(), hasSize(3));
+        }
+
+        assertThat("Wrong records!", TimingJournal.read(journalFile), contains(
+                new Entry(1, 0, 100, 50, Outcome.SUCCESS),
+                new Entry(2, 3, 200, -1, Outcome.FAILURE),
+                new Entry(3, 0, 300, 10, Outcome.SKIP)));
+    }
+
+    @Test
+    void open_journalInUse_writesToForkFileAndReadMergesThem() throws IOException {
+        Path journalFile = tempDir.resolve("timings.journal");
+
+        try (TimingJournal first = TimingJournal.open(journalFile, 8); TimingJournal second = TimingJournal.open(journalFile, 8)) {
+            assertThat("The first journal should use the file!", first.getFile(), equalTo(journalFile));
+            assertThat("A journal in use should fall back to a fork file!", second.getFile(),
+                    equalTo(TimingJournal.getForkFile(journalFile, 1)));
+
+            first.append(1, 0, 100, 0, Outcome.SUCCESS);
+            second.append(2, 0, 200, 0, Outcome.FAILURE);
+            first.append(3, 0, 300, 0, Outcome.SUCCESS);
+        }
+
+        try (TimingJournal reopened = TimingJournal.open(journalFile, 8)) {
+            assertThat("A closed journal should be reused!", reopened.getFile(), equalTo(journalFile));
+        }
+
+        assertThat("The records of the journal should be followed by those of its fork files!", TimingJournal.read(journalFile), contains(
+                new Entry(1, 0, 100, 0, Outcome.SUCCESS),
+                new Entry(3, 0, 300, 0, Outcome.SUCCESS),
+                new Entry(2, 0, 200, 0, Outcome.FAILURE)));
+    }
+
+    @Test
+    void read_missingFile_returnsEmptyList() throws IOException {
+        assertThat("A missing journal should have no records!", TimingJournal.read(tempDir.resolve("missing.journal")), empty());
+    }
+
+    @Test
+    void open_notAJournal_throwsIOException() throws IOException {
+        Path journalFile = tempDir.resolve("timings.journal");
+        Files.writeString(journalFile, "this is not a timing journal");
+
+        IOException e = assertThrows(IOException.class, () -> TimingJournal.open(journalFile, 8));
+        assertThat("Wrong exception message!", e.getMessage(), equalTo(String.format("'%s' is not a timing journal!", journalFile)));
+    }
+
+    @Test
+    void open_invalidCapacity_throwsIllegalArgumentException() {
+        Path journalFile = tempDir.resolve("timings.journal");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> TimingJournal.open(journalFile, 0));
+        assertThat("Wrong exception message!", e.getMessage(), equalTo("The journal capacity must be at least 1, but was 0!"));
+    }
+
+    @Test
+    void append_full_compactsToLatestHistoryOfEachInvocation() throws IOException {
+        Path journalFile = tempDir.resolve("timings.journal");
+
+        try (TimingJournal journal = TimingJournal.open(journalFile, 8)) {
+            for (int run = 0; run < 10; ++run) {
+                journal.append(1, 0, run, 0, Outcome.SUCCESS);
+            }
+        }
+
+        List<Long> wallTimes = TimingJournal.read(journalFile).stream()
+                .map(Entry::getWallNanos)
+                .collect(Collectors.toList());
+        // Compacted to the last 4 of the first 8 records, then 2 more were appended.
+        assertThat("Wrong records after compaction!", wallTimes, contains(4L, 5L, 6L, 7L, 8L, 9L));
+    }
+
+    @Test
+    void compact_distinctRows_keepsEachRow() throws IOException {
+        Path journalFile = tempDir.resolve("timings.journal");
+
+        try (TimingJournal journal = TimingJournal.open(journalFile, 16)) {
+            for (int run = 0; run < 6; ++run) {
+                journal.append(1, 0, run, 0, Outcome.SUCCESS);
+                journal.append(1, 1, run, 0, Outcome.FAILURE);
+            }
+
+            journal.compact();
+            assertThat("Wrong number of records after compaction!", journal.getEntries(), hasSize(2 * TimingJournal.MAX_HISTORY));
+        }
+    }
+
+    @Test
+    void append_manyThreads_recordsEveryInvocation() throws Exception {
+        Path journalFile = tempDir.resolve("timings.journal");
+        int threads = 8;
+        int recordsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // A small capacity, so the journal is compacted and grown while the threads are appending.
+        try (TimingJournal journal = TimingJournal.open(journalFile, 16)) {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int thread = 0; thread < threads; ++thread) {
+                long testId = thread;
+                futures.add(executor.submit(() -> {
+                    for (int row = 0; row < recordsPerThread; ++row) {
+                        journal.append(testId, row, row, row, Outcome.SUCCESS);
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Set<List<Long>> invocations = TimingJournal.read(journalFile).stream()
+                .map(entry -> List.of(entry.getTestId(), (long) entry.getRowIndex(), entry.getWallNanos()))
+                .collect(Collectors.toSet());
+        assertThat("Every invocation should be recorded exactly once!", invocations, hasSize(threads * recordsPerThread));
+    }
+
+    @Test
+    void keepLatest_moreThanMaxHistory_keepsLatestInOrder() {
+        List<Entry> entries = List.of(
+                new Entry(1, 0, 1, 0, Outcome.SUCCESS),
+                new Entry(2, 0, 2, 0, Outcome.SUCCESS),
+                new Entry(1, 0, 3, 0, Outcome.FAILURE),
+                new Entry(1, 0, 4, 0, Outcome.SUCCESS));
+
+        assertThat("Wrong records kept!", TimingJournal.keepLatest(entries, 2), contains(entries.get(1), entries.get(2), entries.get(3)));
+    }
+
+    @Test
+    void append_compactionFails_dropsRecordsWithoutBlocking() throws Exception {
+        Path journalFile = tempDir.resolve("timings.journal");
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try (TimingJournal journal = TimingJournal.open(journalFile, 4)) {
+            journal.append(1, 0, 100, 0, Outcome.SUCCESS);
+            journal.append(2, 0, 200, 0, Outcome.SUCCESS);
+            journal.append(3, 0, 300, 0, Outcome.SUCCESS);
+            // An unknown outcome makes the compaction fail when it reads the records.
+            setOutcomeCode(journalFile, 1, (byte) 99);
+
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int thread = 0; thread < threads; ++thread) {
+                long testId = 10 + thread;
+                futures.add(executor.submit(() -> {
+                    journal.append(testId, 0, 1, 0, Outcome.SUCCESS);
+                    journal.append(testId, 1, 2, 0, Outcome.SUCCESS);
+                }));
+            }
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }, "The writers shouldn't wait forever for a failed compaction!");
+            assertTimeoutPreemptively(Duration.ofSeconds(5), journal::compact, "A failed journal shouldn't be compacted again!");
+
+            setOutcomeCode(journalFile, 1, Outcome.SUCCESS.getCode());
+            List<Entry> entries = journal.getEntries();
+            assertThat("The records that fit should be kept, and the others dropped!", entries, hasSize(4));
+            assertThat("The existing records should be kept!", entries.subList(0, 3), contains(
+                    new Entry(1, 0, 100, 0, Outcome.SUCCESS),
+                    new Entry(2, 0, 200, 0, Outcome.SUCCESS),
+                    new Entry(3, 0, 300, 0, Outcome.SUCCESS)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void compact_fails_keepsAppendingUntilFull() throws IOException {
+        Path journalFile = tempDir.resolve("timings.journal");
+
+        try (TimingJournal journal = TimingJournal.open(journalFile, 4)) {
+            journal.append(1, 0, 100, 0, Outcome.SUCCESS);
+            setOutcomeCode(journalFile, 0, (byte) 99);
+
+            journal.compact();
+            journal.append(2, 0, 200, 0, Outcome.SUCCESS);
+            journal.append(3, 0, 300, 0, Outcome.SUCCESS);
+            journal.append(4, 0, 400, 0, Outcome.SUCCESS);
+            journal.append(5, 0, 500, 0, Outcome.SUCCESS);
+
+            setOutcomeCode(journalFile, 0, Outcome.SUCCESS.getCode());
+            assertThat("The records should be appended after the failed compaction until the journal is full!",
+                    journal.getEntries().stream().map(Entry::getTestId).collect(Collectors.toList()), contains(1L, 2L, 3L, 4L));
+        }
+    }
+
+    /**
+     * Overwrites the outcome of a record through a separate mapping of the journal file, ex. to corrupt it.
+     *
+     * @param journalFile The journal file.
+     * @param record      The index of the record.
+     * @param code        The outcome code to write.
+     * @throws IOException If the file can't be mapped.
+     */
+    private static void setOutcomeCode(Path journalFile, int record, byte code) throws IOException {
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int offset = TimingJournal.HEADER_SIZE + (record * TimingJournal.RECORD_SIZE) + OUTCOME_OFFSET;
+            channel.map(FileChannel.MapMode.READ_WRITE, offset, 1).put(0, code);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.cpjust.testng_annotations.processors;
+
+import io.github.cpjust.testng_annotations.listeners.ClassWithIncludeOnEnvIT;
+import io.github.cpjust.testng_annotations.listeners.EnvFilterInterceptorIT;
+import io.github.cpjust.testng_annotations.listeners.IncludeOnEnvIT;
+import io.github.cpjust.testng_annotations.processors.EnvAnnotationIndex.Entry;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Checks the index that the EnvAnnotationProcessor wrote for the integration tests at build time, which the env listeners
+ * of the other ITs use instead of reading their annotations by reflection.
+ */
+public class EnvAnnotationIndexIT {
+    private static final String INCLUDE_ON_ENV = "IncludeOnEnv";
+    private static final String EXCLUDE_ON_ENV = "ExcludeOnEnv";
+
+    private EnvAnnotationIndex index;
+
+    @BeforeClass
+    public void loadIndex() throws IOException {
+        index = EnvAnnotationIndex.load(Thread.currentThread().getContextClassLoader());
+    }
+
+    @Test
+    public void covers_integrationTestClasses_returnsTrue() throws NoSuchMethodException {
+        assertTrue(index.covers(IncludeOnEnvIT.class), "The ITs should be compiled with the processor!");
+        assertTrue(index.covers(IncludeOnEnvIT.class.getMethod("testWithNoIncludeOnEnv_isRun")),
+                "The methods of the ITs should be covered by the index!");
+        assertTrue(index.covers(EnvAnnotationIndexIT.class), "Classes without env annotations should also be covered!");
+    }
+
+    @Test
+    public void covers_libraryClass_returnsFalse() {
+        assertFalse(index.covers(EnvAnnotationIndex.class), "Classes that weren't compiled with the processor shouldn't be covered!");
+    }
+
+    @Test
+    public void getEntry_annotatedClass_returnsSplitEnvs() {
+        Optional<Entry> entry = index.getEntry(INCLUDE_ON_ENV, ClassWithIncludeOnEnvIT.class);
+
+        assertTrue(entry.isPresent(), "The class annotation should be indexed!");
+        assertThat("Wrong property name!", entry.get().getPropertyName(), equalTo("env"));
+        assertThat("Wrong environments!", entry.get().getEnvs(), arrayContaining("unmatchEnv"));
+    }
+
+    @Test
+    public void getEntry_methodWithCustomPropertyName_returnsPropertyName() throws NoSuchMethodException {
+        Method method = IncludeOnEnvIT.class.getMethod("testWithIncludedEnv_customPropertyName_isRun");
+        Optional<Entry> entry = index.getEntry(INCLUDE_ON_ENV, method);
+
+        assertTrue(entry.isPresent(), "The method annotation should be indexed!");
+        assertThat("Wrong property name!", entry.get().getPropertyName(), equalTo("environment"));
+        assertThat("Wrong environments!", entry.get().getEnvs(), arrayContaining("matchEnvironment"));
+    }
+
+    @Test
+    public void getEntry_methodWithoutAnnotation_returnsEmpty() throws NoSuchMethodException {
+        Method method = IncludeOnEnvIT.class.getMethod("testWithNoIncludeOnEnv_isRun");
+        assertFalse(index.getEntry(INCLUDE_ON_ENV, method).isPresent(), "Methods without the annotation shouldn't be indexed!");
+    }
+
+    @Test
+    public void getExpression_methodWithExpression_returnsExpression() throws NoSuchMethodException {
+        Method method = EnvFilterInterceptorIT.class.getMethod("testWithExcludedExpression_isNotRun");
+
+        assertThat("Wrong expression!", index.getExpression(EXCLUDE_ON_ENV, method),
+                equalTo(Optional.of("env == matchEnv || environment == matchEnvironment")));
+    }
+}
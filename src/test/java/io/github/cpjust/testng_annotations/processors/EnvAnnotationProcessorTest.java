@@ -0,0 +1,157 @@
+package io.github.cpjust.testng_annotations.processors;
+
+import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class EnvAnnotationProcessorTest {
+    private static final String PACKAGE_NAME = "processed";
+
+    private static final String VALID_SOURCE = String.join("\n",
+            "package processed;",
+            "import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;",
+            "import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;",
+            "@IncludeOnEnv(value = \"dev, qa\", delimiter = \",\")",
+            "public class Valid {",
+            "    @ExcludeOnEnv(value = \"prod\", propertyName = \"environment\")",
+            "    public void excluded(String[] values, int count) {}",
+            "    public void excluded() {}",
+            "    @IncludeOnEnv(expression = \"env == qa && region != eu-west-1\")",
+            "    public void expression() {}",
+            "    public static class Nested {}",
+            "}");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void process_validAnnotations_writesIndex() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> errors = compile("Valid", VALID_SOURCE);
+        assertThat("Valid annotations shouldn't cause compile errors!", errors, empty());
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { tempDir.toUri().toURL() }, getClass().getClassLoader())) {
+            EnvAnnotationIndex index = EnvAnnotationIndex.load(classLoader);
+            Class<?> validClass = classLoader.loadClass(PACKAGE_NAME + ".Valid");
+            Class<?> nestedClass = classLoader.loadClass(PACKAGE_NAME + ".Valid$Nested");
+
+            assertThat("Index should cover the compiled class!", index.covers(validClass), is(true));
+            assertThat("Index should cover the nested class!", index.covers(nestedClass), is(true));
+            assertThat("Index shouldn't cover classes that weren't compiled with the processor!", index.covers(String.class), is(false));
+
+            Optional<EnvAnnotationIndex.Entry> classEntry = index.getEntry("IncludeOnEnv", validClass);
+            assertThat("Class-level IncludeOnEnv should be indexed!", classEntry.isPresent(), is(true));
+            assertThat("Wrong property name indexed!", classEntry.get().getPropertyName(), equalTo("env"));
+            assertThat("Envs should be split and trimmed in the index!", classEntry.get().getEnvs(), arrayContaining("dev", "qa"));
+
+            Optional<EnvAnnotationIndex.Entry> methodEntry = index.getEntry("ExcludeOnEnv",
+                    validClass.getMethod("excluded", String[].class, int.class));
+            assertThat("Method-level ExcludeOnEnv should be indexed!", methodEntry.isPresent(), is(true));
+            assertThat("Wrong property name indexed!", methodEntry.get().getPropertyName(), equalTo("environment"));
+            assertThat("Wrong envs indexed!", methodEntry.get().getEnvs(), arrayContaining("prod"));
+
+            Method expressionMethod = validClass.getMethod("expression");
+            assertThat("Expression should be indexed!", index.getExpression("IncludeOnEnv", expressionMethod),
+                    equalTo(Optional.of("env == qa && region != eu-west-1")));
+            assertThat("Expression shouldn't be indexed as a value!", index.getEntry("IncludeOnEnv", expressionMethod).isPresent(), is(false));
+
+            assertThat("Overloaded method without the annotation shouldn't be indexed!",
+                    index.getEntry("ExcludeOnEnv", validClass.getMethod("excluded")).isPresent(), is(false));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "@IncludeOnEnv(value = \"dev\", propertyName = \" \")|The 'propertyName' parameter of the IncludeOnEnv annotation cannot be blank!",
+            "@ExcludeOnEnv({})|The 'value' parameter of the ExcludeOnEnv annotation cannot be an empty array!",
+            "@ExcludeOnEnv(value = \"dev,,prod\", delimiter = \",\")|The 'value' parameter of the ExcludeOnEnv annotation cannot contain blank elements!",
+            "@IncludeOnEnv(value = \"dev\", expression = \"env == dev\")|The 'value' and 'expression' parameters of the IncludeOnEnv annotation cannot both be set!",
+            "@ExcludeOnEnv(expression = \"env in dev\")|The 'expression' parameter of the ExcludeOnEnv annotation is invalid: Expected '(' at position 7 of 'env in dev'!"
+    })
+    void process_invalidAnnotation_reportsCompileError(String annotation, String expectedMessage) throws IOException, URISyntaxException {
+        String source = String.join("\n",
+                "package processed;",
+                "import io.github.cpjust.testng_annotations.annotations.ExcludeOnEnv;",
+                "import io.github.cpjust.testng_annotations.annotations.IncludeOnEnv;",
+                "public class Invalid {",
+                "    " + annotation,
+                "    public void test() {}",
+                "}");
+
+        List<Diagnostic<? extends JavaFileObject>> errors = compile("Invalid", source);
+
+        assertThat("Invalid annotation should cause exactly one compile error!", errors, hasSize(1));
+        assertThat("Wrong compile error message!", errors.get(0).getMessage(null), containsString(expectedMessage));
+    }
+
+    @Test
+    void load_indexDisabled_returnsEmptyIndex() throws Exception {
+        assertThat("Valid annotations shouldn't cause compile errors!", compile("Valid", VALID_SOURCE), empty());
+        System.setProperty(EnvAnnotationIndex.USE_INDEX_PROPERTY, "false");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { tempDir.toUri().toURL() }, getClass().getClassLoader())) {
+            EnvAnnotationIndex index = EnvAnnotationIndex.load(classLoader);
+            assertThat("Disabled index shouldn't cover any class!",
+                    index.covers(classLoader.loadClass(PACKAGE_NAME + ".Valid")), is(false));
+        } finally {
+            System.clearProperty(EnvAnnotationIndex.USE_INDEX_PROPERTY);
+        }
+    }
+
+    /**
+     * Compiles a single source file into the temp directory with the EnvAnnotationProcessor.
+     *
+     * @param className The simple class name.
+     * @param source    The Java source code.
+     * @return The compile errors.
+     * @throws IOException        If the source can't be written.
+     * @throws URISyntaxException If the location of the annotation classes can't be found.
+     */
+    private List<Diagnostic<? extends JavaFileObject>> compile(String className, String source) throws IOException, URISyntaxException {
+        Path sourceFile = tempDir.resolve(className + ".java");
+        Files.writeString(sourceFile, source);
+
+        String annotationsClassPath = Paths.get(IncludeOnEnv.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    List.of("-classpath", annotationsClassPath, "-d", tempDir.toString()),
+                    null, fileManager.getJavaFileObjects(sourceFile));
+            task.setProcessors(List.of(new EnvAnnotationProcessor()));
+            task.call();
+        }
+
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .collect(Collectors.toList());
+    }
+}